@@ -59,6 +59,15 @@ public final class IronDisciplineAPI {
         return getService(IKillLogProvider.class);
     }
 
+    /**
+     * 戦闘統計プロバイダを取得します。
+     *
+     * @return ICombatStatsProvider、Core が未ロードの場合は null
+     */
+    public static ICombatStatsProvider getCombatStatsProvider() {
+        return getService(ICombatStatsProvider.class);
+    }
+
     /**
      * ストレージプロバイダを取得します。
      *
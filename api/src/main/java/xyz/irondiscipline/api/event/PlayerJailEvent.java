@@ -21,6 +21,7 @@ public class PlayerJailEvent extends Event implements Cancellable {
     private final Player player;
     private final String reason;
     private final UUID jailedBy;
+    private final long expiresAt;
     private boolean cancelled = false;
 
     /**
@@ -29,10 +30,21 @@ public class PlayerJailEvent extends Event implements Cancellable {
      * @param jailedBy 隔離実施者の UUID（システムの場合は null）
      */
     public PlayerJailEvent(Player player, String reason, UUID jailedBy) {
+        this(player, reason, jailedBy, 0);
+    }
+
+    /**
+     * @param player 隔離されるプレイヤー
+     * @param reason 隔離理由
+     * @param jailedBy 隔離実施者の UUID（システムの場合は null）
+     * @param expiresAt 刑期の満了時刻（Unix ミリ秒、無期限の場合は 0）
+     */
+    public PlayerJailEvent(Player player, String reason, UUID jailedBy, long expiresAt) {
         super(false);
         this.player = player;
         this.reason = reason;
         this.jailedBy = jailedBy;
+        this.expiresAt = expiresAt;
     }
 
     /** 隔離されるプレイヤー */
@@ -50,6 +62,16 @@ public class PlayerJailEvent extends Event implements Cancellable {
         return jailedBy;
     }
 
+    /** 刑期の満了時刻（Unix ミリ秒、無期限の場合は 0）。満了すると自動的に釈放されます */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /** 無期限の隔離かどうか */
+    public boolean isIndefinite() {
+        return expiresAt <= 0;
+    }
+
     @Override
     public boolean isCancelled() {
         return cancelled;
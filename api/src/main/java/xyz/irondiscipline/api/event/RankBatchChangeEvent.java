@@ -0,0 +1,81 @@
+package xyz.irondiscipline.api.event;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import xyz.irondiscipline.api.rank.IRank;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 複数プレイヤーの階級が一括で変更された際に 1 回だけ発火するイベント。
+ * <p>
+ * {@code IRankProvider#setRanks} や LuckPerms からの移行など、一括操作で保存された
+ * 全プレイヤー分の変更前・変更後の階級を持ちます。一括操作ではプレイヤーごとの
+ * {@link RankChangeEvent} / {@link RankCacheInvalidateEvent} は発火しないため、
+ * 階級をキャッシュしているアドオンはこのイベントで更新してください。
+ * </p>
+ *
+ * <h3>リスナー例</h3>
+ * <pre>{@code
+ * @EventHandler
+ * public void onRankBatchChange(RankBatchChangeEvent event) {
+ *     event.getNewRanks().forEach(myCache::put);
+ * }
+ * }</pre>
+ */
+public class RankBatchChangeEvent extends Event {
+
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final Map<UUID, IRank> oldRanks;
+    private final Map<UUID, IRank> newRanks;
+    private final RankChangeEvent.Cause cause;
+
+    /**
+     * @param oldRanks 変更前の階級 (保存された全プレイヤー分)
+     * @param newRanks 変更後の階級 (保存された全プレイヤー分)
+     * @param cause 変更原因
+     */
+    public RankBatchChangeEvent(Map<UUID, IRank> oldRanks, Map<UUID, IRank> newRanks, RankChangeEvent.Cause cause) {
+        super(true); // async = true (DB操作後に呼ばれるため)
+        this.oldRanks = Map.copyOf(oldRanks);
+        this.newRanks = Map.copyOf(newRanks);
+        this.cause = cause;
+    }
+
+    /** 変更前の階級 (不変) */
+    public Map<UUID, IRank> getOldRanks() {
+        return oldRanks;
+    }
+
+    /** 変更後の階級 (不変) */
+    public Map<UUID, IRank> getNewRanks() {
+        return newRanks;
+    }
+
+    /** 階級が保存されたプレイヤー */
+    public Set<UUID> getPlayerIds() {
+        return newRanks.keySet();
+    }
+
+    /** 保存された人数 */
+    public int size() {
+        return newRanks.size();
+    }
+
+    /** 変更原因 */
+    public RankChangeEvent.Cause getCause() {
+        return cause;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+}
@@ -0,0 +1,84 @@
+package xyz.irondiscipline.api.event;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import xyz.irondiscipline.api.rank.IRank;
+
+import java.util.UUID;
+
+/**
+ * Core の階級キャッシュのエントリが更新・破棄された際に発火するイベント。
+ * <p>
+ * オフラインプレイヤーを含め、{@code setRankByUUID} などで階級が書き換わった場合や、
+ * キャッシュが明示的に無効化された場合に発火します。
+ * アドオンが独自に階級をキャッシュしている場合は、このイベントで該当プレイヤーの
+ * エントリを更新・破棄してください ({@link RankChangeEvent} はオンラインプレイヤーのみ)。
+ * </p>
+ *
+ * <h3>リスナー例</h3>
+ * <pre>{@code
+ * @EventHandler
+ * public void onRankCacheInvalidate(RankCacheInvalidateEvent event) {
+ *     if (event.getNewRank() != null) {
+ *         myCache.put(event.getPlayerId(), event.getNewRank());
+ *     } else {
+ *         myCache.remove(event.getPlayerId());
+ *     }
+ * }
+ * }</pre>
+ */
+public class RankCacheInvalidateEvent extends Event {
+
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final UUID playerId;
+    private final IRank newRank;
+    private final Reason reason;
+
+    /**
+     * @param playerId 対象プレイヤーの UUID
+     * @param newRank 新しい階級 (破棄の場合は null)
+     * @param reason 発火理由
+     * @param async 非同期スレッドから発火する場合は true
+     */
+    public RankCacheInvalidateEvent(UUID playerId, IRank newRank, Reason reason, boolean async) {
+        super(async);
+        this.playerId = playerId;
+        this.newRank = newRank;
+        this.reason = reason;
+    }
+
+    /** 対象プレイヤーの UUID */
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    /** 新しい階級 ({@link Reason#INVALIDATED} の場合は null) */
+    public IRank getNewRank() {
+        return newRank;
+    }
+
+    /** 発火理由 */
+    public Reason getReason() {
+        return reason;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+
+    /**
+     * 発火理由
+     */
+    public enum Reason {
+        /** 階級が書き換えられた (新しい階級あり) */
+        UPDATED,
+        /** キャッシュが破棄された (次回参照時に DB から読み直す) */
+        INVALIDATED
+    }
+}
@@ -0,0 +1,47 @@
+package xyz.irondiscipline.api.model;
+
+import java.util.UUID;
+
+/**
+ * プレイヤーの累計戦闘統計。
+ * <p>
+ * キルログの書き込みと同時に更新される集計値です。
+ * キルログの保存期間 (retention) による削除の影響を受けず、累計を保持します。
+ * </p>
+ */
+public class CombatStats {
+
+    private final UUID playerId;
+    private final String playerName;
+    private final long kills;
+    private final long deaths;
+    private final double maxDistance;
+    private final long lastKill;
+
+    public CombatStats(UUID playerId, String playerName, long kills, long deaths,
+                       double maxDistance, long lastKill) {
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.kills = kills;
+        this.deaths = deaths;
+        this.maxDistance = maxDistance;
+        this.lastKill = lastKill;
+    }
+
+    public UUID getPlayerId() { return playerId; }
+    /** 最後に記録された名前 (不明な場合は null) */
+    public String getPlayerName() { return playerName; }
+    public long getKills() { return kills; }
+    public long getDeaths() { return deaths; }
+    /** 最長キル距離 */
+    public double getMaxDistance() { return maxDistance; }
+    /** 最後にキルした時刻 (ms、キルなしは 0) */
+    public long getLastKill() { return lastKill; }
+
+    /**
+     * K/D 比 (デス 0 の場合はキル数)
+     */
+    public double getKdRatio() {
+        return deaths == 0 ? kills : (double) kills / deaths;
+    }
+}
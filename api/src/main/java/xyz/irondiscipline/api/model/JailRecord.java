@@ -18,10 +18,22 @@ public class JailRecord {
     private final String originalLocation;
     private final String inventoryBackup;
     private final String armorBackup;
+    private final String cell;
+    private final long expiresAt;
 
     public JailRecord(UUID playerId, String playerName, String reason, long jailedAt,
                       UUID jailedBy, String originalLocation,
                       String inventoryBackup, String armorBackup) {
+        this(playerId, playerName, reason, jailedAt, jailedBy, originalLocation, inventoryBackup, armorBackup, null, 0);
+    }
+
+    /**
+     * @param cell 割り当てられた隔離房の名前 (未割り当てなら null)
+     * @param expiresAt 刑期の満了時刻 (Unix ミリ秒、無期限なら 0)
+     */
+    public JailRecord(UUID playerId, String playerName, String reason, long jailedAt,
+                      UUID jailedBy, String originalLocation,
+                      String inventoryBackup, String armorBackup, String cell, long expiresAt) {
         this.playerId = playerId;
         this.playerName = playerName;
         this.reason = reason;
@@ -30,6 +42,8 @@ public class JailRecord {
         this.originalLocation = originalLocation;
         this.inventoryBackup = inventoryBackup;
         this.armorBackup = armorBackup;
+        this.cell = cell;
+        this.expiresAt = expiresAt;
     }
 
     public UUID getPlayerId() { return playerId; }
@@ -40,4 +54,10 @@ public class JailRecord {
     public String getOriginalLocation() { return originalLocation; }
     public String getInventoryBackup() { return inventoryBackup; }
     public String getArmorBackup() { return armorBackup; }
+    /** 割り当てられた隔離房の名前 (オフラインで隔離され、まだ参加していない場合などは null) */
+    public String getCell() { return cell; }
+    /** 刑期の満了時刻 (Unix ミリ秒、無期限なら 0) */
+    public long getExpiresAt() { return expiresAt; }
+    /** 刑期が満了しているかどうか (無期限なら常に false) */
+    public boolean isExpired(long now) { return expiresAt > 0 && expiresAt <= now; }
 }
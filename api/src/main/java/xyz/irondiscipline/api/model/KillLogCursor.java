@@ -0,0 +1,73 @@
+package xyz.irondiscipline.api.model;
+
+import java.util.Objects;
+
+/**
+ * キルログのページ位置。
+ * <p>
+ * ページの最後の行の {@code (timestamp, id)} を保持し、次のページは
+ * この位置より古い行から始まります (キーセットページング)。
+ * OFFSET を使わないため、深い履歴でも取得コストは一定です。
+ * </p>
+ *
+ * <p>{@link #toString()} の文字列は {@link #parse(String)} で復元できるため、
+ * Web ダッシュボード等でページトークンとして受け渡せます。</p>
+ */
+public final class KillLogCursor {
+
+    private final long timestamp;
+    private final long id;
+
+    public KillLogCursor(long timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    /** 指定ログの直後 (より古い側) を指すカーソル */
+    public static KillLogCursor after(KillLog log) {
+        return new KillLogCursor(log.getTimestamp(), log.getId());
+    }
+
+    /**
+     * {@link #toString()} 形式の文字列から復元します。
+     *
+     * @throws IllegalArgumentException 形式が不正な場合
+     */
+    public static KillLogCursor parse(String token) {
+        int sep = token != null ? token.indexOf(':') : -1;
+        if (sep <= 0) {
+            throw new IllegalArgumentException("Invalid kill log cursor: " + token);
+        }
+        try {
+            return new KillLogCursor(Long.parseLong(token.substring(0, sep)), Long.parseLong(token.substring(sep + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid kill log cursor: " + token, e);
+        }
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public long getId() { return id; }
+
+    /** ログがこの位置より古い側 (次のページ) にあるか */
+    public boolean isBefore(KillLog log) {
+        return log.getTimestamp() < timestamp || (log.getTimestamp() == timestamp && log.getId() < id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KillLogCursor)) return false;
+        KillLogCursor that = (KillLogCursor) o;
+        return timestamp == that.timestamp && id == that.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, id);
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + ":" + id;
+    }
+}
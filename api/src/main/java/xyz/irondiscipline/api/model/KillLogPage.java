@@ -0,0 +1,31 @@
+package xyz.irondiscipline.api.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * キルログ検索結果の 1 ページ。
+ * <p>
+ * ログは新しい順に並びます。続きがある場合は {@link #getNextCursor()} を
+ * {@link KillLogQuery.Builder#after(KillLogCursor)} に渡して次のページを取得します。
+ * </p>
+ */
+public class KillLogPage {
+
+    private final List<KillLog> logs;
+    private final KillLogCursor nextCursor;
+
+    public KillLogPage(List<KillLog> logs, KillLogCursor nextCursor) {
+        this.logs = Collections.unmodifiableList(logs);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<KillLog> getLogs() { return logs; }
+
+    /** 次のページのカーソル (最終ページなら null) */
+    public KillLogCursor getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return nextCursor != null; }
+
+    public boolean isEmpty() { return logs.isEmpty(); }
+}
@@ -0,0 +1,144 @@
+package xyz.irondiscipline.api.model;
+
+import java.util.UUID;
+
+/**
+ * キルログの検索条件。
+ * <p>
+ * 全ての条件は AND で結合されます。未指定の条件は絞り込みに使われません。
+ * {@link Builder} パターンで構築します。
+ * </p>
+ *
+ * <pre>{@code
+ * KillLogQuery query = KillLogQuery.builder()
+ *         .player(playerId)
+ *         .since(System.currentTimeMillis() - 86_400_000L)
+ *         .limit(20)
+ *         .build();
+ * }</pre>
+ */
+public class KillLogQuery {
+
+    /** 1 ページの最大件数 */
+    public static final int MAX_LIMIT = 1000;
+    /** 1 ページの既定件数 */
+    public static final int DEFAULT_LIMIT = 50;
+
+    private final UUID playerId;
+    private final UUID killerId;
+    private final UUID victimId;
+    private final String world;
+    private final String weapon;
+    private final long since;
+    private final long until;
+    private final KillLogCursor after;
+    private final int limit;
+
+    private KillLogQuery(Builder builder) {
+        this.playerId = builder.playerId;
+        this.killerId = builder.killerId;
+        this.victimId = builder.victimId;
+        this.world = builder.world;
+        this.weapon = builder.weapon;
+        this.since = builder.since;
+        this.until = builder.until;
+        this.after = builder.after;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** 条件はそのままに、開始位置だけを変えたクエリ */
+    public KillLogQuery withCursor(KillLogCursor cursor) {
+        return toBuilder().after(cursor).build();
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+                .player(playerId)
+                .killer(killerId)
+                .victim(victimId)
+                .world(world)
+                .weapon(weapon)
+                .since(since)
+                .until(until)
+                .after(after)
+                .limit(limit);
+    }
+
+    /** killer または victim として関与したプレイヤー (null なら指定なし) */
+    public UUID getPlayerId() { return playerId; }
+    public UUID getKillerId() { return killerId; }
+    public UUID getVictimId() { return victimId; }
+    public String getWorld() { return world; }
+    public String getWeapon() { return weapon; }
+    /** この時刻 (ms) 以降 (0 なら指定なし) */
+    public long getSince() { return since; }
+    /** この時刻 (ms) より前 (0 なら指定なし) */
+    public long getUntil() { return until; }
+    /** 開始位置 (null なら最新から) */
+    public KillLogCursor getAfter() { return after; }
+    public int getLimit() { return limit; }
+
+    /**
+     * ログがこの条件 (開始位置を含む) に一致するか。
+     * DB を使わずに絞り込む場合 (プロバイダの既定実装など) に使います。
+     */
+    public boolean matches(KillLog log) {
+        if (playerId != null && !playerId.equals(log.getKillerId()) && !playerId.equals(log.getVictimId())) {
+            return false;
+        }
+        if (killerId != null && !killerId.equals(log.getKillerId())) {
+            return false;
+        }
+        if (victimId != null && !victimId.equals(log.getVictimId())) {
+            return false;
+        }
+        if (world != null && !world.equals(log.getWorld())) {
+            return false;
+        }
+        if (weapon != null && !weapon.equals(log.getWeapon())) {
+            return false;
+        }
+        if (since > 0 && log.getTimestamp() < since) {
+            return false;
+        }
+        if (until > 0 && log.getTimestamp() >= until) {
+            return false;
+        }
+        return after == null || after.isBefore(log);
+    }
+
+    public static class Builder {
+        private UUID playerId;
+        private UUID killerId;
+        private UUID victimId;
+        private String world;
+        private String weapon;
+        private long since;
+        private long until;
+        private KillLogCursor after;
+        private int limit = DEFAULT_LIMIT;
+
+        public Builder player(UUID playerId) { this.playerId = playerId; return this; }
+        public Builder killer(UUID killerId) { this.killerId = killerId; return this; }
+        public Builder victim(UUID victimId) { this.victimId = victimId; return this; }
+        public Builder world(String world) { this.world = world; return this; }
+        public Builder weapon(String weapon) { this.weapon = weapon; return this; }
+        public Builder since(long since) { this.since = since; return this; }
+        public Builder until(long until) { this.until = until; return this; }
+        public Builder after(KillLogCursor after) { this.after = after; return this; }
+
+        /** 1 ページの件数 (1 ～ {@link #MAX_LIMIT} に丸められます) */
+        public Builder limit(int limit) {
+            this.limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+            return this;
+        }
+
+        public KillLogQuery build() {
+            return new KillLogQuery(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package xyz.irondiscipline.api.model;
+
+import java.util.Objects;
+
+/**
+ * 階級履歴のページ位置。
+ * <p>
+ * ページの最後の行の {@code (changedAt, id)} を保持し、次のページは
+ * この位置より古い行から始まります (キーセットページング)。
+ * {@link #toString()} の文字列は {@link #parse(String)} で復元できます。
+ * </p>
+ */
+public final class RankHistoryCursor {
+
+    private final long changedAt;
+    private final long id;
+
+    public RankHistoryCursor(long changedAt, long id) {
+        this.changedAt = changedAt;
+        this.id = id;
+    }
+
+    /** 指定履歴の直後 (より古い側) を指すカーソル */
+    public static RankHistoryCursor after(RankHistoryEntry entry) {
+        return new RankHistoryCursor(entry.getChangedAt(), entry.getId());
+    }
+
+    /**
+     * {@link #toString()} 形式の文字列から復元します。
+     *
+     * @throws IllegalArgumentException 形式が不正な場合
+     */
+    public static RankHistoryCursor parse(String token) {
+        int sep = token != null ? token.indexOf(':') : -1;
+        if (sep <= 0) {
+            throw new IllegalArgumentException("Invalid rank history cursor: " + token);
+        }
+        try {
+            return new RankHistoryCursor(Long.parseLong(token.substring(0, sep)), Long.parseLong(token.substring(sep + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rank history cursor: " + token, e);
+        }
+    }
+
+    public long getChangedAt() { return changedAt; }
+    public long getId() { return id; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RankHistoryCursor)) return false;
+        RankHistoryCursor that = (RankHistoryCursor) o;
+        return changedAt == that.changedAt && id == that.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(changedAt, id);
+    }
+
+    @Override
+    public String toString() {
+        return changedAt + ":" + id;
+    }
+}
@@ -0,0 +1,51 @@
+package xyz.irondiscipline.api.model;
+
+import xyz.irondiscipline.api.event.RankChangeEvent;
+import xyz.irondiscipline.api.rank.IRank;
+import xyz.irondiscipline.api.rank.RankRegistry;
+
+import java.util.UUID;
+
+/**
+ * 階級履歴の 1 件。
+ * <p>
+ * 階級の保存と同じトランザクションで追記される不変オブジェクトです。
+ * 階級は ID で保持するため、登録解除されたカスタム階級の履歴も残ります。
+ * </p>
+ */
+public class RankHistoryEntry {
+
+    private final long id;
+    private final UUID playerId;
+    private final String oldRankId;
+    private final String newRankId;
+    private final RankChangeEvent.Cause cause;
+    private final UUID actorId;
+    private final long changedAt;
+
+    public RankHistoryEntry(long id, UUID playerId, String oldRankId, String newRankId,
+                            RankChangeEvent.Cause cause, UUID actorId, long changedAt) {
+        this.id = id;
+        this.playerId = playerId;
+        this.oldRankId = oldRankId;
+        this.newRankId = newRankId;
+        this.cause = cause;
+        this.actorId = actorId;
+        this.changedAt = changedAt;
+    }
+
+    public long getId() { return id; }
+    public UUID getPlayerId() { return playerId; }
+    /** 変更前の階級 ID (記録開始時の初期値なら null) */
+    public String getOldRankId() { return oldRankId; }
+    public String getNewRankId() { return newRankId; }
+    public RankChangeEvent.Cause getCause() { return cause; }
+    /** 変更した管理者・プレイヤー (自動昇進・コンソール等は null) */
+    public UUID getActorId() { return actorId; }
+    public long getChangedAt() { return changedAt; }
+
+    /** 変更後の階級 (未登録の ID ならデフォルト階級) */
+    public IRank getNewRank() {
+        return RankRegistry.fromId(newRankId);
+    }
+}
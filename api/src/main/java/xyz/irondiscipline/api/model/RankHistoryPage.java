@@ -0,0 +1,31 @@
+package xyz.irondiscipline.api.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 階級履歴の 1 ページ。
+ * <p>
+ * 履歴は新しい順に並びます。続きがある場合は {@link #getNextCursor()} を
+ * {@code IRankProvider#getRankHistory} に渡して次のページを取得します。
+ * </p>
+ */
+public class RankHistoryPage {
+
+    private final List<RankHistoryEntry> entries;
+    private final RankHistoryCursor nextCursor;
+
+    public RankHistoryPage(List<RankHistoryEntry> entries, RankHistoryCursor nextCursor) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<RankHistoryEntry> getEntries() { return entries; }
+
+    /** 次のページのカーソル (最終ページなら null) */
+    public RankHistoryCursor getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return nextCursor != null; }
+
+    public boolean isEmpty() { return entries.isEmpty(); }
+}
@@ -0,0 +1,24 @@
+package xyz.irondiscipline.api.model;
+
+/**
+ * 武器ごとの累計キル統計。
+ */
+public class WeaponStats {
+
+    private final String weapon;
+    private final long kills;
+    private final double maxDistance;
+    private final long lastKill;
+
+    public WeaponStats(String weapon, long kills, double maxDistance, long lastKill) {
+        this.weapon = weapon;
+        this.kills = kills;
+        this.maxDistance = maxDistance;
+        this.lastKill = lastKill;
+    }
+
+    public String getWeapon() { return weapon; }
+    public long getKills() { return kills; }
+    public double getMaxDistance() { return maxDistance; }
+    public long getLastKill() { return lastKill; }
+}
@@ -0,0 +1,66 @@
+package xyz.irondiscipline.api.provider;
+
+import xyz.irondiscipline.api.model.CombatStats;
+import xyz.irondiscipline.api.model.WeaponStats;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 戦闘統計プロバイダ。
+ * <p>
+ * キル数・デス数・最長キル距離などの累計値を提供します。
+ * 値はキルログの書き込みと同じトランザクションで更新される集計テーブルから読むため、
+ * ランキングの取得コストはキルログの件数ではなくプレイヤー数に比例します。
+ * Core の {@code StorageManager} がこのインターフェースを実装します。
+ * </p>
+ */
+public interface ICombatStatsProvider {
+
+    /**
+     * ランキングの並び順
+     */
+    enum Ranking {
+        /** キル数の多い順 */
+        KILLS,
+        /** デス数の多い順 */
+        DEATHS,
+        /** 最長キル距離の長い順 */
+        LONGEST_SHOT
+    }
+
+    /**
+     * プレイヤーの戦闘統計を取得します。
+     *
+     * @param playerId プレイヤー UUID
+     * @return 統計の CompletableFuture (記録がない場合は全て 0 の統計)
+     */
+    CompletableFuture<CombatStats> getCombatStatsAsync(UUID playerId);
+
+    /**
+     * 上位プレイヤーを取得します。
+     *
+     * @param ranking 並び順
+     * @param limit   最大取得件数
+     * @return 統計リストの CompletableFuture
+     */
+    CompletableFuture<List<CombatStats>> getTopPlayersAsync(Ranking ranking, int limit);
+
+    /**
+     * K/D 比の上位プレイヤーを取得します。
+     *
+     * @param minKills 対象とする最小キル数 (少数キルで比が高くなるのを除外)
+     * @param limit    最大取得件数
+     * @return 統計リストの CompletableFuture
+     */
+    CompletableFuture<List<CombatStats>> getTopKdRatioAsync(int minKills, int limit);
+
+    /**
+     * キル数の多い武器を取得します。
+     *
+     * @param limit 最大取得件数
+     * @return 武器統計リストの CompletableFuture
+     */
+    CompletableFuture<List<WeaponStats>> getTopWeaponsAsync(int limit);
+}
@@ -40,6 +40,32 @@ public interface IJailProvider {
      */
     boolean jail(Player target, Player jailer, String reason);
 
+    /**
+     * 刑期を指定してプレイヤーを隔離します。刑期が満了すると自動的に釈放されます。
+     * <p>
+     * デフォルト実装は刑期を無視して {@link #jail(Player, Player, String)} を呼び出します。
+     * </p>
+     *
+     * @param target 隔離対象
+     * @param jailer 隔離実施者（システムの場合は null）
+     * @param reason 理由
+     * @param durationMillis 刑期（ミリ秒、0 以下は無期限）
+     * @return 成功した場合 true
+     */
+    default boolean jail(Player target, Player jailer, String reason, long durationMillis) {
+        return jail(target, jailer, reason);
+    }
+
+    /**
+     * 隔離中のプレイヤーの刑期の満了時刻を取得します。
+     *
+     * @param playerId プレイヤー UUID
+     * @return 満了時刻（Unix ミリ秒）。無期限、隔離中でない、または未読み込みの場合は 0
+     */
+    default long getJailExpiresAt(UUID playerId) {
+        return 0;
+    }
+
     /**
      * プレイヤーを釈放します。
      *
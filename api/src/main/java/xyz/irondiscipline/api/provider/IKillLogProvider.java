@@ -1,10 +1,16 @@
 package xyz.irondiscipline.api.provider;
 
 import xyz.irondiscipline.api.model.KillLog;
+import xyz.irondiscipline.api.model.KillLogCursor;
+import xyz.irondiscipline.api.model.KillLogPage;
+import xyz.irondiscipline.api.model.KillLogQuery;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * キルログプロバイダ。
@@ -18,6 +24,10 @@ public interface IKillLogProvider {
 
     /**
      * キルログを非同期で保存します。
+     * <p>
+     * ログは書き込みバッファに積まれ、他のログとまとめて書き込まれます。
+     * 返される Future は DB への書き込みが終わった時点で完了します。
+     * </p>
      *
      * @param log 保存するキルログ
      * @return 完了の CompletableFuture
@@ -40,4 +50,88 @@ public interface IKillLogProvider {
      * @return キルログリストの CompletableFuture
      */
     CompletableFuture<List<KillLog>> getAllKillLogsAsync(int limit);
+
+    /**
+     * 条件に一致するキルログを 1 ページ分、新しい順に取得します。
+     * <p>
+     * {@code (timestamp, id)} のキーセットでページングするため、
+     * 何ページ目であっても取得コストは変わりません。
+     * 続きは {@link KillLogPage#getNextCursor()} を使って取得します。
+     * </p>
+     *
+     * <p>
+     * 既定の実装は {@link #getKillLogsAsync(UUID, int)} (プレイヤー指定がある場合) または
+     * {@link #getAllKillLogsAsync(int)} で新しい順に読み、条件と開始位置をメモリ上で適用します。
+     * 1 ページ分が揃うまで読み込み件数を倍にして読み直すため、深いページほど遅くなります。
+     * DB で絞り込めるプロバイダはオーバーライドしてください。
+     * </p>
+     *
+     * @param query 検索条件
+     * @return ページの CompletableFuture
+     */
+    default CompletableFuture<KillLogPage> queryKillLogsAsync(KillLogQuery query) {
+        return queryKillLogsInMemory(query, Math.max(KillLogQuery.DEFAULT_LIMIT, query.getLimit() * 2));
+    }
+
+    private CompletableFuture<KillLogPage> queryKillLogsInMemory(KillLogQuery query, int fetch) {
+        UUID involved = query.getPlayerId() != null ? query.getPlayerId()
+                : query.getKillerId() != null ? query.getKillerId()
+                : query.getVictimId();
+        CompletableFuture<List<KillLog>> source = involved != null
+                ? getKillLogsAsync(involved, fetch)
+                : getAllKillLogsAsync(fetch);
+        return source.thenCompose(fetched -> {
+            boolean exhausted = fetched.size() < fetch;
+            List<KillLog> matched = new ArrayList<>();
+            for (KillLog log : fetched) {
+                if (query.matches(log)) {
+                    matched.add(log);
+                }
+            }
+            matched.sort(Comparator.comparingLong(KillLog::getTimestamp)
+                    .thenComparingLong(KillLog::getId)
+                    .reversed());
+
+            int limit = query.getLimit();
+            if (matched.size() > limit) {
+                List<KillLog> logs = new ArrayList<>(matched.subList(0, limit));
+                return CompletableFuture.completedFuture(
+                        new KillLogPage(logs, KillLogCursor.after(logs.get(limit - 1))));
+            }
+            if (exhausted || fetch == Integer.MAX_VALUE) {
+                return CompletableFuture.completedFuture(new KillLogPage(matched, null));
+            }
+            // 1 ページ分 + 1 件が揃わなければ読み込み件数を増やして読み直す
+            return queryKillLogsInMemory(query, fetch > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : fetch * 2);
+        });
+    }
+
+    /**
+     * 条件に一致する全てのキルログを新しい順にコンシューマへ渡します。
+     * <p>
+     * 結果はリストに溜めずに 1 行ずつ渡されるため、大量の履歴を走査しても
+     * ヒープを圧迫しません。{@link KillLogQuery#getLimit()} は内部で
+     * 1 回に読み込む件数として使われます。
+     * コンシューマは DB スレッドで呼ばれるため、Bukkit API を直接呼ばないでください。
+     * </p>
+     * <p>
+     * 既定の実装は {@link #queryKillLogsAsync(KillLogQuery)} のページを順に読み、
+     * 1 ページずつコンシューマへ渡します。
+     * </p>
+     *
+     * @param query    検索条件
+     * @param consumer 各ログを受け取るコンシューマ
+     * @return 渡したログ件数の CompletableFuture
+     */
+    default CompletableFuture<Long> streamKillLogsAsync(KillLogQuery query, Consumer<KillLog> consumer) {
+        return queryKillLogsAsync(query).thenCompose(page -> {
+            page.getLogs().forEach(consumer);
+            long count = page.getLogs().size();
+            if (!page.hasMore()) {
+                return CompletableFuture.completedFuture(count);
+            }
+            return streamKillLogsAsync(query.withCursor(page.getNextCursor()), consumer)
+                    .thenApply(rest -> rest + count);
+        });
+    }
 }
@@ -1,8 +1,15 @@
 package xyz.irondiscipline.api.provider;
 
 import org.bukkit.entity.Player;
+import xyz.irondiscipline.api.model.RankHistoryCursor;
+import xyz.irondiscipline.api.model.RankHistoryPage;
 import xyz.irondiscipline.api.rank.IRank;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -21,6 +28,9 @@ import java.util.concurrent.CompletableFuture;
  */
 public interface IRankProvider {
 
+    /** {@link #setRanks(Map, BatchProgress)} の既定の実装が 1 区切りで処理する人数 */
+    int DEFAULT_BATCH_CHUNK_SIZE = 100;
+
     /**
      * オンラインプレイヤーの現在階級を同期的に取得します。
      * キャッシュから取得するため、メインスレッドから安全に呼び出せます。
@@ -59,6 +69,110 @@ public interface IRankProvider {
      */
     CompletableFuture<Boolean> setRankByUUID(UUID playerId, String playerName, IRank newRank);
 
+    /**
+     * 複数プレイヤーの階級をまとめて非同期取得します（オフラインプレイヤー対応）。
+     * 階級データが無いプレイヤーは {@code CoreRanks.PRIVATE} になります。
+     *
+     * @param playerIds プレイヤー UUID
+     * @return UUID → 階級 (要求した全 UUID を含む) の CompletableFuture
+     */
+    default CompletableFuture<Map<UUID, IRank>> getRanks(Collection<UUID> playerIds) {
+        Map<UUID, CompletableFuture<IRank>> futures = new HashMap<>();
+        for (UUID playerId : playerIds) {
+            futures.put(playerId, getRankAsync(playerId));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<UUID, IRank> ranks = new HashMap<>();
+            futures.forEach((playerId, future) -> ranks.put(playerId, future.join()));
+            return ranks;
+        });
+    }
+
+    /**
+     * 複数プレイヤーの階級をまとめて設定します（オフラインプレイヤー対応）。
+     * <p>
+     * Core の実装は一定人数ごとに 1 トランザクションで保存し、完了後に
+     * {@link xyz.irondiscipline.api.event.RankBatchChangeEvent} を 1 回だけ発火します
+     * (プレイヤーごとの {@link xyz.irondiscipline.api.event.RankChangeEvent} は発火しません)。
+     * 保存に失敗した区切りのプレイヤーは結果に含まれません。
+     * </p>
+     * <p>
+     * 既定の実装は {@value #DEFAULT_BATCH_CHUNK_SIZE} 人ずつ {@link #setRankByUUID} を呼び、
+     * 区切りが終わるごとに進捗を通知してから次の区切りに進みます。
+     * トランザクションはプレイヤーごとで、イベントも {@link #setRankByUUID} の実装が
+     * 発火するもの (通常はプレイヤーごとの RankChangeEvent) になり、RankBatchChangeEvent は発火しません。
+     * </p>
+     *
+     * @param ranks UUID → 新しい階級
+     * @param progress 進捗の通知先 (null 可)
+     * @return 保存できた人数の CompletableFuture
+     */
+    default CompletableFuture<Integer> setRanks(Map<UUID, ? extends IRank> ranks, BatchProgress progress) {
+        List<Map.Entry<UUID, ? extends IRank>> entries = new ArrayList<>(ranks.entrySet());
+        return setRanksInChunks(entries, 0, 0, progress);
+    }
+
+    private CompletableFuture<Integer> setRanksInChunks(List<Map.Entry<UUID, ? extends IRank>> entries,
+            int from, int saved, BatchProgress progress) {
+        if (from >= entries.size()) {
+            return CompletableFuture.completedFuture(saved);
+        }
+        int to = Math.min(entries.size(), from + DEFAULT_BATCH_CHUNK_SIZE);
+        List<CompletableFuture<Boolean>> chunk = new ArrayList<>(to - from);
+        for (Map.Entry<UUID, ? extends IRank> entry : entries.subList(from, to)) {
+            chunk.add(setRankByUUID(entry.getKey(), null, entry.getValue())
+                    .exceptionally(ex -> false));
+        }
+        return CompletableFuture.allOf(chunk.toArray(new CompletableFuture[0])).thenCompose(v -> {
+            int total = saved;
+            for (CompletableFuture<Boolean> future : chunk) {
+                if (Boolean.TRUE.equals(future.join())) {
+                    total++;
+                }
+            }
+            if (progress != null) {
+                progress.onProgress(to, entries.size());
+            }
+            return setRanksInChunks(entries, to, total, progress);
+        });
+    }
+
+    /**
+     * 複数プレイヤーの階級をまとめて設定します（進捗通知なし）。
+     *
+     * @param ranks UUID → 新しい階級
+     * @return 保存できた人数の CompletableFuture
+     * @see #setRanks(Map, BatchProgress)
+     */
+    default CompletableFuture<Integer> setRanks(Map<UUID, ? extends IRank> ranks) {
+        return setRanks(ranks, null);
+    }
+
+    /**
+     * プレイヤーの階級履歴を新しい順に 1 ページ取得します。
+     * 履歴を記録しない実装は空のページを返します。
+     *
+     * @param playerId プレイヤー UUID
+     * @param after 前のページの {@link RankHistoryPage#getNextCursor()} (最新から読む場合は null)
+     * @param limit 1 ページの件数
+     * @return 履歴ページの CompletableFuture
+     */
+    default CompletableFuture<RankHistoryPage> getRankHistory(UUID playerId, RankHistoryCursor after, int limit) {
+        return CompletableFuture.completedFuture(new RankHistoryPage(List.of(), null));
+    }
+
+    /**
+     * 指定時刻時点のプレイヤーの階級を取得します（不服申し立ての確認等）。
+     * 履歴を記録しない実装、または記録開始前の時刻の場合は null になります。
+     *
+     * @param playerId プレイヤー UUID
+     * @param timestamp 時刻 (エポックミリ秒)
+     * @return その時点の階級の CompletableFuture
+     */
+    default CompletableFuture<IRank> getRankAt(UUID playerId, long timestamp) {
+        return CompletableFuture.completedFuture(null);
+    }
+
     /**
      * プレイヤーを昇進させます。
      *
@@ -91,4 +205,18 @@ public interface IRankProvider {
      * @return officer の方が上位の場合 true
      */
     boolean isHigherRank(Player officer, Player target);
+
+    /**
+     * 一括操作の進捗通知
+     */
+    @FunctionalInterface
+    interface BatchProgress {
+        /**
+         * 区切りごとに呼ばれます (Core の実装では DB スレッド)。
+         *
+         * @param completed 処理済みの人数 (失敗を含む)
+         * @param total 全体の人数
+         */
+        void onProgress(int completed, int total);
+    }
 }
@@ -1,6 +1,7 @@
 package xyz.irondiscipline.api.provider;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -14,33 +15,58 @@ import java.util.concurrent.ExecutorService;
  * <h3>アドオンでの使用例</h3>
  * <pre>{@code
  * IStorageProvider storage = getServer().getServicesManager().load(IStorageProvider.class);
- * Connection conn = storage.getConnection();
- * // 独自テーブルを作成
- * try (Statement stmt = conn.createStatement()) {
- *     stmt.execute("CREATE TABLE IF NOT EXISTS economy_accounts (...)");
- * }
+ * storage.getDbExecutor().execute(() -> {
+ *     // 独自テーブルを作成 (接続は操作ごとに借りて、必ず close() で返却する)
+ *     try (Connection conn = storage.borrowConnection();
+ *          Statement stmt = conn.createStatement()) {
+ *         stmt.execute("CREATE TABLE IF NOT EXISTS economy_accounts (...)");
+ *     } catch (SQLException e) {
+ *         getLogger().warning(e.getMessage());
+ *     }
+ * });
  * }</pre>
  *
  * <p><strong>注意</strong>: 全 DB 操作は {@link #getDbExecutor()} が返す
- * ExecutorService 上で実行してください。接続はシングルスレッドで管理されています。</p>
+ * ExecutorService 上で実行してください。接続はプールで管理されており、
+ * 複数のワーカースレッドから並行して使用されます。</p>
  */
 public interface IStorageProvider {
 
     /**
      * 共有 DB 接続を取得します。
      * <p>
-     * この接続は Core と全アドオンで共有されます。
-     * 直接 close() しないでください。
+     * この接続は全アドオンで共有される 1 本の接続で、接続プールの上限には含まれません。
+     * 直接 close() しないでください (close() は無視されます)。
+     * 切断された場合は次の呼び出しで自動的に再接続します。
      * </p>
      *
      * @return 共有 DB 接続
+     * @deprecated 全アドオンで 1 本の接続を共有するため、並行して使うと互いに待たされます。
+     *             {@link #borrowConnection()} で操作ごとに接続を借りてください。
      */
+    @Deprecated
     Connection getConnection();
 
     /**
-     * DB 操作用のシングルスレッド ExecutorService を取得します。
+     * 接続プールから DB 接続を借ります。
+     * <p>
+     * 返される接続はリースです。使用後は必ず {@code close()} してください
+     * ({@code close()} は物理接続を閉じず、プールへ返却します)。
+     * try-with-resources での使用を推奨します。
+     * 接続を長時間保持すると Core の DB 操作が待たされるため、
+     * 1 回の操作ごとに取得・返却してください (返却されないリースはログに警告されます)。
+     * </p>
+     *
+     * @return プールから借りた DB 接続
+     * @throws SQLException 接続を取得できなかった場合 (取得タイムアウトを含む)
+     */
+    Connection borrowConnection() throws SQLException;
+
+    /**
+     * DB 操作用の ExecutorService を取得します。
      * <p>
      * 全 DB 操作はこの ExecutorService 上で実行する必要があります。
+     * 複数のワーカースレッドを持つため、タスク間の実行順序は保証されません。
      * </p>
      *
      * @return 共有 ExecutorService
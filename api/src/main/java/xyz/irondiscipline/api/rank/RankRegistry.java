@@ -1,7 +1,6 @@
 package xyz.irondiscipline.api.rank;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 階級レジストリ。
@@ -20,14 +19,21 @@ import java.util.concurrent.ConcurrentHashMap;
  * // 階級を取得
  * IRank rank = RankRegistry.fromId("PRESIDENT");
  * }</pre>
+ *
+ * <p>
+ * 参照は登録時に作られる不変のインデックス (weight 順の配列、ID → 位置、weight → 階級の表) を
+ * 1 回読むだけで、ロック・走査・オブジェクト生成を伴いません。登録・登録解除は新しいインデックスを
+ * 作って差し替えるため、アドオンが並行して登録しても参照側は常に一貫した状態を見ます。
+ * weight は登録時の値で索引されます。
+ * </p>
  */
 public final class RankRegistry {
 
-    /** ID → IRank のマッピング (case-insensitive lookup は fromId で対応) */
-    private static final Map<String, IRank> REGISTRY = new ConcurrentHashMap<>();
+    /** 登録・登録解除の排他 (参照はロック不要) */
+    private static final Object LOCK = new Object();
 
-    /** weight 昇順のソート済みリスト (変更時に再構築) */
-    private static volatile List<IRank> sortedRanks = Collections.emptyList();
+    /** 現在のインデックス (変更時に丸ごと差し替え) */
+    private static volatile Index index;
 
     private RankRegistry() {
         // インスタンス化を防止
@@ -37,10 +43,11 @@ public final class RankRegistry {
      * Static initializer: Core 階級を自動登録
      */
     static {
+        Map<String, IRank> core = new HashMap<>();
         for (IRank rank : CoreRanks.values()) {
-            registerInternal(rank);
+            core.put(key(rank.getId()), rank);
         }
-        rebuildSortedList();
+        index = new Index(core);
     }
 
     /**
@@ -54,8 +61,11 @@ public final class RankRegistry {
         if (rank.getId() == null || rank.getId().isEmpty()) {
             throw new IllegalArgumentException("Rank ID cannot be null or empty");
         }
-        registerInternal(rank);
-        rebuildSortedList();
+        synchronized (LOCK) {
+            Map<String, IRank> ranks = index.copyRanks();
+            ranks.put(key(rank.getId()), rank);
+            index = new Index(ranks);
+        }
     }
 
     /**
@@ -64,11 +74,14 @@ public final class RankRegistry {
      * @param ranks 登録する階級の配列
      */
     public static void registerAll(IRank... ranks) {
-        for (IRank rank : ranks) {
-            if (rank == null) continue;
-            registerInternal(rank);
+        synchronized (LOCK) {
+            Map<String, IRank> registered = index.copyRanks();
+            for (IRank rank : ranks) {
+                if (rank == null) continue;
+                registered.put(key(rank.getId()), rank);
+            }
+            index = new Index(registered);
         }
-        rebuildSortedList();
     }
 
     /**
@@ -79,11 +92,14 @@ public final class RankRegistry {
      * @return 登録解除された階級、存在しない場合 null
      */
     public static IRank unregister(String id) {
-        IRank removed = REGISTRY.remove(id.toUpperCase());
-        if (removed != null) {
-            rebuildSortedList();
+        synchronized (LOCK) {
+            Map<String, IRank> ranks = index.copyRanks();
+            IRank removed = ranks.remove(key(id));
+            if (removed != null) {
+                index = new Index(ranks);
+            }
+            return removed;
         }
-        return removed;
     }
 
     /**
@@ -94,8 +110,7 @@ public final class RankRegistry {
      * @return 対応する階級、未登録の場合は PRIVATE
      */
     public static IRank fromId(String id) {
-        if (id == null) return CoreRanks.PRIVATE;
-        IRank rank = REGISTRY.get(id.toUpperCase());
+        IRank rank = fromIdOrNull(id);
         return rank != null ? rank : CoreRanks.PRIVATE;
     }
 
@@ -107,7 +122,9 @@ public final class RankRegistry {
      */
     public static IRank fromIdOrNull(String id) {
         if (id == null) return null;
-        return REGISTRY.get(id.toUpperCase());
+        Index current = index;
+        int position = current.positionOf(id);
+        return position >= 0 ? current.ordered[position] : null;
     }
 
     /**
@@ -118,15 +135,8 @@ public final class RankRegistry {
      * @return 最も近い下位の階級
      */
     public static IRank fromWeight(int weight) {
-        IRank result = CoreRanks.PRIVATE;
-        for (IRank rank : sortedRanks) {
-            if (rank.getWeight() <= weight) {
-                result = rank;
-            } else {
-                break;
-            }
-        }
-        return result;
+        IRank rank = index.floor(weight);
+        return rank != null ? rank : CoreRanks.PRIVATE;
     }
 
     /**
@@ -137,13 +147,9 @@ public final class RankRegistry {
      * @return 次の階級、または null
      */
     public static IRank getNextRank(IRank current) {
-        List<IRank> sorted = sortedRanks;
-        for (int i = 0; i < sorted.size() - 1; i++) {
-            if (sorted.get(i).getId().equals(current.getId())) {
-                return sorted.get(i + 1);
-            }
-        }
-        return null;
+        Index snapshot = index;
+        int position = snapshot.exactPositionOf(current.getId());
+        return position >= 0 && position + 1 < snapshot.ordered.length ? snapshot.ordered[position + 1] : null;
     }
 
     /**
@@ -154,13 +160,9 @@ public final class RankRegistry {
      * @return 前の階級、または null
      */
     public static IRank getPreviousRank(IRank current) {
-        List<IRank> sorted = sortedRanks;
-        for (int i = 1; i < sorted.size(); i++) {
-            if (sorted.get(i).getId().equals(current.getId())) {
-                return sorted.get(i - 1);
-            }
-        }
-        return null;
+        Index snapshot = index;
+        int position = snapshot.exactPositionOf(current.getId());
+        return position > 0 ? snapshot.ordered[position - 1] : null;
     }
 
     /**
@@ -169,7 +171,7 @@ public final class RankRegistry {
      * @return 全階級の不変リスト
      */
     public static List<IRank> values() {
-        return sortedRanks;
+        return index.list;
     }
 
     /**
@@ -179,13 +181,7 @@ public final class RankRegistry {
      * @return 該当階級のリスト
      */
     public static List<IRank> valuesByNamespace(String namespace) {
-        List<IRank> result = new ArrayList<>();
-        for (IRank rank : sortedRanks) {
-            if (rank.getNamespace().equals(namespace)) {
-                result.add(rank);
-            }
-        }
-        return Collections.unmodifiableList(result);
+        return index.byNamespace.getOrDefault(namespace, Collections.emptyList());
     }
 
     /**
@@ -196,7 +192,7 @@ public final class RankRegistry {
      */
     public static boolean isRegistered(String id) {
         if (id == null) return false;
-        return REGISTRY.containsKey(id.toUpperCase());
+        return index.positionOf(id) >= 0;
     }
 
     /**
@@ -205,18 +201,121 @@ public final class RankRegistry {
      * @return 登録数
      */
     public static int size() {
-        return REGISTRY.size();
+        return index.ordered.length;
     }
 
     // ===== Internal =====
 
-    private static void registerInternal(IRank rank) {
-        REGISTRY.put(rank.getId().toUpperCase(), rank);
+    private static String key(String id) {
+        return id.toUpperCase(Locale.ROOT);
     }
 
-    private static void rebuildSortedList() {
-        List<IRank> list = new ArrayList<>(REGISTRY.values());
-        list.sort(Comparator.comparingInt(IRank::getWeight));
-        sortedRanks = Collections.unmodifiableList(list);
+    /**
+     * 登録済み階級の不変インデックス
+     */
+    private static final class Index {
+
+        /** weight → 階級の表を配列で持つ最大幅 (超える場合は二分探索) */
+        private static final int MAX_FLOOR_TABLE = 4096;
+
+        /** weight 昇順 (同じ weight は ID 順) */
+        final IRank[] ordered;
+        final List<IRank> list;
+        /** 大文字化した ID → 位置 */
+        final Map<String, Integer> byKey;
+        /** 登録時の ID そのまま → 位置 (大文字化せずに引ける) */
+        final Map<String, Integer> byExactId;
+        final Map<String, List<IRank>> byNamespace;
+        /** ordered と同じ並びの weight */
+        final int[] weights;
+        /** floorTable[w - minWeight] = weight が w 以下で最大の階級の位置 */
+        final int[] floorTable;
+        final int minWeight;
+
+        Index(Map<String, IRank> ranks) {
+            IRank[] sorted = ranks.values().toArray(new IRank[0]);
+            Arrays.sort(sorted, Comparator.comparingInt(IRank::getWeight).thenComparing(IRank::getId));
+            this.ordered = sorted;
+            this.list = List.of(sorted);
+
+            Map<String, Integer> keys = new HashMap<>();
+            Map<String, Integer> exact = new HashMap<>();
+            Map<String, List<IRank>> namespaces = new HashMap<>();
+            this.weights = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                IRank rank = sorted[i];
+                keys.put(key(rank.getId()), i);
+                exact.put(rank.getId(), i);
+                namespaces.computeIfAbsent(rank.getNamespace(), ns -> new ArrayList<>()).add(rank);
+                weights[i] = rank.getWeight();
+            }
+            this.byKey = Map.copyOf(keys);
+            this.byExactId = Map.copyOf(exact);
+            Map<String, List<IRank>> frozen = new HashMap<>();
+            namespaces.forEach((ns, members) -> frozen.put(ns, List.copyOf(members)));
+            this.byNamespace = Map.copyOf(frozen);
+
+            if (sorted.length > 0 && (long) weights[sorted.length - 1] - weights[0] < MAX_FLOOR_TABLE) {
+                this.minWeight = weights[0];
+                this.floorTable = new int[weights[sorted.length - 1] - minWeight + 1];
+                int position = 0;
+                for (int w = 0; w < floorTable.length; w++) {
+                    while (position + 1 < sorted.length && weights[position + 1] <= w + minWeight) {
+                        position++;
+                    }
+                    floorTable[w] = position;
+                }
+            } else {
+                this.minWeight = 0;
+                this.floorTable = null;
+            }
+        }
+
+        Map<String, IRank> copyRanks() {
+            Map<String, IRank> copy = new HashMap<>();
+            for (IRank rank : ordered) {
+                copy.put(key(rank.getId()), rank);
+            }
+            return copy;
+        }
+
+        /** 登録時の ID と完全一致する位置 (無ければ -1) */
+        int exactPositionOf(String id) {
+            Integer position = byExactId.get(id);
+            return position != null ? position : -1;
+        }
+
+        /** 大文字小文字を区別しない位置 (無ければ -1)。ID がそのまま一致すれば文字列を作らない */
+        int positionOf(String id) {
+            Integer position = byExactId.get(id);
+            if (position == null) {
+                position = byKey.get(key(id));
+            }
+            return position != null ? position : -1;
+        }
+
+        /** weight 以下で最大の階級 (無ければ null) */
+        IRank floor(int weight) {
+            int last = ordered.length - 1;
+            if (last < 0 || weight < weights[0]) {
+                return null;
+            }
+            if (weight >= weights[last]) {
+                return ordered[last];
+            }
+            if (floorTable != null) {
+                return ordered[floorTable[weight - minWeight]];
+            }
+            int position = Arrays.binarySearch(weights, weight);
+            if (position >= 0) {
+                // 同じ weight が並ぶ場合は最後のもの
+                while (position < last && weights[position + 1] == weight) {
+                    position++;
+                }
+            } else {
+                position = -position - 2;
+            }
+            return ordered[position];
+        }
     }
 }
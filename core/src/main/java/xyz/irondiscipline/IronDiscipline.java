@@ -2,6 +2,13 @@ package xyz.irondiscipline;
 
 import xyz.irondiscipline.api.provider.*;
 import xyz.irondiscipline.command.*;
+import xyz.irondiscipline.database.CacheChange;
+import xyz.irondiscipline.database.ChangeLogTransport;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.DbExecutor;
+import xyz.irondiscipline.database.QueryRegistry;
+import xyz.irondiscipline.database.SqlDialect;
+import xyz.irondiscipline.database.migration.SchemaMigrator;
 import xyz.irondiscipline.listener.*;
 import xyz.irondiscipline.manager.*;
 import xyz.irondiscipline.util.RankUtil;
@@ -11,11 +18,15 @@ import org.bukkit.plugin.ServicesManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.io.File;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 /**
@@ -31,8 +42,12 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
     private ConfigManager configManager;
     private StorageManager storageManager;
     private RankStorageManager rankStorageManager;
+    private PlayerNameManager playerNameManager;
+    private PlayerSessionLoader playerSessionLoader;
     private RankManager rankManager;
     private PTSManager ptsManager;
+    private ChatStateRegistry chatStateRegistry;
+    private ChatRateLimiter chatRateLimiter;
     private JailManager jailManager;
     private RadioManager radioManager;
     private ExamManager examManager;
@@ -45,14 +60,15 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
     private AutoPromotionManager autoPromotionManager;
     private WebDashboardManager webDashboardManager;
     private AddonManager addonManager;
+    private CacheCoherenceManager cacheCoherenceManager;
 
     // Utilities
     private xyz.irondiscipline.util.TaskScheduler taskScheduler;
     private RankUtil rankUtil;
 
-    // Database connection
-    private Connection dbConnection;
-    private ExecutorService sharedDbExecutor;
+    // Database connection pool
+    private ConnectionPool connectionPool;
+    private DbExecutor sharedDbExecutor;
 
     @Override
     public void onEnable() {
@@ -97,10 +113,18 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         if (ptsManager != null) {
             ptsManager.shutdown();
         }
+        if (chatRateLimiter != null) {
+            chatRateLimiter.shutdown();
+        }
         if (autoPromotionManager != null) {
             autoPromotionManager.shutdown();
         }
 
+        // サーバー間同期の受信停止 (DBスレッド停止前)
+        if (cacheCoherenceManager != null) {
+            cacheCoherenceManager.close();
+        }
+
         // データ保存
         if (storageManager != null) {
             storageManager.shutdown();
@@ -108,9 +132,6 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         if (rankStorageManager != null) {
             rankStorageManager.shutdown();
         }
-        if (sharedDbExecutor != null) {
-            sharedDbExecutor.shutdown();
-        }
         if (jailManager != null) {
             jailManager.saveAll();
         }
@@ -127,14 +148,25 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
             linkManager.shutdown();
         }
 
-        // DB接続クローズ
-        if (dbConnection != null) {
+        // DBワーカー停止 (キュー済みの書き込みを完了させてからプールを閉じる)
+        if (sharedDbExecutor != null) {
+            sharedDbExecutor.shutdown();
             try {
-                dbConnection.close();
-            } catch (SQLException ignored) {
+                if (!sharedDbExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    getLogger().warning("DBタスクの完了待ちがタイムアウトしました");
+                    sharedDbExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                sharedDbExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
             }
         }
 
+        // DB接続プールクローズ
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+
         getLogger().info(configManager.getRawMessage("log_shutdown_complete"));
     }
 
@@ -155,7 +187,13 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
             } else {
                 initH2();
             }
-            getLogger().info("データベース接続成功 [" + dbType.toUpperCase() + "]");
+            connectionPool.start();
+            // マネージャーが接続を使い始める前にスキーマを最新化する
+            // (オフライン移行: 大きなテーブルの作り直しが必要な場合は、完了するまで起動が止まる)
+            new SchemaMigrator(connectionPool, SqlDialect.fromType(dbType), getLogger()).migrate();
+            sharedDbExecutor = createDbExecutor(configManager.getDbWorkerThreads());
+            getLogger().info("データベース接続成功 [" + dbType.toUpperCase() + "] (pool: "
+                    + connectionPool.getMaxSize() + ", workers: " + configManager.getDbWorkerThreads() + ")");
             return true;
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "データベース接続失敗", e);
@@ -180,33 +218,67 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
 
         File dbFile = new File(getDataFolder(), "irondiscipline");
         String url = "jdbc:h2:" + dbFile.getAbsolutePath() + ";MODE=MySQL";
-        dbConnection = DriverManager.getConnection(url, "sa", "");
+        connectionPool = buildPool(url, "sa", "");
     }
 
     private void initMySQL() throws SQLException {
-        String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=false&autoReconnect=true",
+        // 切断時の再接続はプール側で行うため autoReconnect は使用しない
+        String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=false",
                 configManager.getMySQLHost(),
                 configManager.getMySQLPort(),
                 configManager.getMySQLDatabase());
-        dbConnection = DriverManager.getConnection(url,
+        connectionPool = buildPool(url,
                 configManager.getMySQLUsername(),
                 configManager.getMySQLPassword());
     }
 
+    private ConnectionPool buildPool(String url, String username, String password) {
+        return ConnectionPool.builder(url)
+                .credentials(username, password)
+                .maxSize(configManager.getDbPoolMaxConnections())
+                .acquireTimeout(configManager.getDbPoolAcquireTimeoutMillis())
+                .validationInterval(configManager.getDbPoolValidationIntervalMillis())
+                .statementCacheSize(configManager.getDbStatementCacheSize())
+                .leakThreshold(configManager.getDbPoolLeakThresholdMillis())
+                .logger(getLogger())
+                .build();
+    }
+
+    /**
+     * DBワーカースレッドプールを作成する。
+     * スレッド数は接続プールの上限を超えないようにする（超えた分はリース待ちになるだけのため）。
+     * 同じプレイヤーへの書き込みは {@link DbExecutor#forKey} で投入順に直列化する。
+     */
+    private DbExecutor createDbExecutor(int threads) {
+        int size = Math.max(1, Math.min(threads, connectionPool.getMaxSize()));
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, "IronDiscipline-DB-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new DbExecutor(Executors.newFixedThreadPool(size, factory), size * 4);
+    }
+
     private void initializeManagers() {
         this.taskScheduler = new xyz.irondiscipline.util.TaskScheduler(this);
         this.rankUtil = new RankUtil(this);
-        this.sharedDbExecutor = Executors.newSingleThreadExecutor();
 
-        this.storageManager = new StorageManager(this, dbConnection, sharedDbExecutor);
-        this.rankStorageManager = new RankStorageManager(this, dbConnection, sharedDbExecutor);
+        this.storageManager = new StorageManager(this, connectionPool, sharedDbExecutor);
+        this.rankStorageManager = new RankStorageManager(this, connectionPool, sharedDbExecutor);
+        this.playerNameManager = new PlayerNameManager(this, connectionPool, sharedDbExecutor);
+        this.playerNameManager.loadRecentAsync();
         this.rankManager = new RankManager(this, rankStorageManager);
         this.ptsManager = new PTSManager(this);
         this.jailManager = new JailManager(this);
         this.radioManager = new RadioManager(this);
         this.examManager = new ExamManager(this);
+        this.chatStateRegistry = new ChatStateRegistry(this);
+        configManager.addReloadHook(chatStateRegistry::rebuildAll);
+        this.chatRateLimiter = new ChatRateLimiter(this);
         this.divisionManager = new DivisionManager(this);
         this.warningManager = new WarningManager(this);
+        this.playerSessionLoader = new PlayerSessionLoader(this, connectionPool, sharedDbExecutor);
         this.playtimeManager = new PlaytimeManager(this);
         this.examQuestionManager = new ExamQuestionManager(this);
         this.linkManager = new LinkManager(this);
@@ -217,6 +289,12 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         // Start auto-promotion task
         this.autoPromotionManager.startTask();
 
+        // 隔離房ごとの脱走確認と刑期満了の確認
+        this.jailManager.startTasks();
+
+        // サーバー間のキャッシュ同期
+        initCacheCoherence();
+
         // Discord Bot 起動
         initDiscord();
 
@@ -226,6 +304,51 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         getLogger().info(configManager.getRawMessage("log_managers_initialized"));
     }
 
+    private void initCacheCoherence() {
+        if (!configManager.isCoherenceEnabled()) {
+            return;
+        }
+        ChangeLogTransport transport = ChangeLogTransport
+                .builder(connectionPool, QueryRegistry.forType(configManager.getDatabaseType()), sharedDbExecutor)
+                .logger(getLogger(), configManager.getRawMessage("log_coherence_poll_failed"))
+                .serverId(configManager.getCoherenceServerId())
+                .pollInterval(configManager.getCoherencePollIntervalMillis())
+                .batchSize(configManager.getCoherenceBatchSize())
+                .gapGrace(configManager.getCoherenceGapGraceMillis())
+                .build();
+        this.cacheCoherenceManager = new CacheCoherenceManager(this, transport, transport.getServerId());
+        this.cacheCoherenceManager.start();
+        getLogger().info(configManager.getRawMessage("log_coherence_enabled")
+                .replace("%server%", transport.getServerId()));
+    }
+
+    /**
+     * 書き込みに成功した変更を他のサーバーに伝える (同期が無効なら何もしない)
+     */
+    public void publishCacheChange(CacheChange.Kind kind, UUID playerId, String payload) {
+        if (cacheCoherenceManager != null) {
+            cacheCoherenceManager.publish(kind, playerId, payload);
+        }
+    }
+
+    /**
+     * 隔離・試験・発言許可の変更をチャット状態に反映する (オンラインのプレイヤーのみ)
+     */
+    public void refreshChatState(UUID playerId) {
+        if (chatStateRegistry != null) {
+            chatStateRegistry.refresh(playerId);
+        }
+    }
+
+    /**
+     * 一括操作の変更をまとめて他のサーバーに伝える (同期が無効なら何もしない)
+     */
+    public void publishCacheChanges(CacheChange.Kind kind, Map<UUID, String> payloads) {
+        if (cacheCoherenceManager != null && !payloads.isEmpty()) {
+            cacheCoherenceManager.publishAll(kind, payloads);
+        }
+    }
+
     private void registerListeners() {
         Bukkit.getPluginManager().registerEvents(new AsyncPlayerPreLoginListener(this), this);
         Bukkit.getPluginManager().registerEvents(new JailListener(this), this);
@@ -233,6 +356,11 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         Bukkit.getPluginManager().registerEvents(new CombatListener(this), this);
         Bukkit.getPluginManager().registerEvents(new JoinQuitListener(this), this);
         Bukkit.getPluginManager().registerEvents(new GestureListener(this), this);
+        Bukkit.getPluginManager().registerEvents(ptsManager.getOfficerIndex(), this);
+        Bukkit.getPluginManager().registerEvents(chatStateRegistry, this);
+        Bukkit.getPluginManager().registerEvents(chatRateLimiter, this);
+        // 再読み込み時などのオンラインプレイヤー
+        ptsManager.getOfficerIndex().rebuild();
 
         getLogger().info(configManager.getRawMessage("log_listeners_registered"));
     }
@@ -324,6 +452,7 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         sm.register(IJailProvider.class, jailManager, this, ServicePriority.Normal);
         sm.register(IDivisionProvider.class, divisionManager, this, ServicePriority.Normal);
         sm.register(IKillLogProvider.class, storageManager, this, ServicePriority.Normal);
+        sm.register(ICombatStatsProvider.class, storageManager, this, ServicePriority.Normal);
 
         getLogger().info("API services registered to ServicesManager");
     }
@@ -331,8 +460,14 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
     // ===== IStorageProvider 実装 =====
 
     @Override
+    @Deprecated
     public Connection getConnection() {
-        return dbConnection;
+        return connectionPool.getSharedConnection();
+    }
+
+    @Override
+    public Connection borrowConnection() throws SQLException {
+        return connectionPool.getConnection();
     }
 
     @Override
@@ -363,6 +498,14 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         return rankStorageManager;
     }
 
+    public PlayerNameManager getPlayerNameManager() {
+        return playerNameManager;
+    }
+
+    public PlayerSessionLoader getPlayerSessionLoader() {
+        return playerSessionLoader;
+    }
+
     public RankManager getRankManager() {
         return rankManager;
     }
@@ -371,6 +514,14 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         return ptsManager;
     }
 
+    public ChatStateRegistry getChatStateRegistry() {
+        return chatStateRegistry;
+    }
+
+    public ChatRateLimiter getChatRateLimiter() {
+        return chatRateLimiter;
+    }
+
     public JailManager getJailManager() {
         return jailManager;
     }
@@ -419,6 +570,10 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         return autoPromotionManager;
     }
 
+    public CacheCoherenceManager getCacheCoherenceManager() {
+        return cacheCoherenceManager;
+    }
+
     public AddonManager getAddonManager() {
         return addonManager;
     }
@@ -427,7 +582,7 @@ public class IronDiscipline extends JavaPlugin implements IStorageProvider {
         return taskScheduler;
     }
 
-    public Connection getDbConnection() {
-        return dbConnection;
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
     }
 }
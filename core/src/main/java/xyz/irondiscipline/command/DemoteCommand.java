@@ -11,6 +11,7 @@ import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * /demote コマンド
@@ -52,7 +53,8 @@ public class DemoteCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        plugin.getRankManager().demote(target).thenAccept(newRank -> {
+        UUID actorId = sender instanceof Player player ? player.getUniqueId() : null;
+        plugin.getRankManager().demote(target, actorId).thenAccept(newRank -> {
             if (newRank != null) {
                 if (sender instanceof Player senderPlayer) {
                     plugin.getTaskScheduler().runEntity(senderPlayer, () -> {
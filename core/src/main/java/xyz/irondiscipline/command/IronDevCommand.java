@@ -1,6 +1,17 @@
 package xyz.irondiscipline.command;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
+import xyz.irondiscipline.database.CacheChange;
+import xyz.irondiscipline.database.ChangeLogTransport;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.KillLogWriter;
+import xyz.irondiscipline.database.RetentionSweeper;
+import xyz.irondiscipline.manager.CacheCoherenceManager;
+import xyz.irondiscipline.manager.JailContainment;
+import xyz.irondiscipline.manager.PlayerSessionLoader;
+import xyz.irondiscipline.manager.RankCache;
+import xyz.irondiscipline.model.JailCell;
 import xyz.irondiscipline.model.Rank;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -10,8 +21,11 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -67,6 +81,131 @@ public class IronDevCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.YELLOW + "LuckPerms検出: " +
                 (lpAvailable ? ChatColor.GREEN + "あり (移行可能)" : ChatColor.GRAY + "なし"));
 
+        // DB接続プール
+        ConnectionPool pool = plugin.getConnectionPool();
+        if (pool != null) {
+            sender.sendMessage(ChatColor.YELLOW + "DB接続プール: " + ChatColor.WHITE
+                    + "使用中 " + pool.getActiveCount() + "/" + pool.getMaxSize()
+                    + ", アイドル " + pool.getIdleCount()
+                    + ", 物理接続 " + pool.getOpenCount());
+            sender.sendMessage(ChatColor.YELLOW + "DBリース: " + ChatColor.WHITE
+                    + pool.getLeaseCount() + "回"
+                    + String.format(" (平均待ち %.2fms)", pool.getAverageWaitMillis())
+                    + ", タイムアウト " + pool.getLeaseTimeouts()
+                    + ", 再接続 " + pool.getReconnects()
+                    + ", リーク警告 " + pool.getLeakWarnings());
+            sender.sendMessage(ChatColor.YELLOW + "ステートメントキャッシュ: " + ChatColor.WHITE
+                    + "ヒット " + pool.getStatementCacheHits()
+                    + ", ミス " + pool.getStatementCacheMisses()
+                    + " (接続あたり最大 " + pool.getStatementCacheSize() + ")");
+        }
+
+        // キルログ書き込みバッファ
+        KillLogWriter writer = plugin.getStorageManager().getKillLogWriter();
+        if (writer != null) {
+            sender.sendMessage(ChatColor.YELLOW + "キルログ書き込み待ち: " + ChatColor.WHITE
+                    + writer.getQueueDepth() + "/" + writer.getQueueCapacity()
+                    + " (" + writer.getOverflowPolicy() + ")"
+                    + ", 書き込み済み " + writer.getWrittenCount()
+                    + ", 破棄 " + writer.getDroppedCount()
+                    + ", 失敗 " + writer.getFailedCount());
+            sender.sendMessage(ChatColor.YELLOW + "キルログ書き込み時間: " + ChatColor.WHITE
+                    + String.format("直近 %.2fms, 平均 %.2fms, 最大 %.2fms (%d回)",
+                            writer.getLastFlushMillis(), writer.getAverageFlushMillis(),
+                            writer.getMaxFlushMillis(), writer.getFlushCount()));
+        }
+
+        // 階級キャッシュ
+        RankCache rankCache = plugin.getRankManager().getRankCache();
+        sender.sendMessage(ChatColor.YELLOW + "階級キャッシュ: " + ChatColor.WHITE
+                + "固定 " + rankCache.getPinnedCount()
+                + ", オフライン " + rankCache.getOfflineCount() + "/" + rankCache.getOfflineMaxSize()
+                + String.format(", ヒット率 %.1f%%", rankCache.getHitRate() * 100)
+                + " (ヒット " + rankCache.getHits() + ", ミス " + rankCache.getMisses()
+                + ", 相乗り " + rankCache.getCoalescedLoads() + ")"
+                + ", 追い出し " + rankCache.getEvictions()
+                + ", 期限切れ " + rankCache.getExpirations());
+
+        // 隔離房と脱走判定
+        JailContainment containment = plugin.getJailManager().getContainment();
+        Collection<JailCell> jailCells = plugin.getConfigManager().getJailCells();
+        sender.sendMessage(ChatColor.YELLOW + "隔離房: " + ChatColor.WHITE
+                + (jailCells.isEmpty() ? "未設定" : jailCells.size() + "房")
+                + ", 判定 " + containment.getCheckCount()
+                + ", 連れ戻し " + containment.getEscapeCount()
+                + ", 定期確認 " + containment.getSweepCount());
+        for (JailCell cell : jailCells) {
+            sender.sendMessage(ChatColor.GRAY + "  " + cell.getName() + ": " + ChatColor.WHITE
+                    + plugin.getJailManager().getOccupancy(cell)
+                    + (cell.hasCapacity() ? "/" + cell.getCapacity() : "") + "人"
+                    + ChatColor.GRAY + " " + cell.getRegion());
+        }
+        sender.sendMessage(ChatColor.YELLOW + "刑期: " + ChatColor.WHITE
+                + plugin.getJailManager().getSentenceCount() + "件"
+                + ", 待機中 " + plugin.getJailManager().getScheduledSentenceCount());
+
+        // ログイン前の一括読み込み
+        PlayerSessionLoader loader = plugin.getPlayerSessionLoader();
+        if (loader != null) {
+            sender.sendMessage(ChatColor.YELLOW + "ログイン前読み込み: " + ChatColor.WHITE
+                    + loader.getLoadedCount() + "人 / " + loader.getBatchCount() + "バッチ"
+                    + String.format(" (平均 %.1f人, 最大 %d人)", loader.getAverageBatchSize(), loader.getMaxBatchSize())
+                    + ", 待機中 " + loader.getPendingCount()
+                    + ", 失敗 " + loader.getFailedCount());
+            StringBuilder stages = new StringBuilder();
+            for (PlayerSessionLoader.Stage stage : PlayerSessionLoader.Stage.values()) {
+                if (stages.length() > 0) {
+                    stages.append(", ");
+                }
+                stages.append(String.format("%s %.2f/%.2fms", stage.name(),
+                        loader.getAverageMillis(stage), loader.getMaxMillis(stage)));
+            }
+            sender.sendMessage(ChatColor.YELLOW + "読み込み時間 (平均/最大): " + ChatColor.WHITE + stages);
+        }
+
+        // サーバー間のキャッシュ同期
+        CacheCoherenceManager coherence = plugin.getCacheCoherenceManager();
+        if (coherence != null) {
+            StringBuilder applied = new StringBuilder();
+            for (CacheChange.Kind kind : CacheChange.Kind.values()) {
+                if (applied.length() > 0) {
+                    applied.append(", ");
+                }
+                applied.append(kind.name()).append(' ').append(coherence.getAppliedCount(kind));
+            }
+            sender.sendMessage(ChatColor.YELLOW + "サーバー間同期: " + ChatColor.WHITE
+                    + coherence.getServerId()
+                    + ", 反映 " + applied
+                    + " (まとめ " + coherence.getCoalescedCount() + ")"
+                    + ", 遅延 直近 " + coherence.getLastLagMillis() + "ms / 最大 " + coherence.getMaxLagMillis() + "ms"
+                    + ", 送信失敗 " + coherence.getPublishFailureCount());
+            if (coherence.getTransport() instanceof ChangeLogTransport changeLog) {
+                sender.sendMessage(ChatColor.YELLOW + "変更ログ: " + ChatColor.WHITE
+                        + "位置 " + changeLog.getCursor()
+                        + ", 送信 " + changeLog.getPublishedCount()
+                        + ", 受信 " + changeLog.getReceivedCount()
+                        + ", 読み込み " + changeLog.getPollCount() + "回 (" + changeLog.getPollIntervalMillis() + "ms毎"
+                        + ", 直近 " + changeLog.getLastPollMillis() + "ms, 失敗 " + changeLog.getFailedPollCount() + ")"
+                        + ", 欠番スキップ " + changeLog.getSkippedGapCount());
+            }
+        }
+
+        // 保存期間スイーパー
+        RetentionSweeper sweeper = plugin.getStorageManager().getRetentionSweeper();
+        if (sweeper != null) {
+            sender.sendMessage(ChatColor.YELLOW + "保存期間スイーパー: " + ChatColor.WHITE
+                    + (sweeper.isRunning() ? "実行中 (残り " + sweeper.getBacklog() + "行以上)" : "待機中")
+                    + String.format(", %.1f行/秒", sweeper.getRowsPerSecond())
+                    + ", 累計 " + sweeper.getTotalDeleted() + "行"
+                    + " (" + sweeper.getChunkCount() + "チャンク, 最大 " + sweeper.getChunkSize() + "行)");
+            if (sweeper.getLastRunAt() > 0) {
+                long ago = (System.currentTimeMillis() - sweeper.getLastRunAt()) / 1000;
+                sender.sendMessage(ChatColor.YELLOW + "直近のスイープ: " + ChatColor.WHITE
+                        + ago + "秒前, " + sweeper.getLastRunRows() + "行, " + sweeper.getLastRunMillis() + "ms"
+                        + " " + sweeper.getDeletedByTarget());
+            }
+        }
+
         // 階級データ件数
         plugin.getRankStorageManager().getAllRanks().thenAccept(ranks -> {
             sender.sendMessage(ChatColor.YELLOW + "階級データ件数: " + ChatColor.WHITE + ranks.size());
@@ -112,10 +251,15 @@ public class IronDevCommand implements CommandExecutor, TabCompleter {
             luckPerms.getUserManager().getUniqueUsers().thenAccept(uuids -> {
                 int total = uuids.size();
                 AtomicInteger processed = new AtomicInteger(0);
-                AtomicInteger migrated = new AtomicInteger(0);
+                // 読み込んだ階級は最後にまとめて保存する
+                Map<UUID, Rank> ranks = new ConcurrentHashMap<>();
+                Map<UUID, String> names = new ConcurrentHashMap<>();
                 int reportInterval = Math.max(total / 10, 1);
 
                 sender.sendMessage(ChatColor.YELLOW + "対象ユーザー数: " + total);
+                if (total == 0) {
+                    return;
+                }
 
                 for (UUID uuid : uuids) {
                     // ユーザーデータをロード
@@ -124,12 +268,8 @@ public class IronDevCommand implements CommandExecutor, TabCompleter {
                         String rankId = user.getCachedData().getMetaData().getMetaValue(metaKey);
 
                         if (rankId != null) {
-                            Rank rank = Rank.fromId(rankId);
-                            String userName = user.getUsername() != null ? user.getUsername() : "Unknown";
-
-                            // 独自DBに保存
-                            plugin.getRankStorageManager().setRank(uuid, userName, rank);
-                            migrated.incrementAndGet();
+                            ranks.put(uuid, Rank.fromId(rankId));
+                            names.put(uuid, user.getUsername() != null ? user.getUsername() : "Unknown");
                         }
 
                         int current = processed.incrementAndGet();
@@ -137,18 +277,13 @@ public class IronDevCommand implements CommandExecutor, TabCompleter {
                             int percent = (int) ((current * 100.0) / total);
                             plugin.getTaskScheduler().runGlobal(() -> {
                                 sender.sendMessage(
-                                        ChatColor.GREEN + "進捗: " + percent + "% (" + current + "/" + total + ")");
+                                        ChatColor.GRAY + "読み込み: " + percent + "% (" + current + "/" + total + ")");
                             });
                         }
 
-                        // 完了チェック
+                        // 全員読み込んだら一括保存
                         if (current == total) {
-                            plugin.getTaskScheduler().runGlobal(() -> {
-                                sender.sendMessage(ChatColor.GREEN + "===========================");
-                                sender.sendMessage(ChatColor.GREEN + "移行完了！");
-                                sender.sendMessage(ChatColor.YELLOW + "移行したユーザー数: " + ChatColor.WHITE + migrated.get());
-                                sender.sendMessage(ChatColor.GREEN + "===========================");
-                            });
+                            saveMigratedRanks(sender, ranks, names);
                         }
                     });
                 }
@@ -162,6 +297,37 @@ public class IronDevCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    /**
+     * LuckPerms から読み込んだ階級をチャンクごとのトランザクションで一括保存
+     */
+    private void saveMigratedRanks(CommandSender sender, Map<UUID, Rank> ranks, Map<UUID, String> names) {
+        int total = ranks.size();
+        int reportInterval = Math.max(total / 10, 1);
+        AtomicInteger lastReported = new AtomicInteger(0);
+
+        plugin.getRankManager().setRanks(ranks, names, RankChangeEvent.Cause.OTHER, (completed, all) -> {
+            int reported = lastReported.get();
+            if ((completed - reported >= reportInterval || completed == all)
+                    && lastReported.compareAndSet(reported, completed)) {
+                int percent = (int) ((completed * 100.0) / all);
+                plugin.getTaskScheduler().runGlobal(() -> {
+                    sender.sendMessage(
+                            ChatColor.GREEN + "保存: " + percent + "% (" + completed + "/" + all + ")");
+                });
+            }
+        }).thenAccept(saved -> {
+            plugin.getTaskScheduler().runGlobal(() -> {
+                sender.sendMessage(ChatColor.GREEN + "===========================");
+                sender.sendMessage(ChatColor.GREEN + "移行完了！");
+                sender.sendMessage(ChatColor.YELLOW + "移行したユーザー数: " + ChatColor.WHITE + saved.size());
+                if (saved.size() < total) {
+                    sender.sendMessage(ChatColor.RED + "保存に失敗したユーザー数: " + (total - saved.size()));
+                }
+                sender.sendMessage(ChatColor.GREEN + "===========================");
+            });
+        });
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> completions = new ArrayList<>();
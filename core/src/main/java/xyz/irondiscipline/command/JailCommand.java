@@ -1,6 +1,7 @@
 package xyz.irondiscipline.command;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.util.DurationUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -14,6 +15,9 @@ import java.util.List;
 /**
  * /jail コマンド
  * プレイヤーを隔離する
+ * <p>
+ * 使用法: /jail <プレイヤー> [期間] [理由]。期間 (例: 30m, 1d12h) を省略すると無期限です。
+ * </p>
  */
 public class JailCommand implements CommandExecutor, TabCompleter {
 
@@ -39,30 +43,35 @@ public class JailCommand implements CommandExecutor, TabCompleter {
         String targetName = args[0];
         Player target = Bukkit.getPlayer(targetName);
 
-        // 隔離場所チェック
-        if (plugin.getConfigManager().getJailLocation() == null) {
+        // 隔離房チェック
+        if (plugin.getConfigManager().getJailCells().isEmpty()) {
             sender.sendMessage(plugin.getConfigManager().getMessage("jail_not_set"));
             return true;
         }
 
+        // 期間（オプション）
+        long duration = args.length >= 2 ? DurationUtil.parse(args[1]) : -1;
+        int reasonStart = duration > 0 ? 2 : 1;
+
         // 理由（オプション）
         String reason = plugin.getConfigManager().getRawMessage("jail_reason_default");
-        if (args.length >= 2) {
+        if (args.length > reasonStart) {
             StringBuilder sb = new StringBuilder();
-            for (int i = 1; i < args.length; i++) {
-                if (i > 1)
+            for (int i = reasonStart; i < args.length; i++) {
+                if (i > reasonStart)
                     sb.append(" ");
                 sb.append(args[i]);
             }
             reason = sb.toString();
         }
+        long durationMillis = Math.max(0, duration);
 
         // 隔離実行
         Player jailer = (sender instanceof Player) ? (Player) sender : null;
         boolean success;
 
         if (target != null) {
-            success = plugin.getJailManager().jail(target, jailer, reason);
+            success = plugin.getJailManager().jail(target, jailer, reason, durationMillis);
         } else {
             // オフラインプレイヤー
             @SuppressWarnings("deprecation")
@@ -73,10 +82,15 @@ public class JailCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
             success = plugin.getJailManager().jailOffline(offlineTarget.getUniqueId(), offlineTarget.getName(),
-                    jailer != null ? jailer.getUniqueId() : null, reason);
+                    jailer != null ? jailer.getUniqueId() : null, reason, durationMillis);
         }
 
-        if (success) {
+        if (success && durationMillis > 0) {
+            sender.sendMessage(plugin.getConfigManager().getMessage("jail_sent_timed",
+                    "%player%", target != null ? target.getName() : targetName,
+                    "%reason%", reason,
+                    "%duration%", DurationUtil.format(plugin.getConfigManager(), durationMillis)));
+        } else if (success) {
             sender.sendMessage(plugin.getConfigManager().getMessage("jail_sent",
                     "%player%", target != null ? target.getName() : targetName,
                     "%reason%", reason));
@@ -97,7 +111,12 @@ public class JailCommand implements CommandExecutor, TabCompleter {
                     completions.add(player.getName());
                 }
             }
-        } else if (args.length == 2) {
+        } else if (args.length == 2 || (args.length == 3 && DurationUtil.parse(args[1]) > 0)) {
+            if (args.length == 2) {
+                completions.add("30m");
+                completions.add("1h");
+                completions.add("1d");
+            }
             completions.add(plugin.getConfigManager().getRawMessage("jail_reason_suggestion_1"));
             completions.add(plugin.getConfigManager().getRawMessage("jail_reason_suggestion_2"));
             completions.add(plugin.getConfigManager().getRawMessage("jail_reason_suggestion_3"));
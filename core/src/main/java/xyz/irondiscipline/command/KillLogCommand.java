@@ -2,6 +2,8 @@ package xyz.irondiscipline.command;
 
 import xyz.irondiscipline.IronDiscipline;
 import xyz.irondiscipline.api.model.KillLog;
+import xyz.irondiscipline.api.model.KillLogPage;
+import xyz.irondiscipline.api.model.KillLogQuery;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
@@ -14,7 +16,9 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * /killlog コマンド
@@ -24,6 +28,10 @@ public class KillLogCommand implements CommandExecutor, TabCompleter {
 
     private final IronDiscipline plugin;
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MM/dd HH:mm:ss");
+    private static final int MAX_NAME_COMPLETIONS = 20;
+
+    /** 送信者ごとの次ページのクエリ (/killlog next 用) */
+    private final Map<String, PendingPage> nextPages = new ConcurrentHashMap<>();
 
     public KillLogCommand(IronDiscipline plugin) {
         this.plugin = plugin;
@@ -37,6 +45,16 @@ public class KillLogCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (args.length == 1 && args[0].equalsIgnoreCase("next")) {
+            PendingPage pending = nextPages.remove(sender.getName());
+            if (pending == null) {
+                sender.sendMessage(plugin.getConfigManager().getMessage("killlog_no_more"));
+            } else {
+                showPage(sender, pending.query, pending.header);
+            }
+            return true;
+        }
+
         int limit = 10;
         String targetName = null;
 
@@ -59,57 +77,57 @@ public class KillLogCommand implements CommandExecutor, TabCompleter {
             UUID targetId = target != null ? target.getUniqueId() : null;
             
             if (targetId == null) {
-                // オフラインプレイヤーを検索（簡易実装）
+                // オフラインプレイヤーは名前索引から UUID を解決
                 sender.sendMessage(plugin.getConfigManager().getMessage("killlog_searching", "%player%", targetName));
-                // 全ログから名前でフィルタ
-                plugin.getStorageManager().getAllKillLogsAsync(100).thenAccept(logs -> {
-                    plugin.getTaskScheduler().runGlobal(() -> {
-                        sender.sendMessage(plugin.getConfigManager().getMessage("killlog_header_player", "%player%", finalTargetName));
-                        int count = 0;
-                        for (KillLog log : logs) {
-                            if (count >= displayLimit) break;
-                            if (log.getKillerName() != null && log.getKillerName().equalsIgnoreCase(finalTargetName) ||
-                                log.getVictimName().equalsIgnoreCase(finalTargetName)) {
-                                sendLogEntry(sender, log);
-                                count++;
-                            }
-                        }
-                        if (count == 0) {
-                            sender.sendMessage(plugin.getConfigManager().getMessage("killlog_not_found"));
-                        }
-                    });
+                plugin.getPlayerNameManager().resolveAsync(targetName).thenAccept(resolved -> {
+                    if (resolved == null) {
+                        plugin.getTaskScheduler().runGlobal(() ->
+                                sender.sendMessage(plugin.getConfigManager().getMessage("killlog_not_found")));
+                        return;
+                    }
+                    KillLogQuery query = KillLogQuery.builder().player(resolved).limit(displayLimit).build();
+                    showPage(sender, query, plugin.getConfigManager().getMessage("killlog_header_player", "%player%", finalTargetName));
                 });
             } else {
-                plugin.getStorageManager().getKillLogsAsync(targetId, displayLimit).thenAccept(logs -> {
-                    plugin.getTaskScheduler().runGlobal(() -> {
-                        sender.sendMessage(plugin.getConfigManager().getMessage("killlog_header_player", "%player%", finalTargetName));
-                        for (KillLog log : logs) {
-                            sendLogEntry(sender, log);
-                        }
-                        if (logs.isEmpty()) {
-                            sender.sendMessage(plugin.getConfigManager().getMessage("killlog_not_found"));
-                        }
-                    });
-                });
+                KillLogQuery query = KillLogQuery.builder().player(targetId).limit(displayLimit).build();
+                showPage(sender, query, plugin.getConfigManager().getMessage("killlog_header_player", "%player%", finalTargetName));
             }
         } else {
             // 全ログ
-            plugin.getStorageManager().getAllKillLogsAsync(displayLimit).thenAccept(logs -> {
-                plugin.getTaskScheduler().runGlobal(() -> {
-                    sender.sendMessage(plugin.getConfigManager().getMessage("killlog_header_latest"));
-                    for (KillLog log : logs) {
-                        sendLogEntry(sender, log);
-                    }
-                    if (logs.isEmpty()) {
-                        sender.sendMessage(plugin.getConfigManager().getMessage("killlog_not_found"));
-                    }
-                });
-            });
+            KillLogQuery query = KillLogQuery.builder().limit(displayLimit).build();
+            showPage(sender, query, plugin.getConfigManager().getMessage("killlog_header_latest"));
         }
 
         return true;
     }
 
+    /**
+     * 1 ページ分を表示し、続きがあれば /killlog next 用に次のクエリを保持
+     */
+    private void showPage(CommandSender sender, KillLogQuery query, String header) {
+        plugin.getStorageManager().queryKillLogsAsync(query).thenAccept(page -> {
+            plugin.getTaskScheduler().runGlobal(() -> {
+                sender.sendMessage(header);
+                for (KillLog log : page.getLogs()) {
+                    sendLogEntry(sender, log);
+                }
+                if (page.isEmpty()) {
+                    sender.sendMessage(plugin.getConfigManager().getMessage("killlog_not_found"));
+                }
+                rememberNextPage(sender, query, page, header);
+            });
+        });
+    }
+
+    private void rememberNextPage(CommandSender sender, KillLogQuery query, KillLogPage page, String header) {
+        if (page.hasMore()) {
+            nextPages.put(sender.getName(), new PendingPage(query.withCursor(page.getNextCursor()), header));
+            sender.sendMessage(plugin.getConfigManager().getMessage("killlog_next_hint"));
+        } else {
+            nextPages.remove(sender.getName());
+        }
+    }
+
     /**
      * ログエントリを整形して送信
      */
@@ -137,6 +155,15 @@ public class KillLogCommand implements CommandExecutor, TabCompleter {
                     completions.add(player.getName());
                 }
             }
+            // オフラインプレイヤー
+            for (String name : plugin.getPlayerNameManager().complete(prefix, MAX_NAME_COMPLETIONS)) {
+                if (!completions.contains(name)) {
+                    completions.add(name);
+                }
+            }
+            if ("next".startsWith(prefix) && nextPages.containsKey(sender.getName())) {
+                completions.add("next");
+            }
             // 件数サジェスト
             completions.add("5");
             completions.add("10");
@@ -144,4 +171,14 @@ public class KillLogCommand implements CommandExecutor, TabCompleter {
         }
         return completions;
     }
+
+    private static final class PendingPage {
+        final KillLogQuery query;
+        final String header;
+
+        PendingPage(KillLogQuery query, String header) {
+            this.query = query;
+            this.header = header;
+        }
+    }
 }
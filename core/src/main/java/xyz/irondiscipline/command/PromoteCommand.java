@@ -1,6 +1,7 @@
 package xyz.irondiscipline.command;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
 import xyz.irondiscipline.model.Rank;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
@@ -11,6 +12,7 @@ import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * /promote コマンド
@@ -52,7 +54,8 @@ public class PromoteCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        plugin.getRankManager().promote(target).thenAccept(newRank -> {
+        UUID actorId = sender instanceof Player player ? player.getUniqueId() : null;
+        plugin.getRankManager().promote(target, RankChangeEvent.Cause.PROMOTE, actorId).thenAccept(newRank -> {
             if (newRank != null) {
                 if (sender instanceof Player senderPlayer) {
                     plugin.getTaskScheduler().runEntity(senderPlayer, () -> {
@@ -0,0 +1,74 @@
+package xyz.irondiscipline.database;
+
+import java.util.UUID;
+
+/**
+ * サーバー間で共有するキャッシュの変更通知 (change_log の 1 行)
+ */
+public final class CacheChange {
+
+    /**
+     * 変更されたデータの種類
+     */
+    public enum Kind {
+        /** 階級 (payload: 新しい階級 ID, null なら無効化のみ) */
+        RANK,
+        /** 隔離状態 (payload: "1" 隔離 / "0" 釈放) */
+        JAIL,
+        /** 部隊 (payload: 新しい部隊 ID, null なら解除) */
+        DIVISION,
+        /** 警告 (payload なし, 無効化のみ) */
+        WARNING
+    }
+
+    private final long version;
+    private final String serverId;
+    private final Kind kind;
+    private final UUID playerId;
+    private final String payload;
+    private final long createdAt;
+
+    public CacheChange(long version, String serverId, Kind kind, UUID playerId, String payload, long createdAt) {
+        this.version = version;
+        this.serverId = serverId;
+        this.kind = kind;
+        this.playerId = playerId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    /** 送信前の変更 (バージョンは書き込み時に決まる) */
+    public static CacheChange of(String serverId, Kind kind, UUID playerId, String payload) {
+        return new CacheChange(0, serverId, kind, playerId, payload, System.currentTimeMillis());
+    }
+
+    /** change_log の id (単調増加) */
+    public long getVersion() {
+        return version;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheChange[" + version + " " + kind + " " + playerId + " " + payload + " from " + serverId + "]";
+    }
+}
@@ -0,0 +1,369 @@
+package xyz.irondiscipline.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 共有 DB の change_log テーブルを使う {@link CoherenceTransport}
+ * <p>
+ * 送信は change_log への 1 行の INSERT です。受信は {@code pollInterval} ごとに
+ * 「前回読んだ id より後の行」を主キー範囲で 1 回読むだけで、コストはプレイヤー数に依存しません。
+ * 読み切れなかった場合 (batchSize 件ちょうど) は間を空けずに続きを読みます。
+ * </p>
+ * <p>
+ * AUTO_INCREMENT の id は採番順とコミット順が一致しないため、id が飛んでいる場合は
+ * {@code gapGrace} の間だけ続きの配信を止めて待ちます。それを過ぎても埋まらない欠番
+ * (ロールバックされた INSERT など) は飛ばします。{@code auto_increment_increment} が 1 でない
+ * MySQL 構成では毎回欠番になるため、gapGrace を 0 にしてください。
+ * </p>
+ */
+public class ChangeLogTransport implements CoherenceTransport {
+
+    private final ConnectionPool pool;
+    private final QueryRegistry queries;
+    private final ExecutorService dbExecutor;
+    private final Logger logger;
+    private final String failureMessage;
+    private final String serverId;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final long gapGraceMillis;
+    private final ScheduledExecutorService timer;
+
+    private volatile Consumer<List<CacheChange>> listener;
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile boolean closed = false;
+
+    // 読み込み位置 (DB スレッドのみが更新。-1 は未初期化)
+    private volatile long cursor = -1;
+    // 欠番を最初に見つけた時刻 (0 は欠番なし)
+    private long gapSince = 0;
+
+    // メトリクス
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong gapsSkipped = new AtomicLong();
+    private volatile long lastPollMillis = 0;
+
+    private ChangeLogTransport(Builder builder) {
+        this.pool = builder.pool;
+        this.queries = builder.queries;
+        this.dbExecutor = builder.dbExecutor;
+        this.logger = builder.logger;
+        this.failureMessage = builder.failureMessage;
+        this.serverId = builder.serverId;
+        this.pollIntervalMillis = builder.pollIntervalMillis;
+        this.batchSize = builder.batchSize;
+        this.gapGraceMillis = builder.gapGraceMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "IronDiscipline-ChangeLog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Builder builder(ConnectionPool pool, QueryRegistry queries, ExecutorService dbExecutor) {
+        return new Builder(pool, queries, dbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(CacheChange change) {
+        return CompletableFuture.runAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.CHANGE_LOG_INSERT)) {
+                bindInsert(ps, change);
+                ps.executeUpdate();
+                published.incrementAndGet();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, dbExecutor);
+    }
+
+    /**
+     * 1 回の executeBatch でまとめて書き込む
+     */
+    @Override
+    public CompletableFuture<Void> publishAll(List<CacheChange> changes) {
+        if (changes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.CHANGE_LOG_INSERT)) {
+                for (CacheChange change : changes) {
+                    bindInsert(ps, change);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                published.addAndGet(changes.size());
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, dbExecutor);
+    }
+
+    private void bindInsert(PreparedStatement ps, CacheChange change) throws SQLException {
+        ps.setString(1, serverId);
+        ps.setString(2, change.getKind().name());
+        ps.setBytes(3, UuidCodec.toBytes(change.getPlayerId()));
+        ps.setString(4, change.getPayload());
+        ps.setLong(5, change.getCreatedAt());
+    }
+
+    @Override
+    public void start(Consumer<List<CacheChange>> listener) {
+        this.listener = listener;
+        // 起動前の変更は読まない (キャッシュは空から始まる)
+        requestPoll();
+        if (pollIntervalMillis > 0) {
+            timer.scheduleWithFixedDelay(this::requestPoll,
+                    pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 受信を 1 回行う。前回の受信が DB スレッドで待機中・実行中なら何もしない
+     *
+     * @return 受信を予約した場合は true
+     */
+    public boolean requestPoll() {
+        if (closed || !polling.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            dbExecutor.execute(this::poll);
+            return true;
+        } catch (RejectedExecutionException e) {
+            polling.set(false);
+            return false;
+        }
+    }
+
+    /**
+     * 受信と配信を行う。配信が終わるまで polling を下ろさないため、
+     * 次の受信のバッチがこのバッチより先にリスナーへ届くことはない
+     */
+    private void poll() {
+        boolean more = false;
+        try {
+            List<CacheChange> changes = List.of();
+            long start = System.nanoTime();
+            try {
+                if (cursor < 0) {
+                    cursor = selectMaxId();
+                } else {
+                    List<CacheChange> rows = selectAfter(cursor);
+                    changes = accept(rows, System.currentTimeMillis());
+                    // 欠番で止まらずに batchSize 件読めた場合は続きがある
+                    more = rows.size() >= batchSize && gapSince == 0;
+                }
+                polls.incrementAndGet();
+            } catch (SQLException e) {
+                failures.incrementAndGet();
+                logger.log(Level.WARNING, failureMessage, e);
+            } finally {
+                lastPollMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+
+            if (!changes.isEmpty()) {
+                received.addAndGet(changes.size());
+                Consumer<List<CacheChange>> target = listener;
+                if (target != null) {
+                    try {
+                        target.accept(changes);
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, failureMessage, e);
+                    }
+                }
+            }
+        } finally {
+            polling.set(false);
+        }
+        if (more) {
+            requestPoll();
+        }
+    }
+
+    /**
+     * 読み込んだ行を id 順に確認し、連続している分だけ読み込み位置を進める。
+     * 他のサーバーの変更だけを返す
+     */
+    List<CacheChange> accept(List<CacheChange> rows, long now) {
+        List<CacheChange> changes = new ArrayList<>(rows.size());
+        for (CacheChange row : rows) {
+            if (row.getVersion() != cursor + 1 && gapGraceMillis > 0) {
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                if (now - gapSince < gapGraceMillis) {
+                    break;
+                }
+                gapsSkipped.incrementAndGet();
+            }
+            gapSince = 0;
+            cursor = row.getVersion();
+            if (!serverId.equals(row.getServerId())) {
+                changes.add(row);
+            }
+        }
+        return changes;
+    }
+
+    private long selectMaxId() throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = queries.prepare(conn, Query.CHANGE_LOG_MAX_ID);
+                ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private List<CacheChange> selectAfter(long after) throws SQLException {
+        List<CacheChange> rows = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = queries.prepare(conn, Query.CHANGE_LOG_SELECT_AFTER)) {
+            ps.setLong(1, after);
+            ps.setInt(2, batchSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    CacheChange.Kind kind;
+                    try {
+                        kind = CacheChange.Kind.valueOf(rs.getString("kind"));
+                    } catch (IllegalArgumentException e) {
+                        kind = null; // 新しいバージョンのサーバーが書いた種類
+                    }
+                    UUID playerId = UuidCodec.fromBytes(rs.getBytes("player_id"));
+                    CacheChange row = new CacheChange(rs.getLong("id"), rs.getString("server_id"), kind,
+                            playerId, rs.getString("payload"), rs.getLong("created_at"));
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        timer.shutdownNow();
+    }
+
+    // ===== メトリクス =====
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    /** 読み込み済みの最後の id (未初期化なら -1) */
+    public long getCursor() {
+        return cursor;
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /** 受信した他のサーバーの変更の累計 */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    public long getFailedPollCount() {
+        return failures.get();
+    }
+
+    /** 待っても埋まらずに飛ばした欠番の数 */
+    public long getSkippedGapCount() {
+        return gapsSkipped.get();
+    }
+
+    public long getLastPollMillis() {
+        return lastPollMillis;
+    }
+
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    /**
+     * 変更ログ設定ビルダー
+     */
+    public static class Builder {
+        private final ConnectionPool pool;
+        private final QueryRegistry queries;
+        private final ExecutorService dbExecutor;
+        private Logger logger = Logger.getLogger("IronDiscipline");
+        private String failureMessage = "Failed to read change log";
+        private String serverId = UUID.randomUUID().toString();
+        private long pollIntervalMillis = 1000;
+        private int batchSize = 500;
+        private long gapGraceMillis = 5000;
+
+        private Builder(ConnectionPool pool, QueryRegistry queries, ExecutorService dbExecutor) {
+            this.pool = pool;
+            this.queries = queries;
+            this.dbExecutor = dbExecutor;
+        }
+
+        public Builder logger(Logger logger, String failureMessage) {
+            this.logger = logger;
+            this.failureMessage = failureMessage;
+            return this;
+        }
+
+        /** このサーバーの識別子 (自分の変更を受信しないために使う。最大 36 文字) */
+        public Builder serverId(String serverId) {
+            if (serverId != null && !serverId.isEmpty()) {
+                this.serverId = serverId.length() > 36 ? serverId.substring(0, 36) : serverId;
+            }
+            return this;
+        }
+
+        /** 受信間隔 (0 以下なら requestPoll の呼び出し時のみ) */
+        public Builder pollInterval(long millis) {
+            this.pollIntervalMillis = millis;
+            return this;
+        }
+
+        /** 1 回に読む最大行数 (0 以下の場合はデフォルト値) */
+        public Builder batchSize(int batchSize) {
+            if (batchSize > 0) {
+                this.batchSize = batchSize;
+            }
+            return this;
+        }
+
+        /** 欠番が埋まるのを待つ時間 (0 以下なら待たない) */
+        public Builder gapGrace(long millis) {
+            this.gapGraceMillis = Math.max(0, millis);
+            return this;
+        }
+
+        public ChangeLogTransport build() {
+            return new ChangeLogTransport(this);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package xyz.irondiscipline.database;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * サーバー間でキャッシュの変更通知をやり取りする経路
+ * <p>
+ * 既定の実装は共有 DB の change_log を使う {@link ChangeLogTransport} です。
+ * 外部のメッセージブローカーを使う場合はこのインターフェースを実装して差し替えます。
+ * 自サーバーが送った変更は受信側に渡さないこと。
+ * </p>
+ */
+public interface CoherenceTransport extends AutoCloseable {
+
+    /**
+     * 変更を他のサーバーに送る
+     */
+    CompletableFuture<Void> publish(CacheChange change);
+
+    /**
+     * 複数の変更をまとめて他のサーバーに送る (一括操作用)
+     */
+    default CompletableFuture<Void> publishAll(List<CacheChange> changes) {
+        return CompletableFuture.allOf(changes.stream().map(this::publish).toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * 受信を開始する。listener には他のサーバーの変更が送信順にまとめて渡される
+     */
+    void start(Consumer<List<CacheChange>> listener);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,102 @@
+package xyz.irondiscipline.database;
+
+import xyz.irondiscipline.api.model.KillLog;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * キルログ 1 バッチ分の集計差分
+ * <p>
+ * バッチ内のログをプレイヤー・武器ごとに畳み込み、1 キーにつき 1 回の加算 UPSERT で
+ * {@code player_combat_stats} / {@code weapon_stats} に反映します。
+ * キルログの INSERT と同じトランザクションで実行されるため、集計とログは常に一致します。
+ * キーは常に同じ順序で更新し、並行する更新とのデッドロックを避けます。
+ * </p>
+ */
+public final class CombatStatsDelta {
+
+    private final Map<UUID, PlayerDelta> players = new TreeMap<>();
+    private final Map<String, WeaponDelta> weapons = new TreeMap<>();
+
+    /**
+     * ログ 1 件分を加算する
+     */
+    public void add(KillLog log) {
+        if (log.getKillerId() != null) {
+            PlayerDelta killer = players.computeIfAbsent(log.getKillerId(), id -> new PlayerDelta());
+            killer.name = log.getKillerName();
+            killer.kills++;
+            killer.maxDistance = Math.max(killer.maxDistance, log.getDistance());
+            killer.lastKill = Math.max(killer.lastKill, log.getTimestamp());
+
+            if (log.getWeapon() != null) {
+                WeaponDelta weapon = weapons.computeIfAbsent(log.getWeapon(), w -> new WeaponDelta());
+                weapon.kills++;
+                weapon.maxDistance = Math.max(weapon.maxDistance, log.getDistance());
+                weapon.lastKill = Math.max(weapon.lastKill, log.getTimestamp());
+            }
+        }
+
+        PlayerDelta victim = players.computeIfAbsent(log.getVictimId(), id -> new PlayerDelta());
+        if (log.getVictimName() != null) {
+            victim.name = log.getVictimName();
+        }
+        victim.deaths++;
+    }
+
+    public boolean isEmpty() {
+        return players.isEmpty();
+    }
+
+    /**
+     * 呼び出し元のトランザクション内で集計テーブルに加算する
+     */
+    public void write(Connection conn, QueryRegistry queries) throws SQLException {
+        try (PreparedStatement ps = queries.prepare(conn, Query.COMBAT_STATS_UPSERT)) {
+            for (Map.Entry<UUID, PlayerDelta> entry : players.entrySet()) {
+                PlayerDelta delta = entry.getValue();
+                ps.setBytes(1, UuidCodec.toBytes(entry.getKey()));
+                ps.setString(2, delta.name);
+                ps.setLong(3, delta.kills);
+                ps.setLong(4, delta.deaths);
+                ps.setDouble(5, delta.maxDistance);
+                ps.setLong(6, delta.lastKill);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        if (weapons.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = queries.prepare(conn, Query.WEAPON_STATS_UPSERT)) {
+            for (Map.Entry<String, WeaponDelta> entry : weapons.entrySet()) {
+                WeaponDelta delta = entry.getValue();
+                ps.setString(1, entry.getKey());
+                ps.setLong(2, delta.kills);
+                ps.setDouble(3, delta.maxDistance);
+                ps.setLong(4, delta.lastKill);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static final class PlayerDelta {
+        String name;
+        long kills;
+        long deaths;
+        double maxDistance;
+        long lastKill;
+    }
+
+    private static final class WeaponDelta {
+        long kills;
+        double maxDistance;
+        long lastKill;
+    }
+}
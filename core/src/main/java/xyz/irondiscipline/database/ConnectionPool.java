@@ -0,0 +1,759 @@
+package xyz.irondiscipline.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JDBC コネクションプール
+ * <p>
+ * 上限付きの物理接続を保持し、{@link #getConnection()} で「リース」を貸し出します。
+ * リースの {@code close()} は物理接続を閉じずにプールへ返却します。
+ * 一定時間アイドルだった接続は貸し出し前に {@link Connection#isValid(int)} で検証され、
+ * 切断を検知した接続は破棄して再接続します。
+ * </p>
+ * <p>
+ * 物理接続ごとに {@code prepareStatement(String)} の結果を LRU でキャッシュし、
+ * 同じ SQL の再準備を省きます。キャッシュされたステートメントの {@code close()} は
+ * パラメータをクリアしてキャッシュへ戻すだけです。
+ * </p>
+ * <p>
+ * {@link Builder#leakThreshold(long)} を超えて返却されないリースは、取得した箇所のスタックトレース付きで
+ * 警告します (次のリース取得時に確認するため、監視用のスレッドは持ちません)。
+ * 旧 API 向けの共有接続 ({@link #getSharedConnection()}) はプールの上限とは別の 1 本の物理接続です。
+ * </p>
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final long DEFAULT_ACQUIRE_TIMEOUT_MS = 5000;
+    private static final long DEFAULT_VALIDATION_INTERVAL_MS = 30000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long LEAK_SCAN_INTERVAL_MS = 1000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final int statementCacheSize;
+    private final long leakThresholdMillis;
+    private final Logger logger;
+
+    // アイドル接続 (LIFO で再利用し、暖かい接続を優先)
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    // 貸し出し可能数 (= maxSize - 貸出中)
+    private final Semaphore permits;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile boolean closed = false;
+    // 貸し出し中のリース (リーク検出用)
+    private final Set<LeaseHandler> activeLeases = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastLeakScan = new AtomicLong();
+    // 旧 API 向けの共有接続 (close() されない前提のため、プールとは別に持つ)
+    private final Object sharedLock = new Object();
+    private Connection sharedPhysical;
+    private volatile Connection sharedConnection;
+
+    // メトリクス
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong leaseTimeouts = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong leakWarnings = new AtomicLong();
+
+    private ConnectionPool(Builder builder) {
+        this.url = builder.url;
+        this.username = builder.username;
+        this.password = builder.password;
+        this.maxSize = builder.maxSize;
+        this.acquireTimeoutMillis = builder.acquireTimeoutMillis;
+        this.validationIntervalMillis = builder.validationIntervalMillis;
+        this.statementCacheSize = builder.statementCacheSize;
+        this.leakThresholdMillis = builder.leakThresholdMillis;
+        this.logger = builder.logger;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /** ビルダーパターンでプールを構築します。 */
+    public static Builder builder(String url) {
+        return new Builder(url);
+    }
+
+    /**
+     * 最初の物理接続を確立し、DB に到達できることを確認する。
+     * 起動時に呼び出すことで、接続設定の誤りを即座に検出できる。
+     */
+    public void start() throws SQLException {
+        PooledConnection first = new PooledConnection(openPhysical());
+        idle.offerFirst(first);
+    }
+
+    /**
+     * 接続をリースする。
+     * 返却された {@link Connection} は必ず {@code close()} してください (プールに返却されます)。
+     *
+     * @throws SQLTimeoutException 取得タイムアウト内に空きがなかった場合
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLNonTransientConnectionException("Connection pool is closed");
+        }
+        long scannedAt = lastLeakScan.get();
+        if (leakThresholdMillis > 0 && System.currentTimeMillis() - scannedAt >= LEAK_SCAN_INTERVAL_MS
+                && lastLeakScan.compareAndSet(scannedAt, System.currentTimeMillis())) {
+            checkLeaks();
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                leaseTimeouts.incrementAndGet();
+                checkLeaks();
+                throw new SQLTimeoutException("Timed out waiting for a database connection ("
+                        + acquireTimeoutMillis + "ms, pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(openPhysical());
+            }
+            leaseCount.incrementAndGet();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 検証済みのアイドル接続を取り出す。無ければ null。
+     */
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isHealthy(pooled)) {
+                return pooled;
+            }
+            reconnects.incrementAndGet();
+            logger.warning("Discarding broken database connection; reconnecting");
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isHealthy(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - pooled.lastUsed < validationIntervalMillis) {
+                return true;
+            }
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        openConnections.incrementAndGet();
+        return connection;
+    }
+
+    private void discard(PooledConnection pooled) {
+        openConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * リース返却 (PooledConnection から呼ばれる)
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            pooled.returnBorrowedStatements();
+            if (closed || pooled.broken || !reset(pooled.physical)) {
+                discard(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 次の利用者のために接続状態を初期化する。
+     */
+    private boolean reset(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Failed to reset pooled connection", e);
+            return false;
+        }
+    }
+
+    /**
+     * しきい値を超えて返却されていないリースを警告する (1 リースにつき 1 回)
+     */
+    public void checkLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (LeaseHandler lease : activeLeases) {
+            if (!lease.reported && now - lease.leasedAt >= leakThresholdMillis) {
+                lease.reported = true;
+                leakWarnings.incrementAndGet();
+                logger.log(Level.WARNING, "Database connection held for " + (now - lease.leasedAt)
+                        + "ms without being returned (thread " + lease.thread + "); possible connection leak",
+                        lease.origin);
+            }
+        }
+    }
+
+    /**
+     * 旧 API ({@code IStorageProvider#getConnection()}) 向けの共有接続。
+     * <p>
+     * プールの上限とは別の 1 本の物理接続を全ての呼び出し元で共有します。
+     * {@code close()} は無視され、切断を検知した場合は次の呼び出しで再接続します。
+     * 物理接続は最初に使われた時点で開きます。
+     * </p>
+     */
+    public Connection getSharedConnection() {
+        Connection connection = sharedConnection;
+        if (connection == null) {
+            synchronized (sharedLock) {
+                connection = sharedConnection;
+                if (connection == null) {
+                    connection = (Connection) Proxy.newProxyInstance(
+                            ConnectionPool.class.getClassLoader(),
+                            new Class<?>[] { Connection.class },
+                            new SharedHandler());
+                    sharedConnection = connection;
+                }
+            }
+        }
+        return connection;
+    }
+
+    private Connection sharedPhysical() throws SQLException {
+        synchronized (sharedLock) {
+            if (closed) {
+                throw new SQLNonTransientConnectionException("Connection pool is closed");
+            }
+            if (sharedPhysical == null || sharedPhysical.isClosed()) {
+                if (sharedPhysical != null) {
+                    openConnections.decrementAndGet();
+                    reconnects.incrementAndGet();
+                }
+                sharedPhysical = openPhysical();
+            }
+            return sharedPhysical;
+        }
+    }
+
+    private void discardShared(Connection physical) {
+        synchronized (sharedLock) {
+            if (sharedPhysical != physical) {
+                return;
+            }
+            sharedPhysical = null;
+            openConnections.decrementAndGet();
+        }
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    // ===== メトリクス =====
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** 現在貸し出し中の接続数 */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /** アイドル接続数 */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /** 開いている物理接続数 */
+    public int getOpenCount() {
+        return openConnections.get();
+    }
+
+    public long getLeaseCount() {
+        return leaseCount.get();
+    }
+
+    public long getLeaseTimeouts() {
+        return leaseTimeouts.get();
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /** リークの疑いで警告したリース数 */
+    public long getLeakWarnings() {
+        return leakWarnings.get();
+    }
+
+    /** リース取得の平均待ち時間 (ミリ秒) */
+    public double getAverageWaitMillis() {
+        long leases = leaseCount.get();
+        return leases == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / leases;
+    }
+
+    /**
+     * プールを閉じる。アイドル接続は即座に閉じられ、
+     * 貸し出し中の接続は返却時に閉じられる。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+        Connection shared;
+        synchronized (sharedLock) {
+            shared = sharedPhysical;
+        }
+        if (shared != null) {
+            discardShared(shared);
+        }
+    }
+
+    /**
+     * 物理接続とその状態
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile boolean broken = false;
+
+        // 同時に使うのは 1 リースのみのため同期は不要 (貸し出し・返却で happens-before が成立する)
+        private final Map<String, CachedStatement> statements;
+        private final List<StatementHandler> borrowed = new ArrayList<>();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                    ? new LinkedHashMap<>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                            if (size() <= statementCacheSize) {
+                                return false;
+                            }
+                            eldest.getValue().evict();
+                            return true;
+                        }
+                    }
+                    : null;
+        }
+
+        /**
+         * キャッシュ済みステートメントを借りる。
+         * キャッシュ無効時、または同じ SQL が使用中の場合は通常どおり準備する。
+         */
+        PreparedStatement prepare(Connection lease, String sql) throws SQLException {
+            if (statements == null) {
+                return physical.prepareStatement(sql);
+            }
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && cached.inUse) {
+                statementCacheMisses.incrementAndGet();
+                return physical.prepareStatement(sql);
+            }
+            if (cached == null || cached.statement.isClosed()) {
+                statementCacheMisses.incrementAndGet();
+                cached = new CachedStatement(physical.prepareStatement(sql));
+                statements.put(sql, cached);
+            } else {
+                statementCacheHits.incrementAndGet();
+            }
+            cached.inUse = true;
+            StatementHandler handler = new StatementHandler(this, cached, lease);
+            borrowed.add(handler);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    handler);
+        }
+
+        /**
+         * リース終了時、close() されずに残ったステートメントをキャッシュへ戻す
+         */
+        void returnBorrowedStatements() {
+            if (borrowed.isEmpty()) {
+                return;
+            }
+            for (Iterator<StatementHandler> it = borrowed.iterator(); it.hasNext();) {
+                it.next().giveBack();
+                it.remove();
+            }
+        }
+
+        Connection lease() {
+            LeaseHandler handler = new LeaseHandler(this);
+            activeLeases.add(handler);
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    handler);
+        }
+    }
+
+    /**
+     * リースの動作: close() で返却、それ以外は物理接続へ委譲。
+     * 接続系の SQLException (SQLState 08xxx) を検知した接続は返却時に破棄する。
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        final long leasedAt = System.currentTimeMillis();
+        final String thread = Thread.currentThread().getName();
+        // リーク警告用の取得箇所 (検出が無効なら null)
+        final Throwable origin = leakThresholdMillis > 0 ? new Throwable("Connection leased here") : null;
+        volatile boolean reported = false;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (released.compareAndSet(false, true)) {
+                        activeLeases.remove(this);
+                        if (reported) {
+                            logger.info("Previously reported database connection returned after "
+                                    + (System.currentTimeMillis() - leasedAt) + "ms (thread " + thread + ")");
+                        }
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released.get() || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + pooled.physical + "]";
+                }
+                default -> {
+                    if (released.get()) {
+                        throw new SQLException("Connection lease has already been closed");
+                    }
+                    if (method.getName().equals("prepareStatement") && args.length == 1) {
+                        try {
+                            return pooled.prepare((Connection) proxy, (String) args[0]);
+                        } catch (SQLException e) {
+                            if (isConnectionError(e)) {
+                                pooled.broken = true;
+                            }
+                            throw e;
+                        }
+                    }
+                }
+            }
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isConnectionError(sqlException)) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+
+    }
+
+    /**
+     * 共有接続の動作: close() は無視し、それ以外は現在の物理接続へ委譲。
+     * 接続系の SQLException を検知した物理接続は破棄し、次の呼び出しで開き直す。
+     */
+    private final class SharedHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "SharedConnection[" + url + "]";
+                }
+                default -> {
+                }
+            }
+
+            Connection physical = sharedPhysical();
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isConnectionError(sqlException)) {
+                    discardShared(physical);
+                }
+                throw cause;
+            }
+        }
+    }
+
+    private static boolean isConnectionError(SQLException e) {
+        if (e instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    /**
+     * キャッシュされた物理ステートメント
+     */
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        boolean inUse = false;
+        boolean evicted = false;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        /** LRU から外れた。使用中なら返却時に閉じる */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * キャッシュされたステートメントの貸し出しハンドル:
+     * close() でパラメータをクリアしてキャッシュへ戻す
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final CachedStatement cached;
+        private final Connection lease;
+        private boolean returned = false;
+
+        StatementHandler(PooledConnection pooled, CachedStatement cached, Connection lease) {
+            this.pooled = pooled;
+            this.cached = cached;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        giveBack();
+                        pooled.borrowed.remove(this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || cached.statement.isClosed();
+                }
+                case "getConnection" -> {
+                    return lease;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "CachedStatement[" + cached.statement + "]";
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                }
+            }
+
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isConnectionError(sqlException)) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        void giveBack() {
+            returned = true;
+            cached.inUse = false;
+            if (cached.evicted) {
+                cached.closeQuietly();
+                return;
+            }
+            try {
+                cached.statement.clearParameters();
+                cached.statement.clearBatch();
+            } catch (SQLException e) {
+                // 再利用できない状態のため閉じる (次回 isClosed() で再準備される)
+                cached.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * プール設定ビルダー
+     */
+    public static class Builder {
+        private final String url;
+        private String username = "";
+        private String password = "";
+        private int maxSize = 4;
+        private long acquireTimeoutMillis = DEFAULT_ACQUIRE_TIMEOUT_MS;
+        private long validationIntervalMillis = DEFAULT_VALIDATION_INTERVAL_MS;
+        private int statementCacheSize = 64;
+        private long leakThresholdMillis = 0;
+        private Logger logger = Logger.getLogger("IronDiscipline");
+
+        private Builder(String url) {
+            this.url = url;
+        }
+
+        public Builder credentials(String username, String password) {
+            this.username = username;
+            this.password = password;
+            return this;
+        }
+
+        /** 最大接続数 (1 未満は 1 として扱う) */
+        public Builder maxSize(int maxSize) {
+            this.maxSize = Math.max(1, maxSize);
+            return this;
+        }
+
+        /** 接続取得タイムアウト (0 以下の場合はデフォルト値) */
+        public Builder acquireTimeout(long millis) {
+            this.acquireTimeoutMillis = millis > 0 ? millis : DEFAULT_ACQUIRE_TIMEOUT_MS;
+            return this;
+        }
+
+        /** アイドル接続を再検証するまでの時間 (0 以下の場合はデフォルト値) */
+        public Builder validationInterval(long millis) {
+            this.validationIntervalMillis = millis > 0 ? millis : DEFAULT_VALIDATION_INTERVAL_MS;
+            return this;
+        }
+
+        /** 物理接続ごとにキャッシュするステートメント数 (0 以下で無効) */
+        public Builder statementCacheSize(int size) {
+            this.statementCacheSize = Math.max(0, size);
+            return this;
+        }
+
+        /** このミリ秒を超えて返却されないリースを警告する (0 以下で無効) */
+        public Builder leakThreshold(long millis) {
+            this.leakThresholdMillis = Math.max(0, millis);
+            return this;
+        }
+
+        public Builder logger(Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        public ConnectionPool build() {
+            return new ConnectionPool(this);
+        }
+    }
+}
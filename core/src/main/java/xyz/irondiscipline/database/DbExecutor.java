@@ -0,0 +1,150 @@
+package xyz.irondiscipline.database;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DB ワーカープールと、キーごとの直列実行
+ * <p>
+ * ワーカーが複数あると投入順に実行される保証がなくなるため、同じプレイヤーへの書き込み
+ * (隔離の保存 → 解除の削除、同じ UUID への 2 回の setRank など) は {@link #forKey(Object)}
+ * で得た Executor に投入します。同じキーのタスクは投入順に 1 つずつ実行され、
+ * 異なるキーのタスクはプールで並行に実行されます。キーは {@code stripes} 本の列に
+ * ハッシュで振り分けるため、別のキーが同じ列に入った場合も順に実行されるだけです。
+ * </p>
+ * <p>
+ * {@link #execute(Runnable)} はキーなしでプールにそのまま投入します (一覧・集計などの読み込み用)。
+ * </p>
+ */
+public final class DbExecutor extends AbstractExecutorService {
+
+    private final ExecutorService pool;
+    private final SerialExecutor[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes 直列実行の列の数 (2 のべき乗に切り上げ)
+     */
+    public DbExecutor(ExecutorService pool, int stripes) {
+        this.pool = pool;
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new SerialExecutor[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new SerialExecutor(pool);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 既に DbExecutor ならそのまま、そうでなければ包んで返す
+     */
+    public static DbExecutor wrap(ExecutorService executor) {
+        if (executor instanceof DbExecutor) {
+            return (DbExecutor) executor;
+        }
+        return new DbExecutor(executor, 16);
+    }
+
+    /**
+     * キーごとに投入順で実行する Executor (null はキーなしと同じ)
+     */
+    public Executor forKey(Object key) {
+        if (key == null) {
+            return this;
+        }
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        pool.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return pool.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return pool.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 投入順に 1 つずつプールへ渡す Executor
+     */
+    private static final class SerialExecutor implements Executor {
+
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private final Executor pool;
+        private Runnable active;
+
+        SerialExecutor(Executor pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            tasks.add(() -> {
+                try {
+                    command.run();
+                } finally {
+                    next();
+                }
+            });
+            if (active == null) {
+                active = tasks.poll();
+                try {
+                    pool.execute(active);
+                } catch (RuntimeException e) {
+                    // 投入元にそのまま伝える (プール停止後など)
+                    active = null;
+                    tasks.clear();
+                    throw e;
+                }
+            }
+        }
+
+        /**
+         * 実行中のワーカーから次のタスクを渡す。
+         * プールが停止して受け付けない場合は、待っていたタスクをこのワーカーで続けて実行する
+         */
+        private void next() {
+            Runnable task;
+            synchronized (this) {
+                task = active = tasks.poll();
+                if (task == null) {
+                    return;
+                }
+                try {
+                    pool.execute(task);
+                    return;
+                } catch (RuntimeException e) {
+                    // 下で実行する
+                }
+            }
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package xyz.irondiscipline.database;
+
+import xyz.irondiscipline.api.model.KillLogCursor;
+import xyz.irondiscipline.api.model.KillLogQuery;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * kill_logs の月単位パーティション管理
+ * <p>
+ * ログは UTC の暦月ごとのバケットに格納され、保存期間を過ぎたバケットは
+ * 行単位の DELETE ではなくバケットごと削除されます。
+ * </p>
+ * <ul>
+ *   <li>MySQL: {@code kill_logs} 自体を {@code PARTITION BY RANGE (timestamp)} で分割し、
+ *       月ごとのパーティション {@code pYYYYMM} と末尾の {@code pmax} を持ちます。</li>
+ *   <li>H2: 月ごとのテーブル {@code kill_logs_YYYYMM} を作り、{@code kill_logs} は
+ *       全バケットを UNION ALL するビューになります (アドオンからの読み取り用)。
+ *       書き込みと本体の検索はバケットのテーブルを直接使い、検索は新しいバケットから順に
+ *       必要な件数に達するまで読みます。ID は共有シーケンスで全バケットを通して一意です。</li>
+ * </ul>
+ */
+public class KillLogPartitions {
+
+    public static final String TABLE = "kill_logs";
+    /** H2 のバケット間で共有する ID シーケンス */
+    public static final String ID_SEQUENCE = "kill_log_id_seq";
+
+    private static final String COLUMNS = "id, timestamp, killer_id, killer_name, victim_id, victim_name, "
+            + "weapon, distance, world, x, y, z";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM", Locale.ROOT);
+    private static final Pattern BUCKET_TABLE = Pattern.compile("(?i)kill_logs_(\\d{6})");
+    private static final Pattern PARTITION = Pattern.compile("(?i)p(\\d{6})");
+
+    private final ConnectionPool pool;
+    private final QueryRegistry queries;
+    private final SqlDialect dialect;
+    private final ConcurrentSkipListSet<YearMonth> buckets = new ConcurrentSkipListSet<>();
+    // バケットの作成・削除 (DDL) の直列化
+    private final Object ddlLock = new Object();
+
+    public KillLogPartitions(ConnectionPool pool, QueryRegistry queries) {
+        this.pool = pool;
+        this.queries = queries;
+        this.dialect = queries.getDialect();
+    }
+
+    // ===== バケットの計算 =====
+
+    public static YearMonth bucketOf(long timestamp) {
+        return YearMonth.from(Instant.ofEpochMilli(timestamp).atZone(ZoneOffset.UTC));
+    }
+
+    public static long startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static long endOf(YearMonth month) {
+        return startOf(month.plusMonths(1));
+    }
+
+    /** H2 のバケットテーブル名 */
+    public static String bucketTable(YearMonth month) {
+        return TABLE + "_" + month.format(SUFFIX);
+    }
+
+    /** MySQL のパーティション名 */
+    public static String partitionName(YearMonth month) {
+        return "p" + month.format(SUFFIX);
+    }
+
+    // ===== 起動時 =====
+
+    /**
+     * 既存のバケットを読み込み、今月と来月のバケットを用意する
+     */
+    public void load() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            buckets.clear();
+            buckets.addAll(dialect == SqlDialect.MYSQL ? listPartitions(conn) : listBucketTables(conn));
+        }
+        ensureAhead();
+    }
+
+    /**
+     * 今月と来月のバケットを用意する (月替わりの最初の書き込みで DDL を待たせないため)
+     */
+    public void ensureAhead() throws SQLException {
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        try (Connection conn = pool.getConnection()) {
+            ensure(conn, List.of(now, now.plusMonths(1)));
+        }
+    }
+
+    // ===== 書き込み =====
+
+    /**
+     * ログの書き込み先テーブル
+     */
+    public String tableFor(long timestamp) {
+        return dialect == SqlDialect.MYSQL ? TABLE : bucketTable(bucketOf(timestamp));
+    }
+
+    /**
+     * 書き込み先テーブルへの INSERT 文
+     */
+    public String insertSql(String table) {
+        String sql = queries.sql(Query.KILL_LOG_INSERT);
+        return TABLE.equals(table) ? sql : sql.replaceFirst(TABLE, table);
+    }
+
+    /**
+     * 指定月のバケットが無ければ作成する。
+     * DDL は暗黙にコミットされるため、書き込みトランザクションの開始前に呼ぶこと。
+     */
+    public void ensure(Connection conn, Collection<YearMonth> months) throws SQLException {
+        if (buckets.containsAll(months)) {
+            return;
+        }
+        synchronized (ddlLock) {
+            NavigableSet<YearMonth> missing = new TreeSet<>(months);
+            missing.removeAll(buckets);
+            if (missing.isEmpty()) {
+                return;
+            }
+            if (dialect == SqlDialect.MYSQL) {
+                addPartitions(conn, missing);
+            } else {
+                for (YearMonth month : missing) {
+                    createBucketTable(conn, month);
+                }
+                buckets.addAll(missing);
+                replaceView(conn, buckets);
+            }
+        }
+    }
+
+    // ===== 読み取り =====
+
+    /**
+     * 検索対象のテーブル (新しい順)。
+     * H2 では期間とカーソルに重なるバケットだけを返す。
+     */
+    public List<String> scanTables(KillLogQuery query, KillLogCursor cursor) {
+        if (dialect == SqlDialect.MYSQL) {
+            return List.of(TABLE); // パーティションの絞り込みは MySQL が行う
+        }
+        List<String> tables = new ArrayList<>();
+        for (YearMonth month : buckets.descendingSet()) {
+            long start = startOf(month);
+            long end = endOf(month);
+            if (query.getUntil() > 0 && start >= query.getUntil()) {
+                continue;
+            }
+            if (cursor != null && start > cursor.getTimestamp()) {
+                continue;
+            }
+            if (query.getSince() > 0 && end <= query.getSince()) {
+                break;
+            }
+            tables.add(bucketTable(month));
+        }
+        return tables;
+    }
+
+    public List<YearMonth> getBuckets() {
+        return new ArrayList<>(buckets);
+    }
+
+    // ===== 保存期間 =====
+
+    /**
+     * 全体が cutoff より古いバケットを削除する (今月のバケットは削除しない)
+     *
+     * @return 削除したバケット
+     */
+    public List<YearMonth> dropBefore(long cutoff) throws SQLException {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        synchronized (ddlLock) {
+            List<YearMonth> expired = new ArrayList<>();
+            for (YearMonth month : buckets) {
+                if (endOf(month) > cutoff || !month.isBefore(current)) {
+                    break;
+                }
+                expired.add(month);
+            }
+            if (expired.isEmpty()) {
+                return expired;
+            }
+
+            try (Connection conn = pool.getConnection()) {
+                if (dialect == SqlDialect.MYSQL) {
+                    StringJoiner names = new StringJoiner(", ");
+                    expired.forEach(month -> names.add(partitionName(month)));
+                    execute(conn, "ALTER TABLE " + TABLE + " DROP PARTITION " + names);
+                    buckets.removeAll(expired);
+                } else {
+                    // ビューから外してからテーブルを削除する
+                    buckets.removeAll(expired);
+                    replaceView(conn, buckets);
+                    for (YearMonth month : expired) {
+                        execute(conn, "DROP TABLE IF EXISTS " + bucketTable(month));
+                    }
+                }
+            }
+            return expired;
+        }
+    }
+
+    // ===== DDL (移行処理からも使用) =====
+
+    /**
+     * H2 のバケットテーブルとインデックスを作成する
+     */
+    public static void createBucketTable(Connection conn, YearMonth month) throws SQLException {
+        String table = bucketTable(month);
+        execute(conn, """
+                    CREATE TABLE IF NOT EXISTS %s (
+                        id BIGINT DEFAULT NEXT VALUE FOR %s PRIMARY KEY,
+                        timestamp BIGINT NOT NULL,
+                        killer_id BINARY(16),
+                        killer_name VARCHAR(32),
+                        victim_id BINARY(16) NOT NULL,
+                        victim_name VARCHAR(32) NOT NULL,
+                        weapon VARCHAR(64),
+                        distance DOUBLE,
+                        world VARCHAR(64),
+                        x DOUBLE,
+                        y DOUBLE,
+                        z DOUBLE
+                    )
+                """.formatted(table, ID_SEQUENCE));
+        execute(conn, "CREATE INDEX IF NOT EXISTS idx_" + table + "_time ON " + table + "(timestamp, id)");
+        execute(conn, "CREATE INDEX IF NOT EXISTS idx_" + table + "_killer ON " + table + "(killer_id, timestamp, id)");
+        execute(conn, "CREATE INDEX IF NOT EXISTS idx_" + table + "_victim ON " + table + "(victim_id, timestamp, id)");
+    }
+
+    /**
+     * H2 の kill_logs ビューを指定バケットで作り直す
+     */
+    public static void replaceView(Connection conn, Collection<YearMonth> months) throws SQLException {
+        StringJoiner union = new StringJoiner(" UNION ALL ");
+        for (YearMonth month : months) {
+            union.add("SELECT " + COLUMNS + " FROM " + bucketTable(month));
+        }
+        execute(conn, "CREATE OR REPLACE VIEW " + TABLE + " AS " + union);
+    }
+
+    /**
+     * MySQL の PARTITION BY 句 (first ～ last の各月 + pmax)
+     */
+    public static String partitionClause(YearMonth first, YearMonth last) {
+        return "PARTITION BY RANGE (timestamp) " + partitionList(first, last);
+    }
+
+    /**
+     * first ～ last の各月と pmax のパーティション定義
+     */
+    private static String partitionList(YearMonth first, YearMonth last) {
+        StringJoiner parts = new StringJoiner(", ", "(", ")");
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            parts.add("PARTITION " + partitionName(month) + " VALUES LESS THAN (" + endOf(month) + ")");
+        }
+        parts.add("PARTITION pmax VALUES LESS THAN MAXVALUE");
+        return parts.toString();
+    }
+
+    /**
+     * H2 の既存バケットテーブル
+     */
+    public static List<YearMonth> listBucketTables(Connection conn) throws SQLException {
+        List<YearMonth> months = new ArrayList<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getTables(conn.getCatalog(), null, "%", null)) {
+            while (rs.next()) {
+                Matcher matcher = BUCKET_TABLE.matcher(rs.getString("TABLE_NAME"));
+                if (matcher.matches()) {
+                    months.add(YearMonth.parse(matcher.group(1), SUFFIX));
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * MySQL の既存パーティション (pmax を除く)
+     */
+    public static List<YearMonth> listPartitions(Connection conn) throws SQLException {
+        List<YearMonth> months = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + TABLE + "' "
+                        + "AND PARTITION_NAME IS NOT NULL")) {
+            while (rs.next()) {
+                Matcher matcher = PARTITION.matcher(rs.getString(1));
+                if (matcher.matches()) {
+                    months.add(YearMonth.parse(matcher.group(1), SUFFIX));
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * pmax を分割して末尾に月のパーティションを追加する。
+     * 既存の最終月以前の月は既存パーティションに含まれるため追加しない。
+     */
+    private void addPartitions(Connection conn, NavigableSet<YearMonth> missing) throws SQLException {
+        YearMonth last = buckets.isEmpty() ? null : buckets.last();
+        YearMonth target = missing.last();
+        if (last != null && !target.isAfter(last)) {
+            return;
+        }
+        YearMonth first = last != null ? last.plusMonths(1) : missing.first();
+        execute(conn, "ALTER TABLE " + TABLE + " REORGANIZE PARTITION pmax INTO " + partitionList(first, target));
+        for (YearMonth month = first; !month.isAfter(target); month = month.plusMonths(1)) {
+            buckets.add(month);
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package xyz.irondiscipline.database;
+
+import xyz.irondiscipline.api.model.KillLogCursor;
+import xyz.irondiscipline.api.model.KillLogQuery;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link KillLogQuery} から組み立てたキルログの SELECT 文
+ * <p>
+ * 並び順は {@code timestamp DESC, id DESC} 固定で、続きのページは
+ * {@code timestamp < ? OR (timestamp = ? AND id < ?)} のキーセット条件で取得します。
+ * プレイヤー指定 (killer または victim) の場合は、それぞれのインデックスで
+ * LIMIT 済みの 2 つの枝を UNION ALL し、小さな結果だけを並べ直します。
+ * </p>
+ * <p>
+ * SQL の形は条件の有無の組み合わせだけで決まるため種類は限られており、
+ * 接続ごとのステートメントキャッシュがそのまま効きます。
+ * </p>
+ */
+public final class KillLogSelect {
+
+    private static final String COLUMNS = "id, timestamp, killer_id, killer_name, victim_id, victim_name, "
+            + "weapon, distance, world, x, y, z";
+    private static final String ORDER = " ORDER BY timestamp DESC, id DESC LIMIT ?";
+
+    private final String sql;
+    private final List<Object> params;
+
+    private KillLogSelect(String sql, List<Object> params) {
+        this.sql = sql;
+        this.params = params;
+    }
+
+    /**
+     * @param query  検索条件 (カーソルと件数は引数を優先)
+     * @param cursor 開始位置 (null なら最新から)
+     * @param limit  取得する最大行数
+     */
+    public static KillLogSelect of(KillLogQuery query, KillLogCursor cursor, int limit) {
+        return of(KillLogPartitions.TABLE, query, cursor, limit);
+    }
+
+    /**
+     * @param table 検索するテーブル (H2 の月バケットなど)
+     */
+    public static KillLogSelect of(String table, KillLogQuery query, KillLogCursor cursor, int limit) {
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+
+        if (query.getPlayerId() == null) {
+            sql.append("SELECT ").append(COLUMNS).append(" FROM ").append(table).append(" WHERE 1 = 1");
+            appendFilters(sql, params, query, cursor);
+            sql.append(ORDER);
+            params.add(limit);
+            return new KillLogSelect(sql.toString(), params);
+        }
+
+        byte[] player = UuidCodec.toBytes(query.getPlayerId());
+        sql.append("SELECT ").append(COLUMNS).append(" FROM (");
+
+        sql.append("(SELECT ").append(COLUMNS).append(" FROM ").append(table).append(" WHERE killer_id = ?");
+        params.add(player);
+        appendFilters(sql, params, query, cursor);
+        sql.append(ORDER).append(")");
+        params.add(limit);
+
+        // 自分自身を倒したログは killer 側の枝で既に拾っている
+        sql.append(" UNION ALL (SELECT ").append(COLUMNS)
+                .append(" FROM ").append(table).append(" WHERE victim_id = ? AND (killer_id IS NULL OR killer_id <> ?)");
+        params.add(player);
+        params.add(player);
+        appendFilters(sql, params, query, cursor);
+        sql.append(ORDER).append(")");
+        params.add(limit);
+
+        sql.append(") t").append(ORDER);
+        params.add(limit);
+        return new KillLogSelect(sql.toString(), params);
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> params, KillLogQuery query,
+            KillLogCursor cursor) {
+        if (query.getKillerId() != null) {
+            sql.append(" AND killer_id = ?");
+            params.add(UuidCodec.toBytes(query.getKillerId()));
+        }
+        if (query.getVictimId() != null) {
+            sql.append(" AND victim_id = ?");
+            params.add(UuidCodec.toBytes(query.getVictimId()));
+        }
+        if (query.getWorld() != null) {
+            sql.append(" AND world = ?");
+            params.add(query.getWorld());
+        }
+        if (query.getWeapon() != null) {
+            sql.append(" AND weapon = ?");
+            params.add(query.getWeapon());
+        }
+        if (query.getSince() > 0) {
+            sql.append(" AND timestamp >= ?");
+            params.add(query.getSince());
+        }
+        if (query.getUntil() > 0) {
+            sql.append(" AND timestamp < ?");
+            params.add(query.getUntil());
+        }
+        if (cursor != null) {
+            sql.append(" AND (timestamp < ? OR (timestamp = ? AND id < ?))");
+            params.add(cursor.getTimestamp());
+            params.add(cursor.getTimestamp());
+            params.add(cursor.getId());
+        }
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * ステートメントを準備し、パラメータをバインドする
+     */
+    public PreparedStatement prepare(Connection conn) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        try {
+            for (int i = 0; i < params.size(); i++) {
+                Object value = params.get(i);
+                if (value instanceof byte[] bytes) {
+                    ps.setBytes(i + 1, bytes);
+                } else if (value instanceof Long number) {
+                    ps.setLong(i + 1, number);
+                } else if (value instanceof Integer number) {
+                    ps.setInt(i + 1, number);
+                } else {
+                    ps.setString(i + 1, (String) value);
+                }
+            }
+            return ps;
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package xyz.irondiscipline.database;
+
+import xyz.irondiscipline.api.model.KillLog;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * キルログの書き込みバッファ (write-behind)
+ * <p>
+ * {@link #enqueue(KillLog)} はキューに積むだけで即座に戻り、
+ * 件数 ({@code batchSize}) または時間 ({@code flushInterval}) のどちらかに達した時点で
+ * DB スレッド上で 1 トランザクションの {@code executeBatch} としてまとめて書き込みます。
+ * 戦闘統計の集計テーブル ({@link CombatStatsDelta}) も同じトランザクションで更新します。
+ * ログはタイムスタンプの月のバケット ({@link KillLogPartitions}) に振り分けて書き込みます。
+ * キューは上限付きで、溢れた場合は {@link OverflowPolicy} に従います。
+ * </p>
+ */
+public class KillLogWriter {
+
+    /**
+     * キューが満杯のときの動作
+     */
+    public enum OverflowPolicy {
+        /** 空きが出るまで最大 blockTimeout 待ち、それでも空かなければ新しいログを破棄 */
+        BLOCK,
+        /** 最も古い未書き込みログを破棄して新しいログを積む */
+        DROP_OLDEST,
+        /** 新しいログを破棄 */
+        DROP_NEWEST;
+
+        public static OverflowPolicy parse(String value, OverflowPolicy def) {
+            if (value == null) {
+                return def;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return def;
+            }
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final QueryRegistry queries;
+    private final KillLogPartitions partitions;
+    private final ExecutorService dbExecutor;
+    private final Logger logger;
+    private final String failureMessage;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long blockTimeoutMillis;
+    private final OverflowPolicy overflowPolicy;
+
+    private final BlockingQueue<Pending> queue;
+    private final ScheduledExecutorService flushTimer;
+    // DB スレッドへ投入済みのフラッシュがあるか (重複投入防止)
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+    // フラッシュの直列化 (DB スレッドと shutdown 時の同期フラッシュ)
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean closed = false;
+
+    // メトリクス
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos = 0;
+    private volatile long maxFlushNanos = 0;
+
+    private KillLogWriter(Builder builder) {
+        this.pool = builder.pool;
+        this.queries = builder.queries;
+        this.partitions = builder.partitions;
+        this.dbExecutor = builder.dbExecutor;
+        this.logger = builder.logger;
+        this.failureMessage = builder.failureMessage;
+        this.batchSize = builder.batchSize;
+        this.flushIntervalMillis = builder.flushIntervalMillis;
+        this.blockTimeoutMillis = builder.blockTimeoutMillis;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.queue = new ArrayBlockingQueue<>(builder.capacity);
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "IronDiscipline-KillLogFlush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushTimer.scheduleWithFixedDelay(this::requestFlush,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static Builder builder(ConnectionPool pool, ExecutorService dbExecutor, QueryRegistry queries) {
+        return new Builder(pool, dbExecutor, queries);
+    }
+
+    /**
+     * キルログを書き込みキューに積む。
+     * 返される Future は実際に DB へ書き込まれた時点 (または破棄・失敗時) に完了する。
+     * {@link #close()} の後は書き込まず、Future を {@link IllegalStateException} で失敗させる。
+     */
+    public CompletableFuture<Void> enqueue(KillLog log) {
+        Pending pending = new Pending(log);
+        if (closed) {
+            reject(pending);
+            return pending.future;
+        }
+
+        if (!offer(pending)) {
+            dropped.incrementAndGet();
+            pending.future.complete(null);
+            return pending.future;
+        }
+
+        if (closed && queue.remove(pending)) {
+            // close() の書き出しと入れ違いになった (取り出されていれば close() 側で完了する)
+            reject(pending);
+            return pending.future;
+        }
+
+        if (queue.size() >= batchSize) {
+            requestFlush();
+        }
+        return pending.future;
+    }
+
+    private void reject(Pending pending) {
+        dropped.incrementAndGet();
+        pending.future.completeExceptionally(new IllegalStateException("KillLogWriter is closed"));
+    }
+
+    private boolean offer(Pending pending) {
+        if (queue.offer(pending)) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                requestFlush();
+                try {
+                    return queue.offer(pending, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            case DROP_OLDEST -> {
+                // 他スレッドとの競合で空きが埋まる可能性があるため、積めるまで古いものを捨てる
+                while (!queue.offer(pending)) {
+                    Pending oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped.incrementAndGet();
+                        oldest.future.complete(null);
+                    }
+                }
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * DB スレッドへフラッシュを依頼する (既に依頼済みなら何もしない)
+     */
+    private void requestFlush() {
+        if (queue.isEmpty() || !flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dbExecutor.execute(() -> {
+                flushQueued.set(false);
+                drain();
+                if (queue.size() >= batchSize) {
+                    requestFlush();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            flushQueued.set(false);
+        }
+    }
+
+    /**
+     * キューが空になるまでバッチ単位で書き込む
+     */
+    private void drain() {
+        flushLock.lock();
+        try {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                flushBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushBatch(List<Pending> batch) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try (Connection conn = pool.getConnection()) {
+            Map<String, List<KillLog>> byTable = groupByTable(conn, batch);
+            conn.setAutoCommit(false);
+            try {
+                CombatStatsDelta stats = new CombatStatsDelta();
+                for (Map.Entry<String, List<KillLog>> entry : byTable.entrySet()) {
+                    try (PreparedStatement ps = prepareInsert(conn, entry.getKey())) {
+                        for (KillLog log : entry.getValue()) {
+                            bind(ps, log);
+                            ps.addBatch();
+                            stats.add(log);
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                // 集計テーブルもログと同じトランザクションで更新する
+                stats.write(conn, queries);
+                conn.commit();
+                success = true;
+            } catch (SQLException e) {
+                // autoCommit の復元はプール返却時に行われる
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, failureMessage + " (" + batch.size() + ")", e);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos = elapsed;
+        if (elapsed > maxFlushNanos) {
+            maxFlushNanos = elapsed;
+        }
+        (success ? written : failed).addAndGet(batch.size());
+
+        // 従来の saveKillLogAsync と同様、失敗はログに記録して Future は正常完了させる
+        for (Pending pending : batch) {
+            pending.future.complete(null);
+        }
+    }
+
+    /**
+     * ログを書き込み先のバケットごとに分け、無いバケットを作成する。
+     * DDL は暗黙にコミットされるため、トランザクションの開始前に行う。
+     */
+    private Map<String, List<KillLog>> groupByTable(Connection conn, List<Pending> batch) throws SQLException {
+        Map<String, List<KillLog>> byTable = new LinkedHashMap<>();
+        if (partitions == null) {
+            List<KillLog> logs = new ArrayList<>(batch.size());
+            batch.forEach(pending -> logs.add(pending.log));
+            byTable.put(KillLogPartitions.TABLE, logs);
+            return byTable;
+        }
+        Set<YearMonth> months = new HashSet<>();
+        for (Pending pending : batch) {
+            long timestamp = pending.log.getTimestamp();
+            months.add(KillLogPartitions.bucketOf(timestamp));
+            byTable.computeIfAbsent(partitions.tableFor(timestamp), table -> new ArrayList<>()).add(pending.log);
+        }
+        partitions.ensure(conn, months);
+        return byTable;
+    }
+
+    private PreparedStatement prepareInsert(Connection conn, String table) throws SQLException {
+        if (partitions == null) {
+            return queries.prepare(conn, Query.KILL_LOG_INSERT);
+        }
+        return conn.prepareStatement(partitions.insertSql(table));
+    }
+
+    private static void bind(PreparedStatement ps, KillLog log) throws SQLException {
+        ps.setLong(1, log.getTimestamp());
+        ps.setBytes(2, UuidCodec.toBytes(log.getKillerId()));
+        ps.setString(3, log.getKillerName());
+        ps.setBytes(4, UuidCodec.toBytes(log.getVictimId()));
+        ps.setString(5, log.getVictimName());
+        ps.setString(6, log.getWeapon());
+        ps.setDouble(7, log.getDistance());
+        ps.setString(8, log.getWorld());
+        ps.setDouble(9, log.getX());
+        ps.setDouble(10, log.getY());
+        ps.setDouble(11, log.getZ());
+    }
+
+    /**
+     * 未書き込みのログを全て書き込んでから停止する。
+     * 呼び出し元スレッドで同期的に書き込むため、DB スレッド停止前に呼び出すこと。
+     */
+    public void close() {
+        closed = true;
+        flushTimer.shutdownNow();
+        drain();
+    }
+
+    // ===== メトリクス =====
+
+    /** 未書き込みのログ件数 */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    /** 直近のフラッシュ所要時間 (ミリ秒) */
+    public double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000.0;
+    }
+
+    /** フラッシュ所要時間の平均 (ミリ秒) */
+    public double getAverageFlushMillis() {
+        long count = flushes.get();
+        return count == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / count;
+    }
+
+    /** フラッシュ所要時間の最大値 (ミリ秒) */
+    public double getMaxFlushMillis() {
+        return maxFlushNanos / 1_000_000.0;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    private static final class Pending {
+        final KillLog log;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Pending(KillLog log) {
+            this.log = log;
+        }
+    }
+
+    /**
+     * 書き込みバッファ設定ビルダー
+     */
+    public static class Builder {
+        private final ConnectionPool pool;
+        private final ExecutorService dbExecutor;
+        private final QueryRegistry queries;
+        private KillLogPartitions partitions;
+        private Logger logger = Logger.getLogger("IronDiscipline");
+        private String failureMessage = "Failed to save kill logs";
+        private int batchSize = 100;
+        private long flushIntervalMillis = 1000;
+        private int capacity = 10000;
+        private long blockTimeoutMillis = 50;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+        private Builder(ConnectionPool pool, ExecutorService dbExecutor, QueryRegistry queries) {
+            this.pool = pool;
+            this.dbExecutor = dbExecutor;
+            this.queries = queries;
+        }
+
+        public Builder logger(Logger logger, String failureMessage) {
+            this.logger = logger;
+            this.failureMessage = failureMessage;
+            return this;
+        }
+
+        /** 月単位のバケットへ振り分けて書き込む (未指定なら kill_logs へ直接書き込む) */
+        public Builder partitions(KillLogPartitions partitions) {
+            this.partitions = partitions;
+            return this;
+        }
+
+        /** 1 トランザクションあたりの最大件数 (0 以下の場合はデフォルト値) */
+        public Builder batchSize(int batchSize) {
+            if (batchSize > 0) {
+                this.batchSize = batchSize;
+            }
+            return this;
+        }
+
+        /** 件数に達しなくても書き込む間隔 (0 以下の場合はデフォルト値) */
+        public Builder flushInterval(long millis) {
+            if (millis > 0) {
+                this.flushIntervalMillis = millis;
+            }
+            return this;
+        }
+
+        /** キューの上限件数 (0 以下の場合はデフォルト値) */
+        public Builder capacity(int capacity) {
+            if (capacity > 0) {
+                this.capacity = capacity;
+            }
+            return this;
+        }
+
+        public Builder overflowPolicy(OverflowPolicy policy, long blockTimeoutMillis) {
+            if (policy != null) {
+                this.overflowPolicy = policy;
+            }
+            if (blockTimeoutMillis > 0) {
+                this.blockTimeoutMillis = blockTimeoutMillis;
+            }
+            return this;
+        }
+
+        public KillLogWriter build() {
+            if (capacity < batchSize) {
+                capacity = batchSize;
+            }
+            return new KillLogWriter(this);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package xyz.irondiscipline.database;
+
+/**
+ * 全 SQL ステートメントの定義
+ * <p>
+ * 各ステートメントはここで一度だけ宣言します。方言によって構文が異なるものは
+ * MySQL 用の別テキストを持ち、{@link QueryRegistry} が起動時に解決します。
+ * </p>
+ */
+public enum Query {
+
+    // ===== kill_logs =====
+
+    KILL_LOG_INSERT("""
+            INSERT INTO kill_logs (timestamp, killer_id, killer_name, victim_id, victim_name,
+                                   weapon, distance, world, x, y, z)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """),
+
+    // SELECT はフィルタの組み合わせで形が変わるため KillLogSelect で組み立てる
+    // 保存期間の削除は KillLogPartitions がバケット単位で行う
+
+    // ===== player_combat_stats / weapon_stats =====
+
+    COMBAT_STATS_UPSERT("""
+            INSERT INTO player_combat_stats (player_id, player_name, kills, deaths, max_distance, last_kill)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+            player_name = COALESCE(VALUES(player_name), player_name),
+            kills = kills + VALUES(kills),
+            deaths = deaths + VALUES(deaths),
+            max_distance = GREATEST(max_distance, VALUES(max_distance)),
+            last_kill = GREATEST(last_kill, VALUES(last_kill))
+            """),
+
+    WEAPON_STATS_UPSERT("""
+            INSERT INTO weapon_stats (weapon, kills, max_distance, last_kill)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+            kills = kills + VALUES(kills),
+            max_distance = GREATEST(max_distance, VALUES(max_distance)),
+            last_kill = GREATEST(last_kill, VALUES(last_kill))
+            """),
+
+    COMBAT_STATS_SELECT("SELECT * FROM player_combat_stats WHERE player_id = ?"),
+
+    COMBAT_STATS_TOP_KILLS("SELECT * FROM player_combat_stats ORDER BY kills DESC, deaths ASC LIMIT ?"),
+
+    COMBAT_STATS_TOP_DEATHS("SELECT * FROM player_combat_stats ORDER BY deaths DESC, kills ASC LIMIT ?"),
+
+    // デス 0 は 1 として扱う (キル数がそのまま K/D)
+    COMBAT_STATS_TOP_KD("""
+            SELECT * FROM player_combat_stats
+            WHERE kills >= ?
+            ORDER BY kills * 1.0 / GREATEST(deaths, 1) DESC, kills DESC
+            LIMIT ?
+            """),
+
+    COMBAT_STATS_TOP_DISTANCE("SELECT * FROM player_combat_stats ORDER BY max_distance DESC LIMIT ?"),
+
+    WEAPON_STATS_TOP("SELECT * FROM weapon_stats ORDER BY kills DESC LIMIT ?"),
+
+    // ===== jailed_players =====
+
+    JAIL_UPSERT("""
+            MERGE INTO jailed_players (player_id, player_name, reason, jailed_at, jailed_by, original_location, cell, expires_at)
+            KEY (player_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, """
+            INSERT INTO jailed_players (player_id, player_name, reason, jailed_at, jailed_by, original_location, cell, expires_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+            player_name = VALUES(player_name),
+            reason = VALUES(reason),
+            jailed_at = VALUES(jailed_at),
+            jailed_by = VALUES(jailed_by),
+            original_location = VALUES(original_location),
+            cell = VALUES(cell),
+            expires_at = VALUES(expires_at)
+            """),
+
+    JAIL_UPDATE_CELL("UPDATE jailed_players SET cell = ? WHERE player_id = ?"),
+
+    JAIL_DELETE("DELETE FROM jailed_players WHERE player_id = ?"),
+
+    JAIL_EXISTS("SELECT 1 FROM jailed_players WHERE player_id = ?"),
+
+    // メタデータのみ (バックアップは jail_backups の行の有無だけ返す)
+    JAIL_SELECT_RECORD("""
+            SELECT j.player_name, j.reason, j.jailed_at, j.jailed_by, j.original_location, j.cell, j.expires_at,
+            CASE WHEN b.player_id IS NULL THEN 0 ELSE 1 END AS has_backup
+            FROM jailed_players j LEFT JOIN jail_backups b ON b.player_id = j.player_id
+            WHERE j.player_id = ?
+            """),
+
+    JAIL_SELECT_IDS("SELECT player_id FROM jailed_players"),
+
+    JAIL_SELECT_CELLS("SELECT player_id, cell FROM jailed_players"),
+
+    JAIL_SELECT_EXPIRIES("SELECT player_id, expires_at FROM jailed_players WHERE expires_at IS NOT NULL"),
+
+    // ===== jail_backups =====
+
+    JAIL_BACKUP_UPSERT("""
+            MERGE INTO jail_backups (player_id, inventory_backup, armor_backup)
+            KEY (player_id)
+            VALUES (?, ?, ?)
+            """, """
+            INSERT INTO jail_backups (player_id, inventory_backup, armor_backup)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+            inventory_backup = VALUES(inventory_backup),
+            armor_backup = VALUES(armor_backup)
+            """),
+
+    JAIL_BACKUP_DELETE("DELETE FROM jail_backups WHERE player_id = ?"),
+
+    JAIL_BACKUP_SELECT("SELECT inventory_backup, armor_backup FROM jail_backups WHERE player_id = ?"),
+
+    JAIL_BACKUP_SELECT_INVENTORY("SELECT inventory_backup FROM jail_backups WHERE player_id = ?"),
+
+    JAIL_BACKUP_SELECT_ARMOR("SELECT armor_backup FROM jail_backups WHERE player_id = ?"),
+
+    // ===== warnings =====
+
+    WARNING_INSERT("INSERT INTO warnings (player_id, player_name, reason, warned_by, timestamp) VALUES (?, ?, ?, ?, ?)"),
+
+    WARNING_SELECT_BY_PLAYER("SELECT * FROM warnings WHERE player_id = ? ORDER BY timestamp ASC"),
+
+    WARNING_DELETE_BY_PLAYER("DELETE FROM warnings WHERE player_id = ?"),
+
+    WARNING_SELECT_LAST_ID("SELECT id FROM warnings WHERE player_id = ? ORDER BY timestamp DESC LIMIT 1"),
+
+    WARNING_DELETE_BY_ID("DELETE FROM warnings WHERE id = ?"),
+
+    // ===== player_ranks =====
+
+    RANK_SELECT("SELECT rank_id FROM player_ranks WHERE player_id = ?"),
+
+    // MySQL も H2(MODE=MySQL) も ON DUPLICATE KEY UPDATE 構文をサポートしているため共通化
+    RANK_UPSERT("""
+            INSERT INTO player_ranks (player_id, player_name, rank_id, updated_at)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+            player_name = VALUES(player_name),
+            rank_id = VALUES(rank_id),
+            updated_at = VALUES(updated_at)
+            """),
+
+    // 一括設定用 (名前が分からない場合は既存の名前を残す)
+    RANK_UPSERT_KEEP_NAME("""
+            INSERT INTO player_ranks (player_id, player_name, rank_id, updated_at)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+            player_name = COALESCE(VALUES(player_name), player_name),
+            rank_id = VALUES(rank_id),
+            updated_at = VALUES(updated_at)
+            """),
+
+    RANK_SELECT_ALL("SELECT player_id, rank_id FROM player_ranks"),
+
+    // 複数プレイヤーの一括読み込み (ログイン前の読み込み、getRanks)
+    RANK_SELECT_IN("SELECT player_id, rank_id FROM player_ranks WHERE player_id IN (%s)"),
+
+    // 一括設定の変更前の階級。RANK_SELECT_FOR_UPDATE と同じく、同じプレイヤーへの同時書き込みを直列化する
+    RANK_SELECT_IN_FOR_UPDATE("SELECT player_id, rank_id FROM player_ranks WHERE player_id IN (%s) FOR UPDATE"),
+
+    // 履歴の変更前の階級を正しく記録するため、同じプレイヤーへの同時書き込みを直列化する
+    RANK_SELECT_FOR_UPDATE("SELECT rank_id FROM player_ranks WHERE player_id = ? FOR UPDATE"),
+
+    // ===== rank_history =====
+
+    RANK_HISTORY_INSERT("""
+            INSERT INTO rank_history (player_id, old_rank, new_rank, cause, actor_id, changed_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """),
+
+    // (player_id, changed_at, id) 索引の範囲スキャン。ページの件数分だけ読む
+    RANK_HISTORY_SELECT_LATEST("""
+            SELECT id, old_rank, new_rank, cause, actor_id, changed_at FROM rank_history
+            WHERE player_id = ?
+            ORDER BY changed_at DESC, id DESC LIMIT ?
+            """),
+
+    RANK_HISTORY_SELECT_BEFORE("""
+            SELECT id, old_rank, new_rank, cause, actor_id, changed_at FROM rank_history
+            WHERE player_id = ? AND (changed_at < ? OR (changed_at = ? AND id < ?))
+            ORDER BY changed_at DESC, id DESC LIMIT ?
+            """),
+
+    // 指定時刻以前の最後の 1 行 (索引を逆順に 1 行読むだけ)
+    RANK_HISTORY_SELECT_AT("""
+            SELECT new_rank FROM rank_history
+            WHERE player_id = ? AND changed_at <= ?
+            ORDER BY changed_at DESC, id DESC LIMIT 1
+            """),
+
+    // ===== player_names =====
+
+    PLAYER_NAME_UPSERT("""
+            INSERT INTO player_names (player_id, name, name_lower, last_seen)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+            name = VALUES(name),
+            name_lower = VALUES(name_lower),
+            last_seen = VALUES(last_seen)
+            """),
+
+    // 同じ名前を過去に使ったプレイヤーが複数いる場合は最後に見たプレイヤー
+    PLAYER_NAME_SELECT_BY_NAME(
+            "SELECT player_id, name FROM player_names WHERE name_lower = ? ORDER BY last_seen DESC LIMIT 1"),
+
+    PLAYER_NAME_SELECT_RECENT("SELECT player_id, name FROM player_names ORDER BY last_seen DESC LIMIT ?"),
+
+    // ===== ログイン前の一括読み込み (PlayerSessionLoader) =====
+    // IN (%s) を含むものは QueryRegistry#prepareIn で準備する
+
+    SESSION_JAIL_SELECT_IN("SELECT player_id, expires_at FROM jailed_players WHERE player_id IN (%s)"),
+
+    SESSION_WARNING_SELECT_IN("""
+            SELECT player_id, reason, warned_by, timestamp FROM warnings
+            WHERE player_id IN (%s) ORDER BY timestamp ASC
+            """),
+
+    // ===== change_log =====
+
+    CHANGE_LOG_INSERT("INSERT INTO change_log (server_id, kind, player_id, payload, created_at) VALUES (?, ?, ?, ?, ?)"),
+
+    // 主キー範囲のスキャンのみ (サーバー数・プレイヤー数に関係なく 1 回)
+    CHANGE_LOG_SELECT_AFTER("""
+            SELECT id, server_id, kind, player_id, payload, created_at FROM change_log
+            WHERE id > ? ORDER BY id ASC LIMIT ?
+            """),
+
+    CHANGE_LOG_MAX_ID("SELECT MAX(id) FROM change_log");
+
+    private final String h2;
+    private final String mysql;
+
+    Query(String sql) {
+        this(sql, sql);
+    }
+
+    Query(String h2, String mysql) {
+        this.h2 = h2;
+        this.mysql = mysql;
+    }
+
+    /**
+     * 指定方言の SQL テキスト
+     */
+    public String sql(SqlDialect dialect) {
+        return dialect == SqlDialect.MYSQL ? mysql : h2;
+    }
+}
@@ -0,0 +1,107 @@
+package xyz.irondiscipline.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方言解決済みのステートメント登録簿
+ * <p>
+ * 起動時に {@link Query} の全テキストを方言に合わせて解決し、配列で保持します。
+ * {@link #prepare(Connection, Query)} で得られるステートメントは
+ * {@link ConnectionPool} の物理接続ごとのキャッシュから再利用されます。
+ * </p>
+ * <p>
+ * {@code IN (%s)} を含むステートメントは {@link #prepareIn(Connection, Query, List)} で準備します。
+ * プレースホルダ数は 2 のべき乗に切り上げ、余りは先頭の ID で埋めるため、
+ * SQL の種類は数通りに収まり、同じくステートメントキャッシュに載ります。
+ * </p>
+ */
+public final class QueryRegistry {
+
+    private static final Map<SqlDialect, QueryRegistry> REGISTRIES = new EnumMap<>(SqlDialect.class);
+
+    static {
+        for (SqlDialect dialect : SqlDialect.values()) {
+            REGISTRIES.put(dialect, new QueryRegistry(dialect));
+        }
+    }
+
+    private final SqlDialect dialect;
+    private final String[] sql;
+    /** IN リスト展開済みの SQL ((ordinal << 16) | プレースホルダ数 → SQL) */
+    private final Map<Integer, String> inSql = new ConcurrentHashMap<>();
+
+    private QueryRegistry(SqlDialect dialect) {
+        this.dialect = dialect;
+        Query[] queries = Query.values();
+        this.sql = new String[queries.length];
+        for (Query query : queries) {
+            sql[query.ordinal()] = query.sql(dialect);
+        }
+    }
+
+    public static QueryRegistry of(SqlDialect dialect) {
+        return REGISTRIES.get(dialect);
+    }
+
+    /**
+     * config.yml の database.type から登録簿を取得する
+     */
+    public static QueryRegistry forType(String dbType) {
+        return of(SqlDialect.fromType(dbType));
+    }
+
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+
+    public String sql(Query query) {
+        return sql[query.ordinal()];
+    }
+
+    /**
+     * ステートメントを準備する。使用後は通常どおり close() すること
+     * (プールの接続ではキャッシュへの返却になる)。
+     */
+    public PreparedStatement prepare(Connection conn, Query query) throws SQLException {
+        return conn.prepareStatement(sql[query.ordinal()]);
+    }
+
+    /**
+     * {@code %s} を UUID の IN リストに展開したステートメントを準備し、ID をバインドする。
+     * IN リストより前にパラメータを持たないステートメント用
+     *
+     * @param ids 1 件以上の UUID
+     */
+    public PreparedStatement prepareIn(Connection conn, Query query, List<UUID> ids) throws SQLException {
+        int slots = ids.size() <= 1 ? 1 : Integer.highestOneBit(ids.size() - 1) << 1;
+        String text = inSql.computeIfAbsent((query.ordinal() << 16) | slots,
+                key -> String.format(sql[query.ordinal()], placeholders(slots)));
+        PreparedStatement ps = conn.prepareStatement(text);
+        for (int i = 0; i < slots; i++) {
+            UUID id = i < ids.size() ? ids.get(i) : ids.get(0);
+            ps.setBytes(i + 1, UuidCodec.toBytes(id));
+        }
+        return ps;
+    }
+
+    /**
+     * {@code ?, ?, ...} を count 個
+     */
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,466 @@
+package xyz.irondiscipline.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 保存期間切れの行を少しずつ削除するバックグラウンドスイーパー
+ * <p>
+ * 1 回の DB 処理は主キー範囲で区切った最大 {@code chunkSize} 行の削除だけで、
+ * チャンクごとに {@code dbExecutor} へ投入し直し、間に {@code pause} の待ちを挟みます。
+ * これにより、長い DELETE 文の後ろで通常のクエリが待たされることはありません。
+ * </p>
+ * <p>
+ * 範囲は「条件に一致するキーを昇順に chunkSize 件」読み、その最小～最大キーの範囲を
+ * 同じ条件で削除することで決めます。キーは数値 ID でも BINARY の UUID でも構いません。
+ * </p>
+ */
+public class RetentionSweeper {
+
+    private final ConnectionPool pool;
+    private final ExecutorService dbExecutor;
+    private final Logger logger;
+    private final String failureMessage;
+    private final List<Target> targets;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final ScheduledExecutorService timer;
+
+    // 実行中のスイープ (null なら待機中)
+    private Run current;
+    private volatile boolean closed = false;
+
+    // メトリクス
+    private final AtomicLong totalDeleted = new AtomicLong();
+    private final AtomicLong totalChunks = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+    private final Map<String, AtomicLong> deletedByTarget = new ConcurrentHashMap<>();
+    private volatile long lastRunAt = 0;
+    private volatile long lastRunMillis = 0;
+    private volatile long lastRunRows = 0;
+    private volatile double lastRowsPerSecond = 0;
+
+    private RetentionSweeper(Builder builder) {
+        this.pool = builder.pool;
+        this.dbExecutor = builder.dbExecutor;
+        this.logger = builder.logger;
+        this.failureMessage = builder.failureMessage;
+        this.targets = List.copyOf(builder.targets);
+        this.chunkSize = builder.chunkSize;
+        this.pauseMillis = builder.pauseMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "IronDiscipline-RetentionSweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (builder.intervalMillis > 0) {
+            timer.scheduleWithFixedDelay(this::requestRun,
+                    builder.intervalMillis, builder.intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        for (Target target : targets) {
+            deletedByTarget.put(target.name, new AtomicLong());
+        }
+    }
+
+    public static Builder builder(ConnectionPool pool, ExecutorService dbExecutor) {
+        return new Builder(pool, dbExecutor);
+    }
+
+    /**
+     * スイープを開始する。既に実行中ならその完了を待つ Future を返す。
+     *
+     * @return 今回のスイープで削除した行数
+     */
+    public synchronized CompletableFuture<Long> requestRun() {
+        if (current != null) {
+            return current.future;
+        }
+        Run run = new Run();
+        current = run;
+        runs.incrementAndGet();
+        schedule(run, 0);
+        return run.future;
+    }
+
+    private void schedule(Run run, long delayMillis) {
+        try {
+            // 待ちは専用スレッドで行い、DB スレッドには削除 1 チャンク分だけを投入する
+            timer.schedule(() -> {
+                try {
+                    dbExecutor.execute(() -> step(run));
+                } catch (RejectedExecutionException e) {
+                    finish(run);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            finish(run);
+        }
+    }
+
+    /**
+     * 1 チャンク分を削除し、次のチャンクを予約する
+     */
+    private void step(Run run) {
+        try {
+            if (closed || (run.slice == null && !run.nextSlice())) {
+                finish(run);
+                return;
+            }
+            Slice slice = run.slice;
+            int deleted = deleteChunk(slice);
+            if (deleted > 0) {
+                run.deleted += deleted;
+                totalDeleted.addAndGet(deleted);
+                deletedByTarget.get(slice.target.name).addAndGet(deleted);
+            }
+            totalChunks.incrementAndGet();
+            if (slice.done) {
+                slice.backlog = 0;
+                run.slice = null;
+            } else {
+                // 下限を数え直す (削除した行数を引くと、残っていても 0 になるため)
+                slice.backlog = countBacklog(slice);
+            }
+            run.updateBacklog();
+        } catch (SQLException | RuntimeException e) {
+            // 想定外の例外でもスイープを止めず、current が残り続けないようにする
+            logger.log(Level.WARNING, failureMessage + " (" + (run.slice != null ? run.slice.target.name : "-") + ")", e);
+            run.slice = null; // このテーブルは次回のスイープで再試行
+        }
+        schedule(run, pauseMillis);
+    }
+
+    /**
+     * 条件に一致するキーを最大 chunkSize 件読み、その範囲を削除する
+     */
+    private int deleteChunk(Slice slice) throws SQLException {
+        Target target = slice.target;
+        String where = target.condition + (slice.lastKey != null ? " AND " + target.key + " > ?" : "");
+        try (Connection conn = pool.getConnection()) {
+            Object first = null;
+            Object last = null;
+            int keys = 0;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT " + target.key + " FROM " + slice.table
+                    + " WHERE " + where + " ORDER BY " + target.key + " LIMIT ?")) {
+                int index = bind(ps, slice);
+                ps.setInt(index, chunkSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        last = rs.getObject(1);
+                        if (first == null) {
+                            first = last;
+                        }
+                        keys++;
+                    }
+                }
+            }
+            if (keys < chunkSize) {
+                slice.done = true;
+            }
+            if (keys == 0) {
+                return 0;
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + slice.table + " WHERE "
+                    + target.condition + " AND " + target.key + " >= ? AND " + target.key + " <= ?")) {
+                ps.setLong(1, slice.cutoff);
+                ps.setObject(2, first);
+                ps.setObject(3, last);
+                int deleted = ps.executeUpdate();
+                slice.lastKey = last;
+                return deleted;
+            }
+        }
+    }
+
+    private static int bind(PreparedStatement ps, Slice slice) throws SQLException {
+        ps.setLong(1, slice.cutoff);
+        if (slice.lastKey == null) {
+            return 2;
+        }
+        ps.setObject(2, slice.lastKey);
+        return 3;
+    }
+
+    /**
+     * テーブルの残件数の下限。全件は数えず、まだ削除していない範囲を最大 chunkSize 件まで確認する
+     * (確認に失敗した場合は前回の値のまま)
+     */
+    private long countBacklog(Slice slice) {
+        Target target = slice.target;
+        String where = target.condition + (slice.lastKey != null ? " AND " + target.key + " > ?" : "");
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM (SELECT 1 FROM " + slice.table
+                        + " WHERE " + where + " LIMIT ?) probe")) {
+            int index = bind(ps, slice);
+            ps.setInt(index, chunkSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            return slice.backlog;
+        }
+    }
+
+    private synchronized void finish(Run run) {
+        long elapsed = System.currentTimeMillis() - run.startedAt;
+        lastRunAt = run.startedAt;
+        lastRunMillis = elapsed;
+        lastRunRows = run.deleted;
+        lastRowsPerSecond = elapsed == 0 ? run.deleted : run.deleted * 1000.0 / elapsed;
+        if (current == run) {
+            current = null;
+        }
+        run.future.complete(run.deleted);
+    }
+
+    /**
+     * 実行中のスイープを中断して停止する
+     */
+    public void close() {
+        closed = true;
+        timer.shutdownNow();
+        Run run;
+        synchronized (this) {
+            run = current;
+        }
+        if (run != null) {
+            finish(run);
+        }
+    }
+
+    // ===== メトリクス =====
+
+    public synchronized boolean isRunning() {
+        return current != null;
+    }
+
+    /**
+     * 実行中のスイープで削除が残っている行数の下限 (待機中は 0)。
+     * テーブルごとに最大 chunkSize 件までしか数えず、チャンクを削除するたびに数え直すため、
+     * 実際の残件数はこれ以上のことがある (削除が残っている間は 0 にならない)
+     */
+    public synchronized long getBacklog() {
+        return current == null ? 0 : current.backlog;
+    }
+
+    /** 実行中なら現在の、待機中なら直近のスイープの削除速度 (行/秒) */
+    public synchronized double getRowsPerSecond() {
+        if (current == null) {
+            return lastRowsPerSecond;
+        }
+        long elapsed = System.currentTimeMillis() - current.startedAt;
+        return elapsed == 0 ? 0 : current.deleted * 1000.0 / elapsed;
+    }
+
+    public long getTotalDeleted() {
+        return totalDeleted.get();
+    }
+
+    public long getChunkCount() {
+        return totalChunks.get();
+    }
+
+    public long getRunCount() {
+        return runs.get();
+    }
+
+    /** 対象ごとの累計削除行数 (登録順) */
+    public Map<String, Long> getDeletedByTarget() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Target target : targets) {
+            result.put(target.name, deletedByTarget.get(target.name).get());
+        }
+        return result;
+    }
+
+    /** 直近のスイープの開始時刻 (エポックミリ秒、未実行なら 0) */
+    public long getLastRunAt() {
+        return lastRunAt;
+    }
+
+    public long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    public long getLastRunRows() {
+        return lastRunRows;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * 削除対象
+     * <p>
+     * {@code condition} は {@code cutoff} を 1 つ目のパラメータとして受け取る WHERE 句です。
+     * {@code cutoff} が 0 以下を返した場合、その回は対象外になります。
+     * </p>
+     */
+    public static final class Target {
+        final String name;
+        final Supplier<List<String>> tables;
+        final String key;
+        final String condition;
+        final LongSupplier cutoff;
+
+        public Target(String name, Supplier<List<String>> tables, String key, String condition,
+                LongSupplier cutoff) {
+            this.name = name;
+            this.tables = tables;
+            this.key = key;
+            this.condition = condition;
+            this.cutoff = cutoff;
+        }
+
+        public Target(String name, String table, String key, String condition, LongSupplier cutoff) {
+            this(name, () -> List.of(table), key, condition, cutoff);
+        }
+    }
+
+    /**
+     * 1 テーブル分の削除状態
+     */
+    private static final class Slice {
+        final Target target;
+        final String table;
+        final long cutoff;
+        Object lastKey;
+        boolean done;
+        // 残件数の下限 (最大 chunkSize)
+        long backlog;
+
+        Slice(Target target, String table, long cutoff) {
+            this.target = target;
+            this.table = table;
+            this.cutoff = cutoff;
+        }
+    }
+
+    /**
+     * 1 回のスイープ
+     */
+    private final class Run {
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        final long startedAt = System.currentTimeMillis();
+        final Deque<Slice> pending = new ArrayDeque<>();
+        boolean planned;
+        Slice slice;
+        volatile long deleted;
+        volatile long backlog;
+
+        /**
+         * 次のテーブルへ進む (初回は対象テーブルと残件数を確定する)
+         */
+        boolean nextSlice() {
+            if (!planned) {
+                planned = true;
+                List<Slice> slices = new ArrayList<>();
+                for (Target target : targets) {
+                    long cutoff = target.cutoff.getAsLong();
+                    if (cutoff <= 0) {
+                        continue;
+                    }
+                    for (String table : target.tables.get()) {
+                        slices.add(new Slice(target, table, cutoff));
+                    }
+                }
+                for (Slice candidate : slices) {
+                    candidate.backlog = countBacklog(candidate);
+                }
+                pending.addAll(slices);
+            }
+            slice = pending.poll();
+            updateBacklog();
+            return slice != null;
+        }
+
+        /**
+         * 現在と未着手のテーブルの下限を合計する
+         */
+        void updateBacklog() {
+            long total = slice != null ? slice.backlog : 0;
+            for (Slice next : pending) {
+                total += next.backlog;
+            }
+            backlog = total;
+        }
+    }
+
+    /**
+     * スイーパー設定ビルダー
+     */
+    public static class Builder {
+        private final ConnectionPool pool;
+        private final ExecutorService dbExecutor;
+        private final List<Target> targets = new ArrayList<>();
+        private Logger logger = Logger.getLogger("IronDiscipline");
+        private String failureMessage = "Failed to sweep expired rows";
+        private int chunkSize = 500;
+        private long pauseMillis = 50;
+        private long intervalMillis = 0;
+
+        private Builder(ConnectionPool pool, ExecutorService dbExecutor) {
+            this.pool = pool;
+            this.dbExecutor = dbExecutor;
+        }
+
+        public Builder logger(Logger logger, String failureMessage) {
+            this.logger = logger;
+            this.failureMessage = failureMessage;
+            return this;
+        }
+
+        public Builder target(Target target) {
+            targets.add(target);
+            return this;
+        }
+
+        /** 1 回の DELETE で削除する最大行数 (0 以下の場合はデフォルト値) */
+        public Builder chunkSize(int chunkSize) {
+            if (chunkSize > 0) {
+                this.chunkSize = chunkSize;
+            }
+            return this;
+        }
+
+        /** チャンク間の待ち時間 (0 以上) */
+        public Builder pause(long millis) {
+            if (millis >= 0) {
+                this.pauseMillis = millis;
+            }
+            return this;
+        }
+
+        /** 定期実行の間隔 (0 以下なら requestRun の呼び出し時のみ) */
+        public Builder interval(long millis) {
+            this.intervalMillis = millis;
+            return this;
+        }
+
+        public RetentionSweeper build() {
+            return new RetentionSweeper(this);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package xyz.irondiscipline.database;
+
+/**
+ * SQL 方言
+ * H2 は MODE=MySQL で動作するが、UPSERT など一部の構文は方言ごとに書き分ける
+ */
+public enum SqlDialect {
+    H2,
+    MYSQL;
+
+    /**
+     * config.yml の database.type から方言を決定する (mysql 以外は H2)
+     */
+    public static SqlDialect fromType(String dbType) {
+        return "mysql".equalsIgnoreCase(dbType) ? MYSQL : H2;
+    }
+}
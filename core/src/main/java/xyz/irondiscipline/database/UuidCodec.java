@@ -0,0 +1,75 @@
+package xyz.irondiscipline.database;
+
+import java.util.UUID;
+
+/**
+ * UUID と BINARY(16) カラムの相互変換
+ * <p>
+ * 上位 64bit → 下位 64bit のビッグエンディアンで格納します
+ * (MySQL の {@code UUID_TO_BIN(uuid, 0)} と同じ並び)。
+ * 読み取り時に文字列を経由しないため、{@code UUID.fromString} のような
+ * 中間オブジェクトを生成しません。
+ * </p>
+ */
+public final class UuidCodec {
+
+    public static final int LENGTH = 16;
+
+    private UuidCodec() {
+    }
+
+    /**
+     * UUID をバイト列に変換する (null は null)
+     */
+    public static byte[] toBytes(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        byte[] bytes = new byte[LENGTH];
+        writeLong(bytes, 0, uuid.getMostSignificantBits());
+        writeLong(bytes, 8, uuid.getLeastSignificantBits());
+        return bytes;
+    }
+
+    /**
+     * バイト列を UUID に変換する (null は null)
+     *
+     * @throws IllegalArgumentException 長さが 16 バイトでない場合
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != LENGTH) {
+            throw new IllegalArgumentException("UUID must be 16 bytes: " + bytes.length);
+        }
+        return new UUID(readLong(bytes, 0), readLong(bytes, 8));
+    }
+
+    /**
+     * 旧形式 (VARCHAR(36)) の文字列をバイト列に変換する。移行処理用。
+     *
+     * @throws IllegalArgumentException UUID として解釈できない場合
+     */
+    public static byte[] fromLegacyString(String value) {
+        if (value == null) {
+            return null;
+        }
+        return toBytes(UUID.fromString(value.trim()));
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,100 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * v1: 移行フレームワーク導入前のスキーマ
+ * <p>
+ * 新規 DB ではテーブルを作成し、既存 DB では不足しているカラムだけを追加します。
+ * </p>
+ */
+public class BaselineMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public String description() {
+        return "baseline schema";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Kill logs table
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS kill_logs (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            timestamp BIGINT NOT NULL,
+                            killer_id VARCHAR(36),
+                            killer_name VARCHAR(32),
+                            victim_id VARCHAR(36) NOT NULL,
+                            victim_name VARCHAR(32) NOT NULL,
+                            weapon VARCHAR(64),
+                            distance DOUBLE,
+                            world VARCHAR(64),
+                            x DOUBLE,
+                            y DOUBLE,
+                            z DOUBLE
+                        )
+                    """);
+
+            // Jailed players table
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS jailed_players (
+                            player_id VARCHAR(36) PRIMARY KEY,
+                            player_name VARCHAR(32) NOT NULL,
+                            reason TEXT,
+                            jailed_at BIGINT NOT NULL,
+                            jailed_by VARCHAR(36),
+                            original_location TEXT,
+                            inventory_backup LONGTEXT,
+                            armor_backup LONGTEXT
+                        )
+                    """);
+
+            // インベントリバックアップ導入前の DB 向け
+            if (!MigrationSupport.columnExists(conn, "jailed_players", "inventory_backup")) {
+                stmt.execute("ALTER TABLE jailed_players ADD COLUMN inventory_backup LONGTEXT");
+            }
+            if (!MigrationSupport.columnExists(conn, "jailed_players", "armor_backup")) {
+                stmt.execute("ALTER TABLE jailed_players ADD COLUMN armor_backup LONGTEXT");
+            }
+
+            MigrationSupport.createIndex(conn, "idx_kill_logs_timestamp", "kill_logs", "timestamp");
+            MigrationSupport.createIndex(conn, "idx_kill_logs_killer", "kill_logs", "killer_id");
+            MigrationSupport.createIndex(conn, "idx_kill_logs_victim", "kill_logs", "victim_id");
+
+            // Warnings table
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS warnings (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            player_id VARCHAR(36) NOT NULL,
+                            player_name VARCHAR(32),
+                            reason TEXT,
+                            warned_by VARCHAR(36),
+                            timestamp BIGINT NOT NULL
+                        )
+                    """);
+            MigrationSupport.createIndex(conn, "idx_warnings_player_id", "warnings", "player_id");
+
+            // Player ranks table
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS player_ranks (
+                            player_id VARCHAR(36) PRIMARY KEY,
+                            player_name VARCHAR(32),
+                            rank_id VARCHAR(32) NOT NULL DEFAULT 'PRIVATE',
+                            updated_at BIGINT NOT NULL
+                        )
+                    """);
+            MigrationSupport.createIndex(conn, "idx_player_ranks_rank", "player_ranks", "rank_id");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static xyz.irondiscipline.database.migration.TableRebuild.LEGACY_UUID;
+import static xyz.irondiscipline.database.migration.TableRebuild.STRING;
+import static xyz.irondiscipline.database.migration.TableRebuild.VALUE;
+
+/**
+ * v2: プレイヤーキーの UUID を VARCHAR(36) から BINARY(16) へ
+ * <p>
+ * 対象: player_ranks.player_id, jailed_players.player_id,
+ * kill_logs.killer_id / victim_id, warnings.player_id。
+ * 各テーブルを {@link TableRebuild} でチャンク単位にコピー・変換して入れ替えます。
+ * </p>
+ * <p>
+ * これは<strong>オフライン移行</strong>です。{@link SchemaMigrator} は起動時
+ * (マネージャーが DB を使い始める前) に同期的に実行するため、数百万行の kill_logs を持つサーバーでは
+ * コピーが終わるまでプラグインの起動が完了しません。
+ * 旧カラムと新カラムを並べてバックグラウンドで埋める方式 (オンライン移行) にしなかったのは、
+ * 移行中の全クエリを両方の形式に対応させる必要があり、後続の移行 (v3 以降) も
+ * BINARY(16) のテーブルを前提にしているためです。
+ * 各チャンクは個別にコミットされるため、途中で停止しても次回起動時に続きから再開します
+ * (kill_logs・warnings。文字列キーの小さなテーブルは最初からコピーし直します)。
+ * 大きなサーバーでは、メンテナンス時間中に更新してください。
+ * </p>
+ */
+public class BinaryUuidMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 2;
+    }
+
+    @Override
+    public String description() {
+        return "store player UUIDs as BINARY(16)";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        for (TableRebuild rebuild : rebuilds()) {
+            rebuild.run(conn, dialect, logger);
+        }
+    }
+
+    private List<TableRebuild> rebuilds() {
+        return List.of(
+                TableRebuild.of("player_ranks")
+                        .create("""
+                                CREATE TABLE %s (
+                                    player_id BINARY(16) PRIMARY KEY,
+                                    player_name VARCHAR(32),
+                                    rank_id VARCHAR(32) NOT NULL DEFAULT 'PRIVATE',
+                                    updated_at BIGINT NOT NULL
+                                )
+                                """)
+                        .column("player_id", LEGACY_UUID)
+                        .column("player_name", STRING)
+                        .column("rank_id", STRING)
+                        .column("updated_at", VALUE)
+                        .stringKey("player_id")
+                        .index("idx_player_ranks_rank", "rank_id")
+                        .doneWhen(conn -> MigrationSupport.isBinaryColumn(conn, "player_ranks", "player_id")),
+
+                TableRebuild.of("jailed_players")
+                        .create("""
+                                CREATE TABLE %s (
+                                    player_id BINARY(16) PRIMARY KEY,
+                                    player_name VARCHAR(32) NOT NULL,
+                                    reason TEXT,
+                                    jailed_at BIGINT NOT NULL,
+                                    jailed_by VARCHAR(36),
+                                    original_location TEXT,
+                                    inventory_backup LONGTEXT,
+                                    armor_backup LONGTEXT
+                                )
+                                """)
+                        .column("player_id", LEGACY_UUID)
+                        .column("player_name", STRING)
+                        .column("reason", STRING)
+                        .column("jailed_at", VALUE)
+                        .column("jailed_by", STRING)
+                        .column("original_location", STRING)
+                        .column("inventory_backup", STRING)
+                        .column("armor_backup", STRING)
+                        .stringKey("player_id")
+                        .doneWhen(conn -> MigrationSupport.isBinaryColumn(conn, "jailed_players", "player_id")),
+
+                TableRebuild.of("warnings")
+                        .create("""
+                                CREATE TABLE %s (
+                                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                    player_id BINARY(16) NOT NULL,
+                                    player_name VARCHAR(32),
+                                    reason TEXT,
+                                    warned_by VARCHAR(36),
+                                    timestamp BIGINT NOT NULL
+                                )
+                                """)
+                        .column("id", VALUE)
+                        .column("player_id", LEGACY_UUID)
+                        .column("player_name", STRING)
+                        .column("reason", STRING)
+                        .column("warned_by", STRING)
+                        .column("timestamp", VALUE)
+                        .numericKey("id")
+                        .identity("id")
+                        .index("idx_warnings_player_id", "player_id")
+                        .doneWhen(conn -> MigrationSupport.isBinaryColumn(conn, "warnings", "player_id")),
+
+                TableRebuild.of("kill_logs")
+                        .create("""
+                                CREATE TABLE %s (
+                                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                    timestamp BIGINT NOT NULL,
+                                    killer_id BINARY(16),
+                                    killer_name VARCHAR(32),
+                                    victim_id BINARY(16) NOT NULL,
+                                    victim_name VARCHAR(32) NOT NULL,
+                                    weapon VARCHAR(64),
+                                    distance DOUBLE,
+                                    world VARCHAR(64),
+                                    x DOUBLE,
+                                    y DOUBLE,
+                                    z DOUBLE
+                                )
+                                """)
+                        .column("id", VALUE)
+                        .column("timestamp", VALUE)
+                        .column("killer_id", LEGACY_UUID)
+                        .column("killer_name", STRING)
+                        .column("victim_id", LEGACY_UUID)
+                        .column("victim_name", STRING)
+                        .column("weapon", STRING)
+                        .column("distance", VALUE)
+                        .column("world", STRING)
+                        .column("x", VALUE)
+                        .column("y", VALUE)
+                        .column("z", VALUE)
+                        .numericKey("id")
+                        .identity("id")
+                        .index("idx_kill_logs_timestamp", "timestamp")
+                        .index("idx_kill_logs_killer", "killer_id")
+                        .index("idx_kill_logs_victim", "victim_id")
+                        .doneWhen(conn -> MigrationSupport.isBinaryColumn(conn, "kill_logs", "victim_id")));
+    }
+}
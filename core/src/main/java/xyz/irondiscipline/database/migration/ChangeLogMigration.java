@@ -0,0 +1,42 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * v8: サーバー間のキャッシュ同期用の変更ログ (change_log)
+ * <p>
+ * 同じ DB を使う各サーバーは、自分が書き込んだ変更をここに 1 行追記し、
+ * 他のサーバーは id (単調増加のバージョン) より後の行だけを定期的に読み込みます。
+ * 古い行は保存期間スイーパーが削除します。
+ * </p>
+ */
+public class ChangeLogMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 8;
+    }
+
+    @Override
+    public String description() {
+        return "cross-server change log";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        MigrationSupport.execute(conn, """
+                    CREATE TABLE IF NOT EXISTS change_log (
+                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        server_id VARCHAR(36) NOT NULL,
+                        kind VARCHAR(16) NOT NULL,
+                        player_id BINARY(16) NOT NULL,
+                        payload VARCHAR(64),
+                        created_at BIGINT NOT NULL
+                    )
+                """);
+    }
+}
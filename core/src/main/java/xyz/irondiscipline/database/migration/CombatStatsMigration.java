@@ -0,0 +1,91 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * v5: 戦闘統計の集計テーブル (player_combat_stats, weapon_stats)
+ * <p>
+ * 以降は {@code KillLogWriter} がキルログと同じトランザクションで加算していくため、
+ * ここでは既存の kill_logs から一度だけ集計して初期値を投入します。
+ * </p>
+ */
+public class CombatStatsMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 5;
+    }
+
+    @Override
+    public String description() {
+        return "combat statistics aggregates";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        MigrationSupport.execute(conn, """
+                    CREATE TABLE IF NOT EXISTS player_combat_stats (
+                        player_id BINARY(16) PRIMARY KEY,
+                        player_name VARCHAR(32),
+                        kills BIGINT NOT NULL DEFAULT 0,
+                        deaths BIGINT NOT NULL DEFAULT 0,
+                        max_distance DOUBLE NOT NULL DEFAULT 0,
+                        last_kill BIGINT NOT NULL DEFAULT 0
+                    )
+                """);
+        MigrationSupport.execute(conn, """
+                    CREATE TABLE IF NOT EXISTS weapon_stats (
+                        weapon VARCHAR(64) PRIMARY KEY,
+                        kills BIGINT NOT NULL DEFAULT 0,
+                        max_distance DOUBLE NOT NULL DEFAULT 0,
+                        last_kill BIGINT NOT NULL DEFAULT 0
+                    )
+                """);
+        MigrationSupport.createIndex(conn, "idx_combat_stats_kills", "player_combat_stats", "kills");
+        MigrationSupport.createIndex(conn, "idx_combat_stats_deaths", "player_combat_stats", "deaths");
+        MigrationSupport.createIndex(conn, "idx_combat_stats_distance", "player_combat_stats", "max_distance");
+
+        // 前回の中断分は作り直す (このバージョンが記録されるまでは書き込まれない)
+        MigrationSupport.execute(conn, "DELETE FROM player_combat_stats");
+        MigrationSupport.execute(conn, "DELETE FROM weapon_stats");
+
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            int players = stmt.executeUpdate("""
+                        INSERT INTO player_combat_stats (player_id, kills, deaths, max_distance, last_kill)
+                        SELECT player_id, SUM(kills), SUM(deaths), MAX(max_distance), MAX(last_kill) FROM (
+                            SELECT killer_id AS player_id, COUNT(*) AS kills, 0 AS deaths,
+                                   COALESCE(MAX(distance), 0) AS max_distance, MAX(timestamp) AS last_kill
+                            FROM kill_logs WHERE killer_id IS NOT NULL GROUP BY killer_id
+                            UNION ALL
+                            SELECT victim_id, 0, COUNT(*), 0, 0
+                            FROM kill_logs GROUP BY victim_id
+                        ) t
+                        GROUP BY player_id
+                    """);
+            stmt.executeUpdate("""
+                        UPDATE player_combat_stats SET player_name = (
+                            SELECT n.name FROM player_names n WHERE n.player_id = player_combat_stats.player_id
+                        )
+                    """);
+            int weapons = stmt.executeUpdate("""
+                        INSERT INTO weapon_stats (weapon, kills, max_distance, last_kill)
+                        SELECT weapon, COUNT(*), COALESCE(MAX(distance), 0), MAX(timestamp)
+                        FROM kill_logs WHERE killer_id IS NOT NULL AND weapon IS NOT NULL
+                        GROUP BY weapon
+                    """);
+            conn.commit();
+            logger.info(String.format("[移行] 戦闘統計: プレイヤー %,d 人, 武器 %,d 種を集計しました", players, weapons));
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
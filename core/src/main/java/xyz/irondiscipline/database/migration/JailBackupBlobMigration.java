@@ -0,0 +1,63 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+import static xyz.irondiscipline.database.migration.TableRebuild.ASCII_BYTES;
+import static xyz.irondiscipline.database.migration.TableRebuild.STRING;
+import static xyz.irondiscipline.database.migration.TableRebuild.VALUE;
+
+/**
+ * v7: 隔離時のインベントリバックアップを LONGTEXT から LONGBLOB へ
+ * <p>
+ * 新しいバックアップは圧縮したバイナリ形式 ({@code InventoryCodec}) で保存されます。
+ * 既存の Base64 文字列はそのまま ASCII のバイト列として移し、読み込み時に旧形式として復元します
+ * (アイテムの再エンコードにはサーバーが必要なため、ここでは変換しません)。
+ * </p>
+ */
+public class JailBackupBlobMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 7;
+    }
+
+    @Override
+    public String description() {
+        return "store jail inventory backups as BLOB";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        rebuild().run(conn, dialect, logger);
+    }
+
+    private TableRebuild rebuild() {
+        return TableRebuild.of("jailed_players")
+                .create("""
+                        CREATE TABLE %s (
+                            player_id BINARY(16) PRIMARY KEY,
+                            player_name VARCHAR(32) NOT NULL,
+                            reason TEXT,
+                            jailed_at BIGINT NOT NULL,
+                            jailed_by VARCHAR(36),
+                            original_location TEXT,
+                            inventory_backup LONGBLOB,
+                            armor_backup LONGBLOB
+                        )
+                        """)
+                .column("player_id", VALUE)
+                .column("player_name", STRING)
+                .column("reason", STRING)
+                .column("jailed_at", VALUE)
+                .column("jailed_by", STRING)
+                .column("original_location", STRING)
+                .column("inventory_backup", ASCII_BYTES)
+                .column("armor_backup", ASCII_BYTES)
+                .binaryKey("player_id")
+                .doneWhen(conn -> MigrationSupport.isBlobColumn(conn, "jailed_players", "inventory_backup"));
+    }
+}
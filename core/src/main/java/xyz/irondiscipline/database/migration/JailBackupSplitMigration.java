@@ -0,0 +1,56 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * v12: 隔離時のインベントリバックアップを jail_backups テーブルへ分離
+ * <p>
+ * jailed_players には理由・場所・房・刑期などの小さなメタデータだけを残し、
+ * 数百 KB になり得るバックアップは釈放時 (復元時) にだけ主キーで読み込みます。
+ * 既存の行のバックアップを移してから、jailed_players のカラムを削除します。
+ * 途中で止まっても、移し終えていない行だけを次回起動時に移します。
+ * </p>
+ */
+public class JailBackupSplitMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 12;
+    }
+
+    @Override
+    public String description() {
+        return "split jail inventory backups into jail_backups";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        MigrationSupport.execute(conn, """
+                    CREATE TABLE IF NOT EXISTS jail_backups (
+                        player_id BINARY(16) PRIMARY KEY,
+                        inventory_backup LONGBLOB,
+                        armor_backup LONGBLOB
+                    )
+                """);
+
+        // カラムの削除前に全て移し終えている (片方だけ削除済みなら移す必要はない)
+        if (MigrationSupport.columnExists(conn, "jailed_players", "inventory_backup")
+                && MigrationSupport.columnExists(conn, "jailed_players", "armor_backup")) {
+            MigrationSupport.execute(conn, """
+                        INSERT INTO jail_backups (player_id, inventory_backup, armor_backup)
+                        SELECT j.player_id, j.inventory_backup, j.armor_backup FROM jailed_players j
+                        WHERE (j.inventory_backup IS NOT NULL OR j.armor_backup IS NOT NULL)
+                        AND NOT EXISTS (SELECT 1 FROM jail_backups b WHERE b.player_id = j.player_id)
+                    """);
+        }
+        for (String column : new String[] { "inventory_backup", "armor_backup" }) {
+            if (MigrationSupport.columnExists(conn, "jailed_players", column)) {
+                MigrationSupport.execute(conn, "ALTER TABLE jailed_players DROP COLUMN " + column);
+            }
+        }
+    }
+}
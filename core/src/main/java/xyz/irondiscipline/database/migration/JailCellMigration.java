@@ -0,0 +1,33 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * v10: 隔離中のプレイヤーが割り当てられた隔離房 (jailed_players.cell)
+ * <p>
+ * 既存の行は NULL のままで、次回の参加時に房が割り当てられます。
+ * </p>
+ */
+public class JailCellMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 10;
+    }
+
+    @Override
+    public String description() {
+        return "jail cell assignment";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        if (!MigrationSupport.columnExists(conn, "jailed_players", "cell")) {
+            MigrationSupport.execute(conn, "ALTER TABLE jailed_players ADD COLUMN cell VARCHAR(32)");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * v11: 隔離の刑期 (jailed_players.expires_at)
+ * <p>
+ * 満了時刻のエポックミリ秒で、NULL は無期限です。既存の行は無期限のままです。
+ * </p>
+ */
+public class JailExpiryMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 11;
+    }
+
+    @Override
+    public String description() {
+        return "jail sentence expiry";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        if (!MigrationSupport.columnExists(conn, "jailed_players", "expires_at")) {
+            MigrationSupport.execute(conn, "ALTER TABLE jailed_players ADD COLUMN expires_at BIGINT");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * v3: キルログのキーセットページング用複合インデックス
+ * <p>
+ * 並び順 {@code (timestamp, id)} と、プレイヤー別の
+ * {@code (killer_id, timestamp, id)} / {@code (victim_id, timestamp, id)} を張り、
+ * 先頭カラムが重複する単一カラムのインデックスは削除します。
+ * </p>
+ */
+public class KillLogKeysetIndexMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 3;
+    }
+
+    @Override
+    public String description() {
+        return "composite kill log indexes for keyset paging";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        MigrationSupport.createIndex(conn, "idx_kill_logs_time", "kill_logs", "timestamp, id");
+        MigrationSupport.createIndex(conn, "idx_kill_logs_killer_time", "kill_logs", "killer_id, timestamp, id");
+        MigrationSupport.createIndex(conn, "idx_kill_logs_victim_time", "kill_logs", "victim_id, timestamp, id");
+
+        MigrationSupport.dropIndex(conn, dialect, "idx_kill_logs_timestamp", "kill_logs");
+        MigrationSupport.dropIndex(conn, dialect, "idx_kill_logs_killer", "kill_logs");
+        MigrationSupport.dropIndex(conn, dialect, "idx_kill_logs_victim", "kill_logs");
+    }
+}
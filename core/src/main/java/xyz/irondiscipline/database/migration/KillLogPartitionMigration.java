@@ -0,0 +1,147 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.KillLogPartitions;
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * v6: kill_logs の月単位パーティション化 ({@link KillLogPartitions})
+ * <p>
+ * MySQL では主キーを {@code (id, timestamp)} に変更してから
+ * {@code PARTITION BY RANGE (timestamp)} で分割します。
+ * H2 では既存の行を月ごとのテーブルへ移し、元のテーブルを
+ * 全バケットを束ねる {@code kill_logs} ビューに置き換えます。
+ * 月ごとのコピーは移す前にバケットを空にするため、中断しても再実行で続きから復旧できます。
+ * </p>
+ */
+public class KillLogPartitionMigration implements Migration {
+
+    /** MySQL で最初に作る月パーティションの上限 (それより古い行は先頭のパーティションに入る) */
+    private static final int MAX_INITIAL_PARTITIONS = 240;
+
+    private static final String COLUMNS = "id, timestamp, killer_id, killer_name, victim_id, victim_name, "
+            + "weapon, distance, world, x, y, z";
+
+    @Override
+    public int version() {
+        return 6;
+    }
+
+    @Override
+    public String description() {
+        return "monthly kill log partitions";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        if (dialect == SqlDialect.MYSQL) {
+            partitionMySql(conn, logger);
+        } else {
+            splitH2(conn, logger);
+        }
+    }
+
+    private void partitionMySql(Connection conn, Logger logger) throws SQLException {
+        if (!KillLogPartitions.listPartitions(conn).isEmpty()) {
+            return;
+        }
+        YearMonth last = YearMonth.now(ZoneOffset.UTC).plusMonths(1);
+        YearMonth first = last;
+        Long oldest = queryLong(conn, "SELECT MIN(timestamp) FROM kill_logs");
+        if (oldest != null) {
+            first = KillLogPartitions.bucketOf(oldest);
+        }
+        if (first.isBefore(last.minusMonths(MAX_INITIAL_PARTITIONS - 1))) {
+            first = last.minusMonths(MAX_INITIAL_PARTITIONS - 1);
+        }
+
+        // パーティションキーは全ての一意キーに含まれている必要がある
+        MigrationSupport.execute(conn, "ALTER TABLE kill_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)");
+        MigrationSupport.execute(conn, "ALTER TABLE kill_logs " + KillLogPartitions.partitionClause(first, last));
+        logger.info("[移行] kill_logs: " + first + " ～ " + last + " の月パーティションに分割しました");
+    }
+
+    private void splitH2(Connection conn, Logger logger) throws SQLException {
+        List<YearMonth> existing = KillLogPartitions.listBucketTables(conn);
+        if (MigrationSupport.isView(conn, "kill_logs")
+                || (!existing.isEmpty() && !MigrationSupport.tableExists(conn, "kill_logs"))) {
+            // ビューへの置き換えの途中で中断していた
+            KillLogPartitions.replaceView(conn, ensureCurrent(conn, existing));
+            return;
+        }
+
+        // ID はバケット間で共有するシーケンスから採番する
+        long next = 1;
+        Long maxId = queryLong(conn, "SELECT MAX(id) FROM kill_logs");
+        if (maxId != null) {
+            next = maxId + 1;
+        }
+        MigrationSupport.execute(conn, "CREATE SEQUENCE IF NOT EXISTS " + KillLogPartitions.ID_SEQUENCE);
+        MigrationSupport.execute(conn, "ALTER SEQUENCE " + KillLogPartitions.ID_SEQUENCE + " RESTART WITH " + next);
+
+        // 行のある月だけを古い順に辿る
+        TreeSet<YearMonth> months = new TreeSet<>(existing);
+        long copied = 0;
+        Long timestamp = queryLong(conn, "SELECT MIN(timestamp) FROM kill_logs");
+        while (timestamp != null) {
+            YearMonth month = KillLogPartitions.bucketOf(timestamp);
+            copied += copyMonth(conn, month);
+            months.add(month);
+            timestamp = queryLong(conn, "SELECT MIN(timestamp) FROM kill_logs WHERE timestamp >= "
+                    + KillLogPartitions.endOf(month));
+        }
+
+        List<YearMonth> buckets = ensureCurrent(conn, months);
+        MigrationSupport.dropTableIfExists(conn, "kill_logs");
+        KillLogPartitions.replaceView(conn, buckets);
+        logger.info(String.format("[移行] kill_logs: %,d 件を %d 個の月テーブルに移しました", copied, buckets.size()));
+    }
+
+    private long copyMonth(Connection conn, YearMonth month) throws SQLException {
+        String table = KillLogPartitions.bucketTable(month);
+        KillLogPartitions.createBucketTable(conn, month);
+        MigrationSupport.execute(conn, "DELETE FROM " + table);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO " + table + " (" + COLUMNS + ") SELECT "
+                + COLUMNS + " FROM kill_logs WHERE timestamp >= ? AND timestamp < ?")) {
+            ps.setLong(1, KillLogPartitions.startOf(month));
+            ps.setLong(2, KillLogPartitions.endOf(month));
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * 今月と来月のバケットを加えたバケット一覧
+     */
+    private List<YearMonth> ensureCurrent(Connection conn, Collection<YearMonth> months) throws SQLException {
+        TreeSet<YearMonth> buckets = new TreeSet<>(months);
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        for (YearMonth month : List.of(now, now.plusMonths(1))) {
+            if (buckets.add(month)) {
+                KillLogPartitions.createBucketTable(conn, month);
+            }
+        }
+        return List.copyOf(buckets);
+    }
+
+    private static Long queryLong(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                long value = rs.getLong(1);
+                return rs.wasNull() ? null : value;
+            }
+            return null;
+        }
+    }
+}
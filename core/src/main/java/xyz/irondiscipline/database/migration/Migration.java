@@ -0,0 +1,36 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * スキーマ移行ステップ
+ * <p>
+ * 各ステップは途中で中断されても再実行できるように (冪等に) 実装してください。
+ * 完了したステップは {@code schema_version} に記録され、二度と実行されません。
+ * </p>
+ */
+public interface Migration {
+
+    /**
+     * スキーマバージョン (1 から連番)
+     */
+    int version();
+
+    /**
+     * ログ表示用の説明
+     */
+    String description();
+
+    /**
+     * 移行を実行する
+     *
+     * @param conn    移行専用の接続 (autoCommit=true で渡される)
+     * @param dialect SQL 方言
+     * @param logger  進捗ログ出力先
+     */
+    void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException;
+}
@@ -0,0 +1,172 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * 移行処理用のスキーマ操作ユーティリティ
+ * <p>
+ * H2 は識別子を大文字で、MySQL は作成時の表記で保持するため、
+ * メタデータの照会は両方の表記で行います。
+ * </p>
+ */
+public final class MigrationSupport {
+
+    private MigrationSupport() {
+    }
+
+    public static boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String name : candidates(table)) {
+            try (ResultSet rs = meta.getTables(conn.getCatalog(), null, name, null)) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * テーブルではなくビューか
+     */
+    public static boolean isView(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String name : candidates(table)) {
+            try (ResultSet rs = meta.getTables(conn.getCatalog(), null, name, null)) {
+                if (rs.next()) {
+                    return "VIEW".equalsIgnoreCase(rs.getString("TABLE_TYPE"));
+                }
+            }
+        }
+        return false;
+    }
+
+    public static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        return columnType(conn, table, column) != null;
+    }
+
+    /**
+     * カラムが BINARY / VARBINARY 型か
+     */
+    public static boolean isBinaryColumn(Connection conn, String table, String column) throws SQLException {
+        Integer type = columnType(conn, table, column);
+        return type != null && (type == Types.BINARY || type == Types.VARBINARY);
+    }
+
+    /**
+     * カラムが BLOB / LONGVARBINARY 型か
+     */
+    public static boolean isBlobColumn(Connection conn, String table, String column) throws SQLException {
+        Integer type = columnType(conn, table, column);
+        return type != null && (type == Types.BLOB || type == Types.LONGVARBINARY);
+    }
+
+    /**
+     * カラムの JDBC 型 ({@link Types})。存在しなければ null
+     */
+    public static Integer columnType(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String tableName : candidates(table)) {
+            for (String columnName : candidates(column)) {
+                try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, tableName, columnName)) {
+                    if (rs.next()) {
+                        return rs.getInt("DATA_TYPE");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String tableName : candidates(table)) {
+            try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, tableName, false, true)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * インデックスが無ければ作成する
+     * (MySQL は CREATE INDEX IF NOT EXISTS をサポートしないため、メタデータで確認する)
+     */
+    public static void createIndex(Connection conn, String index, String table, String columns) throws SQLException {
+        if (!indexExists(conn, table, index)) {
+            execute(conn, "CREATE INDEX " + index + " ON " + table + "(" + columns + ")");
+        }
+    }
+
+    /**
+     * インデックスがあれば削除する
+     */
+    public static void dropIndex(Connection conn, SqlDialect dialect, String index, String table) throws SQLException {
+        if (!indexExists(conn, table, index)) {
+            return;
+        }
+        if (dialect == SqlDialect.MYSQL) {
+            execute(conn, "DROP INDEX " + index + " ON " + table);
+        } else {
+            execute(conn, "DROP INDEX " + index);
+        }
+    }
+
+    public static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    public static void dropTableIfExists(Connection conn, String table) throws SQLException {
+        execute(conn, "DROP TABLE IF EXISTS " + table);
+    }
+
+    /**
+     * テーブル名を入れ替える: {@code table} → {@code retiredName}, {@code replacement} → {@code table}
+     * MySQL では 1 文でアトミックに実行される。H2 では DDL が個別にコミットされるため、
+     * 2 文の間で中断した場合は呼び出し側が再実行時に復旧する ({@link TableRebuild} 参照)。
+     */
+    public static void swapTables(Connection conn, SqlDialect dialect, String table, String replacement,
+            String retiredName) throws SQLException {
+        if (dialect == SqlDialect.MYSQL) {
+            execute(conn, "RENAME TABLE " + table + " TO " + retiredName + ", " + replacement + " TO " + table);
+        } else {
+            execute(conn, "ALTER TABLE " + table + " RENAME TO " + retiredName);
+            execute(conn, "ALTER TABLE " + replacement + " RENAME TO " + table);
+        }
+    }
+
+    /**
+     * 明示的な ID を挿入した後、自動採番を続きから再開させる (H2 のみ必要)
+     */
+    public static void restartIdentity(Connection conn, SqlDialect dialect, String table, String column)
+            throws SQLException {
+        if (dialect != SqlDialect.H2) {
+            return; // MySQL の AUTO_INCREMENT は挿入済みの最大値に自動で追従する
+        }
+        long next = 1;
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT MAX(" + column + ") FROM " + table)) {
+            if (rs.next()) {
+                next = rs.getLong(1) + 1;
+            }
+        }
+        execute(conn, "ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + next);
+    }
+
+    private static String[] candidates(String identifier) {
+        return new String[] { identifier, identifier.toUpperCase(), identifier.toLowerCase() };
+    }
+}
@@ -0,0 +1,132 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * v4: プレイヤー名 → UUID 索引 (player_names)
+ * <p>
+ * 既存テーブルに記録されている名前から、プレイヤーごとに最後に使われた名前を集めて初期投入します。
+ * 集計は DB 側の GROUP BY で行うため、kill_logs が大きくても転送されるのは
+ * (プレイヤー, 名前) の組だけです。
+ * </p>
+ */
+public class PlayerNameIndexMigration implements Migration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /** 名前の出どころ: {id カラム, 名前カラム, 時刻カラム, テーブル} */
+    private static final String[][] SOURCES = {
+            { "killer_id", "killer_name", "timestamp", "kill_logs" },
+            { "victim_id", "victim_name", "timestamp", "kill_logs" },
+            { "player_id", "player_name", "updated_at", "player_ranks" },
+            { "player_id", "player_name", "jailed_at", "jailed_players" },
+            { "player_id", "player_name", "timestamp", "warnings" },
+    };
+
+    @Override
+    public int version() {
+        return 4;
+    }
+
+    @Override
+    public String description() {
+        return "player name index";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        MigrationSupport.execute(conn, """
+                    CREATE TABLE IF NOT EXISTS player_names (
+                        player_id BINARY(16) PRIMARY KEY,
+                        name VARCHAR(32) NOT NULL,
+                        name_lower VARCHAR(32) NOT NULL,
+                        last_seen BIGINT NOT NULL
+                    )
+                """);
+        MigrationSupport.createIndex(conn, "idx_player_names_lower", "player_names", "name_lower, last_seen");
+        MigrationSupport.createIndex(conn, "idx_player_names_seen", "player_names", "last_seen");
+
+        // 前回の中断分は作り直す (このバージョンが記録されるまでは他から書き込まれない)
+        MigrationSupport.execute(conn, "DELETE FROM player_names");
+
+        Map<ByteBuffer, LatestName> latest = new HashMap<>();
+        for (String[] source : SOURCES) {
+            collect(conn, latest, source[0], source[1], source[2], source[3]);
+        }
+        insert(conn, latest);
+        logger.info(String.format("[移行] player_names: %,d 人分の名前を登録しました", latest.size()));
+    }
+
+    private void collect(Connection conn, Map<ByteBuffer, LatestName> latest, String idColumn, String nameColumn,
+            String timeColumn, String table) throws SQLException {
+        if (!MigrationSupport.tableExists(conn, table)) {
+            return;
+        }
+        String sql = "SELECT " + idColumn + ", " + nameColumn + ", MAX(" + timeColumn + ") FROM " + table
+                + " WHERE " + idColumn + " IS NOT NULL AND " + nameColumn + " IS NOT NULL"
+                + " GROUP BY " + idColumn + ", " + nameColumn;
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                byte[] id = rs.getBytes(1);
+                String name = rs.getString(2);
+                long seen = rs.getLong(3);
+                if (id == null || name.isBlank()) {
+                    continue;
+                }
+                latest.merge(ByteBuffer.wrap(id), new LatestName(name, seen),
+                        (a, b) -> a.seen >= b.seen ? a : b);
+            }
+        }
+    }
+
+    private void insert(Connection conn, Map<ByteBuffer, LatestName> latest) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO player_names (player_id, name, name_lower, last_seen) VALUES (?, ?, ?, ?)")) {
+            int pending = 0;
+            for (Map.Entry<ByteBuffer, LatestName> entry : latest.entrySet()) {
+                LatestName value = entry.getValue();
+                ps.setBytes(1, entry.getKey().array());
+                ps.setString(2, value.name);
+                ps.setString(3, value.name.toLowerCase(Locale.ROOT));
+                ps.setLong(4, value.seen);
+                ps.addBatch();
+                if (++pending >= BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static final class LatestName {
+        final String name;
+        final long seen;
+
+        LatestName(String name, long seen) {
+            this.name = name;
+            this.seen = seen;
+        }
+    }
+}
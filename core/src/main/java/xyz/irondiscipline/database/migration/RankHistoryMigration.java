@@ -0,0 +1,62 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * v9: 階級履歴 (rank_history)
+ * <p>
+ * 階級の保存と同じトランザクションで 1 行ずつ追記するだけのテーブルで、更新・削除はしません。
+ * 1 行は UUID 16 バイト 2 つ、階級 ID 2 つ、原因コード 1 バイトと時刻だけです。
+ * (player_id, changed_at, id) の索引で、プレイヤーごとの時系列と
+ * 「ある時刻の階級」の検索を範囲スキャンで行います。
+ * </p>
+ * <p>
+ * 既存の player_ranks の各行を、updated_at 時点の初期値 (old_rank が NULL) として登録します。
+ * </p>
+ */
+public class RankHistoryMigration implements Migration {
+
+    /** 初期値の原因コード (RankChangeEvent.Cause.OTHER) */
+    private static final int SEED_CAUSE = 5;
+
+    @Override
+    public int version() {
+        return 9;
+    }
+
+    @Override
+    public String description() {
+        return "rank history ledger";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        MigrationSupport.execute(conn, """
+                    CREATE TABLE IF NOT EXISTS rank_history (
+                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        player_id BINARY(16) NOT NULL,
+                        old_rank VARCHAR(32),
+                        new_rank VARCHAR(32) NOT NULL,
+                        cause TINYINT NOT NULL,
+                        actor_id BINARY(16),
+                        changed_at BIGINT NOT NULL
+                    )
+                """);
+        MigrationSupport.createIndex(conn, "idx_rank_history_player", "rank_history", "player_id, changed_at, id");
+
+        // 前回の中断分は作り直す (このバージョンが記録されるまでは他から書き込まれない)
+        MigrationSupport.execute(conn, "DELETE FROM rank_history");
+        try (Statement stmt = conn.createStatement()) {
+            int seeded = stmt.executeUpdate("""
+                    INSERT INTO rank_history (player_id, old_rank, new_rank, cause, actor_id, changed_at)
+                    SELECT player_id, NULL, rank_id, %d, NULL, updated_at FROM player_ranks
+                    """.formatted(SEED_CAUSE));
+            logger.info(String.format("[移行] rank_history: %,d 人分の現在の階級を登録しました", seeded));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * バージョン管理されたスキーマ移行
+ * <p>
+ * 適用済みのバージョンを {@code schema_version} テーブルに記録し、
+ * 未適用の {@link Migration} を昇順に実行します。
+ * 新しい移行は {@link #MIGRATIONS} の末尾に追加してください。
+ * </p>
+ */
+public class SchemaMigrator {
+
+    /** 全移行ステップ (バージョン昇順) */
+    private static final List<Migration> MIGRATIONS = List.of(
+            new BaselineMigration(),
+            new BinaryUuidMigration(),
+            new KillLogKeysetIndexMigration(),
+            new PlayerNameIndexMigration(),
+            new CombatStatsMigration(),
+            new KillLogPartitionMigration(),
+            new JailBackupBlobMigration(),
+            new ChangeLogMigration(),
+            new RankHistoryMigration(),
+            new JailCellMigration(),
+            new JailExpiryMigration(),
+            new JailBackupSplitMigration());
+
+    private final ConnectionPool pool;
+    private final SqlDialect dialect;
+    private final Logger logger;
+
+    public SchemaMigrator(ConnectionPool pool, SqlDialect dialect, Logger logger) {
+        this.pool = pool;
+        this.dialect = dialect;
+        this.logger = logger;
+    }
+
+    /**
+     * このバージョンのプラグインが想定するスキーマバージョン
+     */
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    /**
+     * 未適用の移行を全て実行する
+     *
+     * @return 適用した移行の数
+     */
+    public int migrate() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            createVersionTable(conn);
+            int current = getCurrentVersion(conn);
+            if (current > getLatestVersion()) {
+                logger.warning("データベースのスキーマ (v" + current + ") がこのバージョンのプラグイン (v"
+                        + getLatestVersion() + ") より新しいです。プラグインを更新してください。");
+                return 0;
+            }
+
+            int applied = 0;
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version() <= current) {
+                    continue;
+                }
+                logger.info("[移行] スキーマ v" + migration.version() + ": " + migration.description());
+                long start = System.currentTimeMillis();
+                migration.migrate(conn, dialect, logger);
+                recordVersion(conn, migration);
+                applied++;
+                logger.info("[移行] スキーマ v" + migration.version() + " 完了 ("
+                        + (System.currentTimeMillis() - start) + "ms)");
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * 現在のスキーマバージョン (未初期化なら 0)
+     */
+    public int getCurrentVersion() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            createVersionTable(conn);
+            return getCurrentVersion(conn);
+        }
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS schema_version (
+                            version INT PRIMARY KEY,
+                            description VARCHAR(128),
+                            applied_at BIGINT NOT NULL
+                        )
+                    """);
+        }
+    }
+
+    private int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void recordVersion(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+            ps.setInt(1, migration.version());
+            ps.setString(2, migration.description());
+            ps.setLong(3, System.currentTimeMillis());
+            ps.executeUpdate();
+        }
+    }
+}
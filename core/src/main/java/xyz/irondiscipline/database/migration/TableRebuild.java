@@ -0,0 +1,299 @@
+package xyz.irondiscipline.database.migration;
+
+import xyz.irondiscipline.database.SqlDialect;
+import xyz.irondiscipline.database.UuidCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.logging.Logger;
+
+/**
+ * テーブルの作り直し (copy-and-swap)
+ * <p>
+ * 新しい定義のテーブル {@code <table>_v2} を作成し、主キー順にチャンク単位で
+ * 行をコピー・変換してから、テーブル名を入れ替えます。
+ * 各チャンクは個別にコミットされるため、大きなテーブルでも長時間ロックを取らず、
+ * 中断しても次回起動時に続きから再開できます (数値キーの場合。文字列キーの小さな
+ * テーブルは最初からコピーし直します)。
+ * </p>
+ * <p>
+ * 起動時の {@link SchemaMigrator} から同期的に呼ばれるオフライン処理です。
+ * コピーの前に行数をログに出し、完了まで起動が止まることを知らせます。
+ * </p>
+ */
+public final class TableRebuild {
+
+    /** 1 チャンクあたりの行数 */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final long PROGRESS_LOG_INTERVAL = 50_000;
+
+    /**
+     * 変換済みかどうかの判定
+     */
+    @FunctionalInterface
+    public interface SchemaCheck {
+        boolean test(Connection conn) throws SQLException;
+    }
+
+    /**
+     * カラム値の読み取り・変換。
+     * {@link IllegalArgumentException} を投げた行は変換不能としてスキップされる。
+     */
+    @FunctionalInterface
+    public interface ColumnReader {
+        Object read(ResultSet rs, String column) throws SQLException;
+    }
+
+    /** 値をそのままコピー (数値など) */
+    public static final ColumnReader VALUE = ResultSet::getObject;
+    /** 文字列としてコピー (TEXT / LONGTEXT を含む) */
+    public static final ColumnReader STRING = ResultSet::getString;
+    /** VARCHAR(36) の UUID を BINARY(16) に変換 */
+    public static final ColumnReader LEGACY_UUID = (rs, column) -> UuidCodec.fromLegacyString(rs.getString(column));
+    /** 文字列 (Base64 など ASCII のみ) を BLOB 用のバイト列としてコピー */
+    public static final ColumnReader ASCII_BYTES = (rs, column) -> {
+        String value = rs.getString(column);
+        return value != null ? value.getBytes(StandardCharsets.US_ASCII) : null;
+    };
+
+    private final String table;
+    private final String newTable;
+    private final String retiredTable;
+    private String createSql;
+    private final List<String> columns = new ArrayList<>();
+    private final List<ColumnReader> readers = new ArrayList<>();
+    private final List<String[]> indexes = new ArrayList<>();
+    private String keyColumn;
+    private boolean numericKey;
+    private boolean binaryKey;
+    private String identityColumn;
+    private SchemaCheck doneCheck;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private TableRebuild(String table) {
+        this.table = table;
+        this.newTable = table + "_v2";
+        this.retiredTable = table + "_legacy";
+    }
+
+    public static TableRebuild of(String table) {
+        return new TableRebuild(table);
+    }
+
+    /**
+     * 新テーブルの CREATE 文。テーブル名は {@code %s} で指定する。
+     */
+    public TableRebuild create(String createSqlTemplate) {
+        this.createSql = createSqlTemplate;
+        return this;
+    }
+
+    public TableRebuild column(String name, ColumnReader reader) {
+        columns.add(name);
+        readers.add(reader);
+        return this;
+    }
+
+    /** 数値の主キー (コピーを途中から再開できる) */
+    public TableRebuild numericKey(String column) {
+        this.keyColumn = column;
+        this.numericKey = true;
+        return this;
+    }
+
+    /** 文字列の主キー (中断時は最初からコピーし直す) */
+    public TableRebuild stringKey(String column) {
+        this.keyColumn = column;
+        this.numericKey = false;
+        this.binaryKey = false;
+        return this;
+    }
+
+    /** BINARY の主キー (中断時は最初からコピーし直す) */
+    public TableRebuild binaryKey(String column) {
+        this.keyColumn = column;
+        this.numericKey = false;
+        this.binaryKey = true;
+        return this;
+    }
+
+    /** 自動採番カラム (コピー後に採番を再開させる) */
+    public TableRebuild identity(String column) {
+        this.identityColumn = column;
+        return this;
+    }
+
+    /** 入れ替え後に作成するインデックス */
+    public TableRebuild index(String name, String columns) {
+        indexes.add(new String[] { name, columns });
+        return this;
+    }
+
+    /** 既に新しい定義になっているかの判定 */
+    public TableRebuild doneWhen(SchemaCheck check) {
+        this.doneCheck = check;
+        return this;
+    }
+
+    public TableRebuild chunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+        return this;
+    }
+
+    /**
+     * 作り直しを実行する。conn は autoCommit=true で渡すこと。
+     */
+    public void run(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        boolean tableExists = MigrationSupport.tableExists(conn, table);
+        boolean newExists = MigrationSupport.tableExists(conn, newTable);
+
+        if (!tableExists) {
+            // H2 で名前の入れ替え途中に中断した場合の復旧
+            if (newExists) {
+                MigrationSupport.execute(conn, "ALTER TABLE " + newTable + " RENAME TO " + table);
+                finish(conn);
+            }
+            return;
+        }
+        if (doneCheck.test(conn)) {
+            finish(conn);
+            return;
+        }
+
+        if (!newExists) {
+            MigrationSupport.execute(conn, String.format(createSql, newTable));
+        }
+
+        logger.warning(String.format("[移行] %s: %,d 行のテーブルを作り直します。"
+                + "完了するまでプラグインの起動は止まります (停止しても次回起動時に再開します)",
+                table, countRows(conn)));
+        long copied = copyRows(conn, logger);
+        if (identityColumn != null) {
+            MigrationSupport.restartIdentity(conn, dialect, newTable, identityColumn);
+        }
+        MigrationSupport.swapTables(conn, dialect, table, newTable, retiredTable);
+        finish(conn);
+        logger.info(String.format("[移行] %s: %,d 行を変換しました", table, copied));
+    }
+
+    private void finish(Connection conn) throws SQLException {
+        MigrationSupport.dropTableIfExists(conn, retiredTable);
+        for (String[] index : indexes) {
+            MigrationSupport.createIndex(conn, index[0], table, index[1]);
+        }
+    }
+
+    private long copyRows(Connection conn, Logger logger) throws SQLException {
+        Object lastKey;
+        if (numericKey) {
+            lastKey = maxKey(conn);
+        } else {
+            MigrationSupport.execute(conn, "DELETE FROM " + newTable);
+            lastKey = binaryKey ? new byte[0] : "";
+        }
+
+        StringJoiner columnList = new StringJoiner(", ");
+        StringJoiner placeholders = new StringJoiner(", ");
+        for (String column : columns) {
+            columnList.add(column);
+            placeholders.add("?");
+        }
+        String selectSql = "SELECT " + columnList + " FROM " + table
+                + " WHERE " + keyColumn + " > ? ORDER BY " + keyColumn + " LIMIT " + chunkSize;
+        String insertSql = "INSERT INTO " + newTable + " (" + columnList + ") VALUES (" + placeholders + ")";
+
+        long copied = 0;
+        long skipped = 0;
+        long nextProgress = PROGRESS_LOG_INTERVAL;
+        conn.setAutoCommit(false);
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+                PreparedStatement insert = conn.prepareStatement(insertSql)) {
+            while (true) {
+                if (lastKey instanceof byte[] bytes) {
+                    select.setBytes(1, bytes);
+                } else {
+                    select.setObject(1, lastKey);
+                }
+                int rows = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        if (numericKey) {
+                            lastKey = rs.getLong(keyColumn);
+                        } else {
+                            lastKey = binaryKey ? rs.getBytes(keyColumn) : rs.getString(keyColumn);
+                        }
+                        if (bindRow(rs, insert)) {
+                            insert.addBatch();
+                        } else {
+                            skipped++;
+                        }
+                    }
+                }
+                if (rows == 0) {
+                    break;
+                }
+                insert.executeBatch();
+                conn.commit();
+                copied += rows;
+                if (copied >= nextProgress) {
+                    logger.info(String.format("[移行] %s: %,d 行コピー済み", table, copied));
+                    nextProgress += PROGRESS_LOG_INTERVAL;
+                }
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+
+        if (skipped > 0) {
+            logger.warning(String.format("[移行] %s: 変換できない %,d 行をスキップしました", table, skipped));
+        }
+        return copied - skipped;
+    }
+
+    private boolean bindRow(ResultSet rs, PreparedStatement insert) throws SQLException {
+        try {
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = readers.get(i).read(rs, columns.get(i));
+                if (value == null) {
+                    insert.setNull(i + 1, Types.NULL);
+                } else if (value instanceof byte[] bytes) {
+                    insert.setBytes(i + 1, bytes);
+                } else if (value instanceof String string) {
+                    insert.setString(i + 1, string);
+                } else {
+                    insert.setObject(i + 1, value);
+                }
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            insert.clearParameters();
+            return false;
+        }
+    }
+
+    private long countRows(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private long maxKey(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT MAX(" + keyColumn + ") FROM " + newTable)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -25,11 +25,8 @@ public class AsyncPlayerPreLoginListener implements Listener {
         UUID playerId = event.getUniqueId();
 
         try {
-            // 階級データを事前ロード (同期的に待機)
-            plugin.getRankManager().loadPlayerCache(playerId);
-
-            // 隔離データを事前ロード (同期的に待機)
-            plugin.getJailManager().loadJailStatusSync(playerId);
+            // 階級・隔離状態・警告を事前ロード (同時ログインはまとめて読み込み、同期的に待機)
+            plugin.getPlayerSessionLoader().loadSync(playerId);
         } catch (Exception e) {
             plugin.getLogger().severe("Failed to load player data for " + event.getName() + " (" + playerId + "): " + e.getMessage());
             e.printStackTrace();
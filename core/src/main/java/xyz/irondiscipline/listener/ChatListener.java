@@ -1,8 +1,7 @@
 package xyz.irondiscipline.listener;
 
 import xyz.irondiscipline.IronDiscipline;
-import xyz.irondiscipline.model.Rank;
-import org.bukkit.ChatColor;
+import xyz.irondiscipline.model.ChatState;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -12,6 +11,10 @@ import org.bukkit.event.player.AsyncPlayerChatEvent;
 /**
  * チャットリスナー
  * PTSロジックの心臓部 - 非同期処理でラグを生まない
+ * <p>
+ * 隔離・試験・階級・PTS の判定とフォーマットは、各マネージャーが状態の変更時に公開した
+ * {@link ChatState} を 1 回読むだけで行います。
+ * </p>
  */
 public class ChatListener implements Listener {
 
@@ -28,26 +31,25 @@ public class ChatListener implements Listener {
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onAsyncChat(AsyncPlayerChatEvent event) {
         Player player = event.getPlayer();
+        ChatState state = plugin.getChatStateRegistry().get(player);
 
         // ===== 1. 隔離チェック（完全ブロック）=====
-        if (plugin.getJailManager().isJailed(player)) {
+        if (state.isJailed()) {
             event.setCancelled(true);
             player.sendMessage(plugin.getConfigManager().getJailBlockedMessage());
             return;
         }
 
         // ===== 2. 試験中チェック（完全ブロック）=====
-        if (plugin.getExamManager() != null && plugin.getExamManager().isInExam(player.getUniqueId())) {
+        if (state.isInExam()) {
             event.setCancelled(true);
             player.sendMessage(plugin.getConfigManager().getMessage("chat_exam_blocked"));
             return;
         }
 
-        // ===== 2. 階級取得（キャッシュから高速取得）=====
-        Rank rank = plugin.getRankManager().getRank(player);
-
         // ===== 3. PTS（発言許可）チェック =====
-        if (!plugin.getPTSManager().hasPermissionToSpeak(player)) {
+        // 状態では発言できない場合だけ、期限切れの剥奪を含めて PTSManager で確認する
+        if (!state.canSpeak(System.currentTimeMillis()) && !plugin.getPTSManager().hasPermissionToSpeak(player)) {
             event.setCancelled(true);
             plugin.getPTSManager().notifyOfficersWithMessage(player, event.getMessage());
             player.sendMessage(plugin.getConfigManager().getMessage("pts_required"));
@@ -55,9 +57,6 @@ public class ChatListener implements Listener {
         }
 
         // ===== 4. チャットフォーマットに階級プレフィックスを適用 =====
-        String safeRankDisplay = rank.getDisplay().replace("%", "%%");
-        String format = safeRankDisplay + " " + ChatColor.WHITE + "%1$s" +
-                ChatColor.GRAY + ": " + ChatColor.WHITE + "%2$s";
-        event.setFormat(format);
+        event.setFormat(state.getFormat());
     }
 }
@@ -1,6 +1,10 @@
 package xyz.irondiscipline.listener;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.manager.JailContainment;
+import xyz.irondiscipline.manager.JailManager;
+import xyz.irondiscipline.model.JailCell;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -82,13 +86,28 @@ public class GestureListener implements Listener {
     /**
      * 隔離プレイヤーの移動制限
      */
-    @EventHandler
+    @EventHandler(ignoreCancelled = true)
     public void onMove(PlayerMoveEvent event) {
+        // 視点の回転・同じブロック内の移動は判定しない
+        Location to = event.getTo();
+        if (to == null || JailContainment.isSameBlock(event.getFrom(), to)) {
+            return;
+        }
+
+        // 隔離中なら移動先をチェックし、房のエリア外へ出る移動は止める。
+        // 房の隔離場所は遠い (別リージョンの) こともあるため、setTo では飛ばさない
         Player player = event.getPlayer();
-        
-        // 隔離中なら位置チェック
-        if (plugin.getJailManager().isJailed(player)) {
-            plugin.getJailManager().preventEscape(player);
+        JailManager jailManager = plugin.getJailManager();
+        if (jailManager.isJailed(player)) {
+            JailCell cell = jailManager.getCell(player.getUniqueId());
+            Location back = jailManager.getContainment().check(cell, to);
+            if (back != null) {
+                event.setTo(event.getFrom());
+                // 既にエリア外にいる場合 (移動イベントを伴わないテレポートの後など) は房に戻す
+                if (!JailContainment.isInside(cell, event.getFrom())) {
+                    player.teleportAsync(back);
+                }
+            }
         }
     }
 }
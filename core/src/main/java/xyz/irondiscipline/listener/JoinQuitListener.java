@@ -29,6 +29,9 @@ public class JoinQuitListener implements Listener {
         
         // 隔離状態の復元
         plugin.getJailManager().onPlayerJoin(player);
+
+        // 名前索引を更新 (オフライン検索・補完用)
+        plugin.getPlayerNameManager().recordAsync(player.getUniqueId(), player.getName());
     }
 
     @EventHandler(priority = EventPriority.NORMAL)
@@ -38,6 +41,7 @@ public class JoinQuitListener implements Listener {
         
         // キャッシュクリア
         plugin.getRankManager().unloadPlayerCache(playerId);
+        plugin.getWarningManager().invalidateCache(playerId);
         plugin.getPTSManager().cleanup(playerId);
         plugin.getRadioManager().cleanup(playerId);
         
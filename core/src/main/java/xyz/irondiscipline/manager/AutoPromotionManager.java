@@ -1,6 +1,7 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
 import xyz.irondiscipline.model.Rank;
 import org.bukkit.Bukkit;
 import org.bukkit.Statistic;
@@ -90,7 +91,7 @@ public class AutoPromotionManager {
             // 昇進実行
             plugin.getLogger().info("自動昇進: " + player.getName() + " -> " + nextRank.getId() + " (" + playedMinutes
                     + "m / " + requiredMinutes + "m)");
-            rankManager.promote(player).thenAccept(newRank -> {
+            rankManager.promote(player, RankChangeEvent.Cause.AUTO_PROMOTE, null).thenAccept(newRank -> {
                 if (newRank != null) {
                     plugin.getTaskScheduler().runEntity(player, () -> {
                         if (!player.isOnline()) {
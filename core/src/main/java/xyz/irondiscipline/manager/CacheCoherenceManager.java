@@ -0,0 +1,174 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.database.CacheChange;
+import xyz.irondiscipline.database.CoherenceTransport;
+import xyz.irondiscipline.model.Rank;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * サーバー間のキャッシュ同期マネージャー
+ * <p>
+ * 同じ DB を共有する複数サーバーで、階級・隔離状態・部隊・警告のキャッシュを揃えます。
+ * 書き込みに成功した変更を {@link CoherenceTransport} で送り、他のサーバーから届いた変更で
+ * 各マネージャーのキャッシュを更新・無効化します。
+ * 1 回の受信にまとめて届いた変更は、プレイヤーと種類ごとに最後のものだけを反映します。
+ * </p>
+ */
+public class CacheCoherenceManager {
+
+    private final IronDiscipline plugin;
+    private final CoherenceTransport transport;
+    private final String serverId;
+
+    // メトリクス
+    private final Map<CacheChange.Kind, AtomicLong> applied = new EnumMap<>(CacheChange.Kind.class);
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong publishFailures = new AtomicLong();
+    private volatile long lastLagMillis = 0;
+    private volatile long maxLagMillis = 0;
+
+    public CacheCoherenceManager(IronDiscipline plugin, CoherenceTransport transport, String serverId) {
+        this.plugin = plugin;
+        this.transport = transport;
+        this.serverId = serverId;
+        for (CacheChange.Kind kind : CacheChange.Kind.values()) {
+            applied.put(kind, new AtomicLong());
+        }
+    }
+
+    /**
+     * 他のサーバーからの受信を開始
+     */
+    public void start() {
+        transport.start(this::apply);
+    }
+
+    /**
+     * 変更を他のサーバーに送る (非同期、失敗はログのみ)
+     *
+     * @param payload 種類ごとの値 ({@link CacheChange.Kind} 参照)
+     */
+    public void publish(CacheChange.Kind kind, UUID playerId, String payload) {
+        transport.publish(CacheChange.of(serverId, kind, playerId, payload)).exceptionally(ex -> {
+            publishFailures.incrementAndGet();
+            plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_coherence_publish_failed")
+                    .replace("%kind%", kind.name()), ex);
+            return null;
+        });
+    }
+
+    /**
+     * 一括操作の変更をまとめて他のサーバーに送る
+     *
+     * @param payloads UUID → 種類ごとの値
+     */
+    public void publishAll(CacheChange.Kind kind, Map<UUID, String> payloads) {
+        List<CacheChange> changes = new ArrayList<>(payloads.size());
+        payloads.forEach((playerId, payload) -> changes.add(CacheChange.of(serverId, kind, playerId, payload)));
+        transport.publishAll(changes).exceptionally(ex -> {
+            publishFailures.addAndGet(changes.size());
+            plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_coherence_publish_failed")
+                    .replace("%kind%", kind.name()), ex);
+            return null;
+        });
+    }
+
+    /**
+     * 受信した変更を反映する
+     */
+    void apply(List<CacheChange> changes) {
+        Map<String, CacheChange> latest = new LinkedHashMap<>();
+        for (CacheChange change : changes) {
+            if (change.getKind() == null) {
+                continue;
+            }
+            // 同じプレイヤー・種類の古い変更は捨てる (順序は最後の変更の位置)
+            String key = change.getKind().name() + ':' + change.getPlayerId();
+            if (latest.remove(key) != null) {
+                coalesced.incrementAndGet();
+            }
+            latest.put(key, change);
+        }
+
+        long now = System.currentTimeMillis();
+        for (CacheChange change : latest.values()) {
+            try {
+                applyChange(change);
+                applied.get(change.getKind()).incrementAndGet();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to apply " + change, e);
+            }
+            long lag = Math.max(0, now - change.getCreatedAt());
+            lastLagMillis = lag;
+            if (lag > maxLagMillis) {
+                maxLagMillis = lag;
+            }
+        }
+    }
+
+    private void applyChange(CacheChange change) {
+        UUID playerId = change.getPlayerId();
+        String payload = change.getPayload();
+        switch (change.getKind()) {
+            case RANK -> {
+                if (payload != null) {
+                    plugin.getRankManager().applyRemoteRank(playerId, Rank.fromId(payload));
+                } else {
+                    plugin.getRankManager().invalidateCache(playerId);
+                }
+            }
+            case JAIL -> plugin.getJailManager().applyRemoteJailStatus(playerId, "1".equals(payload));
+            case DIVISION -> plugin.getDivisionManager().applyRemoteDivision(playerId, payload);
+            case WARNING -> plugin.getWarningManager().invalidateCache(playerId);
+        }
+    }
+
+    /**
+     * 受信を停止
+     */
+    public void close() {
+        transport.close();
+    }
+
+    // ===== メトリクス =====
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public CoherenceTransport getTransport() {
+        return transport;
+    }
+
+    /** 種類ごとの反映済み変更数 */
+    public long getAppliedCount(CacheChange.Kind kind) {
+        return applied.get(kind).get();
+    }
+
+    /** 同じ受信内の後の変更で上書きされ、反映しなかった変更数 */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getPublishFailureCount() {
+        return publishFailures.get();
+    }
+
+    /** 直近に反映した変更の、書き込みから反映までの時間 (ミリ秒) */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+}
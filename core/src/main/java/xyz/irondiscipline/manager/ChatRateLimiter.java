@@ -0,0 +1,267 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.model.ChatState;
+import xyz.irondiscipline.model.Rank;
+import xyz.irondiscipline.util.Placeholder;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import space.arim.morepaperlib.scheduling.ScheduledTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * チャットの流量制限 (トークンバケット)
+ * <p>
+ * {@link xyz.irondiscipline.listener.ChatListener} より前 ({@link EventPriority#LOW}) で発言を受け取り、
+ * プレイヤーごとのバケットと、階級ごとに全員で共有するバケットの両方にトークンがある場合だけ通します。
+ * バケットの大きさ (バースト) と補充速度は階級ごとに設定でき、短い連投はバーストで吸収します。
+ * 直前と同じ発言が {@code chat.rate_limit.duplicate_window_ms} 以内に続いた場合は 1 件にまとめます (送らない)。
+ * 止めた発言は PTS の転送 ({@link PTSManager#notifyOfficersWithMessage}) にも届かず、
+ * 件数だけを一定間隔でまとめて上官 ({@link OfficerIndex}) に通知します。
+ * 隔離中・試験中のプレイヤーは ChatListener が発言を止めるため、ここでは数えません。
+ * </p>
+ * <p>
+ * 状態はプレイヤーごとの {@code long[]} と直前の発言、階級ごとの {@code long[]} だけで持ち、
+ * トークンは 1 件 = {@value #TOKEN} の固定小数点です。発言ごとのオブジェクトは作りません。
+ * </p>
+ */
+public class ChatRateLimiter implements Listener {
+
+    /** 判定結果 */
+    static final int ALLOWED = 0;
+    static final int LIMITED = 1;
+    static final int DUPLICATE = 2;
+
+    // 1 トークン (固定小数点)
+    private static final long TOKEN = 1_000_000L;
+
+    // プレイヤーごとの状態 (long[] の添字)
+    private static final int TOKENS = 0;
+    private static final int REFILLED_AT = 1;
+    private static final int LAST_AT = 2;
+    private static final int DROPPED = 3;
+    private static final int WARNED = 4;
+    private static final int STATE_SIZE = 5;
+
+    private final IronDiscipline plugin;
+    private final Map<UUID, long[]> players = new ConcurrentHashMap<>();
+    // プレイヤーごとの直前の発言 (重複判定用。更新は players の状態のロック内)
+    private final Map<UUID, String> lastMessages = new ConcurrentHashMap<>();
+    // 階級ごとの共有バケット (TOKENS, REFILLED_AT)
+    private final long[][] tiers = new long[Rank.values().length][2];
+
+    private volatile Limits limits;
+    private ScheduledTask summaryTask;
+
+    public ChatRateLimiter(IronDiscipline plugin) {
+        this.plugin = plugin;
+        long period = 20L * Math.max(1, plugin.getConfigManager().getChatSummaryIntervalSeconds());
+        this.summaryTask = plugin.getTaskScheduler().runGlobalTimer(this::flushSummaries, period, period);
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onAsyncChat(AsyncPlayerChatEvent event) {
+        Player player = event.getPlayer();
+        int verdict = check(player, event.getMessage(), System.currentTimeMillis());
+        if (verdict == ALLOWED) {
+            return;
+        }
+        event.setCancelled(true);
+        if (verdict == LIMITED && markWarned(player.getUniqueId())) {
+            player.sendMessage(plugin.getConfigManager().getMessage("chat_rate_limited"));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        players.remove(playerId);
+        lastMessages.remove(playerId);
+    }
+
+    /**
+     * 発言を通すか判定し、トークンを消費する
+     *
+     * @return {@link #ALLOWED} / {@link #LIMITED} / {@link #DUPLICATE}
+     */
+    int check(Player player, String message, long now) {
+        Limits current = limits();
+        if (!current.enabled) {
+            return ALLOWED;
+        }
+        ChatState chat = plugin.getChatStateRegistry().get(player);
+        if (chat.isJailed() || chat.isInExam()) {
+            return ALLOWED;
+        }
+        int tier = chat.getRank().ordinal();
+        UUID playerId = player.getUniqueId();
+        long[] state = players.computeIfAbsent(playerId, id -> new long[STATE_SIZE]);
+
+        synchronized (state) {
+            if (current.duplicateWindow > 0 && state[LAST_AT] != 0 && message.equals(lastMessages.get(playerId))
+                    && now - state[LAST_AT] < current.duplicateWindow) {
+                state[LAST_AT] = now;
+                state[DROPPED]++;
+                return DUPLICATE;
+            }
+            if (!take(state, current.burst[tier], current.perMilli[tier], now)) {
+                state[DROPPED]++;
+                return LIMITED;
+            }
+            lastMessages.put(playerId, message);
+            state[LAST_AT] = now;
+        }
+
+        if (current.tierBurst[tier] > 0) {
+            long[] shared = tiers[tier];
+            boolean taken;
+            synchronized (shared) {
+                taken = take(shared, current.tierBurst[tier], current.tierPerMilli[tier], now);
+            }
+            if (!taken) {
+                synchronized (state) {
+                    // 本人のトークンは返す (階級全体の混雑で止めたため)
+                    state[TOKENS] = Math.min(current.burst[tier], state[TOKENS] + TOKEN);
+                    state[DROPPED]++;
+                }
+                return LIMITED;
+            }
+        }
+        return ALLOWED;
+    }
+
+    /**
+     * 経過時間分を補充してから 1 件分を取り出す
+     */
+    private static boolean take(long[] bucket, long burst, double perMilli, long now) {
+        if (bucket[REFILLED_AT] == 0) {
+            bucket[TOKENS] = burst;
+        } else if (now > bucket[REFILLED_AT]) {
+            long refill = (long) ((now - bucket[REFILLED_AT]) * perMilli);
+            bucket[TOKENS] = Math.min(burst, bucket[TOKENS] + refill);
+        }
+        bucket[REFILLED_AT] = Math.max(now, bucket[REFILLED_AT]);
+        if (bucket[TOKENS] >= TOKEN) {
+            bucket[TOKENS] -= TOKEN;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 通知間隔ごとに 1 回だけ本人に警告する
+     */
+    private boolean markWarned(UUID playerId) {
+        long[] state = players.get(playerId);
+        if (state == null) {
+            return false;
+        }
+        synchronized (state) {
+            if (state[WARNED] != 0) {
+                return false;
+            }
+            state[WARNED] = 1;
+            return true;
+        }
+    }
+
+    /**
+     * 止めた件数を上官にまとめて通知する
+     */
+    void flushSummaries() {
+        for (Map.Entry<UUID, long[]> entry : players.entrySet()) {
+            long[] state = entry.getValue();
+            long dropped;
+            synchronized (state) {
+                dropped = state[DROPPED];
+                state[DROPPED] = 0;
+                state[WARNED] = 0;
+            }
+            if (dropped == 0) {
+                continue;
+            }
+            Player sender = Bukkit.getPlayer(entry.getKey());
+            if (sender == null) {
+                continue;
+            }
+            String summary = plugin.getConfigManager().format("chat_flood_summary",
+                    Placeholder.of("rank", plugin.getChatStateRegistry().get(sender).getRank().getDisplay()),
+                    Placeholder.of("player", sender.getName()),
+                    Placeholder.of("count", dropped));
+            for (OfficerIndex.Officer officer : plugin.getPTSManager().getOfficerIndex().getOfficers()) {
+                if (!officer.getPlayer().equals(sender)) {
+                    officer.getPlayer().sendMessage(summary);
+                }
+            }
+        }
+    }
+
+    /**
+     * 止めた件数 (次の通知まで)
+     */
+    public long getDroppedCount(UUID playerId) {
+        long[] state = players.get(playerId);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state[DROPPED];
+        }
+    }
+
+    public void shutdown() {
+        if (summaryTask != null && !summaryTask.isCancelled()) {
+            summaryTask.cancel();
+        }
+    }
+
+    /**
+     * 階級ごとの上限 (設定の再読み込み後に作り直す)
+     */
+    private Limits limits() {
+        Limits current = limits;
+        int revision = plugin.getConfigManager().getRevision();
+        if (current == null || current.revision != revision) {
+            current = new Limits(plugin.getConfigManager(), revision);
+            limits = current;
+        }
+        return current;
+    }
+
+    private static final class Limits {
+        final int revision;
+        final boolean enabled;
+        final long duplicateWindow;
+        // Rank.ordinal() ごとの値 (トークンは固定小数点, 補充はミリ秒あたり)
+        final long[] burst;
+        final double[] perMilli;
+        final long[] tierBurst;
+        final double[] tierPerMilli;
+
+        Limits(ConfigManager config, int revision) {
+            Rank[] ranks = Rank.values();
+            this.revision = revision;
+            this.enabled = config.isChatRateLimitEnabled();
+            this.duplicateWindow = config.getChatDuplicateWindowMillis();
+            this.burst = new long[ranks.length];
+            this.perMilli = new double[ranks.length];
+            this.tierBurst = new long[ranks.length];
+            this.tierPerMilli = new double[ranks.length];
+            for (Rank rank : ranks) {
+                int i = rank.ordinal();
+                burst[i] = Math.max(1, config.getChatRateLimitBurst(rank.getId())) * TOKEN;
+                perMilli[i] = Math.max(0, config.getChatRateLimitPerSecond(rank.getId())) * TOKEN / 1000.0;
+                tierBurst[i] = Math.max(0, config.getChatRateLimitTierBurst(rank.getId())) * TOKEN;
+                tierPerMilli[i] = Math.max(0, config.getChatRateLimitTierPerSecond(rank.getId())) * TOKEN / 1000.0;
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankBatchChangeEvent;
+import xyz.irondiscipline.api.event.RankCacheInvalidateEvent;
+import xyz.irondiscipline.api.event.RankChangeEvent;
+import xyz.irondiscipline.api.rank.IRank;
+import xyz.irondiscipline.model.ChatState;
+import xyz.irondiscipline.model.Rank;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * オンラインプレイヤーのチャット状態 ({@link ChatState}) の公開先
+ * <p>
+ * 隔離・試験・発言許可の変更時は各マネージャーが {@link IronDiscipline#refreshChatState} を呼び、
+ * 階級の変更・権限の再計算・参加/退出はこのクラスがイベントで受け取って、そのプレイヤーの状態を作り直します。
+ * 非同期チャットは {@link #get} で不変の状態を 1 回読むだけで、状態の組み立てや権限の確認を行いません。
+ * 設定が再読み込みされた場合は {@link ConfigManager#addReloadHook} から全員分を作り直します。
+ * </p>
+ */
+public class ChatStateRegistry implements Listener {
+
+    private static final String BYPASS_PERMISSION = "iron.pts.bypass";
+
+    private final IronDiscipline plugin;
+    private final Map<UUID, ChatState> states = new ConcurrentHashMap<>();
+
+    public ChatStateRegistry(IronDiscipline plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * プレイヤーの現在の状態。
+     * 参加直後でまだ作られていない場合は、PTS の判定を {@link PTSManager#hasPermissionToSpeak} に任せる
+     * 保守的な状態を返す (この状態は公開しない)
+     */
+    public ChatState get(Player player) {
+        ChatState state = states.get(player.getUniqueId());
+        return state != null ? state : unresolved(player);
+    }
+
+    /**
+     * 隔離・試験・発言許可の変更を反映する (階級は今の状態のまま)
+     */
+    public void refresh(UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null) {
+            return;
+        }
+        states.computeIfPresent(playerId, (id, state) -> build(player, state.getRank()));
+    }
+
+    /**
+     * 階級を読み込んでから状態を作り直す (キャッシュ済みならその場で)
+     */
+    public void refreshRank(Player player) {
+        plugin.getRankManager().getRankAsync(player.getUniqueId())
+                .thenAccept(rank -> update(player, rank))
+                .exceptionally(ex -> {
+                    plugin.getLogger().warning("Failed to refresh chat state for " + player.getName() + ": " + ex.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * 既知の階級で状態を作り直す
+     */
+    void update(Player player, IRank rank) {
+        if (rank == null) {
+            refreshRank(player);
+            return;
+        }
+        states.compute(player.getUniqueId(),
+                (id, state) -> player.isOnline() ? build(player, Rank.fromIRank(rank)) : null);
+    }
+
+    /**
+     * 設定の再読み込み後に全員分を作り直す (階級は今の状態のまま)
+     */
+    public void rebuildAll() {
+        for (UUID playerId : states.keySet()) {
+            refresh(playerId);
+        }
+    }
+
+    public void remove(UUID playerId) {
+        states.remove(playerId);
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    private ChatState build(Player player, Rank rank) {
+        UUID playerId = player.getUniqueId();
+        ConfigManager config = plugin.getConfigManager();
+        ExamManager exams = plugin.getExamManager();
+        boolean jailed = plugin.getJailManager().isJailed(playerId);
+        boolean inExam = exams != null && exams.isInExam(playerId);
+        // 試験マネージャーが無い場合は、試験中かどうかに関係なく PTS の対象
+        boolean ptsRequired = config.isPTSEnabled()
+                && (exams == null || inExam)
+                && !player.hasPermission(BYPASS_PERMISSION)
+                && !rank.isHigherThan(Rank.fromWeight(config.getPTSRequireBelowWeight()));
+        long deadline = plugin.getPTSManager().getGrantExpiration(playerId);
+        return new ChatState(rank, jailed, inExam, ptsRequired, deadline, config.getRevision());
+    }
+
+    /**
+     * 状態が未作成の間の代わり (隔離・試験はキャッシュから、PTS は常に要確認)
+     */
+    private ChatState unresolved(Player player) {
+        UUID playerId = player.getUniqueId();
+        ExamManager exams = plugin.getExamManager();
+        return new ChatState(plugin.getRankManager().getRank(player),
+                plugin.getJailManager().isJailed(playerId),
+                exams != null && exams.isInExam(playerId),
+                true, 0L, plugin.getConfigManager().getRevision());
+    }
+
+    // ===== 状態の更新 =====
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        refreshRank(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPermissionsRecalculated(PlayerCommandSendEvent event) {
+        refresh(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRankChange(RankChangeEvent event) {
+        update(event.getPlayer(), event.getNewRank());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRankCacheInvalidate(RankCacheInvalidateEvent event) {
+        Player player = Bukkit.getPlayer(event.getPlayerId());
+        if (player != null) {
+            update(player, event.getNewRank());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRankBatchChange(RankBatchChangeEvent event) {
+        for (Map.Entry<UUID, IRank> entry : event.getNewRanks().entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null) {
+                update(player, entry.getValue());
+            }
+        }
+    }
+}
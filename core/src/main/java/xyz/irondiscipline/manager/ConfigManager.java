@@ -1,12 +1,24 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.model.JailCell;
+import xyz.irondiscipline.model.JailRegion;
+import xyz.irondiscipline.util.MessageTemplate;
+import xyz.irondiscipline.util.Placeholder;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
 /**
@@ -18,6 +30,15 @@ public class ConfigManager {
     private final IronDiscipline plugin;
     private FileConfiguration config;
     private FileConfiguration messagesConfig;
+    private volatile Map<String, JailCell> jailCells;
+    // 解析済みテンプレート (接頭辞なし / 接頭辞付き)。読み込み・再読み込み時に作り直す
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, MessageTemplate> prefixedTemplates = new ConcurrentHashMap<>();
+    private volatile MessageTemplate radioTemplate;
+    // 再読み込みの回数 (設定から作ったスナップショットの鮮度確認用)
+    private volatile int revision;
+    // 再読み込み後に呼ぶ処理 (設定から作ったスナップショットの作り直し)
+    private final List<Runnable> reloadHooks = new CopyOnWriteArrayList<>();
 
     public ConfigManager(IronDiscipline plugin) {
         this.plugin = plugin;
@@ -28,7 +49,31 @@ public class ConfigManager {
     public void reload() {
         plugin.reloadConfig();
         this.config = plugin.getConfig();
+        this.jailCells = null;
+        this.radioTemplate = null;
         loadMessages();
+        revision++;
+        for (Runnable hook : reloadHooks) {
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Config reload hook failed", e);
+            }
+        }
+    }
+
+    /**
+     * 再読み込みのたびに呼ぶ処理を登録する (再読み込みを行ったスレッドで呼ばれる)
+     */
+    public void addReloadHook(Runnable hook) {
+        reloadHooks.add(hook);
+    }
+
+    /**
+     * 設定の世代 (再読み込みのたびに増える)
+     */
+    public int getRevision() {
+        return revision;
     }
 
     private void loadMessages() {
@@ -57,6 +102,15 @@ public class ConfigManager {
                 messagesConfig = new YamlConfiguration();
             }
         }
+
+        templates.clear();
+        prefixedTemplates.clear();
+        // ロケールファイルのメッセージはここで解析しておく (config.yml へのフォールバックは初回参照時)
+        for (String key : messagesConfig.getKeys(false)) {
+            if (messagesConfig.isString(key)) {
+                getRawTemplate(key);
+            }
+        }
     }
 
     // ===== General =====
@@ -95,8 +149,104 @@ public class ConfigManager {
         return config.getString("database.mysql.password", "");
     }
 
+    public int getDbPoolMaxConnections() {
+        return config.getInt("database.pool.max_connections", 8);
+    }
+
+    public int getDbWorkerThreads() {
+        return config.getInt("database.pool.worker_threads", 4);
+    }
+
+    public long getDbPoolAcquireTimeoutMillis() {
+        return config.getLong("database.pool.acquire_timeout_ms", 5000);
+    }
+
+    public long getDbPoolValidationIntervalMillis() {
+        return config.getLong("database.pool.validation_interval_ms", 30000);
+    }
+
+    public long getDbPoolLeakThresholdMillis() {
+        return config.getLong("database.pool.leak_threshold_ms", 60000);
+    }
+
+    public int getDbStatementCacheSize() {
+        return config.getInt("database.pool.statement_cache_size", 64);
+    }
+
+    public int getNameIndexCacheSize() {
+        return config.getInt("database.name_index.cache_size", 4096);
+    }
+
+    public int getNameIndexCompletionSize() {
+        return config.getInt("database.name_index.completion_size", 5000);
+    }
+
+    public long getRetentionIntervalMinutes() {
+        return config.getLong("database.retention.interval_minutes", 60);
+    }
+
+    public int getRetentionChunkSize() {
+        return config.getInt("database.retention.chunk_size", 500);
+    }
+
+    public long getRetentionPauseMillis() {
+        return config.getLong("database.retention.pause_ms", 50);
+    }
+
+    public int getWarningRetentionDays() {
+        return config.getInt("database.retention.warning_days", 0);
+    }
+
+    public int getOrphanJailRetentionDays() {
+        return config.getInt("database.retention.orphan_jail_days", 0);
+    }
+
+    public int getPreLoginBatchSize() {
+        return config.getInt("database.prelogin.batch_size", 200);
+    }
+
+    public long getPreLoginTimeoutMillis() {
+        return config.getLong("database.prelogin.timeout_ms", 5000);
+    }
+
+    public boolean isCoherenceEnabled() {
+        return config.getBoolean("database.coherence.enabled", false);
+    }
+
+    public String getCoherenceServerId() {
+        return config.getString("database.coherence.server_id", "");
+    }
+
+    public long getCoherencePollIntervalMillis() {
+        return config.getLong("database.coherence.poll_interval_ms", 1000);
+    }
+
+    public int getCoherenceBatchSize() {
+        return config.getInt("database.coherence.batch_size", 500);
+    }
+
+    public long getCoherenceGapGraceMillis() {
+        return config.getLong("database.coherence.gap_grace_ms", 5000);
+    }
+
+    public int getCoherenceRetentionMinutes() {
+        return config.getInt("database.coherence.retention_minutes", 60);
+    }
+
     // ===== Ranks =====
 
+    public int getRankBulkChunkSize() {
+        return config.getInt("ranks.bulk.chunk_size", 500);
+    }
+
+    public int getRankCacheOfflineSize() {
+        return config.getInt("ranks.cache.offline_size", 1000);
+    }
+
+    public long getRankCacheOfflineTtlSeconds() {
+        return config.getLong("ranks.cache.offline_ttl_seconds", 600);
+    }
+
     public String getRankMetaKey() {
         return config.getString("ranks.meta_key", "military_rank");
     }
@@ -123,6 +273,10 @@ public class ConfigManager {
         return config.getInt("pts.sneak_request.double_sneak_threshold", 500);
     }
 
+    public long getPTSNotifyCoalesceMillis() {
+        return config.getLong("pts.notify.coalesce_ms", 0);
+    }
+
     public String getPTSRequestPrefix() {
         // Try getting from messages first (for multilingual support), then config
         String prefix = messagesConfig.getString("pts_request_prefix");
@@ -132,6 +286,42 @@ public class ConfigManager {
         return colorize(prefix);
     }
 
+    // ===== Chat =====
+
+    public boolean isChatRateLimitEnabled() {
+        return config.getBoolean("chat.rate_limit.enabled", false);
+    }
+
+    /** 1 人あたりのバースト (階級ごとの上書きあり) */
+    public int getChatRateLimitBurst(String rankId) {
+        return config.getInt("chat.rate_limit.tiers." + rankId.toUpperCase() + ".burst",
+                config.getInt("chat.rate_limit.burst", 5));
+    }
+
+    /** 1 人あたりの補充速度 (件/秒, 階級ごとの上書きあり) */
+    public double getChatRateLimitPerSecond(String rankId) {
+        return config.getDouble("chat.rate_limit.tiers." + rankId.toUpperCase() + ".per_second",
+                config.getDouble("chat.rate_limit.per_second", 1.0));
+    }
+
+    /** 階級全体で共有するバースト (0 = 共有バケットなし) */
+    public int getChatRateLimitTierBurst(String rankId) {
+        return config.getInt("chat.rate_limit.tiers." + rankId.toUpperCase() + ".tier_burst", 0);
+    }
+
+    /** 階級全体で共有する補充速度 (件/秒) */
+    public double getChatRateLimitTierPerSecond(String rankId) {
+        return config.getDouble("chat.rate_limit.tiers." + rankId.toUpperCase() + ".tier_per_second", 0);
+    }
+
+    public long getChatDuplicateWindowMillis() {
+        return config.getLong("chat.rate_limit.duplicate_window_ms", 3000);
+    }
+
+    public int getChatSummaryIntervalSeconds() {
+        return config.getInt("chat.rate_limit.summary_interval_seconds", 10);
+    }
+
     // ===== Radio =====
 
     public String getDefaultFrequency() {
@@ -146,6 +336,18 @@ public class ConfigManager {
         return format;
     }
 
+    /**
+     * 色コード変換済みの無線フォーマット
+     */
+    public MessageTemplate getRadioTemplate() {
+        MessageTemplate template = radioTemplate;
+        if (template == null) {
+            template = MessageTemplate.compile(colorize(getRadioFormat()));
+            radioTemplate = template;
+        }
+        return template;
+    }
+
     // ===== Jail =====
 
     public Location getJailLocation() {
@@ -166,6 +368,93 @@ public class ConfigManager {
         config.set("jail.location.y", location.getY());
         config.set("jail.location.z", location.getZ());
         plugin.saveConfig();
+        this.jailCells = null;
+    }
+
+    /**
+     * 隔離房 (設定順)。jail.cells が未設定なら jail.location の 1 房 ("default") だけ
+     * <p>
+     * 移動イベントごとに使うため、リロード・隔離場所の変更まで保持します。
+     * ワールドが読み込まれていない房は含めず、その場合は保持しません。
+     * </p>
+     */
+    public Collection<JailCell> getJailCells() {
+        return jailCells().values();
+    }
+
+    /**
+     * 名前で隔離房を取得
+     *
+     * @return 設定されていない、またはワールドが読み込まれていない場合は null
+     */
+    public JailCell getJailCell(String name) {
+        return name != null ? jailCells().get(name) : null;
+    }
+
+    private Map<String, JailCell> jailCells() {
+        Map<String, JailCell> cells = jailCells;
+        if (cells != null) {
+            return cells;
+        }
+        cells = new LinkedHashMap<>();
+        boolean complete = true;
+        ConfigurationSection section = config.getConfigurationSection("jail.cells");
+        if (section != null && !section.getKeys(false).isEmpty()) {
+            for (String name : section.getKeys(false)) {
+                if (name.length() > JailCell.MAX_NAME_LENGTH) {
+                    plugin.getLogger().warning("Jail cell name too long (max " + JailCell.MAX_NAME_LENGTH + "): " + name);
+                    continue;
+                }
+                String path = "jail.cells." + name;
+                JailRegion region = readJailRegion(path);
+                if (region == null) {
+                    complete = false;
+                    continue;
+                }
+                cells.put(name, new JailCell(name, region, config.getInt(path + ".capacity", 0)));
+            }
+        } else {
+            JailRegion region = readJailRegion("jail");
+            if (region == null) {
+                complete = false;
+            } else {
+                cells.put("default", new JailCell("default", region, 0));
+            }
+        }
+        cells = Collections.unmodifiableMap(cells);
+        if (complete) {
+            jailCells = cells;
+        }
+        return cells;
+    }
+
+    /**
+     * path.location / path.region / path.radius から隔離エリアを作る
+     *
+     * @return ワールドが読み込まれていない場合は null
+     */
+    private JailRegion readJailRegion(String path) {
+        String world = config.getString(path + ".location.world", "world");
+        if (plugin.getServer().getWorld(world) == null) {
+            return null;
+        }
+        double x = config.getDouble(path + ".location.x", 0);
+        double y = config.getDouble(path + ".location.y", 64);
+        double z = config.getDouble(path + ".location.z", 0);
+        if (config.isConfigurationSection(path + ".region")) {
+            return JailRegion.cuboid(world, x, y, z,
+                    config.getDouble(path + ".region.min.x"), config.getDouble(path + ".region.min.y"),
+                    config.getDouble(path + ".region.min.z"), config.getDouble(path + ".region.max.x"),
+                    config.getDouble(path + ".region.max.y"), config.getDouble(path + ".region.max.z"));
+        }
+        return JailRegion.sphere(world, x, y, z, config.getDouble(path + ".radius", 10));
+    }
+
+    /**
+     * 隔離房ごとの脱走確認の間隔 (tick, 0 以下は無効)
+     */
+    public int getJailCheckIntervalTicks() {
+        return config.getInt("jail.check_interval_ticks", 40);
     }
 
     public String getJailBlockedMessage() {
@@ -186,6 +475,26 @@ public class ConfigManager {
         return config.getBoolean("killlog.detailed", true);
     }
 
+    public int getKillLogBatchSize() {
+        return config.getInt("killlog.write_behind.batch_size", 100);
+    }
+
+    public long getKillLogFlushIntervalMillis() {
+        return config.getLong("killlog.write_behind.flush_interval_ms", 1000);
+    }
+
+    public int getKillLogQueueCapacity() {
+        return config.getInt("killlog.write_behind.queue_capacity", 10000);
+    }
+
+    public String getKillLogOverflowPolicy() {
+        return config.getString("killlog.write_behind.overflow_policy", "DROP_OLDEST");
+    }
+
+    public long getKillLogBlockTimeoutMillis() {
+        return config.getLong("killlog.write_behind.block_timeout_ms", 50);
+    }
+
     // ===== Messages =====
 
     public String getPrefix() {
@@ -225,50 +534,58 @@ public class ConfigManager {
     }
 
     public String getMessage(String key) {
-        String message = messagesConfig.getString(key);
-        if (message == null) {
-            // Fallback to main config for backward compatibility
-            message = config.getString("messages." + key, key);
-        }
-        return getPrefix() + colorize(message);
+        return getTemplate(key).render();
     }
 
     public String getMessage(String key, String... replacements) {
-        // We do not call getMessage(key) here because it prepends prefix.
-        // We want to replace FIRST then prepend prefix, or prepend prefix then replace.
-        // The original implementation called getMessage(key) which added prefix, then did replacements.
-        // Replacements might be in the prefix too? Unlikely but possible.
-        // Let's check original:
-        // String message = getMessage(key); -> returns prefix + colorized(message)
-        // message.replace(...)
-
-        String message = messagesConfig.getString(key);
-        if (message == null) {
-            message = config.getString("messages." + key, key);
-        }
+        return getTemplate(key).renderPairs(replacements);
+    }
 
-        // Colorize first or last? Original: getMessage calls colorize.
-        message = colorize(message);
-        String fullMessage = getPrefix() + message;
+    public String getRawMessage(String key) {
+        return getRawTemplate(key).render();
+    }
 
-        for (int i = 0; i < replacements.length; i += 2) {
-            if (i + 1 < replacements.length) {
-                String placeholder = replacements[i];
-                String replacement = replacements[i + 1];
-                if (replacement != null) {
-                    fullMessage = fullMessage.replace(placeholder, replacement);
-                }
-            }
+    /**
+     * 接頭辞付きのメッセージに値を埋める
+     */
+    public String format(String key, Placeholder... placeholders) {
+        return getTemplate(key).render(placeholders);
+    }
+
+    /**
+     * 接頭辞なしのメッセージに値を埋める
+     */
+    public String formatRaw(String key, Placeholder... placeholders) {
+        return getRawTemplate(key).render(placeholders);
+    }
+
+    /**
+     * 接頭辞付き・色コード変換済みのテンプレート
+     */
+    public MessageTemplate getTemplate(String key) {
+        MessageTemplate template = prefixedTemplates.get(key);
+        if (template == null) {
+            template = MessageTemplate.compile(getPrefix() + getRawTemplate(key).getSource());
+            prefixedTemplates.put(key, template);
         }
-        return fullMessage;
+        return template;
     }
 
-    public String getRawMessage(String key) {
-        String message = messagesConfig.getString(key);
-        if (message == null) {
-            message = config.getString("messages." + key, key);
+    /**
+     * 接頭辞なし・色コード変換済みのテンプレート
+     */
+    public MessageTemplate getRawTemplate(String key) {
+        MessageTemplate template = templates.get(key);
+        if (template == null) {
+            String message = messagesConfig.getString(key);
+            if (message == null) {
+                // Fallback to main config for backward compatibility
+                message = config.getString("messages." + key, key);
+            }
+            template = MessageTemplate.compile(colorize(message));
+            templates.put(key, template);
         }
-        return colorize(message);
+        return template;
     }
 
     // ===== Discord =====
@@ -1,6 +1,7 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
 import xyz.irondiscipline.api.rank.IRank;
 import xyz.irondiscipline.api.rank.RankRegistry;
 import xyz.irondiscipline.model.Rank;
@@ -1029,7 +1030,11 @@ public class DiscordManager extends ListenerAdapter {
                 return;
             }
 
-            plugin.getRankManager().setRankByUUID(targetUUID, Bukkit.getOfflinePlayer(targetUUID).getName(), next)
+            // 実行した Discord 管理者の連携先を履歴の実行者にする (未連携なら null)
+            UUID actorId = plugin.getLinkManager().getMinecraftId(event.getUser().getIdLong());
+            RankChangeEvent.Cause cause = promote ? RankChangeEvent.Cause.PROMOTE : RankChangeEvent.Cause.DEMOTE;
+            plugin.getRankManager().setRankByUUID(targetUUID, Bukkit.getOfflinePlayer(targetUUID).getName(), next,
+                    cause, actorId)
                     .thenAccept(success -> {
                         if (success) {
                             event.getHook().sendMessage(rawMsg("discord_rank_changed",
@@ -1064,7 +1069,9 @@ public class DiscordManager extends ListenerAdapter {
 
         try {
             Rank rank = Rank.valueOf(rankId.toUpperCase());
-            plugin.getRankManager().setRankByUUID(targetUUID, Bukkit.getOfflinePlayer(targetUUID).getName(), rank)
+            UUID actorId = plugin.getLinkManager().getMinecraftId(event.getUser().getIdLong());
+            plugin.getRankManager().setRankByUUID(targetUUID, Bukkit.getOfflinePlayer(targetUUID).getName(), rank,
+                    RankChangeEvent.Cause.SET, actorId)
                     .thenAccept(success -> {
                         if (success) {
                             event.getHook().sendMessage(rawMsg("discord_setrank_success", "%rank%", rank.getId())).queue();
@@ -2,6 +2,7 @@ package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
 import xyz.irondiscipline.api.provider.IDivisionProvider;
+import xyz.irondiscipline.database.CacheChange;
 import xyz.irondiscipline.model.Rank;
 import xyz.irondiscipline.util.TabNametagUtil;
 import com.google.gson.Gson;
@@ -60,6 +61,7 @@ public class DivisionManager implements IDivisionProvider {
         divisions.add(div);
         playerDivisions.put(playerId, div);
         saveData();
+        plugin.publishCacheChange(CacheChange.Kind.DIVISION, playerId, div);
         
         // オンラインプレイヤーならTab/ネームタグを更新
         updatePlayerDisplay(playerId);
@@ -71,10 +73,27 @@ public class DivisionManager implements IDivisionProvider {
     public void removeDivision(UUID playerId) {
         playerDivisions.remove(playerId);
         saveData();
+        plugin.publishCacheChange(CacheChange.Kind.DIVISION, playerId, null);
         
         // オンラインプレイヤーならTab/ネームタグを更新
         updatePlayerDisplay(playerId);
     }
+
+    /**
+     * 他のサーバーで変更された部隊を反映 ({@link CacheCoherenceManager} 用)
+     *
+     * @param division 新しい部隊 ID (null なら解除)
+     */
+    public void applyRemoteDivision(UUID playerId, String division) {
+        if (division != null) {
+            divisions.add(division);
+            playerDivisions.put(playerId, division);
+        } else if (playerDivisions.remove(playerId) == null) {
+            return;
+        }
+        saveData();
+        updatePlayerDisplay(playerId);
+    }
     
     /**
      * プレイヤーのTab/ネームタグ表示を更新
@@ -1,6 +1,7 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
@@ -72,7 +73,7 @@ public class ExamManager implements Listener {
         String msg = plugin.getConfigManager().getMessage("exam_pass_broadcast", "%target%", target.getName());
         Bukkit.broadcastMessage(msg);
 
-        plugin.getRankManager().promote(target).thenAccept(newRank -> {
+        plugin.getRankManager().promote(target, RankChangeEvent.Cause.PROMOTE, instructor.getUniqueId()).thenAccept(newRank -> {
             if (newRank != null) {
                 plugin.getTaskScheduler().runEntity(target, () -> {
                     if (target.isOnline()) {
@@ -158,6 +159,7 @@ public class ExamManager implements Listener {
 
         QuizSession session = new QuizSession(target.getUniqueId(), questions);
         quizSessions.put(target.getUniqueId(), session);
+        plugin.refreshChatState(target.getUniqueId());
 
         target.sendMessage(plugin.getConfigManager().getMessage("exam_quiz_start_header"));
         target.sendMessage(plugin.getConfigManager().getMessage("exam_quiz_instruction"));
@@ -177,6 +179,7 @@ public class ExamManager implements Listener {
 
     private void finishQuiz(Player player, QuizSession session) {
         quizSessions.remove(player.getUniqueId());
+        plugin.refreshChatState(player.getUniqueId());
 
         int score = session.score;
         int total = session.questions.size();
@@ -196,15 +199,12 @@ public class ExamManager implements Listener {
     @EventHandler
     public void onChat(AsyncPlayerChatEvent event) {
         Player player = event.getPlayer();
-        if (!quizSessions.containsKey(player.getUniqueId())) {
-            return;
-        }
-
-        event.setCancelled(true); // チャットをキャンセル
         QuizSession session = quizSessions.get(player.getUniqueId());
         if (session == null) {
             return;
         }
+
+        event.setCancelled(true); // チャットをキャンセル
         String answer = event.getMessage();
         plugin.getTaskScheduler().runEntity(player, () -> {
             if (!player.isOnline()) {
@@ -213,6 +213,7 @@ public class ExamManager implements Listener {
 
             if (answer.equalsIgnoreCase("cancel")) {
                 quizSessions.remove(player.getUniqueId());
+                plugin.refreshChatState(player.getUniqueId());
                 player.sendMessage(plugin.getConfigManager().getMessage("exam_quiz_cancelled"));
                 return;
             }
@@ -0,0 +1,140 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.model.JailCell;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 隔離房の割り当て
+ * <p>
+ * 隔離中のプレイヤーがどの房にいるかを保持し、新しく隔離するプレイヤーには
+ * 空きのある房のうち使用率 (収容数 / 定員) が最も低い房を選びます。
+ * 定員のない房は使用率 0 として扱い、同率なら収容数の少ない房、それも同じなら設定順で選びます。
+ * </p>
+ * <p>
+ * 参照 (移動イベントごとの {@link #getCell(UUID)} など) はロックを取らず、
+ * 割り当ての変更だけを同期します。
+ * </p>
+ */
+public class JailCellAllocator {
+
+    // プレイヤー → 房の名前
+    private final Map<UUID, String> assignments = new ConcurrentHashMap<>();
+
+    // 房の名前 → 収容中のプレイヤー
+    private final Map<String, Set<UUID>> occupants = new ConcurrentHashMap<>();
+
+    /**
+     * 房を割り当てる。既に cells のいずれかに割り当て済みならその房を返す
+     *
+     * @param cells 設定されている房 (設定順)
+     * @param overflow 全ての房が満員の場合も、使用率の最も低い房に割り当てるか
+     *                 (既に隔離されているプレイヤーの参加時など)
+     * @return 割り当てた房。cells が空、または overflow が false で全ての房が満員なら null
+     */
+    public synchronized JailCell assign(UUID playerId, Collection<JailCell> cells, boolean overflow) {
+        String current = assignments.get(playerId);
+        for (JailCell cell : cells) {
+            if (cell.getName().equals(current)) {
+                return cell;
+            }
+        }
+        JailCell best = select(cells, true);
+        if (best == null && overflow) {
+            best = select(cells, false);
+        }
+        if (best != null) {
+            put(playerId, best.getName());
+        }
+        return best;
+    }
+
+    private JailCell select(Collection<JailCell> cells, boolean respectCapacity) {
+        JailCell best = null;
+        double bestLoad = 0;
+        int bestCount = 0;
+        for (JailCell cell : cells) {
+            int count = getOccupancy(cell.getName());
+            if (respectCapacity && cell.hasCapacity() && count >= cell.getCapacity()) {
+                continue;
+            }
+            double load = cell.hasCapacity() ? (double) count / cell.getCapacity() : 0;
+            if (best == null || load < bestLoad || (load == bestLoad && count < bestCount)) {
+                best = cell;
+                bestLoad = load;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * DB に保存されている割り当てを反映する (定員は確認しない)。既に割り当て済みなら何もしない
+     */
+    public synchronized void restore(UUID playerId, String cell) {
+        if (cell != null && !assignments.containsKey(playerId)) {
+            put(playerId, cell);
+        }
+    }
+
+    /**
+     * 割り当てを解除する
+     *
+     * @return 割り当てられていた房の名前 (無ければ null)
+     */
+    public synchronized String release(UUID playerId) {
+        String previous = assignments.remove(playerId);
+        if (previous != null) {
+            removeOccupant(previous, playerId);
+        }
+        return previous;
+    }
+
+    private void put(UUID playerId, String cell) {
+        String previous = assignments.put(playerId, cell);
+        if (previous != null && !previous.equals(cell)) {
+            removeOccupant(previous, playerId);
+        }
+        occupants.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(playerId);
+    }
+
+    private void removeOccupant(String cell, UUID playerId) {
+        Set<UUID> set = occupants.get(cell);
+        if (set != null) {
+            set.remove(playerId);
+            if (set.isEmpty()) {
+                occupants.remove(cell);
+            }
+        }
+    }
+
+    /**
+     * 割り当てられている房の名前 (無ければ null)
+     */
+    public String getCell(UUID playerId) {
+        return assignments.get(playerId);
+    }
+
+    /** 房の収容数 */
+    public int getOccupancy(String cell) {
+        Set<UUID> set = occupants.get(cell);
+        return set != null ? set.size() : 0;
+    }
+
+    /** 房に収容中のプレイヤー (コピー) */
+    public List<UUID> getOccupants(String cell) {
+        Set<UUID> set = occupants.get(cell);
+        return set != null ? new ArrayList<>(set) : List.of();
+    }
+
+    /** 房を割り当て済みのプレイヤー数 */
+    public int size() {
+        return assignments.size();
+    }
+}
@@ -0,0 +1,126 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.model.JailCell;
+import xyz.irondiscipline.model.JailRegion;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 隔離エリアからの脱走判定
+ * <p>
+ * PlayerMoveEvent の大半は視点の回転や同じブロック内の移動なので、
+ * まずブロック座標の比較だけで判定を省きます。ブロックをまたいだ場合だけ、
+ * プレイヤーの隔離房 ({@link JailCell}) が保持する {@link JailRegion} の境界と比較します。
+ * </p>
+ * <p>
+ * 移動イベントを伴わない脱走 (他プラグインによるテレポートなど) は、房ごとの定期確認
+ * ({@link #sweep}) で戻します。確認は房のある場所のリージョンスレッドで実行するため、
+ * 房を別々のリージョンに置けば並列に処理されます。
+ * </p>
+ */
+public class JailContainment {
+
+    private final IronDiscipline plugin;
+
+    // メトリクス
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder escapes = new LongAdder();
+    private final LongAdder sweeps = new LongAdder();
+
+    public JailContainment(IronDiscipline plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * ブロックをまたがない移動 (視点の回転のみを含む) かどうか
+     */
+    public static boolean isSameBlock(Location from, Location to) {
+        return from.getBlockX() == to.getBlockX()
+                && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ()
+                && from.getWorld() == to.getWorld();
+    }
+
+    /**
+     * 隔離房のエリア内か (メトリクスに数えない)
+     */
+    public static boolean isInside(JailCell cell, Location location) {
+        World world = location.getWorld();
+        return world != null && cell.getRegion().contains(world.getName(),
+                location.getX(), location.getY(), location.getZ());
+    }
+
+    /**
+     * 移動先が隔離房のエリアの外なら、戻す先を返す
+     *
+     * @return 戻す先 (視点は移動先のまま)。エリア内、または房が未割り当てなら null
+     */
+    public Location check(JailCell cell, Location to) {
+        if (cell == null) {
+            return null;
+        }
+        JailRegion region = cell.getRegion();
+        checks.increment();
+        if (isInside(cell, to)) {
+            return null;
+        }
+
+        World world = to.getWorld();
+        World jailWorld = world != null && world.getName().equals(region.getWorldName())
+                ? world : plugin.getServer().getWorld(region.getWorldName());
+        if (jailWorld == null) {
+            return null;
+        }
+        escapes.increment();
+        return new Location(jailWorld, region.getSpawnX(), region.getSpawnY(), region.getSpawnZ(),
+                to.getYaw(), to.getPitch());
+    }
+
+    /**
+     * 隔離房の定期確認。房のある場所のリージョンスレッドで呼び出す
+     * <p>
+     * このリージョンにいる収容者はその場で判定し、エリア外なら房に戻します。
+     * 別のリージョンにいる収容者の位置はこのスレッドから読めないため、
+     * プレイヤーのスレッドで {@link JailManager#preventEscape} を実行します。
+     * </p>
+     */
+    public void sweep(JailCell cell, List<Player> players) {
+        sweeps.increment();
+        for (Player player : players) {
+            if (!player.isOnline()) {
+                continue;
+            }
+            if (Bukkit.isOwnedByCurrentRegion(player)) {
+                Location back = check(cell, player.getLocation());
+                if (back != null) {
+                    player.teleportAsync(back);
+                }
+            } else {
+                plugin.getTaskScheduler().runEntity(player, () -> plugin.getJailManager().preventEscape(player));
+            }
+        }
+    }
+
+    // ===== メトリクス =====
+
+    /** ブロックをまたいだ移動の判定回数 */
+    public long getCheckCount() {
+        return checks.sum();
+    }
+
+    /** エリア外への移動を戻した回数 */
+    public long getEscapeCount() {
+        return escapes.sum();
+    }
+
+    /** 房ごとの定期確認の実行回数 */
+    public long getSweepCount() {
+        return sweeps.sum();
+    }
+}
@@ -4,14 +4,24 @@ import xyz.irondiscipline.IronDiscipline;
 import xyz.irondiscipline.api.event.PlayerJailEvent;
 import xyz.irondiscipline.api.event.PlayerUnjailEvent;
 import xyz.irondiscipline.api.provider.IJailProvider;
+import xyz.irondiscipline.database.CacheChange;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import space.arim.morepaperlib.scheduling.ScheduledTask;
+import xyz.irondiscipline.model.JailCell;
 import xyz.irondiscipline.model.JailRecord;
-import xyz.irondiscipline.util.InventoryUtil;
+import xyz.irondiscipline.model.JailRegion;
+import xyz.irondiscipline.util.DurationUtil;
+import xyz.irondiscipline.util.InventoryCodec;
+import xyz.irondiscipline.util.TimingWheel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -21,6 +31,16 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * 隔離マネージャー
  * プレイヤーの拘留と釈放を管理
+ * <p>
+ * 隔離先は設定された隔離房 ({@link JailCell}) から使用率の低い房を選び、DB に記録します。
+ * 脱走の定期確認は房ごとに、房のある場所のリージョンで実行します。
+ * </p>
+ * <p>
+ * 刑期のある隔離は 1 つの {@link TimingWheel} に満了時刻を登録し、1 秒ごとの 1 つのタスクで
+ * 満了したオンラインのプレイヤーを釈放します。満了時刻は DB (expires_at) に保存し、起動時に
+ * 登録し直します。オフラインのまま満了したプレイヤーは、次回ログイン時
+ * ({@link PlayerSessionLoader} が満了時刻を読み込んだ後の {@link #onPlayerJoin}) に釈放します。
+ * </p>
  */
 public class JailManager implements IJailProvider {
 
@@ -32,18 +52,43 @@ public class JailManager implements IJailProvider {
     // 隔離中プレイヤーID (高速チェック用キャッシュ)
     private final Set<UUID> knownJailedIds = ConcurrentHashMap.newKeySet();
 
+    // 隔離中プレイヤーの隔離房
+    private final JailCellAllocator cells = new JailCellAllocator();
+
+    // 刑期の満了時刻 (無期限の隔離は含まない)
+    private static final int SENTENCE_WHEEL_SIZE = 512;
+    private static final long SENTENCE_TICK_MILLIS = 1000;
+    private final Map<UUID, Long> sentenceExpiries = new ConcurrentHashMap<>();
+    private final TimingWheel<UUID> sentences =
+            new TimingWheel<>(SENTENCE_WHEEL_SIZE, SENTENCE_TICK_MILLIS, System.currentTimeMillis());
+
+    private final JailContainment containment;
+    private ScheduledTask containmentTask;
+    private ScheduledTask sentenceTask;
+
     public JailManager(IronDiscipline plugin) {
         this.plugin = plugin;
+        this.containment = new JailContainment(plugin);
         loadJailedPlayers();
     }
 
     /**
-     * プレイヤーを隔離
+     * プレイヤーを隔離 (無期限)
      */
     @Override
     public boolean jail(Player target, Player jailer, String reason) {
-        Location jailLocation = plugin.getConfigManager().getJailLocation();
-        if (jailLocation == null) {
+        return jail(target, jailer, reason, 0);
+    }
+
+    /**
+     * プレイヤーを隔離
+     *
+     * @param durationMillis 刑期 (0 以下は無期限)
+     */
+    @Override
+    public boolean jail(Player target, Player jailer, String reason, long durationMillis) {
+        Collection<JailCell> jailCells = plugin.getConfigManager().getJailCells();
+        if (jailCells.isEmpty()) {
             return false;
         }
 
@@ -55,12 +100,29 @@ public class JailManager implements IJailProvider {
         }
 
         // カスタムイベント発火（キャンセル可能）
-        PlayerJailEvent jailEvent = new PlayerJailEvent(target, reason, jailer != null ? jailer.getUniqueId() : null);
+        long expiresAt = durationMillis > 0 ? System.currentTimeMillis() + durationMillis : 0;
+        PlayerJailEvent jailEvent = new PlayerJailEvent(target, reason, jailer != null ? jailer.getUniqueId() : null,
+                expiresAt);
         Bukkit.getPluginManager().callEvent(jailEvent);
         if (jailEvent.isCancelled()) {
             return false;
         }
 
+        // 隔離房を割り当て (定員の確認と同時に枠を確保する)
+        JailCell cell = cells.assign(targetId, jailCells, false);
+        if (cell == null) {
+            plugin.getLogger().warning("隔離処理中断: 空きのある隔離房がありません - " + target.getName());
+            if (jailer != null) {
+                jailer.sendMessage(plugin.getConfigManager().getMessage("jail_cells_full"));
+            }
+            return false;
+        }
+        Location jailLocation = getSpawn(cell);
+        if (jailLocation == null) {
+            cells.release(targetId);
+            return false;
+        }
+
         // 現在位置を保存
         Location originalLocation = target.getLocation();
         String locString = serializeLocation(originalLocation);
@@ -71,14 +133,15 @@ public class JailManager implements IJailProvider {
 
         // キャッシュに先行追加 (二重処理防止)
         knownJailedIds.add(targetId);
+        plugin.refreshChatState(targetId);
 
         // 非同期処理開始
-        CompletableFuture<String[]> backupFuture = new CompletableFuture<>();
+        CompletableFuture<byte[][]> backupFuture = new CompletableFuture<>();
         plugin.getTaskScheduler().runAsync(() -> {
             try {
-                String invBackup = InventoryUtil.toBase64(invContents);
-                String armorBackup = InventoryUtil.toBase64(armorContents);
-                backupFuture.complete(new String[] { invBackup, armorBackup });
+                byte[] invBackup = InventoryCodec.encode(invContents);
+                byte[] armorBackup = InventoryCodec.encode(armorContents);
+                backupFuture.complete(new byte[][] { invBackup, armorBackup });
             } catch (Exception e) {
                 backupFuture.completeExceptionally(e);
             }
@@ -87,9 +150,12 @@ public class JailManager implements IJailProvider {
         backupFuture.thenCompose(backups -> {
             // DB保存
             return plugin.getStorageManager().saveJailedPlayerAsync(targetId, target.getName(), reason,
-                    jailer != null ? jailer.getUniqueId() : null, locString, backups[0], backups[1]);
+                    jailer != null ? jailer.getUniqueId() : null, locString, backups[0], backups[1], cell.getName(),
+                    expiresAt);
         }).thenAccept(success -> {
             if (success) {
+                setSentenceExpiry(targetId, expiresAt);
+                plugin.publishCacheChange(CacheChange.Kind.JAIL, targetId, "1");
                 plugin.getTaskScheduler().runEntity(target, () -> {
                     // DB保存成功後にインベントリ操作とテレポート
                     if (!target.isOnline())
@@ -102,25 +168,29 @@ public class JailManager implements IJailProvider {
                     // ゲームモードをアドベンチャーに
                     target.setGameMode(GameMode.ADVENTURE);
 
-                    // 隔離場所へテレポート
-                    target.teleport(jailLocation);
+                    // 隔離房へテレポート (房は別のリージョンにある場合がある)
+                    target.teleportAsync(jailLocation);
 
                     // データ保存 (キャッシュ)
                     JailData data = new JailData(targetId, target.getName(), reason,
                             System.currentTimeMillis(), jailer != null ? jailer.getUniqueId() : null,
-                            locString);
+                            locString, cell.getName());
                     jailedPlayers.put(targetId, data);
 
                     // 通知
-                    target.sendMessage(plugin.getConfigManager().getMessage("jail_you_jailed",
-                            "%reason%", reason != null ? reason : plugin.getConfigManager().getRawMessage("jail_reason_default")));
+                    sendJailedMessage(target, reason != null ? reason
+                            : plugin.getConfigManager().getRawMessage("jail_reason_default"), expiresAt);
                 });
             } else {
                 plugin.getLogger().warning("隔離処理中断: DB保存に失敗しました - " + target.getName());
                 knownJailedIds.remove(targetId); // 失敗時はキャッシュから削除
+                cells.release(targetId);
+                plugin.refreshChatState(targetId);
             }
         }).exceptionally(ex -> {
             knownJailedIds.remove(targetId);
+            cells.release(targetId);
+            plugin.refreshChatState(targetId);
             plugin.getLogger().warning("隔離処理で例外が発生しました: " + target.getName() + " - " + ex.getMessage());
             return null;
         });
@@ -143,22 +213,35 @@ public class JailManager implements IJailProvider {
      * オフラインプレイヤーを隔離 (DBのみ更新)
      */
     public boolean jailOffline(UUID targetId, String targetName, UUID jailerId, String reason) {
+        return jailOffline(targetId, targetName, jailerId, reason, 0);
+    }
+
+    /**
+     * オフラインプレイヤーを刑期付きで隔離 (DBのみ更新)
+     *
+     * @param durationMillis 刑期 (0 以下は無期限)。オフラインのまま満了した場合は次回ログイン時に釈放
+     */
+    public boolean jailOffline(UUID targetId, String targetName, UUID jailerId, String reason, long durationMillis) {
         if (isJailed(targetId)) {
             return false;
         }
 
+        long expiresAt = durationMillis > 0 ? System.currentTimeMillis() + durationMillis : 0;
         plugin.getStorageManager().saveJailedPlayerAsync(targetId, targetName,
             plugin.getConfigManager().getRawMessage("jail_reason_offline"),
-            jailerId, null, null, null).thenAccept(success -> {
+            jailerId, null, null, null, null, expiresAt).thenAccept(success -> {
                 if (!success) {
                 plugin.getLogger().warning("オフライン隔離のDB保存に失敗しました: " + targetName);
                 return;
                 }
 
                 JailData data = new JailData(targetId, targetName, reason,
-                    System.currentTimeMillis(), jailerId, null);
+                    System.currentTimeMillis(), jailerId, null, null);
                 jailedPlayers.put(targetId, data);
                 knownJailedIds.add(targetId);
+                setSentenceExpiry(targetId, expiresAt);
+                plugin.refreshChatState(targetId);
+                plugin.publishCacheChange(CacheChange.Kind.JAIL, targetId, "1");
             });
 
         return true;
@@ -184,30 +267,45 @@ public class JailManager implements IJailProvider {
 
         JailData data = jailedPlayers.remove(targetId);
         knownJailedIds.remove(targetId);
+        cells.release(targetId);
+        plugin.refreshChatState(targetId);
+        setSentenceExpiry(targetId, 0);
 
         // 元の場所へテレポート
         if (data != null && data.originalLocation != null) {
             Location original = deserializeLocation(data.originalLocation);
             if (original != null) {
-                target.teleport(original);
+                target.teleportAsync(original);
             }
         }
 
         // ゲームモード復元
         target.setGameMode(GameMode.SURVIVAL);
 
-        // インベントリ復元 (DBから非同期取得)
-        plugin.getStorageManager().getJailRecordAsync(targetId).thenAccept(record -> {
+        // キャッシュに元の場所がない場合 (隔離中にログアウトし、満了後に参加した場合など) だけメタデータを読む
+        CompletableFuture<String> fallbackLocation = data != null && data.originalLocation != null
+                ? CompletableFuture.completedFuture(null)
+                : plugin.getStorageManager().getJailRecordAsync(targetId)
+                        .thenApply(record -> record != null ? record.getOriginalLocation() : null);
+
+        // インベントリ復元 (バックアップだけをDBから非同期取得)
+        plugin.getStorageManager().getJailBackupsAsync(targetId).thenAcceptBoth(fallbackLocation, (backups, location) -> {
             plugin.getTaskScheduler().runEntity(target, () -> {
-                if (record != null) {
-                    if (record.getInventoryBackup() != null) {
-                        ItemStack[] items = InventoryUtil.fromBase64(record.getInventoryBackup());
+                if (location != null) {
+                    Location original = deserializeLocation(location);
+                    if (original != null) {
+                        target.teleportAsync(original);
+                    }
+                }
+                if (backups != null) {
+                    if (backups[0] != null) {
+                        ItemStack[] items = InventoryCodec.decode(backups[0]);
                         if (items != null) {
                             target.getInventory().setContents(items);
                         }
                     }
-                    if (record.getArmorBackup() != null) {
-                        ItemStack[] armor = InventoryUtil.fromBase64(record.getArmorBackup());
+                    if (backups[1] != null) {
+                        ItemStack[] armor = InventoryCodec.decode(backups[1]);
                         if (armor != null) {
                             target.getInventory().setArmorContents(armor);
                         }
@@ -217,6 +315,7 @@ public class JailManager implements IJailProvider {
                 // DB削除 (非同期)
                 // 注意: Restoreが完了してからDeleteする
                 plugin.getStorageManager().removeJailedPlayerAsync(targetId).thenRun(() -> {
+                    plugin.publishCacheChange(CacheChange.Kind.JAIL, targetId, "0");
                     plugin.getTaskScheduler().runEntity(target, () -> {
                         // 通知 (DB削除完了後)
                         target.sendMessage(plugin.getConfigManager().getMessage("jail_you_released"));
@@ -262,12 +361,7 @@ public class JailManager implements IJailProvider {
     public void loadJailStatusSync(UUID playerId) {
         try {
             boolean isJailed = plugin.getStorageManager().isJailedAsync(playerId).get(5, java.util.concurrent.TimeUnit.SECONDS);
-            if (isJailed) {
-                knownJailedIds.add(playerId);
-            } else {
-                knownJailedIds.remove(playerId);
-                jailedPlayers.remove(playerId);
-            }
+            applyJailStatus(playerId, isJailed);
         } catch (java.util.concurrent.TimeoutException e) {
             plugin.getLogger().warning("Jail status load timed out for " + playerId);
             throw new RuntimeException("Jail status loading timed out", e);
@@ -277,12 +371,64 @@ public class JailManager implements IJailProvider {
         }
     }
 
+    /**
+     * 読み込んだ隔離状態をキャッシュに反映 (刑期は変更しない)
+     */
+    public void applyJailStatus(UUID playerId, boolean isJailed) {
+        if (isJailed) {
+            knownJailedIds.add(playerId);
+        } else {
+            knownJailedIds.remove(playerId);
+            jailedPlayers.remove(playerId);
+            cells.release(playerId);
+            setSentenceExpiry(playerId, 0);
+        }
+        plugin.refreshChatState(playerId);
+    }
+
+    /**
+     * 読み込んだ隔離状態と刑期をキャッシュに反映 ({@link PlayerSessionLoader} 用)
+     *
+     * @param expiresAt 刑期の満了時刻 (0 は無期限)。満了済みなら参加時に釈放する
+     */
+    public void applyJailStatus(UUID playerId, boolean isJailed, long expiresAt) {
+        applyJailStatus(playerId, isJailed);
+        if (isJailed) {
+            setSentenceExpiry(playerId, expiresAt);
+        }
+    }
+
+    /**
+     * 他のサーバーで変更された隔離状態を反映 ({@link CacheCoherenceManager} 用)。
+     * このサーバーにいるプレイヤーが新たに隔離された場合は参加時と同じ隔離処理を行う
+     */
+    public void applyRemoteJailStatus(UUID playerId, boolean isJailed) {
+        boolean wasJailed = knownJailedIds.contains(playerId);
+        applyJailStatus(playerId, isJailed);
+        if (!isJailed || wasJailed) {
+            return;
+        }
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null) {
+            plugin.getTaskScheduler().runEntity(player, () -> {
+                if (player.isOnline()) {
+                    onPlayerJoin(player);
+                }
+            });
+        }
+    }
+
     /**
      * ログイン時の隔離チェックと復元
      */
     public void onPlayerJoin(Player player) {
         // PreLoginでロードされたキャッシュを使用して隔離処理を行う
         if (knownJailedIds.contains(player.getUniqueId())) {
+            // オフライン中に刑期が満了していれば、隔離せずに釈放する
+            if (isSentenceExpired(player.getUniqueId(), System.currentTimeMillis())) {
+                releaseExpired(player);
+                return;
+            }
             handleJailJoin(player);
         }
     }
@@ -290,12 +436,14 @@ public class JailManager implements IJailProvider {
     private void handleJailJoin(Player player) {
         UUID playerId = player.getUniqueId();
         
-        // 隔離場所のチェック
-        Location jailLocation = plugin.getConfigManager().getJailLocation();
+        // 隔離房のチェック (満員でも割り当てる)
+        JailCell cell = getCell(playerId);
+        Location jailLocation = cell != null ? getSpawn(cell) : null;
         if (jailLocation == null) {
             plugin.getLogger().warning("Jail location not set, cannot jail player " + player.getName());
             knownJailedIds.remove(playerId);
             jailedPlayers.remove(playerId);
+            plugin.refreshChatState(playerId);
             return;
         }
         
@@ -305,8 +453,8 @@ public class JailManager implements IJailProvider {
         ItemStack[] initialContents = cloneItems(player.getInventory().getContents());
         ItemStack[] initialArmor = cloneItems(player.getInventory().getArmorContents());
 
-        // 即座に隔離場所へ飛ばす
-        player.teleport(jailLocation);
+        // 即座に隔離房へ飛ばす
+        player.teleportAsync(jailLocation);
         player.setGameMode(GameMode.ADVENTURE);
 
         // アイテム使用防止 & レースコンディション対策 (即時クリア)
@@ -324,21 +472,27 @@ public class JailManager implements IJailProvider {
                      plugin.getLogger().warning("Jail record missing for " + player.getName() + " but flagged jailed. Releasing.");
                      knownJailedIds.remove(playerId);
                      jailedPlayers.remove(playerId);
+                     cells.release(playerId);
+                     plugin.refreshChatState(playerId);
+                     setSentenceExpiry(playerId, 0);
 
                      // インベントリ復元
                      player.getInventory().setContents(initialContents);
                      player.getInventory().setArmorContents(initialArmor);
 
-                     player.teleport(initialLocation);
+                     player.teleportAsync(initialLocation);
                      player.setGameMode(GameMode.SURVIVAL);
                      return;
                  }
 
+                 // 刑期は DB の値に合わせる (他のサーバーで隔離された場合など)
+                 setSentenceExpiry(playerId, record.getExpiresAt());
+
                  // バックアップがない場合（オフライン処罰、または初回Jail Join）
-                 if (record.getInventoryBackup() == null) {
+                 if (!record.hasBackup()) {
                      // バックアップ作成 (DBへ保存)
-                     String newInvBackup = InventoryUtil.toBase64(initialContents);
-                     String newArmorBackup = InventoryUtil.toBase64(initialArmor);
+                     byte[] newInvBackup = InventoryCodec.encode(initialContents);
+                     byte[] newArmorBackup = InventoryCodec.encode(initialArmor);
                      String locString = serializeLocation(initialLocation);
 
                      // 既存情報を維持しつつ更新
@@ -347,12 +501,13 @@ public class JailManager implements IJailProvider {
                          record.getReason(),
                          record.getJailedBy(),
                          locString,
-                         newInvBackup, newArmorBackup
+                         newInvBackup, newArmorBackup,
+                         cell.getName(), record.getExpiresAt()
                      ).thenAccept(success -> {
                          plugin.getTaskScheduler().runEntity(player, () -> {
                              if (success) {
                                  // インベントリは既にクリア済み
-                                 updateJailDataCache(record, locString);
+                                 updateJailDataCache(record, locString, cell.getName());
                              } else {
                                  player.kickPlayer(plugin.getConfigManager().getRawMessage("jail_backup_save_failed_kick"));
                              }
@@ -360,22 +515,34 @@ public class JailManager implements IJailProvider {
                      });
                  } else {
                      // バックアップがある場合 -> 既にクリア済みなのでキャッシュ更新のみ
-                     updateJailDataCache(record, record.getOriginalLocation());
+                     if (!cell.getName().equals(record.getCell())) {
+                         plugin.getStorageManager().updateJailCellAsync(playerId, cell.getName());
+                     }
+                     updateJailDataCache(record, record.getOriginalLocation(), cell.getName());
                  }
 
                  // 通知
                  String reason = record.getReason() != null ? record.getReason() : "Unknown";
-                 player.sendMessage(plugin.getConfigManager().getMessage("jail_you_jailed",
-                        "%reason%", reason));
+                 sendJailedMessage(player, reason, record.getExpiresAt());
              });
         });
     }
 
-    private void updateJailDataCache(JailRecord record, String location) {
+    private void sendJailedMessage(Player player, String reason, long expiresAt) {
+        if (expiresAt > 0) {
+            player.sendMessage(plugin.getConfigManager().getMessage("jail_you_jailed_timed",
+                    "%reason%", reason,
+                    "%duration%", DurationUtil.format(plugin.getConfigManager(), expiresAt - System.currentTimeMillis())));
+        } else {
+            player.sendMessage(plugin.getConfigManager().getMessage("jail_you_jailed", "%reason%", reason));
+        }
+    }
+
+    private void updateJailDataCache(JailRecord record, String location, String cell) {
          // 上書き更新して、オフライン処罰時などのLocation未設定状態を解消する
          jailedPlayers.put(record.getPlayerId(), new JailData(
              record.getPlayerId(), record.getPlayerName(), record.getReason(),
-             record.getJailedAt(), record.getJailedBy(), location
+             record.getJailedAt(), record.getJailedBy(), location, cell
          ));
     }
 
@@ -386,25 +553,215 @@ public class JailManager implements IJailProvider {
         if (!isJailed(player))
             return;
 
-        Location jailLocation = plugin.getConfigManager().getJailLocation();
-        if (jailLocation != null) {
-            // 隔離場所から離れすぎていたら戻す
-            if (player.getLocation().distance(jailLocation) > 10) {
-                player.teleport(jailLocation);
+        // 隔離房のエリアの外なら戻す
+        Location back = containment.check(getCell(player.getUniqueId()), player.getLocation());
+        if (back != null) {
+            player.teleportAsync(back);
+        }
+    }
+
+    /**
+     * 隔離中のプレイヤーの隔離房。
+     * 房が未割り当て (オフラインで隔離された場合など) か、割り当てた房が設定から消えている場合は
+     * 満員でも割り当て直して DB に記録する
+     *
+     * @return 隔離中でない、または房が 1 つも使えない場合は null
+     */
+    public JailCell getCell(UUID playerId) {
+        ConfigManager config = plugin.getConfigManager();
+        JailCell cell = config.getJailCell(cells.getCell(playerId));
+        if (cell != null || !knownJailedIds.contains(playerId)) {
+            return cell;
+        }
+        cell = cells.assign(playerId, config.getJailCells(), true);
+        if (cell != null) {
+            plugin.getStorageManager().updateJailCellAsync(playerId, cell.getName());
+        }
+        return cell;
+    }
+
+    /**
+     * 隔離房の収容数 (オフラインの隔離プレイヤーのうち房が記録されている者を含む)
+     */
+    public int getOccupancy(JailCell cell) {
+        return cells.getOccupancy(cell.getName());
+    }
+
+    /**
+     * 隔離房の隔離場所
+     *
+     * @return ワールドが読み込まれていない場合は null
+     */
+    private Location getSpawn(JailCell cell) {
+        JailRegion region = cell.getRegion();
+        World world = plugin.getServer().getWorld(region.getWorldName());
+        if (world == null) {
+            return null;
+        }
+        return new Location(world, region.getSpawnX(), region.getSpawnY(), region.getSpawnZ());
+    }
+
+    public JailContainment getContainment() {
+        return containment;
+    }
+
+    /**
+     * 隔離房ごとの脱走確認と、刑期満了の確認を開始
+     */
+    public void startTasks() {
+        stopTasks();
+
+        long sentenceTicks = SENTENCE_TICK_MILLIS / 50;
+        sentenceTask = plugin.getTaskScheduler().runGlobalTimer(this::releaseExpiredSentences,
+                sentenceTicks, sentenceTicks);
+
+        int interval = plugin.getConfigManager().getJailCheckIntervalTicks();
+        if (interval <= 0) {
+            return;
+        }
+        containmentTask = plugin.getTaskScheduler().runGlobalTimer(this::checkCells, interval, interval);
+    }
+
+    /**
+     * 定期タスクを停止
+     */
+    public void stopTasks() {
+        if (containmentTask != null) {
+            containmentTask.cancel();
+            containmentTask = null;
+        }
+        if (sentenceTask != null) {
+            sentenceTask.cancel();
+            sentenceTask = null;
+        }
+    }
+
+    // ===== 刑期 =====
+
+    /**
+     * 刑期の満了時刻を設定し、タイミングホイールに登録する (0 以下は無期限として登録を取り消す)
+     */
+    private void setSentenceExpiry(UUID playerId, long expiresAt) {
+        if (expiresAt > 0) {
+            sentenceExpiries.put(playerId, expiresAt);
+            sentences.schedule(playerId, expiresAt);
+        } else if (sentenceExpiries.remove(playerId) != null) {
+            sentences.cancel(playerId);
+        }
+    }
+
+    private boolean isSentenceExpired(UUID playerId, long now) {
+        Long expiresAt = sentenceExpiries.get(playerId);
+        return expiresAt != null && expiresAt <= now;
+    }
+
+    /**
+     * 満了したオンラインのプレイヤーを釈放する (1 秒ごと)。
+     * オフラインのプレイヤーは満了時刻を残し、次回ログイン時に釈放する
+     */
+    void releaseExpiredSentences() {
+        long now = System.currentTimeMillis();
+        for (UUID playerId : sentences.advance(now)) {
+            // 取り消し・延長済みの登録は無視
+            if (!isSentenceExpired(playerId, now)) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(playerId);
+            if (player == null) {
+                continue;
+            }
+            plugin.getTaskScheduler().runEntity(player, () -> {
+                if (player.isOnline() && isJailed(player)) {
+                    releaseExpired(player);
+                }
+            });
+        }
+    }
+
+    private void releaseExpired(Player player) {
+        if (unjail(player)) {
+            plugin.getLogger().info("刑期満了により釈放しました: " + player.getName());
+        }
+    }
+
+    @Override
+    public long getJailExpiresAt(UUID playerId) {
+        Long expiresAt = sentenceExpiries.get(playerId);
+        return expiresAt != null ? expiresAt : 0;
+    }
+
+    /** 刑期のある隔離の登録数 (オフラインのまま満了したものを含む) */
+    public int getSentenceCount() {
+        return sentenceExpiries.size();
+    }
+
+    /** タイミングホイールの登録数 (満了前のもの) */
+    public int getScheduledSentenceCount() {
+        return sentences.size();
+    }
+
+    /**
+     * オンラインの収容者がいる房ごとに、房のある場所のリージョンスレッドで確認を行う
+     */
+    private void checkCells() {
+        for (JailCell cell : plugin.getConfigManager().getJailCells()) {
+            List<Player> players = new ArrayList<>();
+            for (UUID playerId : cells.getOccupants(cell.getName())) {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) {
+                    players.add(player);
+                }
+            }
+            if (players.isEmpty()) {
+                continue;
+            }
+            Location spawn = getSpawn(cell);
+            if (spawn != null) {
+                plugin.getTaskScheduler().runRegion(spawn, () -> containment.sweep(cell, players));
             }
         }
     }
 
     /**
-     * 保存済み隔離プレイヤーをロード
+     * 保存済み隔離プレイヤーと隔離房、刑期をロード
      */
     private void loadJailedPlayers() {
-        plugin.getStorageManager().getJailedPlayerIdsAsync().thenAccept(ids -> {
-            knownJailedIds.addAll(ids);
-            plugin.getLogger().info("隔離プレイヤーリストをロードしました: " + ids.size() + "件");
+        plugin.getStorageManager().getJailCellsAsync().thenAccept(assigned -> {
+            knownJailedIds.addAll(assigned.keySet());
+            assigned.forEach(cells::restore);
+            assigned.keySet().forEach(plugin::refreshChatState);
+            plugin.getLogger().info("隔離プレイヤーリストをロードしました: " + assigned.size() + "件");
+            prefetchOnlineJailData(assigned.keySet());
+        });
+        plugin.getStorageManager().getJailExpiriesAsync().thenAccept(expiries -> {
+            // 起動後に釈放・変更されたプレイヤーは上書きしない
+            expiries.forEach((playerId, expiresAt) -> {
+                if (!sentenceExpiries.containsKey(playerId)) {
+                    setSentenceExpiry(playerId, expiresAt);
+                }
+            });
         });
     }
 
+    /**
+     * 隔離中のオンラインプレイヤー (リロード時など) のメタデータを先に読み込み、
+     * 釈放時に元の場所のための DB 読み込みが要らないようにする。バックアップ本体は読まない
+     */
+    private void prefetchOnlineJailData(Set<UUID> jailedIds) {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID playerId = player.getUniqueId();
+            if (!jailedIds.contains(playerId) || jailedPlayers.containsKey(playerId)) {
+                continue;
+            }
+            plugin.getStorageManager().getJailRecordAsync(playerId).thenAccept(record -> {
+                // 読み込み中に釈放・更新された場合は上書きしない
+                if (record != null && knownJailedIds.contains(playerId) && !jailedPlayers.containsKey(playerId)) {
+                    updateJailDataCache(record, record.getOriginalLocation(), record.getCell());
+                }
+            });
+        }
+    }
+
     /**
      * 全データ保存
      */
@@ -450,15 +807,17 @@ public class JailManager implements IJailProvider {
         final long jailedAt;
         final UUID jailedBy;
         final String originalLocation;
+        final String cell;
 
         JailData(UUID playerId, String playerName, String reason,
-                long jailedAt, UUID jailedBy, String originalLocation) {
+                long jailedAt, UUID jailedBy, String originalLocation, String cell) {
             this.playerId = playerId;
             this.playerName = playerName;
             this.reason = reason;
             this.jailedAt = jailedAt;
             this.jailedBy = jailedBy;
             this.originalLocation = originalLocation;
+            this.cell = cell;
         }
     }
 }
@@ -0,0 +1,202 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankBatchChangeEvent;
+import xyz.irondiscipline.api.event.RankCacheInvalidateEvent;
+import xyz.irondiscipline.api.event.RankChangeEvent;
+import xyz.irondiscipline.api.rank.IRank;
+import xyz.irondiscipline.model.Rank;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PTS 通知を受け取る上官の索引
+ * <p>
+ * PTS 要請や発言ブロック時の通知のたびにオンライン全員の権限と階級を調べる代わりに、
+ * 通知対象 ({@code iron.pts.grant} 権限を持つか、PTS 必要ラインより上の階級) のオンラインプレイヤーを保持します。
+ * 参加・退出、階級変更 ({@link RankChangeEvent} / {@link RankCacheInvalidateEvent} / {@link RankBatchChangeEvent})、
+ * 権限の再計算のたびにそのプレイヤーだけを評価し直します。
+ * 権限の変更を知らせる Bukkit のイベントはないため、権限の再計算時に必ず送られる
+ * コマンド一覧の再送 ({@link PlayerCommandSendEvent}) を契機にします。
+ * PTS 必要ラインが再読み込みで変わった場合は、次の通知時に作り直します。
+ * </p>
+ * <p>
+ * 発言ブロック時の転送は、上官ごとに {@code pts.notify.coalesce_ms} の間 1 件にまとめられます
+ * (まとめた件数は次に転送するときに添えます)。
+ * </p>
+ */
+public class OfficerIndex implements Listener {
+
+    private static final String GRANT_PERMISSION = "iron.pts.grant";
+
+    private final IronDiscipline plugin;
+    private final Map<UUID, Officer> officers = new ConcurrentHashMap<>();
+
+    // 索引を作ったときの PTS 必要ライン
+    private volatile int threshold;
+
+    public OfficerIndex(IronDiscipline plugin) {
+        this.plugin = plugin;
+        this.threshold = plugin.getConfigManager().getPTSRequireBelowWeight();
+    }
+
+    /**
+     * オンラインの全員から作り直す (起動時・PTS 必要ラインの変更時)
+     */
+    public synchronized void rebuild() {
+        int current = plugin.getConfigManager().getPTSRequireBelowWeight();
+        threshold = current;
+        Rank thresholdRank = Rank.fromWeight(current);
+        officers.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (isEligible(player, plugin.getRankManager().getRank(player), thresholdRank)) {
+                officers.put(player.getUniqueId(), new Officer(player));
+            }
+        }
+    }
+
+    /**
+     * 通知対象の上官 (オンラインのみ)
+     */
+    public Collection<Officer> getOfficers() {
+        if (threshold != plugin.getConfigManager().getPTSRequireBelowWeight()) {
+            rebuild();
+        }
+        return officers.values();
+    }
+
+    /**
+     * 通知対象か
+     */
+    public boolean contains(UUID playerId) {
+        return officers.containsKey(playerId);
+    }
+
+    public int size() {
+        return officers.size();
+    }
+
+    /**
+     * 階級を読み込んでからプレイヤーを評価し直す (キャッシュ済みならその場で)
+     */
+    public void refresh(Player player) {
+        plugin.getRankManager().getRankAsync(player.getUniqueId())
+                .thenAccept(rank -> update(player, rank))
+                .exceptionally(ex -> {
+                    plugin.getLogger().warning("Failed to refresh officer index for " + player.getName() + ": " + ex.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * 既知の階級でプレイヤーを評価し直す
+     */
+    void update(Player player, IRank rank) {
+        UUID playerId = player.getUniqueId();
+        if (player.isOnline() && isEligible(player, rank, Rank.fromWeight(threshold))) {
+            officers.computeIfAbsent(playerId, id -> new Officer(player));
+        } else {
+            officers.remove(playerId);
+        }
+    }
+
+    public void remove(UUID playerId) {
+        officers.remove(playerId);
+    }
+
+    private boolean isEligible(Player player, IRank rank, Rank thresholdRank) {
+        return player.hasPermission(GRANT_PERMISSION)
+                || (rank != null && Rank.fromIRank(rank).isHigherThan(thresholdRank));
+    }
+
+    // ===== 索引の更新 =====
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPermissionsRecalculated(PlayerCommandSendEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRankChange(RankChangeEvent event) {
+        update(event.getPlayer(), event.getNewRank());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRankCacheInvalidate(RankCacheInvalidateEvent event) {
+        Player player = Bukkit.getPlayer(event.getPlayerId());
+        if (player == null) {
+            return;
+        }
+        if (event.getNewRank() != null) {
+            update(player, event.getNewRank());
+        } else {
+            refresh(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRankBatchChange(RankBatchChangeEvent event) {
+        for (Map.Entry<UUID, IRank> entry : event.getNewRanks().entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null) {
+                update(player, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 通知対象の上官と、発言ブロック時の転送をまとめるための状態
+     */
+    public static final class Officer {
+
+        private final Player player;
+        private long lastRelayAt;
+        private int suppressed;
+
+        Officer(Player player) {
+            this.player = player;
+        }
+
+        public Player getPlayer() {
+            return player;
+        }
+
+        /**
+         * 発言ブロック時の転送を送るか判定する
+         *
+         * @param windowMillis まとめる間隔 (0 以下ならまとめない)
+         * @return 送らない場合は -1、送る場合は前回からまとめた (送らなかった) 件数
+         */
+        synchronized int tryRelay(long now, long windowMillis) {
+            if (windowMillis > 0 && lastRelayAt != 0 && now - lastRelayAt < windowMillis) {
+                suppressed++;
+                return -1;
+            }
+            lastRelayAt = now;
+            int count = suppressed;
+            suppressed = 0;
+            return count;
+        }
+    }
+}
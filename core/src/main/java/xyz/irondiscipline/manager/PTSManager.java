@@ -2,7 +2,11 @@ package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
 import xyz.irondiscipline.model.Rank;
+import xyz.irondiscipline.util.MessageTemplate;
+import xyz.irondiscipline.util.Placeholder;
+import xyz.irondiscipline.util.TimingWheel;
 import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -15,6 +19,12 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * PTS (Permission To Speak) マネージャー
  * 発言許可システムの管理
+ * <p>
+ * 発言許可のカウントダウン表示と期限切れは、1 秒ごとの 1 つのタスクでまとめて処理します
+ * (付与ごとのタイマーは作りません)。期限は {@link TimingWheel} に登録し、その秒に期限を迎えた
+ * プレイヤーだけを取り出します。プレイヤーごとの送信はエンティティのスケジューラーで行い、
+ * アクションバーの文面は 1 回の処理につき 1 回だけ組み立てます。
+ * </p>
  */
 public class PTSManager {
 
@@ -23,15 +33,23 @@ public class PTSManager {
     // 発言許可状態 (UUID -> 期限タイムスタンプ)
     private final Map<UUID, Long> grantedPlayers = new ConcurrentHashMap<>();
 
+    // 発言許可の期限 (1 秒単位)
+    private static final long TICK_MILLIS = 1000;
+    private final TimingWheel<UUID> deadlines = new TimingWheel<>(128, TICK_MILLIS, System.currentTimeMillis());
+
     // PTS要請中のプレイヤー
     private final Set<UUID> requestingPlayers = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
-    // 期限切れチェック用タスク
-    private space.arim.morepaperlib.scheduling.ScheduledTask expirationTask;
+    // カウントダウン表示と期限切れを処理するタスク
+    private space.arim.morepaperlib.scheduling.ScheduledTask tickerTask;
+
+    // 通知対象の上官
+    private final OfficerIndex officerIndex;
 
     public PTSManager(IronDiscipline plugin) {
         this.plugin = plugin;
-        startExpirationChecker();
+        this.officerIndex = new OfficerIndex(plugin);
+        startTicker();
     }
 
     // ... (methods omitted)
@@ -84,14 +102,13 @@ public class PTSManager {
     public void grantPermission(Player player, int seconds) {
         long expiration = System.currentTimeMillis() + (seconds * 1000L);
         grantedPlayers.put(player.getUniqueId(), expiration);
+        deadlines.schedule(player.getUniqueId(), expiration);
         requestingPlayers.remove(player.getUniqueId());
+        plugin.refreshChatState(player.getUniqueId());
 
-        // 本人に通知
+        // 本人に通知 (残り時間のアクションバーは次の tick から表示)
         player.sendMessage(plugin.getConfigManager().getMessage("pts_received",
                 "%seconds%", String.valueOf(seconds)));
-
-        // アクションバーで残り時間表示開始
-        startCountdownDisplay(player, seconds);
     }
 
     /**
@@ -99,6 +116,8 @@ public class PTSManager {
      */
     public void revokeGrant(Player player) {
         if (grantedPlayers.remove(player.getUniqueId()) != null) {
+            deadlines.cancel(player.getUniqueId());
+            plugin.refreshChatState(player.getUniqueId());
             player.sendMessage(plugin.getConfigManager().getMessage("pts_expired"));
         }
     }
@@ -144,49 +163,53 @@ public class PTSManager {
         String message = plugin.getConfigManager().getMessage("pts_request_notify",
                 "%player%", requester.getName());
 
-        int threshold = plugin.getConfigManager().getPTSRequireBelowWeight();
-        Rank thresholdRank = Rank.fromWeight(threshold);
-
-        for (Player officer : Bukkit.getOnlinePlayers()) {
+        for (OfficerIndex.Officer entry : officerIndex.getOfficers()) {
+            Player officer = entry.getPlayer();
             // 自分自身はスキップ
             if (officer.equals(requester))
                 continue;
 
-            // PTS付与権限を持っているか、閾値より上の階級
-            if (officer.hasPermission("iron.pts.grant") ||
-                    plugin.getRankManager().getRank(officer).isHigherThan(thresholdRank)) {
-                officer.sendMessage(message);
+            officer.sendMessage(message);
 
-                // サウンド通知
-                officer.playSound(officer.getLocation(),
-                        org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING, 1.0f, 1.5f);
-            }
+            // サウンド通知
+            officer.playSound(officer.getLocation(),
+                    org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING, 1.0f, 1.5f);
         }
     }
 
     /**
-     * 特定メッセージで上官に通知
+     * 特定メッセージで上官に通知 (上官ごとに設定した間隔で 1 件にまとめる)
      */
     public void notifyOfficersWithMessage(Player requester, String chatMessage) {
-        int threshold = plugin.getConfigManager().getPTSRequireBelowWeight();
-        Rank thresholdRank = Rank.fromWeight(threshold);
         Rank requesterRank = plugin.getRankManager().getRank(requester);
 
         String formattedMessage = plugin.getConfigManager().getPTSRequestPrefix() + " " +
                 requesterRank.getDisplay() + " " + requester.getName() +
                 ChatColor.GRAY + ": " + ChatColor.WHITE + chatMessage;
 
-        for (Player officer : Bukkit.getOnlinePlayers()) {
+        long now = System.currentTimeMillis();
+        long window = plugin.getConfigManager().getPTSNotifyCoalesceMillis();
+        for (OfficerIndex.Officer entry : officerIndex.getOfficers()) {
+            Player officer = entry.getPlayer();
             if (officer.equals(requester))
                 continue;
 
-            if (officer.hasPermission("iron.pts.grant") ||
-                    plugin.getRankManager().getRank(officer).isHigherThan(thresholdRank)) {
-                officer.sendMessage(formattedMessage);
+            int coalesced = entry.tryRelay(now, window);
+            if (coalesced < 0) {
+                continue;
+            }
+            if (coalesced > 0) {
+                officer.sendMessage(plugin.getConfigManager().getMessage("pts_notify_coalesced",
+                        "%count%", String.valueOf(coalesced)));
             }
+            officer.sendMessage(formattedMessage);
         }
     }
 
+    public OfficerIndex getOfficerIndex() {
+        return officerIndex;
+    }
+
     /**
      * 要請中かどうかチェック
      */
@@ -194,6 +217,16 @@ public class PTSManager {
         return requestingPlayers.contains(playerId);
     }
 
+    /**
+     * 発言許可の期限 (エポックミリ秒)
+     *
+     * @return 許可がなければ 0
+     */
+    public long getGrantExpiration(UUID playerId) {
+        Long expiration = grantedPlayers.get(playerId);
+        return expiration != null ? expiration : 0;
+    }
+
     /**
      * 残り許可時間を取得（秒）
      */
@@ -206,63 +239,75 @@ public class PTSManager {
     }
 
     /**
-     * カウントダウン表示
+     * カウントダウン表示と期限切れの処理を開始 (1 秒ごと)
      */
-    private void startCountdownDisplay(Player player, int totalSeconds) {
-        final UUID playerId = player.getUniqueId();
-
-        plugin.getTaskScheduler().runGlobalTimer(task -> {
-            Player p = Bukkit.getPlayer(playerId);
-            if (p == null || !p.isOnline()) {
-                task.cancel();
-                return;
-            }
-
-            int remaining = getRemainingSeconds(playerId);
-            if (remaining <= 0) {
-                p.spigot().sendMessage(ChatMessageType.ACTION_BAR,
-                        TextComponent.fromLegacyText(plugin.getConfigManager().getRawMessage("pts_actionbar_expired")));
-                task.cancel();
-                return;
-            }
+    private void startTicker() {
+        tickerTask = plugin.getTaskScheduler().runGlobalTimer(this::tick, 20L, 20L);
+    }
 
-            // 色分け
-            ChatColor color;
-            if (remaining > 30) {
-                color = ChatColor.GREEN;
-            } else if (remaining > 10) {
-                color = ChatColor.YELLOW;
-            } else {
-                color = ChatColor.RED;
+    /**
+     * 期限を迎えた許可を剥奪し、残りのプレイヤーに残り時間を表示する
+     */
+    void tick() {
+        long now = System.currentTimeMillis();
+
+        // 期限を迎えたプレイヤーだけを取り出す (延長・剥奪済みのものは無視)
+        List<UUID> expired = deadlines.advance(now);
+        if (!expired.isEmpty()) {
+            String expiredMessage = plugin.getConfigManager().getMessage("pts_expired");
+            BaseComponent[] expiredBar = TextComponent.fromLegacyText(
+                    plugin.getConfigManager().getRawMessage("pts_actionbar_expired"));
+            for (UUID playerId : expired) {
+                Long expiration = grantedPlayers.get(playerId);
+                if (expiration == null || expiration > now || !grantedPlayers.remove(playerId, expiration)) {
+                    continue;
+                }
+                plugin.refreshChatState(playerId);
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) {
+                    plugin.getTaskScheduler().runEntity(player, () -> {
+                        if (player.isOnline()) {
+                            player.sendMessage(expiredMessage);
+                            player.spigot().sendMessage(ChatMessageType.ACTION_BAR, expiredBar);
+                        }
+                    });
+                }
             }
+        }
 
-            String msg = plugin.getConfigManager().getRawMessage("pts_actionbar_remaining")
-                .replace("%color%", color.toString())
-                .replace("%seconds%", String.valueOf(remaining));
-
-            p.spigot().sendMessage(ChatMessageType.ACTION_BAR,
-                    TextComponent.fromLegacyText(msg));
+        if (grantedPlayers.isEmpty()) {
+            return;
+        }
 
-        }, 0L, 20L); // 毎秒更新
-    }
+        // 解析済みのテンプレートに色と秒数を埋めるだけ (置換の連鎖や中間文字列を作らない)
+        MessageTemplate template = plugin.getConfigManager().getRawTemplate("pts_actionbar_remaining");
+        Placeholder green = Placeholder.of("color", ChatColor.GREEN.toString());
+        Placeholder yellow = Placeholder.of("color", ChatColor.YELLOW.toString());
+        Placeholder red = Placeholder.of("color", ChatColor.RED.toString());
 
-    /**
-     * 期限切れチェッカー開始
-     */
-    private void startExpirationChecker() {
-        expirationTask = plugin.getTaskScheduler().runGlobalTimer(() -> {
-            long now = System.currentTimeMillis();
-            grantedPlayers.entrySet().removeIf(entry -> {
-                if (now >= entry.getValue()) {
-                    Player player = Bukkit.getPlayer(entry.getKey());
-                    if (player != null && player.isOnline()) {
-                        player.sendMessage(plugin.getConfigManager().getMessage("pts_expired"));
-                    }
-                    return true;
+        for (Map.Entry<UUID, Long> entry : grantedPlayers.entrySet()) {
+            long remainingMillis = entry.getValue() - now;
+            if (remainingMillis <= 0) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player == null) {
+                continue;
+            }
+            int remaining = (int) (remainingMillis / 1000);
+            Placeholder color = remaining > 30 ? green : remaining > 10 ? yellow : red;
+            String msg = template.render(color, Placeholder.of("seconds", remaining));
+            plugin.getTaskScheduler().runEntity(player, () -> {
+                if (player.isOnline()) {
+                    player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(msg));
                 }
-                return false;
             });
-        }, 20L, 20L); // 毎秒チェック
+        }
+    }
+
+    /** 発言許可中のプレイヤー数 */
+    public int getGrantedCount() {
+        return grantedPlayers.size();
     }
 
     /**
@@ -270,6 +315,7 @@ public class PTSManager {
      */
     public void cleanup(UUID playerId) {
         grantedPlayers.remove(playerId);
+        deadlines.cancel(playerId);
         requestingPlayers.remove(playerId);
     }
 
@@ -277,8 +323,8 @@ public class PTSManager {
      * タスク停止 (シャットダウン処理)
      */
     public void shutdown() {
-        if (expirationTask != null && !expirationTask.isCancelled()) {
-            expirationTask.cancel();
+        if (tickerTask != null && !tickerTask.isCancelled()) {
+            tickerTask.cancel();
         }
     }
 }
@@ -0,0 +1,200 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.DbExecutor;
+import xyz.irondiscipline.database.Query;
+import xyz.irondiscipline.database.QueryRegistry;
+import xyz.irondiscipline.database.UuidCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+
+/**
+ * プレイヤー名 → UUID 索引マネージャー
+ * <p>
+ * オフラインプレイヤーの名前を {@code player_names} テーブルから引きます。
+ * 検索結果は件数上限付きの LRU キャッシュに保持し、
+ * Tab 補完用には最近のプレイヤー名を大文字小文字を区別しない順序付きマップで保持します。
+ * 補完用の名前も {@code completion_size} 件までで、超えた分は最も長く参加していない名前から外します。
+ * </p>
+ */
+public class PlayerNameManager {
+
+    private final IronDiscipline plugin;
+    private final ConnectionPool pool;
+    private final QueryRegistry queries;
+    private final DbExecutor dbExecutor;
+
+    /** 小文字の名前 → UUID (LRU) */
+    private final Map<String, UUID> lookupCache;
+    /** 小文字の名前 → 表示名 (前方一致の補完用) */
+    private final ConcurrentSkipListMap<String, String> completionIndex = new ConcurrentSkipListMap<>();
+    /** 補完用の名前の参加順 (LRU, completionIndex の上限管理用) */
+    private final Map<String, Boolean> completionOrder;
+
+    public PlayerNameManager(IronDiscipline plugin, ConnectionPool pool, ExecutorService dbExecutor) {
+        this.plugin = plugin;
+        this.pool = pool;
+        this.queries = QueryRegistry.forType(plugin.getConfigManager().getDatabaseType());
+        this.dbExecutor = DbExecutor.wrap(dbExecutor);
+        int cacheSize = Math.max(16, plugin.getConfigManager().getNameIndexCacheSize());
+        this.lookupCache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        int completionSize = Math.max(16, plugin.getConfigManager().getNameIndexCompletionSize());
+        this.completionOrder = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                if (size() > completionSize) {
+                    completionIndex.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 補完用索引に最近のプレイヤー名を読み込む
+     */
+    public CompletableFuture<Void> loadRecentAsync() {
+        int limit = plugin.getConfigManager().getNameIndexCompletionSize();
+        return CompletableFuture.runAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.PLAYER_NAME_SELECT_RECENT)) {
+                ps.setInt(1, limit);
+                List<String> recent = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        recent.add(rs.getString("name"));
+                    }
+                }
+                // 新しい順に読んだので、古い名前から積む (参加済みの名前はそのまま)
+                for (int i = recent.size() - 1; i >= 0; i--) {
+                    addCompletion(recent.get(i), false);
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_name_index_load_failed"), e);
+            }
+        }, dbExecutor);
+    }
+
+    /**
+     * プレイヤー名を記録 (参加時)
+     */
+    public CompletableFuture<Void> recordAsync(UUID playerId, String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        synchronized (lookupCache) {
+            lookupCache.put(lower, playerId);
+        }
+        addCompletion(name, true);
+
+        return CompletableFuture.runAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.PLAYER_NAME_UPSERT)) {
+                ps.setBytes(1, UuidCodec.toBytes(playerId));
+                ps.setString(2, name);
+                ps.setString(3, lower);
+                ps.setLong(4, System.currentTimeMillis());
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_name_index_save_failed"), e);
+            }
+        }, dbExecutor.forKey(playerId));
+    }
+
+    /**
+     * 名前から UUID を解決 (大文字小文字を区別しない)。見つからなければ null
+     */
+    public CompletableFuture<UUID> resolveAsync(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        UUID cached;
+        synchronized (lookupCache) {
+            cached = lookupCache.get(lower);
+        }
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.PLAYER_NAME_SELECT_BY_NAME)) {
+                ps.setString(1, lower);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    UUID playerId = UuidCodec.fromBytes(rs.getBytes("player_id"));
+                    synchronized (lookupCache) {
+                        lookupCache.put(lower, playerId);
+                    }
+                    return playerId;
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_name_index_load_failed"), e);
+                return null;
+            }
+        }, dbExecutor);
+    }
+
+    /**
+     * 前方一致する既知のプレイヤー名 (大文字小文字を区別しない、名前順)
+     */
+    public List<String> complete(String prefix, int limit) {
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        ConcurrentNavigableMap<String, String> range = lower.isEmpty()
+                ? completionIndex
+                : completionIndex.subMap(lower, true, lower + Character.MAX_VALUE, false);
+        List<String> names = new ArrayList<>(Math.min(limit, 16));
+        for (String name : range.values()) {
+            if (names.size() >= limit) {
+                break;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * 補完用索引に追加する (上限を超えたら最も古い名前を外す)
+     *
+     * @param replace 既にある名前も表示名と参加順を更新するか
+     */
+    private void addCompletion(String name, boolean replace) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        synchronized (completionOrder) {
+            if (!replace && completionOrder.containsKey(lower)) {
+                return;
+            }
+            completionIndex.put(lower, name);
+            completionOrder.put(lower, Boolean.TRUE);
+        }
+    }
+
+    public int getCachedLookupCount() {
+        synchronized (lookupCache) {
+            return lookupCache.size();
+        }
+    }
+
+    public int getCompletionIndexSize() {
+        return completionIndex.size();
+    }
+}
@@ -0,0 +1,301 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.Query;
+import xyz.irondiscipline.database.QueryRegistry;
+import xyz.irondiscipline.database.UuidCodec;
+import xyz.irondiscipline.model.Rank;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+
+/**
+ * ログイン前のプレイヤーデータ一括ローダー
+ * <p>
+ * {@code AsyncPlayerPreLoginEvent} から呼ばれ、階級・隔離状態・警告を
+ * 1 回の DB タスクでまとめて読み込み、各マネージャーのキャッシュに入れます。
+ * 同時にログインしたプレイヤーは DB スレッドが空くまでの間に溜まり、
+ * {@code WHERE player_id IN (...)} の 1 バッチで処理されます (待ち時間を足して集めることはしません)。
+ * </p>
+ * <p>
+ * IN リストは {@link QueryRegistry#prepareIn} で展開します (プレースホルダ数は 2 のべき乗に切り上げ)。
+ * </p>
+ */
+public class PlayerSessionLoader {
+
+    /** バッチの各段階 (レイテンシ計測用) */
+    public enum Stage {
+        QUEUE, RANKS, JAILS, WARNINGS, TOTAL
+    }
+
+    private final IronDiscipline plugin;
+    private final ConnectionPool pool;
+    private final QueryRegistry queries;
+    private final ExecutorService dbExecutor;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+
+    /** 読み込み待ちのプレイヤー (挿入順) */
+    private final Map<UUID, Pending> pending = new LinkedHashMap<>();
+    private boolean drainQueued = false;
+
+    // メトリクス
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong maxBatch = new AtomicLong();
+    private final AtomicLongArray stageNanos = new AtomicLongArray(Stage.values().length);
+    private final AtomicLongArray stageMaxNanos = new AtomicLongArray(Stage.values().length);
+    private final AtomicLongArray lastStageNanos = new AtomicLongArray(Stage.values().length);
+
+    public PlayerSessionLoader(IronDiscipline plugin, ConnectionPool pool, ExecutorService dbExecutor) {
+        this.plugin = plugin;
+        this.pool = pool;
+        this.queries = QueryRegistry.forType(plugin.getConfigManager().getDatabaseType());
+        this.dbExecutor = dbExecutor;
+        this.maxBatchSize = Math.max(1, plugin.getConfigManager().getPreLoginBatchSize());
+        this.timeoutMillis = Math.max(100, plugin.getConfigManager().getPreLoginTimeoutMillis());
+    }
+
+    /**
+     * プレイヤーデータを読み込み、キャッシュに入るまで待機 (AsyncPlayerPreLoginEvent 用)
+     *
+     * @throws IllegalStateException 読み込みに失敗、またはタイムアウトした場合
+     */
+    public void loadSync(UUID playerId) {
+        try {
+            loadAsync(playerId).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Player data loading timed out", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Player data loading failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Player data loading interrupted", e);
+        }
+    }
+
+    /**
+     * プレイヤーデータの読み込みを予約。同じプレイヤーの読み込みが既に待機中ならそれを共有する
+     */
+    public CompletableFuture<Void> loadAsync(UUID playerId) {
+        Pending request;
+        boolean submit = false;
+        synchronized (pending) {
+            request = pending.get(playerId);
+            if (request != null) {
+                return request.future;
+            }
+            request = new Pending(System.nanoTime());
+            pending.put(playerId, request);
+            if (!drainQueued) {
+                drainQueued = true;
+                submit = true;
+            }
+        }
+        if (submit) {
+            submitDrain();
+        }
+        return request.future;
+    }
+
+    private void submitDrain() {
+        try {
+            dbExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            Map<UUID, Pending> batch;
+            synchronized (pending) {
+                batch = new LinkedHashMap<>(pending);
+                pending.clear();
+                drainQueued = false;
+            }
+            batch.values().forEach(request -> request.future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * DB スレッド上で、溜まっているプレイヤーを最大 maxBatchSize 人ずつ読み込む
+     */
+    private void drain() {
+        Map<UUID, Pending> batch = new LinkedHashMap<>();
+        boolean more;
+        synchronized (pending) {
+            var it = pending.entrySet().iterator();
+            while (it.hasNext() && batch.size() < maxBatchSize) {
+                var entry = it.next();
+                batch.put(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+            more = !pending.isEmpty();
+            drainQueued = more;
+        }
+        if (more) {
+            // 残りは次のタスクで (他のクエリを長く待たせない)
+            submitDrain();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long oldest = batch.values().iterator().next().enqueuedAt;
+        long[] stages = new long[Stage.values().length];
+        stages[Stage.QUEUE.ordinal()] = start - oldest;
+
+        List<UUID> ids = new ArrayList<>(batch.keySet());
+        try (Connection conn = pool.getConnection()) {
+            long t = System.nanoTime();
+            Map<UUID, Rank> ranks = selectRanks(conn, ids);
+            stages[Stage.RANKS.ordinal()] = System.nanoTime() - t;
+
+            t = System.nanoTime();
+            Map<UUID, Long> jailed = selectJailed(conn, ids);
+            stages[Stage.JAILS.ordinal()] = System.nanoTime() - t;
+
+            t = System.nanoTime();
+            Map<UUID, List<WarningManager.Warning>> warnings = selectWarnings(conn, ids);
+            stages[Stage.WARNINGS.ordinal()] = System.nanoTime() - t;
+
+            for (UUID playerId : ids) {
+                plugin.getRankManager().cacheLoadedRank(playerId, ranks.getOrDefault(playerId, Rank.PRIVATE));
+                Long expiresAt = jailed.get(playerId);
+                plugin.getJailManager().applyJailStatus(playerId, expiresAt != null,
+                        expiresAt != null ? expiresAt : 0L);
+                plugin.getWarningManager().cacheLoadedWarnings(playerId,
+                        warnings.getOrDefault(playerId, new ArrayList<>()));
+            }
+            loaded.addAndGet(ids.size());
+            batch.values().forEach(request -> request.future.complete(null));
+        } catch (SQLException | RuntimeException e) {
+            failures.addAndGet(ids.size());
+            plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_prelogin_batch_failed")
+                    .replace("%count%", String.valueOf(ids.size())), e);
+            batch.values().forEach(request -> request.future.completeExceptionally(e));
+        } finally {
+            stages[Stage.TOTAL.ordinal()] = System.nanoTime() - oldest;
+            record(stages, ids.size());
+        }
+    }
+
+    private Map<UUID, Rank> selectRanks(Connection conn, List<UUID> ids) throws SQLException {
+        Map<UUID, Rank> ranks = new HashMap<>();
+        try (PreparedStatement ps = queries.prepareIn(conn, Query.RANK_SELECT_IN, ids);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ranks.put(UuidCodec.fromBytes(rs.getBytes("player_id")), Rank.fromId(rs.getString("rank_id")));
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * 隔離中のプレイヤーと刑期の満了時刻 (無期限は 0)
+     */
+    private Map<UUID, Long> selectJailed(Connection conn, List<UUID> ids) throws SQLException {
+        Map<UUID, Long> jailed = new HashMap<>();
+        try (PreparedStatement ps = queries.prepareIn(conn, Query.SESSION_JAIL_SELECT_IN, ids);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                // NULL (無期限) は 0
+                jailed.put(UuidCodec.fromBytes(rs.getBytes("player_id")), rs.getLong("expires_at"));
+            }
+        }
+        return jailed;
+    }
+
+    private Map<UUID, List<WarningManager.Warning>> selectWarnings(Connection conn, List<UUID> ids) throws SQLException {
+        Map<UUID, List<WarningManager.Warning>> warnings = new HashMap<>();
+        try (PreparedStatement ps = queries.prepareIn(conn, Query.SESSION_WARNING_SELECT_IN, ids);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                WarningManager.Warning w = new WarningManager.Warning();
+                w.reason = rs.getString("reason");
+                w.warnedBy = rs.getString("warned_by");
+                w.timestamp = rs.getLong("timestamp");
+                warnings.computeIfAbsent(UuidCodec.fromBytes(rs.getBytes("player_id")), k -> new ArrayList<>()).add(w);
+            }
+        }
+        return warnings;
+    }
+
+    private void record(long[] stages, int size) {
+        batches.incrementAndGet();
+        maxBatch.accumulateAndGet(size, Math::max);
+        for (int i = 0; i < stages.length; i++) {
+            long nanos = stages[i];
+            stageNanos.addAndGet(i, nanos);
+            lastStageNanos.set(i, nanos);
+            stageMaxNanos.accumulateAndGet(i, nanos, Math::max);
+        }
+    }
+
+    // ===== メトリクス =====
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getLoadedCount() {
+        return loaded.get();
+    }
+
+    public long getFailedCount() {
+        return failures.get();
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatch.get();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.get();
+        return count == 0 ? 0 : (double) (loaded.get() + failures.get()) / count;
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /** 段階ごとの 1 バッチあたり平均 (ミリ秒) */
+    public double getAverageMillis(Stage stage) {
+        long count = batches.get();
+        return count == 0 ? 0 : stageNanos.get(stage.ordinal()) / 1_000_000.0 / count;
+    }
+
+    public double getMaxMillis(Stage stage) {
+        return stageMaxNanos.get(stage.ordinal()) / 1_000_000.0;
+    }
+
+    public double getLastMillis(Stage stage) {
+        return lastStageNanos.get(stage.ordinal()) / 1_000_000.0;
+    }
+
+    private static final class Pending {
+        final long enqueuedAt;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Pending(long enqueuedAt) {
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.util.DurationUtil;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.bukkit.Bukkit;
@@ -127,18 +128,7 @@ public class PlaytimeManager implements Listener {
      * 時間をフォーマット
      */
     private String formatTime(long millis) {
-        long seconds = millis / 1000;
-        long minutes = seconds / 60;
-        long hours = minutes / 60;
-        long days = hours / 24;
-        
-        if (days > 0) {
-            return String.format(plugin.getConfigManager().getRawMessage("time_format_days"), days, hours % 24, minutes % 60);
-        } else if (hours > 0) {
-            return String.format(plugin.getConfigManager().getRawMessage("time_format_hours"), hours, minutes % 60);
-        } else {
-            return String.format(plugin.getConfigManager().getRawMessage("time_format_minutes"), minutes);
-        }
+        return DurationUtil.format(plugin.getConfigManager(), millis);
     }
 
     /**
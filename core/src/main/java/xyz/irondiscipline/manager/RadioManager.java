@@ -3,6 +3,7 @@ package xyz.irondiscipline.manager;
 import xyz.irondiscipline.IronDiscipline;
 import xyz.irondiscipline.model.RadioChannel;
 import xyz.irondiscipline.model.Rank;
+import xyz.irondiscipline.util.Placeholder;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
@@ -101,12 +102,12 @@ public class RadioManager {
         Rank senderRank = plugin.getRankManager().getRank(sender);
         
         // フォーマット組み立て
-        String format = plugin.getConfigManager().getRadioFormat();
-        String formattedMessage = ChatColor.translateAlternateColorCodes('&', format
-            .replace("%freq%", frequency)
-            .replace("%rank%", senderRank.getDisplay())
-            .replace("%player%", sender.getName())
-            .replace("%message%", message));
+        // フォーマットは色コード変換済みのテンプレートを使い、本文の色コードだけをここで変換する
+        String formattedMessage = plugin.getConfigManager().getRadioTemplate().render(
+            Placeholder.of("freq", frequency),
+            Placeholder.of("rank", senderRank.getDisplay()),
+            Placeholder.of("player", sender.getName()),
+            Placeholder.of("message", ChatColor.translateAlternateColorCodes('&', message)));
         
         // 同じ周波数の全員に送信
         for (UUID memberId : channel.getMembers()) {
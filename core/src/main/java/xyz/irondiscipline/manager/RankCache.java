@@ -0,0 +1,311 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.model.Rank;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 2 段構成の階級キャッシュ
+ * <p>
+ * オンラインプレイヤーの階級は退出まで固定 (pin) し、追い出されません。
+ * オフラインプレイヤーの照会結果 (API, Discord の /rank, /setrank など) は
+ * 件数上限と有効期限付きの LRU に入れ、古いものから追い出します。
+ * </p>
+ * <p>
+ * 同じプレイヤーの読み込みが同時に要求された場合は 1 回の DB 読み込みを共有します。
+ * 読み込み中に階級が更新・無効化された場合、その読み込み結果はキャッシュに入れません。
+ * </p>
+ */
+public class RankCache {
+
+    private final int offlineMaxSize;
+    private final long offlineTtlMillis;
+    private final LongSupplier clock;
+
+    /** オンラインプレイヤー (追い出さない。読み取りはロック無し、更新は offline のロック内) */
+    private final Map<UUID, Rank> pinned = new ConcurrentHashMap<>();
+    /** オフラインプレイヤー (アクセス順 LRU) */
+    private final LinkedHashMap<UUID, Entry> offline = new LinkedHashMap<>(64, 0.75f, true);
+    /** 読み込み中 (single-flight) */
+    private final Map<UUID, CompletableFuture<Rank>> inflight = new ConcurrentHashMap<>();
+
+    // メトリクス
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * @param offlineMaxSize   オフライン LRU の最大件数
+     * @param offlineTtlMillis オフラインエントリの有効期限 (0 以下で無期限)
+     */
+    public RankCache(int offlineMaxSize, long offlineTtlMillis) {
+        this(offlineMaxSize, offlineTtlMillis, System::currentTimeMillis);
+    }
+
+    RankCache(int offlineMaxSize, long offlineTtlMillis, LongSupplier clock) {
+        this.offlineMaxSize = Math.max(1, offlineMaxSize);
+        this.offlineTtlMillis = offlineTtlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * キャッシュ済みの階級。無ければ null (読み込みはしない)
+     */
+    public Rank get(UUID playerId) {
+        Rank rank = peek(playerId);
+        if (rank != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return rank;
+    }
+
+    /**
+     * キャッシュ済みならそれを、無ければ loader で読み込む。
+     * 同じプレイヤーの読み込みが進行中ならその結果を共有する
+     */
+    public CompletableFuture<Rank> getOrLoad(UUID playerId, Function<UUID, CompletableFuture<Rank>> loader) {
+        Rank cached = get(playerId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Rank> created = new CompletableFuture<>();
+        CompletableFuture<Rank> existing = inflight.putIfAbsent(playerId, created);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        loader.apply(playerId).whenComplete((rank, ex) -> {
+            // 読み込み中に put / invalidate されていれば結果は捨てる
+            if (inflight.remove(playerId, created) && ex == null && rank != null) {
+                store(playerId, rank);
+            }
+            if (ex != null) {
+                created.completeExceptionally(ex);
+            } else {
+                created.complete(rank);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * 読み込み中か
+     */
+    public boolean isLoading(UUID playerId) {
+        return inflight.containsKey(playerId);
+    }
+
+    /**
+     * 階級を更新する。オンラインなら固定側、そうでなければ LRU 側に入る
+     */
+    public void put(UUID playerId, Rank rank) {
+        inflight.remove(playerId);
+        store(playerId, rank);
+    }
+
+    /**
+     * キャッシュにある場合だけ更新する (一括設定用。LRU の他のエントリを追い出さない)
+     *
+     * @return 更新した場合 true
+     */
+    public boolean update(UUID playerId, Rank rank) {
+        inflight.remove(playerId);
+        synchronized (offline) {
+            if (pinned.containsKey(playerId)) {
+                pinned.put(playerId, rank);
+                return true;
+            }
+            if (offline.containsKey(playerId)) {
+                offline.put(playerId, new Entry(rank, clock.getAsLong()));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * キャッシュに無い (または期限切れの) 場合だけ入れる (読み込み失敗時の既定値、一括読み込み用)
+     */
+    public void putIfAbsent(UUID playerId, Rank rank) {
+        synchronized (offline) {
+            if (pinned.containsKey(playerId)) {
+                return;
+            }
+            Entry entry = offline.get(playerId);
+            if (entry == null || isExpired(entry, clock.getAsLong())) {
+                putOffline(playerId, rank);
+            }
+        }
+    }
+
+    /**
+     * オンラインになったプレイヤーを固定する。キャッシュに無ければ false
+     */
+    public boolean pin(UUID playerId) {
+        synchronized (offline) {
+            Entry entry = offline.remove(playerId);
+            if (entry != null) {
+                pinned.put(playerId, entry.rank);
+                return true;
+            }
+            return pinned.containsKey(playerId);
+        }
+    }
+
+    /**
+     * 階級を指定して固定する
+     */
+    public void pin(UUID playerId, Rank rank) {
+        inflight.remove(playerId);
+        synchronized (offline) {
+            offline.remove(playerId);
+            pinned.put(playerId, rank);
+        }
+    }
+
+    /**
+     * 退出したプレイヤーの固定を外し、オフライン LRU に移す
+     */
+    public void unpin(UUID playerId) {
+        synchronized (offline) {
+            Rank rank = pinned.remove(playerId);
+            if (rank != null) {
+                putOffline(playerId, rank);
+            }
+        }
+    }
+
+    /**
+     * キャッシュから削除する (進行中の読み込み結果も捨てる)
+     */
+    public void invalidate(UUID playerId) {
+        inflight.remove(playerId);
+        synchronized (offline) {
+            pinned.remove(playerId);
+            offline.remove(playerId);
+        }
+    }
+
+    public boolean isPinned(UUID playerId) {
+        return pinned.containsKey(playerId);
+    }
+
+    private Rank peek(UUID playerId) {
+        Rank rank = pinned.get(playerId);
+        if (rank != null) {
+            return rank;
+        }
+        synchronized (offline) {
+            Entry entry = offline.get(playerId);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry, clock.getAsLong())) {
+                offline.remove(playerId);
+                expirations.incrementAndGet();
+                return null;
+            }
+            return entry.rank;
+        }
+    }
+
+    private void store(UUID playerId, Rank rank) {
+        synchronized (offline) {
+            if (pinned.containsKey(playerId)) {
+                pinned.put(playerId, rank);
+            } else {
+                putOffline(playerId, rank);
+            }
+        }
+    }
+
+    private void putOffline(UUID playerId, Rank rank) {
+        long now = clock.getAsLong();
+        synchronized (offline) {
+            offline.put(playerId, new Entry(rank, now));
+            // 先頭 (最も古いアクセス) から期限切れと上限超過分を取り除く
+            Iterator<Entry> it = offline.values().iterator();
+            while (it.hasNext()) {
+                Entry eldest = it.next();
+                if (isExpired(eldest, now)) {
+                    it.remove();
+                    expirations.incrementAndGet();
+                } else if (offline.size() > offlineMaxSize) {
+                    it.remove();
+                    evictions.incrementAndGet();
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return offlineTtlMillis > 0 && now - entry.loadedAt >= offlineTtlMillis;
+    }
+
+    // ===== メトリクス =====
+
+    public int getPinnedCount() {
+        return pinned.size();
+    }
+
+    public int getOfflineCount() {
+        synchronized (offline) {
+            return offline.size();
+        }
+    }
+
+    public int getOfflineMaxSize() {
+        return offlineMaxSize;
+    }
+
+    public int getLoadingCount() {
+        return inflight.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** 進行中の読み込みを共有した回数 */
+    public long getCoalescedLoads() {
+        return coalesced.get();
+    }
+
+    /** 件数上限による追い出し */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /** 有効期限切れによる削除 */
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    private record Entry(Rank rank, long loadedAt) {
+    }
+}
@@ -1,18 +1,26 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankBatchChangeEvent;
+import xyz.irondiscipline.api.event.RankCacheInvalidateEvent;
 import xyz.irondiscipline.api.event.RankChangeEvent;
+import xyz.irondiscipline.api.model.RankHistoryCursor;
+import xyz.irondiscipline.api.model.RankHistoryPage;
 import xyz.irondiscipline.api.provider.IRankProvider;
 import xyz.irondiscipline.api.rank.IRank;
+import xyz.irondiscipline.database.CacheChange;
 import xyz.irondiscipline.model.Rank;
 import xyz.irondiscipline.util.TabNametagUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 階級マネージャー
@@ -24,12 +32,15 @@ public class RankManager implements IRankProvider {
     private final IronDiscipline plugin;
     private final RankStorageManager rankStorage;
 
-    // インメモリキャッシュ（高速アクセス用）
-    private final Map<UUID, Rank> rankCache = new ConcurrentHashMap<>();
+    // インメモリキャッシュ（オンラインは固定、オフラインは LRU）
+    private final RankCache rankCache;
 
     public RankManager(IronDiscipline plugin, RankStorageManager rankStorage) {
         this.plugin = plugin;
         this.rankStorage = rankStorage;
+        this.rankCache = new RankCache(
+                Math.max(16, plugin.getConfigManager().getRankCacheOfflineSize()),
+                plugin.getConfigManager().getRankCacheOfflineTtlSeconds() * 1000L);
     }
 
     /**
@@ -37,16 +48,23 @@ public class RankManager implements IRankProvider {
      */
     public Rank getRank(Player player) {
         // キャッシュにあればそれを返す
-        Rank rank = rankCache.get(player.getUniqueId());
+        UUID playerId = player.getUniqueId();
+        Rank rank = rankCache.get(playerId);
         if (rank != null) {
             return rank;
         }
 
-        // キャッシュミス時のフォールバック (非同期ロード)
-        plugin.getLogger().warning("Rank cache miss for online player: " + player.getName());
+        // キャッシュミス時のフォールバック (非同期ロード、読み込み中なら相乗り)
+        if (!rankCache.isLoading(playerId)) {
+            plugin.getLogger().warning("Rank cache miss for online player: " + player.getName());
+        }
 
         // メインスレッドをブロックせず、非同期で読み込みを開始する
-        getRankAsync(player.getUniqueId());
+        getRankAsync(playerId).thenAccept(loaded -> {
+            if (player.isOnline()) {
+                rankCache.pin(playerId);
+            }
+        });
 
         // 読み込み完了まではデフォルト階級を返す
         return Rank.PRIVATE;
@@ -57,14 +75,8 @@ public class RankManager implements IRankProvider {
      */
     @Override
     public CompletableFuture<IRank> getRankAsync(UUID playerId) {
-        if (rankCache.containsKey(playerId)) {
-            return CompletableFuture.completedFuture(rankCache.get(playerId));
-        }
-
-        return rankStorage.getRank(playerId).thenApply(rank -> {
-            rankCache.put(playerId, rank);
-            return rank;
-        });
+        // 同じプレイヤーの同時読み込みは 1 回の DB 読み込みにまとめる
+        return rankCache.getOrLoad(playerId, rankStorage::getRank).thenApply(rank -> rank);
     }
 
     /**
@@ -79,16 +91,26 @@ public class RankManager implements IRankProvider {
      */
     @Override
     public CompletableFuture<Boolean> setRank(Player player, IRank newRank) {
+        return setRank(player, newRank, RankChangeEvent.Cause.API, null);
+    }
+
+    /**
+     * プレイヤーの階級を設定 (履歴に記録する原因・実行者つき)
+     *
+     * @param actorId 変更した管理者 (自動昇進・コンソール等は null)
+     */
+    public CompletableFuture<Boolean> setRank(Player player, IRank newRank, RankChangeEvent.Cause cause, UUID actorId) {
         Rank oldRank = getRank(player);
         Rank enumRank = Rank.fromIRank(newRank);
-        return setRankByUUID(player.getUniqueId(), player.getName(), newRank).thenApply(success -> {
+        return setRankByUUID(player.getUniqueId(), player.getName(), newRank, cause, actorId).thenApply(success -> {
             if (success) {
-                // キャッシュ更新
-                rankCache.put(player.getUniqueId(), enumRank);
+                // キャッシュ更新 (オンラインなので固定)
+                if (player.isOnline()) {
+                    rankCache.pin(player.getUniqueId(), enumRank);
+                }
 
-                // RankChangeEvent 発火
-                Bukkit.getPluginManager().callEvent(
-                        new RankChangeEvent(player, oldRank, newRank, RankChangeEvent.Cause.API));
+                // RankChangeEvent 発火 (promote/demote もここで 1 回だけ)
+                Bukkit.getPluginManager().callEvent(new RankChangeEvent(player, oldRank, newRank, cause));
 
                 // Tab/ネームタグ即時更新
                 plugin.getTaskScheduler().runGlobal(() -> {
@@ -119,20 +141,136 @@ public class RankManager implements IRankProvider {
      */
     @Override
     public CompletableFuture<Boolean> setRankByUUID(UUID playerId, String playerName, IRank newRank) {
+        return setRankByUUID(playerId, playerName, newRank, RankChangeEvent.Cause.API, null);
+    }
+
+    /**
+     * UUIDで階級設定 (履歴に記録する原因・実行者つき)
+     *
+     * @param actorId 変更した管理者 (自動昇進・コンソール等は null)
+     */
+    public CompletableFuture<Boolean> setRankByUUID(UUID playerId, String playerName, IRank newRank,
+            RankChangeEvent.Cause cause, UUID actorId) {
         Rank enumRank = Rank.fromIRank(newRank);
-        return rankStorage.setRank(playerId, playerName, enumRank).thenApply(success -> {
+        return rankStorage.setRank(playerId, playerName, enumRank, cause, actorId).thenApply(success -> {
             if (success) {
                 rankCache.put(playerId, enumRank);
+                fireCacheEvent(playerId, enumRank, RankCacheInvalidateEvent.Reason.UPDATED);
+                plugin.publishCacheChange(CacheChange.Kind.RANK, playerId, enumRank.getId());
             }
             return success;
         });
     }
 
+    /**
+     * 複数プレイヤーの階級を一括取得 (API実装)。
+     * キャッシュに無いプレイヤーだけを IN クエリでまとめて読み込む。
+     * 読み込んだ階級はキャッシュに入れない (オフライン LRU を一括照会で入れ替えないため)
+     */
+    @Override
+    public CompletableFuture<Map<UUID, IRank>> getRanks(Collection<UUID> playerIds) {
+        Map<UUID, IRank> result = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID playerId : playerIds) {
+            Rank cached = rankCache.get(playerId);
+            if (cached != null) {
+                result.put(playerId, cached);
+            } else {
+                misses.add(playerId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return rankStorage.getRanks(misses).thenApply(loaded -> {
+            result.putAll(loaded);
+            return result;
+        });
+    }
+
+    /**
+     * 複数プレイヤーの階級を一括設定 (API実装)
+     */
+    @Override
+    public CompletableFuture<Integer> setRanks(Map<UUID, ? extends IRank> ranks, BatchProgress progress) {
+        Map<UUID, Rank> enumRanks = new HashMap<>();
+        Map<UUID, String> names = new HashMap<>();
+        ranks.forEach((playerId, rank) -> {
+            enumRanks.put(playerId, Rank.fromIRank(rank));
+            Player player = Bukkit.getPlayer(playerId);
+            if (player != null) {
+                names.put(playerId, player.getName());
+            }
+        });
+        return setRanks(enumRanks, names, RankChangeEvent.Cause.API, progress).thenApply(Map::size);
+    }
+
+    /**
+     * 複数プレイヤーの階級を一括設定。
+     * <p>
+     * 保存後、キャッシュにあるプレイヤーだけを更新し、オンラインのプレイヤーの Tab/ネームタグを更新して、
+     * {@link RankBatchChangeEvent} を 1 回だけ発火する (プレイヤーごとのイベントは発火しない)。
+     * </p>
+     *
+     * @param names UUID → プレイヤー名 (無いプレイヤーは既存の名前を残す)
+     * @return 保存できたプレイヤーの UUID → 変更前の階級
+     */
+    public CompletableFuture<Map<UUID, Rank>> setRanks(Map<UUID, Rank> ranks, Map<UUID, String> names,
+            RankChangeEvent.Cause cause, BatchProgress progress) {
+        return rankStorage.setRanks(ranks, names, cause, progress).thenApply(previous -> {
+            if (previous.isEmpty()) {
+                return previous;
+            }
+            Map<UUID, IRank> oldRanks = new HashMap<>();
+            Map<UUID, IRank> newRanks = new HashMap<>();
+            Map<UUID, String> payloads = new HashMap<>();
+            List<Player> online = new ArrayList<>();
+            previous.forEach((playerId, oldRank) -> {
+                Rank newRank = ranks.get(playerId);
+                rankCache.update(playerId, newRank);
+                oldRanks.put(playerId, oldRank);
+                newRanks.put(playerId, newRank);
+                payloads.put(playerId, newRank.getId());
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) {
+                    rankCache.pin(playerId, newRank);
+                    online.add(player);
+                }
+            });
+
+            Bukkit.getPluginManager().callEvent(new RankBatchChangeEvent(oldRanks, newRanks, cause));
+            plugin.publishCacheChanges(CacheChange.Kind.RANK, payloads);
+
+            if (!online.isEmpty()) {
+                plugin.getTaskScheduler().runGlobal(() -> {
+                    for (Player player : online) {
+                        if (!player.isOnline()) {
+                            continue;
+                        }
+                        String divisionDisplay = plugin.getDivisionManager().getDivisionDisplay(player.getUniqueId());
+                        TabNametagUtil.updatePlayer(player, ranks.get(player.getUniqueId()), divisionDisplay);
+                    }
+                });
+            }
+            return previous;
+        });
+    }
+
     /**
      * 昇進
      */
     @Override
     public CompletableFuture<IRank> promote(Player player) {
+        return promote(player, RankChangeEvent.Cause.PROMOTE, null);
+    }
+
+    /**
+     * 昇進 (履歴に記録する原因・実行者つき)
+     *
+     * @param cause PROMOTE または AUTO_PROMOTE
+     * @param actorId 昇進させた管理者 (自動昇進等は null)
+     */
+    public CompletableFuture<IRank> promote(Player player, RankChangeEvent.Cause cause, UUID actorId) {
         Rank current = getRank(player);
         Rank next = current.getNextRank();
 
@@ -140,13 +278,7 @@ public class RankManager implements IRankProvider {
             return CompletableFuture.completedFuture(null); // 最高階級
         }
 
-        return setRank(player, (IRank) next).thenApply(success -> {
-            if (success) {
-                Bukkit.getPluginManager().callEvent(
-                        new RankChangeEvent(player, current, next, RankChangeEvent.Cause.PROMOTE));
-            }
-            return success ? next : null;
-        });
+        return setRank(player, next, cause, actorId).thenApply(success -> success ? next : null);
     }
 
     /**
@@ -154,6 +286,15 @@ public class RankManager implements IRankProvider {
      */
     @Override
     public CompletableFuture<IRank> demote(Player player) {
+        return demote(player, null);
+    }
+
+    /**
+     * 降格 (履歴に記録する実行者つき)
+     *
+     * @param actorId 降格させた管理者 (コンソール等は null)
+     */
+    public CompletableFuture<IRank> demote(Player player, UUID actorId) {
         Rank current = getRank(player);
         Rank prev = current.getPreviousRank();
 
@@ -161,13 +302,23 @@ public class RankManager implements IRankProvider {
             return CompletableFuture.completedFuture(null); // 最低階級
         }
 
-        return setRank(player, (IRank) prev).thenApply(success -> {
-            if (success) {
-                Bukkit.getPluginManager().callEvent(
-                        new RankChangeEvent(player, current, prev, RankChangeEvent.Cause.DEMOTE));
-            }
-            return success ? prev : null;
-        });
+        return setRank(player, prev, RankChangeEvent.Cause.DEMOTE, actorId).thenApply(success -> success ? prev : null);
+    }
+
+    /**
+     * 階級履歴を新しい順に 1 ページ取得 (API実装)
+     */
+    @Override
+    public CompletableFuture<RankHistoryPage> getRankHistory(UUID playerId, RankHistoryCursor after, int limit) {
+        return rankStorage.getRankHistory(playerId, after, limit);
+    }
+
+    /**
+     * 指定時刻時点の階級を取得 (API実装)
+     */
+    @Override
+    public CompletableFuture<IRank> getRankAt(UUID playerId, long timestamp) {
+        return rankStorage.getRankAt(playerId, timestamp).thenApply(rank -> rank);
     }
 
     /**
@@ -191,13 +342,15 @@ public class RankManager implements IRankProvider {
      * キャッシュを無効化
      */
     public void invalidateCache(UUID playerId) {
-        rankCache.remove(playerId);
+        rankCache.invalidate(playerId);
         // Storageのキャッシュ無効化は不要 (キャッシュ削除済み)
+        fireCacheEvent(playerId, null, RankCacheInvalidateEvent.Reason.INVALIDATED);
 
-        // オンラインならTab更新
+        // オンラインなら読み直して固定し、Tab更新
         Player player = Bukkit.getPlayer(playerId);
         if (player != null && player.isOnline()) {
             getRankAsync(playerId).thenAccept(rank -> {
+                rankCache.pin(playerId);
                 plugin.getTaskScheduler().runGlobal(() -> {
                     String divisionDisplay = plugin.getDivisionManager().getDivisionDisplay(playerId);
                     TabNametagUtil.updatePlayer(player, rank, divisionDisplay);
@@ -206,6 +359,24 @@ public class RankManager implements IRankProvider {
         }
     }
 
+    /**
+     * 他のサーバーで変更された階級を反映 ({@link CacheCoherenceManager} 用)。
+     * このサーバーにいるプレイヤーなら Tab/ネームタグも更新する
+     */
+    public void applyRemoteRank(UUID playerId, Rank rank) {
+        rankCache.put(playerId, rank);
+        fireCacheEvent(playerId, rank, RankCacheInvalidateEvent.Reason.UPDATED);
+
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null && player.isOnline()) {
+            rankCache.pin(playerId, rank);
+            plugin.getTaskScheduler().runGlobal(() -> {
+                String divisionDisplay = plugin.getDivisionManager().getDivisionDisplay(playerId);
+                TabNametagUtil.updatePlayer(player, rank, divisionDisplay);
+            });
+        }
+    }
+
     /**
      * プレイヤー参加時のキャッシュ読み込み (非同期・PreLogin推奨)
      * タイムアウトや例外が発生した場合はデフォルト階級 (PRIVATE) を使用しログに記録します。
@@ -223,12 +394,24 @@ public class RankManager implements IRankProvider {
         }
     }
 
+    /**
+     * 一括読み込みした階級をキャッシュに入れる ({@link PlayerSessionLoader} 用)。
+     * ログインが拒否される場合もあるため、固定するのは参加時。
+     * 読み込み中に setRank などでキャッシュが更新されていれば、そちらを優先する
+     */
+    public void cacheLoadedRank(UUID playerId, Rank rank) {
+        rankCache.putIfAbsent(playerId, rank);
+    }
+
     /**
      * プレイヤー参加時のキャッシュ読み込み (互換用)
      */
     public void loadPlayerCache(Player player) {
         UUID playerId = player.getUniqueId();
         getRankAsync(playerId).thenAccept(rank -> {
+            if (player.isOnline() && !rankCache.pin(playerId)) {
+                rankCache.pin(playerId, Rank.fromIRank(rank));
+            }
             plugin.getTaskScheduler().runGlobal(() -> {
                 if (!player.isOnline()) {
                     return;
@@ -243,9 +426,18 @@ public class RankManager implements IRankProvider {
     }
 
     /**
-     * プレイヤー退出時のキャッシュクリア
+     * プレイヤー退出時のキャッシュ固定解除 (オフライン LRU に移す)
      */
     public void unloadPlayerCache(UUID playerId) {
-        rankCache.remove(playerId);
+        rankCache.unpin(playerId);
+    }
+
+    public RankCache getRankCache() {
+        return rankCache;
+    }
+
+    private void fireCacheEvent(UUID playerId, IRank newRank, RankCacheInvalidateEvent.Reason reason) {
+        Bukkit.getPluginManager().callEvent(
+                new RankCacheInvalidateEvent(playerId, newRank, reason, !Bukkit.isPrimaryThread()));
     }
 }
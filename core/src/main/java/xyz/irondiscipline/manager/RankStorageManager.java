@@ -1,15 +1,30 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
+import xyz.irondiscipline.api.model.RankHistoryCursor;
+import xyz.irondiscipline.api.model.RankHistoryEntry;
+import xyz.irondiscipline.api.model.RankHistoryPage;
+import xyz.irondiscipline.api.provider.IRankProvider;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.DbExecutor;
+import xyz.irondiscipline.database.Query;
+import xyz.irondiscipline.database.QueryRegistry;
+import xyz.irondiscipline.database.UuidCodec;
 import xyz.irondiscipline.model.Rank;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 /**
@@ -18,45 +33,41 @@ import java.util.logging.Level;
  */
 public class RankStorageManager {
 
+    /** 履歴 1 ページの最大件数 */
+    public static final int MAX_HISTORY_PAGE = 1000;
+
+    /** rank_history.cause に保存するコード順 (DB に保存されるため追加は末尾のみ) */
+    private static final RankChangeEvent.Cause[] CAUSE_CODES = {
+            RankChangeEvent.Cause.PROMOTE,
+            RankChangeEvent.Cause.DEMOTE,
+            RankChangeEvent.Cause.SET,
+            RankChangeEvent.Cause.AUTO_PROMOTE,
+            RankChangeEvent.Cause.API,
+            RankChangeEvent.Cause.OTHER,
+    };
+
     private final IronDiscipline plugin;
-    private final Connection connection;
-    private final ExecutorService dbExecutor;
+    private final ConnectionPool pool;
+    private final QueryRegistry queries;
+    private final DbExecutor dbExecutor;
     private final boolean ownsExecutor;
+    private final int chunkSize;
 
-    public RankStorageManager(IronDiscipline plugin, Connection connection) {
-        this(plugin, connection, Executors.newSingleThreadExecutor(), true);
+    public RankStorageManager(IronDiscipline plugin, ConnectionPool pool) {
+        this(plugin, pool, Executors.newSingleThreadExecutor(), true);
     }
 
-    public RankStorageManager(IronDiscipline plugin, Connection connection, ExecutorService sharedExecutor) {
-        this(plugin, connection, sharedExecutor, false);
+    public RankStorageManager(IronDiscipline plugin, ConnectionPool pool, ExecutorService sharedExecutor) {
+        this(plugin, pool, sharedExecutor, false);
     }
 
-    private RankStorageManager(IronDiscipline plugin, Connection connection, ExecutorService executor, boolean ownsExecutor) {
+    private RankStorageManager(IronDiscipline plugin, ConnectionPool pool, ExecutorService executor, boolean ownsExecutor) {
         this.plugin = plugin;
-        this.connection = connection;
-        this.dbExecutor = executor;
+        this.pool = pool;
+        this.queries = QueryRegistry.forType(plugin.getConfigManager().getDatabaseType());
+        this.dbExecutor = DbExecutor.wrap(executor);
         this.ownsExecutor = ownsExecutor;
-        initializeTables();
-    }
-
-    /**
-     * テーブル初期化
-     */
-    private void initializeTables() {
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute("""
-                        CREATE TABLE IF NOT EXISTS player_ranks (
-                            player_id VARCHAR(36) PRIMARY KEY,
-                            player_name VARCHAR(32),
-                            rank_id VARCHAR(32) NOT NULL DEFAULT 'PRIVATE',
-                            updated_at BIGINT NOT NULL
-                        )
-                    """);
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_player_ranks_rank ON player_ranks(rank_id)");
-            plugin.getLogger().info("階級テーブル初期化完了");
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "階級テーブル初期化失敗", e);
-        }
+        this.chunkSize = Math.max(1, plugin.getConfigManager().getRankBulkChunkSize());
     }
 
     /**
@@ -65,9 +76,9 @@ public class RankStorageManager {
     public CompletableFuture<Rank> getRank(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = "SELECT rank_id FROM player_ranks WHERE player_id = ?";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.RANK_SELECT)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
                             return Rank.fromId(rs.getString("rank_id"));
@@ -79,38 +90,289 @@ public class RankStorageManager {
             }
             // デフォルト階級
             return Rank.PRIVATE;
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
-     * 階級を設定
-     * MySQL も H2(MODE=MySQL) も ON DUPLICATE KEY UPDATE 構文をサポートしているため共通化
+     * 階級を設定 (原因・実行者なし)
      */
     public CompletableFuture<Boolean> setRank(UUID playerId, String playerName, Rank rank) {
+        return setRank(playerId, playerName, rank, RankChangeEvent.Cause.OTHER, null);
+    }
+
+    /**
+     * 階級を設定し、変わった場合は同じトランザクションで履歴を追記
+     *
+     * @param actorId 変更した管理者 (自動昇進・コンソール等は null)
+     */
+    public CompletableFuture<Boolean> setRank(UUID playerId, String playerName, Rank rank,
+            RankChangeEvent.Cause cause, UUID actorId) {
         return CompletableFuture.supplyAsync(() -> {
-            try {
-                String sql = """
-                            INSERT INTO player_ranks (player_id, player_name, rank_id, updated_at)
-                            VALUES (?, ?, ?, ?)
-                            ON DUPLICATE KEY UPDATE
-                            player_name = VALUES(player_name),
-                            rank_id = VALUES(rank_id),
-                            updated_at = VALUES(updated_at)
-                        """;
-
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
-                    ps.setString(2, playerName);
-                    ps.setString(3, rank.getId());
-                    ps.setLong(4, System.currentTimeMillis());
-                    ps.executeUpdate();
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    byte[] id = UuidCodec.toBytes(playerId);
+                    String oldRankId = null;
+                    try (PreparedStatement ps = queries.prepare(conn, Query.RANK_SELECT_FOR_UPDATE)) {
+                        ps.setBytes(1, id);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            if (rs.next()) {
+                                oldRankId = rs.getString("rank_id");
+                            }
+                        }
+                    }
+
+                    long now = System.currentTimeMillis();
+                    try (PreparedStatement ps = queries.prepare(conn, Query.RANK_UPSERT)) {
+                        ps.setBytes(1, id);
+                        ps.setString(2, playerName);
+                        ps.setString(3, rank.getId());
+                        ps.setLong(4, now);
+                        ps.executeUpdate();
+                    }
+                    if (!rank.getId().equals(oldRankId)) {
+                        try (PreparedStatement ps = queries.prepare(conn, Query.RANK_HISTORY_INSERT)) {
+                            bindHistory(ps, id, oldRankId, rank, cause, actorId, now);
+                            ps.executeUpdate();
+                        }
+                    }
+                    conn.commit();
                     return true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
                 }
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, "階級設定失敗: " + playerId, e);
                 return false;
             }
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
+    }
+
+    /**
+     * 複数プレイヤーの階級をまとめて取得。
+     * chunkSize 人ごとの IN クエリを順に DB スレッドへ投入し、間に他のクエリを挟めるようにする
+     *
+     * @return UUID → 階級 (階級データが無い、または読み込みに失敗したプレイヤーは PRIVATE)
+     */
+    public CompletableFuture<Map<UUID, Rank>> getRanks(Collection<UUID> playerIds) {
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(playerIds));
+        Map<UUID, Rank> ranks = new HashMap<>();
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (List<UUID> chunk : chunks(ids)) {
+            chain = chain.thenRunAsync(() -> {
+                try (Connection conn = pool.getConnection()) {
+                    ranks.putAll(selectRanks(conn, Query.RANK_SELECT_IN, chunk));
+                } catch (SQLException e) {
+                    plugin.getLogger().log(Level.WARNING, "階級一括取得失敗: " + chunk.size() + "人", e);
+                }
+            }, dbExecutor);
+        }
+        return chain.thenApply(v -> {
+            for (UUID playerId : ids) {
+                ranks.putIfAbsent(playerId, Rank.PRIVATE);
+            }
+            return ranks;
+        });
+    }
+
+    /**
+     * 複数プレイヤーの階級をまとめて設定。
+     * <p>
+     * chunkSize 人ごとに、変更前の階級の読み込みと一括 UPSERT、履歴の追記を 1 トランザクションで行います。
+     * 区切りごとに DB スレッドへ投入し直すため、大量の設定中も他のクエリは待たされません。
+     * 失敗した区切りはロールバックされ、次の区切りから続けます。
+     * </p>
+     *
+     * @param ranks UUID → 新しい階級
+     * @param names UUID → プレイヤー名 (無いプレイヤーは既存の名前を残す)
+     * @param cause 履歴に記録する変更原因
+     * @param progress 区切りごとの進捗通知 (null 可)
+     * @return 保存できたプレイヤーの UUID → 変更前の階級
+     */
+    public CompletableFuture<Map<UUID, Rank>> setRanks(Map<UUID, Rank> ranks, Map<UUID, String> names,
+            RankChangeEvent.Cause cause, IRankProvider.BatchProgress progress) {
+        List<UUID> ids = new ArrayList<>(ranks.keySet());
+        Map<UUID, Rank> previous = new HashMap<>();
+        int[] completed = { 0 };
+        long start = System.nanoTime();
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (List<UUID> chunk : chunks(ids)) {
+            chain = chain.thenRunAsync(() -> {
+                try (Connection conn = pool.getConnection()) {
+                    previous.putAll(saveChunk(conn, chunk, ranks, names, cause));
+                } catch (SQLException e) {
+                    plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_rank_bulk_failed")
+                            .replace("%count%", String.valueOf(chunk.size())), e);
+                }
+                completed[0] += chunk.size();
+                if (progress != null) {
+                    progress.onProgress(completed[0], ids.size());
+                }
+            }, dbExecutor);
+        }
+        return chain.thenApply(v -> {
+            if (!ids.isEmpty()) {
+                plugin.getLogger().info(plugin.getConfigManager().getRawMessage("log_rank_bulk_saved")
+                        .replace("%count%", String.valueOf(previous.size()))
+                        .replace("%total%", String.valueOf(ids.size()))
+                        .replace("%millis%", String.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))));
+            }
+            return previous;
+        });
+    }
+
+    private Map<UUID, Rank> saveChunk(Connection conn, List<UUID> chunk, Map<UUID, Rank> ranks,
+            Map<UUID, String> names, RankChangeEvent.Cause cause) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            // 変更前の階級を読む行をロックし、同じプレイヤーへの setRank と履歴が食い違わないようにする
+            Map<UUID, Rank> existing = selectRanks(conn, Query.RANK_SELECT_IN_FOR_UPDATE, chunk);
+            long now = System.currentTimeMillis();
+            try (PreparedStatement ps = queries.prepare(conn, Query.RANK_UPSERT_KEEP_NAME)) {
+                for (UUID playerId : chunk) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
+                    ps.setString(2, names != null ? names.get(playerId) : null);
+                    ps.setString(3, ranks.get(playerId).getId());
+                    ps.setLong(4, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = queries.prepare(conn, Query.RANK_HISTORY_INSERT)) {
+                boolean any = false;
+                for (UUID playerId : chunk) {
+                    Rank oldRank = existing.get(playerId);
+                    Rank newRank = ranks.get(playerId);
+                    if (oldRank != newRank) {
+                        bindHistory(ps, UuidCodec.toBytes(playerId), oldRank != null ? oldRank.getId() : null,
+                                newRank, cause, null, now);
+                        ps.addBatch();
+                        any = true;
+                    }
+                }
+                if (any) {
+                    ps.executeBatch();
+                }
+            }
+            conn.commit();
+
+            Map<UUID, Rank> saved = new HashMap<>();
+            for (UUID playerId : chunk) {
+                saved.put(playerId, existing.getOrDefault(playerId, Rank.PRIVATE));
+            }
+            return saved;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void bindHistory(PreparedStatement ps, byte[] playerId, String oldRankId, Rank newRank,
+            RankChangeEvent.Cause cause, UUID actorId, long changedAt) throws SQLException {
+        ps.setBytes(1, playerId);
+        ps.setString(2, oldRankId);
+        ps.setString(3, newRank.getId());
+        ps.setInt(4, causeCode(cause));
+        ps.setBytes(5, UuidCodec.toBytes(actorId));
+        ps.setLong(6, changedAt);
+    }
+
+    static int causeCode(RankChangeEvent.Cause cause) {
+        for (int i = 0; i < CAUSE_CODES.length; i++) {
+            if (CAUSE_CODES[i] == cause) {
+                return i;
+            }
+        }
+        return causeCode(RankChangeEvent.Cause.OTHER);
+    }
+
+    static RankChangeEvent.Cause causeOf(int code) {
+        return code >= 0 && code < CAUSE_CODES.length ? CAUSE_CODES[code] : RankChangeEvent.Cause.OTHER;
+    }
+
+    private Map<UUID, Rank> selectRanks(Connection conn, Query query, List<UUID> chunk) throws SQLException {
+        Map<UUID, Rank> ranks = new HashMap<>();
+        try (PreparedStatement ps = queries.prepareIn(conn, query, chunk);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ranks.put(UuidCodec.fromBytes(rs.getBytes("player_id")), Rank.fromId(rs.getString("rank_id")));
+            }
+        }
+        return ranks;
+    }
+
+    private List<List<UUID>> chunks(List<UUID> ids) {
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + chunkSize)));
+        }
+        return chunks;
+    }
+
+    /**
+     * 階級履歴を新しい順に 1 ページ取得。
+     * 索引の範囲を limit + 1 行だけ読み、履歴全体はメモリに載せない
+     *
+     * @param after 前のページのカーソル (最新から読む場合は null)
+     */
+    public CompletableFuture<RankHistoryPage> getRankHistory(UUID playerId, RankHistoryCursor after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE));
+        return CompletableFuture.supplyAsync(() -> {
+            List<RankHistoryEntry> entries = new ArrayList<>(pageSize + 1);
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn,
+                            after == null ? Query.RANK_HISTORY_SELECT_LATEST : Query.RANK_HISTORY_SELECT_BEFORE)) {
+                int i = 1;
+                ps.setBytes(i++, UuidCodec.toBytes(playerId));
+                if (after != null) {
+                    ps.setLong(i++, after.getChangedAt());
+                    ps.setLong(i++, after.getChangedAt());
+                    ps.setLong(i++, after.getId());
+                }
+                ps.setInt(i, pageSize + 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(new RankHistoryEntry(rs.getLong("id"), playerId, rs.getString("old_rank"),
+                                rs.getString("new_rank"), causeOf(rs.getInt("cause")),
+                                UuidCodec.fromBytes(rs.getBytes("actor_id")), rs.getLong("changed_at")));
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "階級履歴取得失敗: " + playerId, e);
+                return new RankHistoryPage(new ArrayList<>(), null);
+            }
+            if (entries.size() <= pageSize) {
+                return new RankHistoryPage(entries, null);
+            }
+            entries.remove(pageSize);
+            return new RankHistoryPage(entries, RankHistoryCursor.after(entries.get(pageSize - 1)));
+        }, dbExecutor.forKey(playerId));
+    }
+
+    /**
+     * 指定時刻時点の階級を取得
+     *
+     * @return その時点の階級 (履歴の記録開始前、または読み込み失敗時は null)
+     */
+    public CompletableFuture<Rank> getRankAt(UUID playerId, long timestamp) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.RANK_HISTORY_SELECT_AT)) {
+                ps.setBytes(1, UuidCodec.toBytes(playerId));
+                ps.setLong(2, timestamp);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? Rank.fromId(rs.getString("new_rank")) : null;
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "階級履歴取得失敗: " + playerId, e);
+                return null;
+            }
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
@@ -120,16 +382,12 @@ public class RankStorageManager {
         return CompletableFuture.supplyAsync(() -> {
             Map<UUID, Rank> ranks = new HashMap<>();
             try {
-                String sql = "SELECT player_id, rank_id FROM player_ranks";
-                try (PreparedStatement ps = connection.prepareStatement(sql);
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.RANK_SELECT_ALL);
                         ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        try {
-                            UUID playerId = UUID.fromString(rs.getString("player_id"));
-                            Rank rank = Rank.fromId(rs.getString("rank_id"));
-                            ranks.put(playerId, rank);
-                        } catch (IllegalArgumentException ignored) {
-                        }
+                        UUID playerId = UuidCodec.fromBytes(rs.getBytes("player_id"));
+                        ranks.put(playerId, Rank.fromId(rs.getString("rank_id")));
                     }
                 }
             } catch (SQLException e) {
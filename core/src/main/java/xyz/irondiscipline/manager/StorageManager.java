@@ -1,59 +1,96 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.model.CombatStats;
 import xyz.irondiscipline.api.model.KillLog;
+import xyz.irondiscipline.api.model.KillLogCursor;
+import xyz.irondiscipline.api.model.KillLogPage;
+import xyz.irondiscipline.api.model.KillLogQuery;
+import xyz.irondiscipline.api.model.WeaponStats;
+import xyz.irondiscipline.api.provider.ICombatStatsProvider;
 import xyz.irondiscipline.api.provider.IKillLogProvider;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.DbExecutor;
+import xyz.irondiscipline.database.KillLogPartitions;
+import xyz.irondiscipline.database.KillLogSelect;
+import xyz.irondiscipline.database.KillLogWriter;
+import xyz.irondiscipline.database.Query;
+import xyz.irondiscipline.database.QueryRegistry;
+import xyz.irondiscipline.database.RetentionSweeper;
+import xyz.irondiscipline.database.UuidCodec;
+import xyz.irondiscipline.database.migration.SchemaMigrator;
 import xyz.irondiscipline.model.JailRecord;
 import xyz.irondiscipline.manager.WarningManager.Warning;
 import java.io.File;
 import java.sql.*;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 /**
  * データベースストレージマネージャー
  * H2/SQLiteを使用した非同期データ永続化
  */
-public class StorageManager implements IKillLogProvider {
+public class StorageManager implements IKillLogProvider, ICombatStatsProvider {
 
     private final IronDiscipline plugin;
-    private Connection connection;
+    private ConnectionPool pool;
     private final String dbType;
-    private final boolean ownsConnection;
+    // 方言解決済みのステートメント (起動時に確定)
+    private final QueryRegistry queries;
+    private final boolean ownsPool;
     private final boolean ownsExecutor;
 
     // Caches removed to prevent memory leaks
 
     // Executor for DB operations
-    private final ExecutorService dbExecutor;
+    private final DbExecutor dbExecutor;
+
+    // キルログの月単位バケット
+    private KillLogPartitions partitions;
+    // キルログ書き込みバッファ
+    private KillLogWriter killLogWriter;
+    // 保存期間切れデータの削除
+    private RetentionSweeper retentionSweeper;
 
     public StorageManager(IronDiscipline plugin) {
         this.plugin = plugin;
         this.dbType = plugin.getConfigManager().getDatabaseType();
-        this.dbExecutor = Executors.newSingleThreadExecutor();
-        this.ownsConnection = true;
+        this.queries = QueryRegistry.forType(dbType);
+        this.dbExecutor = DbExecutor.wrap(Executors.newSingleThreadExecutor());
+        this.ownsPool = true;
         this.ownsExecutor = true;
         initializeDatabase();
+        if (pool != null) {
+            this.partitions = loadPartitions();
+            this.killLogWriter = createKillLogWriter();
+            this.retentionSweeper = createRetentionSweeper();
+        }
     }
 
-    public StorageManager(IronDiscipline plugin, Connection sharedConnection, ExecutorService sharedExecutor) {
+    public StorageManager(IronDiscipline plugin, ConnectionPool sharedPool, ExecutorService sharedExecutor) {
         this.plugin = plugin;
         this.dbType = plugin.getConfigManager().getDatabaseType();
-        this.connection = sharedConnection;
-        this.dbExecutor = sharedExecutor;
-        this.ownsConnection = false;
+        this.queries = QueryRegistry.forType(dbType);
+        this.pool = sharedPool;
+        this.dbExecutor = DbExecutor.wrap(sharedExecutor);
+        this.ownsPool = false;
         this.ownsExecutor = false;
-        try {
-            createTables();
-            plugin.getLogger().info(plugin.getConfigManager().getRawMessage("db_connected").replace("%type%", dbType.toUpperCase()));
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, plugin.getConfigManager().getRawMessage("db_connection_failed"), e);
-        }
+        this.partitions = loadPartitions();
+        this.killLogWriter = createKillLogWriter();
+        this.retentionSweeper = createRetentionSweeper();
+        // スキーマは起動時に SchemaMigrator で移行済み
+        plugin.getLogger().info(plugin.getConfigManager().getRawMessage("db_connected").replace("%type%", dbType.toUpperCase()));
     }
 
     private void initializeDatabase() {
@@ -63,7 +100,8 @@ public class StorageManager implements IKillLogProvider {
             } else {
                 initH2();
             }
-            createTables();
+            pool.start();
+            new SchemaMigrator(pool, queries.getDialect(), plugin.getLogger()).migrate();
             plugin.getLogger().info(plugin.getConfigManager().getRawMessage("db_connected").replace("%type%", dbType.toUpperCase()));
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, plugin.getConfigManager().getRawMessage("db_connection_failed"), e);
@@ -90,118 +128,99 @@ public class StorageManager implements IKillLogProvider {
 
         File dbFile = new File(plugin.getDataFolder(), "irondiscipline");
         String url = "jdbc:h2:" + dbFile.getAbsolutePath() + ";MODE=MySQL";
-        connection = DriverManager.getConnection(url, "sa", "");
+        pool = buildPool(url, "sa", "");
     }
 
     private void initMySQL() throws SQLException {
         ConfigManager config = plugin.getConfigManager();
-        String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=false&autoReconnect=true",
+        String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=false",
                 config.getMySQLHost(),
                 config.getMySQLPort(),
                 config.getMySQLDatabase());
-        connection = DriverManager.getConnection(url, config.getMySQLUsername(), config.getMySQLPassword());
-    }
-
-    private void createTables() throws SQLException {
-        // Kill logs table
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute("""
-                        CREATE TABLE IF NOT EXISTS kill_logs (
-                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                            timestamp BIGINT NOT NULL,
-                            killer_id VARCHAR(36),
-                            killer_name VARCHAR(32),
-                            victim_id VARCHAR(36) NOT NULL,
-                            victim_name VARCHAR(32) NOT NULL,
-                            weapon VARCHAR(64),
-                            distance DOUBLE,
-                            world VARCHAR(64),
-                            x DOUBLE,
-                            y DOUBLE,
-                            z DOUBLE
-                        )
-                    """);
-
-            // Jailed players table
-            stmt.execute("""
-                        CREATE TABLE IF NOT EXISTS jailed_players (
-                            player_id VARCHAR(36) PRIMARY KEY,
-                            player_name VARCHAR(32) NOT NULL,
-                            reason TEXT,
-                            jailed_at BIGINT NOT NULL,
-                            jailed_by VARCHAR(36),
-                            original_location TEXT,
-                            inventory_backup LONGTEXT,
-                            armor_backup LONGTEXT
-                        )
-                    """);
-
-            // Migration: Add columns if they don't exist (for existing databases)
-            try {
-                stmt.execute("ALTER TABLE jailed_players ADD COLUMN inventory_backup LONGTEXT");
-            } catch (SQLException ignored) {
-                // Column likely already exists
-            }
-            try {
-                stmt.execute("ALTER TABLE jailed_players ADD COLUMN armor_backup LONGTEXT");
-            } catch (SQLException ignored) {
-                // Column likely already exists
-            }
+        pool = buildPool(url, config.getMySQLUsername(), config.getMySQLPassword());
+    }
 
-            // Create indexes
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_kill_logs_timestamp ON kill_logs(timestamp)");
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_kill_logs_killer ON kill_logs(killer_id)");
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_kill_logs_victim ON kill_logs(victim_id)");
-
-            // Warnings table
-            stmt.execute("""
-                        CREATE TABLE IF NOT EXISTS warnings (
-                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                            player_id VARCHAR(36) NOT NULL,
-                            player_name VARCHAR(32),
-                            reason TEXT,
-                            warned_by VARCHAR(36),
-                            timestamp BIGINT NOT NULL
-                        )
-                    """);
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_warnings_player_id ON warnings(player_id)");
+    private ConnectionPool buildPool(String url, String username, String password) {
+        ConfigManager config = plugin.getConfigManager();
+        return ConnectionPool.builder(url)
+                .credentials(username, password)
+                .maxSize(config.getDbPoolMaxConnections())
+                .acquireTimeout(config.getDbPoolAcquireTimeoutMillis())
+                .validationInterval(config.getDbPoolValidationIntervalMillis())
+                .statementCacheSize(config.getDbStatementCacheSize())
+                .logger(plugin.getLogger())
+                .build();
+    }
+
+    private KillLogPartitions loadPartitions() {
+        KillLogPartitions loaded = new KillLogPartitions(pool, queries);
+        try {
+            loaded.load();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_partition_load_failed"), e);
         }
+        return loaded;
+    }
+
+    private KillLogWriter createKillLogWriter() {
+        ConfigManager config = plugin.getConfigManager();
+        return KillLogWriter.builder(pool, dbExecutor, queries)
+                .partitions(partitions)
+                .logger(plugin.getLogger(), config.getRawMessage("log_save_failed_kill"))
+                .batchSize(config.getKillLogBatchSize())
+                .flushInterval(config.getKillLogFlushIntervalMillis())
+                .capacity(config.getKillLogQueueCapacity())
+                .overflowPolicy(KillLogWriter.OverflowPolicy.parse(config.getKillLogOverflowPolicy(), null),
+                        config.getKillLogBlockTimeoutMillis())
+                .build();
+    }
+
+    private RetentionSweeper createRetentionSweeper() {
+        ConfigManager config = plugin.getConfigManager();
+        return RetentionSweeper.builder(pool, dbExecutor)
+                .logger(plugin.getLogger(), config.getRawMessage("log_retention_sweep_failed"))
+                .chunkSize(config.getRetentionChunkSize())
+                .pause(config.getRetentionPauseMillis())
+                .interval(TimeUnit.MINUTES.toMillis(config.getRetentionIntervalMinutes()))
+                // バケットごと削除できなかった境界の月の残り
+                .target(new RetentionSweeper.Target("kill_logs",
+                        () -> partitions.scanTables(KillLogQuery.builder().until(killLogCutoff()).build(), null),
+                        "id", "timestamp < ?", this::killLogCutoff))
+                .target(new RetentionSweeper.Target("warnings", "warnings",
+                        "id", "timestamp < ?", () -> cutoffDays(config.getWarningRetentionDays())))
+                // オフライン隔離のまま一度も参加せず、バックアップが作られなかった記録
+                .target(new RetentionSweeper.Target("jailed_players", "jailed_players",
+                        "player_id", "jailed_at < ? AND NOT EXISTS (SELECT 1 FROM jail_backups b"
+                                + " WHERE b.player_id = jailed_players.player_id)",
+                        () -> cutoffDays(config.getOrphanJailRetentionDays())))
+                // サーバー間同期の変更ログ (全サーバーが読み終えた後の行)
+                .target(new RetentionSweeper.Target("change_log", "change_log",
+                        "id", "created_at < ?", () -> cutoffMinutes(config.getCoherenceRetentionMinutes())))
+                .build();
+    }
+
+    private long killLogCutoff() {
+        return cutoffDays(plugin.getConfigManager().getKillLogRetentionDays());
+    }
+
+    /**
+     * 保存日数から削除境界の時刻を求める (0 以下なら無期限として 0)
+     */
+    private static long cutoffDays(int days) {
+        return days <= 0 ? 0 : System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+    }
+
+    private static long cutoffMinutes(int minutes) {
+        return minutes <= 0 ? 0 : System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(minutes);
     }
 
     /**
      * 戦闘ログを非同期で保存
+     * 書き込みバッファに積まれ、件数または時間でまとめて DB に書き込まれる
      */
     @Override
     public CompletableFuture<Void> saveKillLogAsync(KillLog log) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                saveKillLog(log);
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_save_failed_kill"), e);
-            }
-        }, dbExecutor);
-    }
-
-    private void saveKillLog(KillLog log) throws SQLException {
-        String sql = """
-                    INSERT INTO kill_logs (timestamp, killer_id, killer_name, victim_id, victim_name,
-                                           weapon, distance, world, x, y, z)
-                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setLong(1, log.getTimestamp());
-            ps.setString(2, log.getKillerId() != null ? log.getKillerId().toString() : null);
-            ps.setString(3, log.getKillerName());
-            ps.setString(4, log.getVictimId().toString());
-            ps.setString(5, log.getVictimName());
-            ps.setString(6, log.getWeapon());
-            ps.setDouble(7, log.getDistance());
-            ps.setString(8, log.getWorld());
-            ps.setDouble(9, log.getX());
-            ps.setDouble(10, log.getY());
-            ps.setDouble(11, log.getZ());
-            ps.executeUpdate();
-        }
+        return killLogWriter.enqueue(log);
     }
 
     /**
@@ -209,166 +228,353 @@ public class StorageManager implements IKillLogProvider {
      */
     @Override
     public CompletableFuture<List<KillLog>> getKillLogsAsync(UUID playerId, int limit) {
+        return queryKillLogsAsync(KillLogQuery.builder().player(playerId).limit(limit).build())
+                .thenApply(KillLogPage::getLogs);
+    }
+
+    /**
+     * 全戦闘ログを非同期で取得
+     */
+    @Override
+    public CompletableFuture<List<KillLog>> getAllKillLogsAsync(int limit) {
+        return queryKillLogsAsync(KillLogQuery.builder().limit(limit).build())
+                .thenApply(KillLogPage::getLogs);
+    }
+
+    /**
+     * 戦闘ログを 1 ページ分取得 (キーセットページング)
+     */
+    @Override
+    public CompletableFuture<KillLogPage> queryKillLogsAsync(KillLogQuery query) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return getKillLogs(playerId, limit);
+                return queryKillLogs(query);
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_kill"), e);
-                return new ArrayList<>();
+                return new KillLogPage(new ArrayList<>(), null);
             }
         }, dbExecutor);
     }
 
-    private List<KillLog> getKillLogs(UUID playerId, int limit) throws SQLException {
+    private KillLogPage queryKillLogs(KillLogQuery query) throws SQLException {
+        int limit = query.getLimit();
         List<KillLog> logs = new ArrayList<>();
-        // UNION を使用してインデックスを効率的に利用する
-        String sql = """
-                    SELECT * FROM (
-                        SELECT * FROM kill_logs WHERE killer_id = ?
-                        UNION
-                        SELECT * FROM kill_logs WHERE victim_id = ?
-                    ) t
-                    ORDER BY timestamp DESC
-                    LIMIT ?
-                """;
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            String id = playerId.toString();
-            ps.setString(1, id);
-            ps.setString(2, id);
-            ps.setInt(3, limit);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    logs.add(parseKillLog(rs));
-                }
-            }
+        try (Connection conn = pool.getConnection()) {
+            // 1 行多く読んで次のページの有無を判定する
+            readKillLogs(conn, query, query.getAfter(), limit + 1, logs::add);
+        }
+        if (logs.size() <= limit) {
+            return new KillLogPage(logs, null);
         }
-        return logs;
+        logs.remove(limit);
+        return new KillLogPage(logs, KillLogCursor.after(logs.get(limit - 1)));
     }
 
     /**
-     * 全戦闘ログを非同期で取得
+     * 条件に一致する全戦闘ログを順にコンシューマへ渡す
      */
     @Override
-    public CompletableFuture<List<KillLog>> getAllKillLogsAsync(int limit) {
+    public CompletableFuture<Long> streamKillLogsAsync(KillLogQuery query, Consumer<KillLog> consumer) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return getAllKillLogs(limit);
+                return streamKillLogs(query, consumer);
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_kill"), e);
-                return new ArrayList<>();
+                throw new CompletionException(e);
             }
         }, dbExecutor);
     }
 
-    private List<KillLog> getAllKillLogs(int limit) throws SQLException {
-        List<KillLog> logs = new ArrayList<>();
-        String sql = "SELECT * FROM kill_logs ORDER BY timestamp DESC LIMIT ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, limit);
-            try (ResultSet rs = ps.executeQuery()) {
+    private long streamKillLogs(KillLogQuery query, Consumer<KillLog> consumer) throws SQLException {
+        int chunkSize = query.getLimit();
+        KillLogCursor cursor = query.getAfter();
+        long streamed = 0;
+        KillLog[] last = new KillLog[1];
+        while (true) {
+            // チャンクごとに接続を返却し、長い走査でプールを占有しない
+            int rows;
+            try (Connection conn = pool.getConnection()) {
+                rows = readKillLogs(conn, query, cursor, chunkSize, log -> {
+                    last[0] = log;
+                    consumer.accept(log);
+                });
+            }
+            streamed += rows;
+            if (rows < chunkSize) {
+                return streamed;
+            }
+            cursor = KillLogCursor.after(last[0]);
+        }
+    }
+
+    /**
+     * 新しいバケットから順に、条件に一致するログを最大 limit 行読む。
+     * バケットは期間が重ならないため、各バケットの結果を順に繋げれば全体の並び順になる。
+     *
+     * @return 読んだ行数
+     */
+    private int readKillLogs(Connection conn, KillLogQuery query, KillLogCursor cursor, int limit,
+            Consumer<KillLog> sink) throws SQLException {
+        int rows = 0;
+        for (String table : partitions.scanTables(query, cursor)) {
+            KillLogSelect select = KillLogSelect.of(table, query, cursor, limit - rows);
+            try (PreparedStatement ps = select.prepare(conn);
+                    ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    logs.add(parseKillLog(rs));
+                    sink.accept(parseKillLog(rs));
+                    rows++;
                 }
             }
+            if (rows >= limit) {
+                break;
+            }
         }
-        return logs;
+        return rows;
     }
 
     private KillLog parseKillLog(ResultSet rs) throws SQLException {
         return KillLog.builder()
                 .id(rs.getLong("id"))
                 .timestamp(rs.getLong("timestamp"))
-                .killer(
-                        rs.getString("killer_id") != null ? UUID.fromString(rs.getString("killer_id")) : null,
-                        rs.getString("killer_name"))
-                .victim(UUID.fromString(rs.getString("victim_id")), rs.getString("victim_name"))
+                .killer(UuidCodec.fromBytes(rs.getBytes("killer_id")), rs.getString("killer_name"))
+                .victim(UuidCodec.fromBytes(rs.getBytes("victim_id")), rs.getString("victim_name"))
                 .weapon(rs.getString("weapon"))
                 .distance(rs.getDouble("distance"))
                 .location(rs.getString("world"), rs.getDouble("x"), rs.getDouble("y"), rs.getDouble("z"))
                 .build();
     }
 
+    // ===== Combat Stats =====
+
+    /**
+     * プレイヤーの累計戦闘統計を取得
+     */
+    @Override
+    public CompletableFuture<CombatStats> getCombatStatsAsync(UUID playerId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.COMBAT_STATS_SELECT)) {
+                ps.setBytes(1, UuidCodec.toBytes(playerId));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return parseCombatStats(rs);
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_stats"), e);
+            }
+            return new CombatStats(playerId, null, 0, 0, 0, 0);
+        }, dbExecutor.forKey(playerId));
+    }
+
+    /**
+     * 戦闘統計ランキング (集計テーブルから取得)
+     */
+    @Override
+    public CompletableFuture<List<CombatStats>> getTopPlayersAsync(Ranking ranking, int limit) {
+        Query query = switch (ranking) {
+            case KILLS -> Query.COMBAT_STATS_TOP_KILLS;
+            case DEATHS -> Query.COMBAT_STATS_TOP_DEATHS;
+            case LONGEST_SHOT -> Query.COMBAT_STATS_TOP_DISTANCE;
+        };
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, query)) {
+                ps.setInt(1, limit);
+                return readCombatStats(ps);
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_stats"), e);
+                return new ArrayList<>();
+            }
+        }, dbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<CombatStats>> getTopKdRatioAsync(int minKills, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.COMBAT_STATS_TOP_KD)) {
+                ps.setInt(1, Math.max(1, minKills));
+                ps.setInt(2, limit);
+                return readCombatStats(ps);
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_stats"), e);
+                return new ArrayList<>();
+            }
+        }, dbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<WeaponStats>> getTopWeaponsAsync(int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<WeaponStats> weapons = new ArrayList<>();
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = queries.prepare(conn, Query.WEAPON_STATS_TOP)) {
+                ps.setInt(1, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        weapons.add(new WeaponStats(rs.getString("weapon"), rs.getLong("kills"),
+                                rs.getDouble("max_distance"), rs.getLong("last_kill")));
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_stats"), e);
+            }
+            return weapons;
+        }, dbExecutor);
+    }
+
+    private List<CombatStats> readCombatStats(PreparedStatement ps) throws SQLException {
+        List<CombatStats> stats = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                stats.add(parseCombatStats(rs));
+            }
+        }
+        return stats;
+    }
+
+    private CombatStats parseCombatStats(ResultSet rs) throws SQLException {
+        return new CombatStats(
+                UuidCodec.fromBytes(rs.getBytes("player_id")),
+                rs.getString("player_name"),
+                rs.getLong("kills"),
+                rs.getLong("deaths"),
+                rs.getDouble("max_distance"),
+                rs.getLong("last_kill"));
+    }
+
     // ===== Jail Data =====
 
     /**
      * 隔離データを保存 (インベントリバックアップ付き)
+     * バックアップは {@link xyz.irondiscipline.util.InventoryCodec} でエンコードしたバイト列
+     */
+    public CompletableFuture<Boolean> saveJailedPlayerAsync(UUID playerId, String playerName, String reason,
+            UUID jailedBy, String originalLocation,
+            byte[] inventoryBackup, byte[] armorBackup) {
+        return saveJailedPlayerAsync(playerId, playerName, reason, jailedBy, originalLocation,
+                inventoryBackup, armorBackup, null, 0);
+    }
+
+    /**
+     * 隔離データを保存 (割り当てた隔離房と刑期付き)
+     * メタデータ (jailed_players) とバックアップ (jail_backups) を同じトランザクションで書き込む。
+     * バックアップが両方 null の場合は保存済みのバックアップを削除する
+     *
+     * @param expiresAt 刑期の満了時刻 (エポックミリ秒、0 以下は無期限)
      */
     public CompletableFuture<Boolean> saveJailedPlayerAsync(UUID playerId, String playerName, String reason,
             UUID jailedBy, String originalLocation,
-            String inventoryBackup, String armorBackup) {
+            byte[] inventoryBackup, byte[] armorBackup, String cell, long expiresAt) {
         return CompletableFuture.supplyAsync(() -> {
-            try {
-                String sql;
-                if ("mysql".equalsIgnoreCase(dbType)) {
-                    sql = """
-                            INSERT INTO jailed_players (player_id, player_name, reason, jailed_at, jailed_by, original_location, inventory_backup, armor_backup)
-                            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                            ON DUPLICATE KEY UPDATE
-                            player_name = VALUES(player_name),
-                            reason = VALUES(reason),
-                            jailed_at = VALUES(jailed_at),
-                            jailed_by = VALUES(jailed_by),
-                            original_location = VALUES(original_location),
-                            inventory_backup = VALUES(inventory_backup),
-                            armor_backup = VALUES(armor_backup)
-                        """;
-                } else {
-                    sql = """
-                            MERGE INTO jailed_players (player_id, player_name, reason, jailed_at, jailed_by, original_location, inventory_backup, armor_backup)
-                            KEY (player_id)
-                            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                        """;
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    byte[] id = UuidCodec.toBytes(playerId);
+                    try (PreparedStatement ps = queries.prepare(conn, Query.JAIL_UPSERT)) {
+                        ps.setBytes(1, id);
+                        ps.setString(2, playerName);
+                        ps.setString(3, reason);
+                        ps.setLong(4, System.currentTimeMillis());
+                        ps.setString(5, jailedBy != null ? jailedBy.toString() : null);
+                        ps.setString(6, originalLocation);
+                        ps.setString(7, cell);
+                        if (expiresAt > 0) {
+                            ps.setLong(8, expiresAt);
+                        } else {
+                            ps.setNull(8, Types.BIGINT);
+                        }
+                        ps.executeUpdate();
+                    }
+                    if (inventoryBackup != null || armorBackup != null) {
+                        try (PreparedStatement ps = queries.prepare(conn, Query.JAIL_BACKUP_UPSERT)) {
+                            ps.setBytes(1, id);
+                            ps.setBytes(2, inventoryBackup);
+                            ps.setBytes(3, armorBackup);
+                            ps.executeUpdate();
+                        }
+                    } else {
+                        try (PreparedStatement ps = queries.prepare(conn, Query.JAIL_BACKUP_DELETE)) {
+                            ps.setBytes(1, id);
+                            ps.executeUpdate();
+                        }
+                    }
+                    conn.commit();
+                    return true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
                 }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_save_failed_jail"), e);
+                return false;
+            }
+        }, dbExecutor.forKey(playerId));
+    }
 
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
-                    ps.setString(2, playerName);
-                    ps.setString(3, reason);
-                    ps.setLong(4, System.currentTimeMillis());
-                    ps.setString(5, jailedBy != null ? jailedBy.toString() : null);
-                    ps.setString(6, originalLocation);
-                    ps.setString(7, inventoryBackup);
-                    ps.setString(8, armorBackup);
-                    ps.executeUpdate();
-
-                    return true;
+    /**
+     * 隔離中のプレイヤーの隔離房だけを更新
+     */
+    public CompletableFuture<Boolean> updateJailCellAsync(UUID playerId, String cell) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_UPDATE_CELL)) {
+                    ps.setString(1, cell);
+                    ps.setBytes(2, UuidCodec.toBytes(playerId));
+                    return ps.executeUpdate() > 0;
                 }
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_save_failed_jail"), e);
                 return false;
             }
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
-     * 隔離データを削除
+     * 隔離データとバックアップを削除
      */
     public CompletableFuture<Void> removeJailedPlayerAsync(UUID playerId) {
         return CompletableFuture.runAsync(() -> {
-            try {
-                String sql = "DELETE FROM jailed_players WHERE player_id = ?";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
-                    ps.executeUpdate();
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    byte[] id = UuidCodec.toBytes(playerId);
+                    try (PreparedStatement ps = queries.prepare(conn, Query.JAIL_BACKUP_DELETE)) {
+                        ps.setBytes(1, id);
+                        ps.executeUpdate();
+                    }
+                    try (PreparedStatement ps = queries.prepare(conn, Query.JAIL_DELETE)) {
+                        ps.setBytes(1, id);
+                        ps.executeUpdate();
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
                 }
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_delete_failed_jail"), e);
             }
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
      * 隔離プレイヤーのインベントリバックアップを取得 (非同期)
      */
-    public CompletableFuture<String> getInventoryBackupAsync(UUID playerId) {
+    public CompletableFuture<byte[]> getInventoryBackupAsync(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = "SELECT inventory_backup FROM jailed_players WHERE player_id = ?";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_BACKUP_SELECT_INVENTORY)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
-                            return rs.getString("inventory_backup");
+                            return rs.getBytes("inventory_backup");
                         }
                     }
                 }
@@ -376,21 +582,21 @@ public class StorageManager implements IKillLogProvider {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_inventory"), e);
             }
             return null;
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
      * 隔離プレイヤーの装備バックアップを取得 (非同期)
      */
-    public CompletableFuture<String> getArmorBackupAsync(UUID playerId) {
+    public CompletableFuture<byte[]> getArmorBackupAsync(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = "SELECT armor_backup FROM jailed_players WHERE player_id = ?";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_BACKUP_SELECT_ARMOR)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
-                            return rs.getString("armor_backup");
+                            return rs.getBytes("armor_backup");
                         }
                     }
                 }
@@ -398,7 +604,31 @@ public class StorageManager implements IKillLogProvider {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_armor"), e);
             }
             return null;
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
+    }
+
+    /**
+     * 隔離プレイヤーのバックアップを 1 回のクエリで取得 (非同期、復元時のみ使用)
+     *
+     * @return {インベントリ, 装備}。バックアップが無ければ null
+     */
+    public CompletableFuture<byte[][]> getJailBackupsAsync(UUID playerId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_BACKUP_SELECT)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            return new byte[][] { rs.getBytes("inventory_backup"), rs.getBytes("armor_backup") };
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_inventory"), e);
+            }
+            return null;
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
@@ -407,9 +637,9 @@ public class StorageManager implements IKillLogProvider {
     public CompletableFuture<Boolean> isJailedAsync(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = "SELECT 1 FROM jailed_players WHERE player_id = ?";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_EXISTS)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
                     try (ResultSet rs = ps.executeQuery()) {
                         return rs.next();
                     }
@@ -418,18 +648,19 @@ public class StorageManager implements IKillLogProvider {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_check_failed_jail"), e);
             }
             return false;
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
-     * 隔離レコード全体を取得 (非同期)
+     * 隔離レコードのメタデータを取得 (非同期)。
+     * バックアップ本体は読まない ({@link JailRecord#hasBackup()} で有無のみ。本体は {@link #getJailBackupsAsync})
      */
     public CompletableFuture<JailRecord> getJailRecordAsync(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = "SELECT * FROM jailed_players WHERE player_id = ?";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_SELECT_RECORD)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
                             return new JailRecord(
@@ -439,17 +670,18 @@ public class StorageManager implements IKillLogProvider {
                                     rs.getLong("jailed_at"),
                                     rs.getString("jailed_by") != null ? UUID.fromString(rs.getString("jailed_by")) : null,
                                     rs.getString("original_location"),
-                                    rs.getString("inventory_backup"),
-                                    rs.getString("armor_backup")
+                                    rs.getString("cell"),
+                                    rs.getLong("expires_at"),
+                                    rs.getInt("has_backup") != 0
                             );
                         }
                     }
                 }
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to load jail record", e);
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_jail_record"), e);
             }
             return null;
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
@@ -459,13 +691,11 @@ public class StorageManager implements IKillLogProvider {
         return CompletableFuture.supplyAsync(() -> {
             List<UUID> ids = new ArrayList<>();
             try {
-                String sql = "SELECT player_id FROM jailed_players";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_SELECT_IDS)) {
                     try (ResultSet rs = ps.executeQuery()) {
                         while (rs.next()) {
-                            try {
-                                ids.add(UUID.fromString(rs.getString("player_id")));
-                            } catch (IllegalArgumentException ignored) {}
+                            ids.add(UuidCodec.fromBytes(rs.getBytes("player_id")));
                         }
                     }
                 }
@@ -476,14 +706,58 @@ public class StorageManager implements IKillLogProvider {
         }, dbExecutor);
     }
 
+    /**
+     * 全隔離プレイヤーと割り当てられた隔離房を取得 (非同期、房が未割り当てなら値は null)
+     */
+    public CompletableFuture<Map<UUID, String>> getJailCellsAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<UUID, String> cells = new HashMap<>();
+            try {
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_SELECT_CELLS)) {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            cells.put(UuidCodec.fromBytes(rs.getBytes("player_id")), rs.getString("cell"));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_jail"), e);
+            }
+            return cells;
+        }, dbExecutor);
+    }
+
+    /**
+     * 刑期のある隔離プレイヤーと満了時刻を取得 (非同期、起動時のタイミングホイール復元用)
+     */
+    public CompletableFuture<Map<UUID, Long>> getJailExpiriesAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<UUID, Long> expiries = new HashMap<>();
+            try {
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.JAIL_SELECT_EXPIRIES)) {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            expiries.put(UuidCodec.fromBytes(rs.getBytes("player_id")), rs.getLong("expires_at"));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_jail_expiries"), e);
+            }
+            return expiries;
+        }, dbExecutor);
+    }
+
     // ===== Warnings Data =====
 
     public CompletableFuture<Void> addWarningAsync(UUID playerId, String playerName, String reason, String warnedBy, long timestamp) {
         return CompletableFuture.runAsync(() -> {
             try {
-                String sql = "INSERT INTO warnings (player_id, player_name, reason, warned_by, timestamp) VALUES (?, ?, ?, ?, ?)";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.WARNING_INSERT)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
                     ps.setString(2, playerName);
                     ps.setString(3, reason);
                     ps.setString(4, warnedBy);
@@ -493,16 +767,16 @@ public class StorageManager implements IKillLogProvider {
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_save_failed_warn"), e);
             }
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     public CompletableFuture<List<Warning>> getWarningsAsync(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
             List<Warning> warnings = new ArrayList<>();
             try {
-                String sql = "SELECT * FROM warnings WHERE player_id = ? ORDER BY timestamp ASC";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.WARNING_SELECT_BY_PLAYER)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
                     try (ResultSet rs = ps.executeQuery()) {
                         while (rs.next()) {
                             Warning w = new Warning();
@@ -517,88 +791,119 @@ public class StorageManager implements IKillLogProvider {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_load_failed_warn"), e);
             }
             return warnings;
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     public CompletableFuture<Void> clearWarningsAsync(UUID playerId) {
         return CompletableFuture.runAsync(() -> {
             try {
-                String sql = "DELETE FROM warnings WHERE player_id = ?";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setString(1, playerId.toString());
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = queries.prepare(conn, Query.WARNING_DELETE_BY_PLAYER)) {
+                    ps.setBytes(1, UuidCodec.toBytes(playerId));
                     ps.executeUpdate();
                 }
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_clear_failed_warn"), e);
             }
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     public CompletableFuture<Void> removeLastWarningAsync(UUID playerId) {
         return CompletableFuture.runAsync(() -> {
             try {
-                String selectSql = "SELECT id FROM warnings WHERE player_id = ? ORDER BY timestamp DESC LIMIT 1";
                 long idToDelete = -1;
 
-                try (PreparedStatement ps = connection.prepareStatement(selectSql)) {
-                    ps.setString(1, playerId.toString());
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            idToDelete = rs.getLong("id");
+                try (Connection conn = pool.getConnection()) {
+                    try (PreparedStatement ps = queries.prepare(conn, Query.WARNING_SELECT_LAST_ID)) {
+                        ps.setBytes(1, UuidCodec.toBytes(playerId));
+                        try (ResultSet rs = ps.executeQuery()) {
+                            if (rs.next()) {
+                                idToDelete = rs.getLong("id");
+                            }
                         }
                     }
-                }
 
-                if (idToDelete != -1) {
-                    String deleteSql = "DELETE FROM warnings WHERE id = ?";
-                    try (PreparedStatement ps = connection.prepareStatement(deleteSql)) {
-                        ps.setLong(1, idToDelete);
-                        ps.executeUpdate();
+                    if (idToDelete != -1) {
+                        try (PreparedStatement ps = queries.prepare(conn, Query.WARNING_DELETE_BY_ID)) {
+                            ps.setLong(1, idToDelete);
+                            ps.executeUpdate();
+                        }
                     }
                 }
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_delete_failed_warn_last"), e);
             }
-        }, dbExecutor);
+        }, dbExecutor.forKey(playerId));
     }
 
     /**
      * 古いログを削除
+     * 保存期間を過ぎた月のバケットを丸ごと削除し、残りはスイーパーに少しずつ削除させる
      */
-    public void cleanupOldLogs() {
-        int days = plugin.getConfigManager().getKillLogRetentionDays();
-        long cutoff = System.currentTimeMillis() - (days * 24L * 60 * 60 * 1000);
+    public CompletableFuture<List<YearMonth>> cleanupOldLogs() {
+        long cutoff = killLogCutoff();
 
-        CompletableFuture.runAsync(() -> {
+        CompletableFuture<List<YearMonth>> task = CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = "DELETE FROM kill_logs WHERE timestamp < ?";
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setLong(1, cutoff);
-                    int deleted = ps.executeUpdate();
-                    if (deleted > 0) {
-                        plugin.getLogger().info(plugin.getConfigManager().getRawMessage("log_cleanup_success").replace("%count%", String.valueOf(deleted)));
-                    }
+                List<YearMonth> dropped = cutoff > 0 ? partitions.dropBefore(cutoff) : List.of();
+                if (!dropped.isEmpty()) {
+                    plugin.getLogger().info(plugin.getConfigManager().getRawMessage("log_cleanup_partitions")
+                            .replace("%count%", String.valueOf(dropped.size()))
+                            .replace("%range%", dropped.get(0) + " - " + dropped.get(dropped.size() - 1)));
                 }
+                partitions.ensureAhead();
+                return dropped;
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("log_cleanup_failed"), e);
+                return List.<YearMonth>of();
             }
         }, dbExecutor);
+        // 境界の月の残りと、他のテーブルの期限切れ行
+        task.thenRun(() -> retentionSweeper.requestRun().thenAccept(deleted -> {
+            if (deleted > 0) {
+                plugin.getLogger().info(plugin.getConfigManager().getRawMessage("log_cleanup_success").replace("%count%", String.valueOf(deleted)));
+            }
+        }));
+        return task;
     }
 
     /**
      * シャットダウン処理
      */
     public void shutdown() {
-        if (ownsConnection && connection != null) {
-            try {
-                connection.close();
-                plugin.getLogger().info(plugin.getConfigManager().getRawMessage("db_closed"));
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, plugin.getConfigManager().getRawMessage("db_close_failed"), e);
-            }
+        if (retentionSweeper != null) {
+            retentionSweeper.close();
+        }
+        // 未書き込みのキルログを確実に書き込む (DBスレッド・プール停止前)
+        if (killLogWriter != null) {
+            killLogWriter.close();
         }
         if (ownsExecutor) {
             dbExecutor.shutdown();
+            try {
+                if (!dbExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    dbExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                dbExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
         }
+        if (ownsPool && pool != null) {
+            pool.close();
+            plugin.getLogger().info(plugin.getConfigManager().getRawMessage("db_closed"));
+        }
+    }
+
+    public KillLogWriter getKillLogWriter() {
+        return killLogWriter;
+    }
+
+    public RetentionSweeper getRetentionSweeper() {
+        return retentionSweeper;
+    }
+
+    public KillLogPartitions getKillLogPartitions() {
+        return partitions;
     }
 }
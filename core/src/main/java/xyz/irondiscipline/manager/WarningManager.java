@@ -1,6 +1,7 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.database.CacheChange;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
@@ -31,7 +32,10 @@ public class WarningManager {
         long timestamp = System.currentTimeMillis();
 
         return plugin.getStorageManager().addWarningAsync(playerId, playerName, reason, warnedById, timestamp)
-            .thenCompose(v -> getWarnings(playerId))
+            .thenCompose(v -> {
+                plugin.publishCacheChange(CacheChange.Kind.WARNING, playerId, null);
+                return getWarnings(playerId);
+            })
             .thenApply(list -> {
                 // キャッシュ更新 (getWarningsで既に更新されているはずだが念のため)
                 int count = list.size();
@@ -81,7 +85,8 @@ public class WarningManager {
      */
     public CompletableFuture<Void> clearWarnings(UUID playerId) {
         cache.remove(playerId);
-        return plugin.getStorageManager().clearWarningsAsync(playerId);
+        return plugin.getStorageManager().clearWarningsAsync(playerId)
+            .thenRun(() -> plugin.publishCacheChange(CacheChange.Kind.WARNING, playerId, null));
     }
 
     /**
@@ -95,11 +100,19 @@ public class WarningManager {
 
             return plugin.getStorageManager().removeLastWarningAsync(playerId).thenApply(v -> {
                 cache.remove(playerId); // キャッシュ無効化して再読み込みを促す
+                plugin.publishCacheChange(CacheChange.Kind.WARNING, playerId, null);
                 return true;
             });
         });
     }
 
+    /**
+     * 一括読み込みした警告をキャッシュに入れる ({@link PlayerSessionLoader} 用)
+     */
+    public void cacheLoadedWarnings(UUID playerId, List<Warning> warnings) {
+        cache.put(playerId, warnings);
+    }
+
     /**
      * キャッシュ無効化
      */
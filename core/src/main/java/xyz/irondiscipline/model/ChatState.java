@@ -0,0 +1,81 @@
+package xyz.irondiscipline.model;
+
+import org.bukkit.ChatColor;
+
+/**
+ * チャットの可否判定に使うプレイヤーの状態 (不変)
+ * <p>
+ * 隔離・試験・階級・PTS の状態と、階級プレフィックス付きのチャットフォーマットをまとめたものです。
+ * 状態が変わったときに各マネージャーが作り直して公開し、非同期チャットではこれを 1 回読むだけで判定します。
+ * </p>
+ */
+public final class ChatState {
+
+    private final Rank rank;
+    private final boolean jailed;
+    private final boolean inExam;
+    private final boolean ptsRequired;
+    private final long ptsDeadline;
+    private final String format;
+    private final int revision;
+
+    /**
+     * @param ptsRequired PTS が有効で、試験中 (試験マネージャーが無い場合は常に)、免除権限がなく、階級が PTS 必要ライン以下
+     * @param ptsDeadline 発言許可の期限 (エポックミリ秒, 0 は許可なし)
+     * @param revision 作成時の設定の世代
+     */
+    public ChatState(Rank rank, boolean jailed, boolean inExam, boolean ptsRequired, long ptsDeadline, int revision) {
+        this.rank = rank;
+        this.jailed = jailed;
+        this.inExam = inExam;
+        this.ptsRequired = ptsRequired;
+        this.ptsDeadline = ptsDeadline;
+        this.format = formatFor(rank);
+        this.revision = revision;
+    }
+
+    /**
+     * 階級プレフィックス付きのチャットフォーマット ({@code AsyncPlayerChatEvent#setFormat} 用)
+     */
+    public static String formatFor(Rank rank) {
+        String safeRankDisplay = rank.getDisplay().replace("%", "%%");
+        return safeRankDisplay + " " + ChatColor.WHITE + "%1$s" +
+                ChatColor.GRAY + ": " + ChatColor.WHITE + "%2$s";
+    }
+
+    public Rank getRank() {
+        return rank;
+    }
+
+    public boolean isJailed() {
+        return jailed;
+    }
+
+    public boolean isInExam() {
+        return inExam;
+    }
+
+    public boolean isPtsRequired() {
+        return ptsRequired;
+    }
+
+    /** 発言許可の期限 (0 は許可なし) */
+    public long getPtsDeadline() {
+        return ptsDeadline;
+    }
+
+    /**
+     * 発言できるか ({@code PTSManager#hasPermissionToSpeak} と同じ判定)
+     */
+    public boolean canSpeak(long now) {
+        return !ptsRequired || now < ptsDeadline;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+}
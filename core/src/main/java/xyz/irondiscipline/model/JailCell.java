@@ -0,0 +1,49 @@
+package xyz.irondiscipline.model;
+
+/**
+ * 名前付きの隔離房
+ * <p>
+ * 隔離場所とエリア ({@link JailRegion}) に定員を加えたもので、設定から一度だけ作る不変オブジェクトです。
+ * 房ごとに別の場所 (Folia では別のリージョン) に置くことで、一斉拘留時の負荷を分散します。
+ * </p>
+ */
+public final class JailCell {
+
+    /** 房の名前の最大長 (jailed_players.cell) */
+    public static final int MAX_NAME_LENGTH = 32;
+
+    private final String name;
+    private final JailRegion region;
+    private final int capacity;
+
+    /**
+     * @param capacity 定員 (0 以下は上限なし)
+     */
+    public JailCell(String name, JailRegion region, int capacity) {
+        this.name = name;
+        this.region = region;
+        this.capacity = Math.max(0, capacity);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public JailRegion getRegion() {
+        return region;
+    }
+
+    /** 定員 (0 は上限なし) */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean hasCapacity() {
+        return capacity > 0;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + region + (capacity > 0 ? " 定員 " + capacity : "");
+    }
+}
@@ -1,19 +1,79 @@
 package xyz.irondiscipline.model;
 
+import java.util.Base64;
 import java.util.UUID;
 
 /**
  * 隔離記録。
  * <p>
  * API モジュールの {@link xyz.irondiscipline.api.model.JailRecord} を継承しています。
+ * バックアップは DB に保存されたバイト列 ({@link xyz.irondiscipline.util.InventoryCodec} の形式、
+ * または旧形式の Base64 文字列) のまま保持します。
+ * </p>
+ * <p>
+ * DB から読み込んだ記録はメタデータのみで、バックアップ本体は持ちません ({@link #hasBackup()} で有無だけ分かります)。
+ * 本体は復元時に {@code StorageManager#getJailBackupsAsync} で読み込みます。
  * </p>
  */
 public class JailRecord extends xyz.irondiscipline.api.model.JailRecord {
 
+    private final byte[] inventoryData;
+    private final byte[] armorData;
+    private final boolean backedUp;
+
+    public JailRecord(UUID playerId, String playerName, String reason, long jailedAt,
+                      UUID jailedBy, String originalLocation,
+                      byte[] inventoryData, byte[] armorData) {
+        this(playerId, playerName, reason, jailedAt, jailedBy, originalLocation, inventoryData, armorData, null, 0);
+    }
+
     public JailRecord(UUID playerId, String playerName, String reason, long jailedAt,
                       UUID jailedBy, String originalLocation,
-                      String inventoryBackup, String armorBackup) {
-        super(playerId, playerName, reason, jailedAt, jailedBy, originalLocation,
-              inventoryBackup, armorBackup);
+                      byte[] inventoryData, byte[] armorData, String cell, long expiresAt) {
+        super(playerId, playerName, reason, jailedAt, jailedBy, originalLocation, null, null, cell, expiresAt);
+        this.inventoryData = inventoryData;
+        this.armorData = armorData;
+        this.backedUp = inventoryData != null || armorData != null;
+    }
+
+    /**
+     * バックアップ本体を持たない記録 (メタデータのみ)
+     *
+     * @param backedUp バックアップが保存されているか
+     */
+    public JailRecord(UUID playerId, String playerName, String reason, long jailedAt,
+                      UUID jailedBy, String originalLocation, String cell, long expiresAt, boolean backedUp) {
+        super(playerId, playerName, reason, jailedAt, jailedBy, originalLocation, null, null, cell, expiresAt);
+        this.inventoryData = null;
+        this.armorData = null;
+        this.backedUp = backedUp;
+    }
+
+    /**
+     * バックアップが保存されているか (本体を読み込んでいない記録でも判定できる)
+     */
+    public boolean hasBackup() {
+        return backedUp;
+    }
+
+    public byte[] getInventoryData() {
+        return inventoryData;
+    }
+
+    public byte[] getArmorData() {
+        return armorData;
+    }
+
+    /**
+     * 保存されたバックアップの Base64 表現 (API 互換用)
+     */
+    @Override
+    public String getInventoryBackup() {
+        return inventoryData != null ? Base64.getEncoder().encodeToString(inventoryData) : null;
+    }
+
+    @Override
+    public String getArmorBackup() {
+        return armorData != null ? Base64.getEncoder().encodeToString(armorData) : null;
     }
 }
@@ -0,0 +1,102 @@
+package xyz.irondiscipline.model;
+
+/**
+ * 隔離エリア
+ * <p>
+ * 移動イベントごとに判定するため、設定から一度だけ作る不変オブジェクトで、
+ * ワールド名と double の境界だけを持ちます。判定は直方体の比較、
+ * または隔離場所からの距離の 2 乗の比較だけで、平方根も Location の生成も行いません。
+ * </p>
+ */
+public final class JailRegion {
+
+    private final String worldName;
+    private final double spawnX;
+    private final double spawnY;
+    private final double spawnZ;
+
+    // 直方体 (cuboid == false の場合は未使用)
+    private final boolean cuboid;
+    private final double minX, minY, minZ;
+    private final double maxX, maxY, maxZ;
+
+    // 球 (cuboid == true の場合は未使用)
+    private final double radiusSquared;
+
+    private JailRegion(String worldName, double spawnX, double spawnY, double spawnZ, boolean cuboid,
+            double minX, double minY, double minZ, double maxX, double maxY, double maxZ, double radiusSquared) {
+        this.worldName = worldName;
+        this.spawnX = spawnX;
+        this.spawnY = spawnY;
+        this.spawnZ = spawnZ;
+        this.cuboid = cuboid;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.radiusSquared = radiusSquared;
+    }
+
+    /**
+     * 隔離場所から半径 radius ブロック以内
+     */
+    public static JailRegion sphere(String worldName, double x, double y, double z, double radius) {
+        return new JailRegion(worldName, x, y, z, false, 0, 0, 0, 0, 0, 0, radius * radius);
+    }
+
+    /**
+     * 2 つの角で指定する直方体 (角の順序は問わない)。隔離場所は直方体の外でもよい
+     */
+    public static JailRegion cuboid(String worldName, double x, double y, double z,
+            double x1, double y1, double z1, double x2, double y2, double z2) {
+        return new JailRegion(worldName, x, y, z, true,
+                Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2),
+                Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2), 0);
+    }
+
+    /**
+     * 指定座標がエリア内かどうか。別のワールドはエリア外
+     */
+    public boolean contains(String world, double x, double y, double z) {
+        if (!worldName.equals(world)) {
+            return false;
+        }
+        if (cuboid) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+        double dx = x - spawnX;
+        double dy = y - spawnY;
+        double dz = z - spawnZ;
+        return dx * dx + dy * dy + dz * dz <= radiusSquared;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public double getSpawnX() {
+        return spawnX;
+    }
+
+    public double getSpawnY() {
+        return spawnY;
+    }
+
+    public double getSpawnZ() {
+        return spawnZ;
+    }
+
+    public boolean isCuboid() {
+        return cuboid;
+    }
+
+    @Override
+    public String toString() {
+        if (cuboid) {
+            return worldName + " [" + minX + "," + minY + "," + minZ + " ~ " + maxX + "," + maxY + "," + maxZ + "]";
+        }
+        return worldName + " (" + spawnX + "," + spawnY + "," + spawnZ + ") r=" + Math.sqrt(radiusSquared);
+    }
+}
@@ -4,6 +4,10 @@ import org.bukkit.ChatColor;
 import xyz.irondiscipline.api.rank.IRank;
 import xyz.irondiscipline.api.rank.RankRegistry;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * 軍階級enum
  * 重みが低いほど下位階級
@@ -25,6 +29,28 @@ public enum Rank implements IRank {
     COLONEL("COLONEL", "&c[大佐]", 70),
     COMMANDER("COMMANDER", "&4&l[司令官]", 100);
 
+    // 参照用の表 (values() は呼ぶたびに配列を複製するため)
+    private static final Rank[] VALUES = values();
+    private static final Map<String, Rank> BY_ID = new HashMap<>();
+    /** FLOOR_BY_WEIGHT[w] = weight が w 以下で最大の階級 (w は 0 から最高階級の weight まで) */
+    private static final Rank[] FLOOR_BY_WEIGHT;
+
+    static {
+        for (Rank rank : VALUES) {
+            BY_ID.put(rank.id, rank);
+        }
+        FLOOR_BY_WEIGHT = new Rank[VALUES[VALUES.length - 1].weight + 1];
+        Rank floor = PRIVATE;
+        for (int w = 0; w < FLOOR_BY_WEIGHT.length; w++) {
+            for (Rank rank : VALUES) {
+                if (rank.weight == w) {
+                    floor = rank;
+                }
+            }
+            FLOOR_BY_WEIGHT[w] = floor;
+        }
+    }
+
     private final String id;
     private final String displayRaw;
     private final int weight;
@@ -93,9 +119,8 @@ public enum Rank implements IRank {
      * 次の階級を取得 (昇進)
      */
     public Rank getNextRank() {
-        Rank[] ranks = values();
         int next = ordinal() + 1;
-        return next < ranks.length ? ranks[next] : null;
+        return next < VALUES.length ? VALUES[next] : null;
     }
 
     /**
@@ -103,7 +128,7 @@ public enum Rank implements IRank {
      */
     public Rank getPreviousRank() {
         int prev = ordinal() - 1;
-        return prev >= 0 ? values()[prev] : null;
+        return prev >= 0 ? VALUES[prev] : null;
     }
 
     /**
@@ -111,25 +136,20 @@ public enum Rank implements IRank {
      */
     public static Rank fromId(String id) {
         if (id == null) return PRIVATE;
-        for (Rank rank : values()) {
-            if (rank.id.equalsIgnoreCase(id)) {
-                return rank;
-            }
+        // 大文字の ID はそのまま引く (文字列を作らない)
+        Rank rank = BY_ID.get(id);
+        if (rank == null) {
+            rank = BY_ID.get(id.toUpperCase(Locale.ROOT));
         }
-        return PRIVATE;
+        return rank != null ? rank : PRIVATE;
     }
 
     /**
      * 重みから階級を取得
      */
     public static Rank fromWeight(int weight) {
-        Rank result = PRIVATE;
-        for (Rank rank : values()) {
-            if (rank.weight <= weight && rank.weight > result.weight) {
-                result = rank;
-            }
-        }
-        return result;
+        if (weight < 0) return PRIVATE;
+        return weight < FLOOR_BY_WEIGHT.length ? FLOOR_BY_WEIGHT[weight] : VALUES[VALUES.length - 1];
     }
 
     /**
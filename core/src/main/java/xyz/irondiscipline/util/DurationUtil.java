@@ -0,0 +1,72 @@
+package xyz.irondiscipline.util;
+
+import xyz.irondiscipline.manager.ConfigManager;
+
+/**
+ * 期間の解析・表示
+ */
+public final class DurationUtil {
+
+    private DurationUtil() {
+    }
+
+    /**
+     * "30m", "2h", "1d12h", "90s" 形式の期間を解析 (単位: d / h / m / s, 大文字可)
+     *
+     * @return ミリ秒。期間の形式でない、または 0 以下の場合は -1
+     */
+    public static long parse(String text) {
+        if (text == null || text.isEmpty()) {
+            return -1;
+        }
+        long total = 0;
+        long value = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value) * 10 + (c - '0');
+                if (value > 100_000_000L) {
+                    return -1;
+                }
+                continue;
+            }
+            if (value < 0) {
+                return -1;
+            }
+            long unit = switch (Character.toLowerCase(c)) {
+                case 'd' -> 86_400_000L;
+                case 'h' -> 3_600_000L;
+                case 'm' -> 60_000L;
+                case 's' -> 1_000L;
+                default -> -1;
+            };
+            if (unit < 0) {
+                return -1;
+            }
+            total += value * unit;
+            value = -1;
+        }
+        // 単位のない数字で終わる場合は期間ではない (理由の一部とみなす)
+        if (value >= 0 || total <= 0) {
+            return -1;
+        }
+        return total;
+    }
+
+    /**
+     * 期間を time_format_* メッセージで表示 (分未満は切り捨て)
+     */
+    public static String format(ConfigManager config, long millis) {
+        long minutes = Math.max(0, millis) / 60_000;
+        long hours = minutes / 60;
+        long days = hours / 24;
+
+        if (days > 0) {
+            return String.format(config.getRawMessage("time_format_days"), days, hours % 24, minutes % 60);
+        } else if (hours > 0) {
+            return String.format(config.getRawMessage("time_format_hours"), hours, minutes % 60);
+        } else {
+            return String.format(config.getRawMessage("time_format_minutes"), minutes);
+        }
+    }
+}
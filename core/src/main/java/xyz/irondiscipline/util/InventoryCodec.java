@@ -0,0 +1,166 @@
+package xyz.irondiscipline.util;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * インベントリバックアップのバイナリ形式
+ * <p>
+ * 各スロットを Paper の {@link ItemStack#serializeAsBytes()} で NBT のバイト列にし、
+ * 全体を deflate で圧縮して {@code jail_backups} の BLOB カラム (inventory_backup / armor_backup) に保存します。
+ * Java シリアライズ + Base64 の旧形式 ({@link InventoryUtil#toBase64}) より小さく、
+ * 復元も速くなります。
+ * </p>
+ * <pre>
+ * magic (0x00 'I' 'D' 'I') | version (1 byte) | deflate(
+ *     slotCount (int) | { length (int, 空きスロットは -1) | NBT bytes }*
+ * )
+ * </pre>
+ * <p>
+ * 先頭の 0x00 は Base64 文字列には現れないため、旧形式の行 (Base64 の ASCII バイト列) は
+ * {@link #decode(byte[])} がそのまま判別して旧形式として読み込みます。
+ * </p>
+ */
+public final class InventoryCodec {
+
+    private static final byte[] MAGIC = { 0x00, 'I', 'D', 'I' };
+    /** 現在の形式バージョン */
+    public static final int VERSION = 1;
+
+    private static final int MAX_SLOTS = 256;
+    private static final int MAX_SLOT_BYTES = 8 * 1024 * 1024;
+
+    private InventoryCodec() {
+    }
+
+    /**
+     * ItemStack 配列を現在の形式に変換
+     */
+    public static byte[] encode(ItemStack[] items) {
+        byte[][] slots = new byte[items.length][];
+        for (int i = 0; i < items.length; i++) {
+            ItemStack item = items[i];
+            if (item != null && !item.getType().isAir() && item.getAmount() > 0) {
+                slots[i] = item.serializeAsBytes();
+            }
+        }
+        return encodeSlots(slots);
+    }
+
+    /**
+     * 保存されたバックアップを ItemStack 配列に復元 (旧形式の Base64 にも対応)。
+     * 空または読み込めない場合は null
+     */
+    public static ItemStack[] decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (isLegacy(data)) {
+            return InventoryUtil.fromBase64(new String(data, StandardCharsets.US_ASCII));
+        }
+        try {
+            byte[][] slots = decodeSlots(data);
+            ItemStack[] items = new ItemStack[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != null) {
+                    items[i] = ItemStack.deserializeBytes(slots[i]);
+                }
+            }
+            return items;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 旧形式 (Base64 文字列) のバックアップか
+     */
+    public static boolean isLegacy(byte[] data) {
+        if (data.length < MAGIC.length + 1) {
+            return true;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * スロットごとのバイト列 (空きスロットは null) を圧縮して格納する
+     */
+    public static byte[] encodeSlots(byte[][] slots) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.writeBytes(MAGIC);
+        bytes.write(VERSION);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeInt(slots.length);
+            for (byte[] slot : slots) {
+                if (slot == null) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(slot.length);
+                    out.write(slot);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("インベントリの保存に失敗しました", e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * {@link #encodeSlots(byte[][])} の逆変換
+     *
+     * @throws IllegalArgumentException 形式が不正、または未対応のバージョンの場合
+     */
+    public static byte[][] decodeSlots(byte[] data) {
+        if (isLegacy(data)) {
+            throw new IllegalArgumentException("Not a binary inventory backup");
+        }
+        int version = data[MAGIC.length];
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported inventory backup version: " + version);
+        }
+
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(
+                data, MAGIC.length + 1, data.length - MAGIC.length - 1), inflater))) {
+            int count = in.readInt();
+            if (count < 0 || count > MAX_SLOTS) {
+                throw new IllegalArgumentException("Invalid inventory size detected: " + count);
+            }
+            byte[][] slots = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                if (length == -1) {
+                    continue;
+                }
+                if (length < 0 || length > MAX_SLOT_BYTES) {
+                    throw new IllegalArgumentException("Invalid slot length detected: " + length);
+                }
+                slots[i] = new byte[length];
+                in.readFully(slots[i]);
+            }
+            return slots;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupted inventory backup", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package xyz.irondiscipline.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 事前に解析したメッセージテンプレート
+ * <p>
+ * 色コード変換済みの文面を、読み込み時に 1 回だけ「固定の文字列」と「プレースホルダー ({@code %name%})」
+ * の並びに分解します。表示のたびに YAML の参照・色コード変換・{@code String.replace} の連鎖を行わず、
+ * 固定部分と値をスレッドごとに使い回す {@link StringBuilder} に順に書き込むだけで組み立てます。
+ * プレースホルダーのない文面は毎回同じ文字列を返します。
+ * </p>
+ * <p>
+ * 値は 1 回だけ埋め込み、埋めた値の中の {@code %name%} は置換しません (プレイヤーの入力がそのまま表示されます)。
+ * 値が渡されなかったプレースホルダーは {@code %name%} のまま残します。
+ * </p>
+ */
+public final class MessageTemplate {
+
+    // 使い回す StringBuilder の上限 (これを超えて伸びた場合は捨てる)
+    private static final int MAX_POOLED_CAPACITY = 4096;
+    private static final ThreadLocal<StringBuilder> BUILDERS = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String source;
+    // literals.length == slots.length + 1 (slots[i] は literals[i] と literals[i + 1] の間)
+    private final String[] literals;
+    private final String[] slots;
+
+    private MessageTemplate(String source, String[] literals, String[] slots) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    /**
+     * 文面を解析する。{@code %} で囲まれた英数字・アンダースコアだけをプレースホルダーとして扱う
+     * ({@code 100%} などはそのまま)
+     */
+    public static MessageTemplate compile(String text) {
+        String source = text != null ? text : "";
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (i < source.length()) {
+            int open = source.indexOf('%', i);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf('%', open + 1);
+            if (close < 0) {
+                break;
+            }
+            if (close > open + 1 && isName(source, open + 1, close)) {
+                literals.add(source.substring(literalStart, open));
+                slots.add(source.substring(open + 1, close));
+                literalStart = close + 1;
+                i = close + 1;
+            } else {
+                // 閉じ側の % が次のプレースホルダーの開始かもしれない
+                i = close;
+            }
+        }
+        literals.add(source.substring(literalStart));
+        return new MessageTemplate(source, literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    private static boolean isName(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!(c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 値を埋めずに表示 (元の文面そのもの)
+     */
+    public String render() {
+        return source;
+    }
+
+    /**
+     * 値を埋めて表示
+     */
+    public String render(Placeholder... placeholders) {
+        if (slots.length == 0) {
+            return source;
+        }
+        StringBuilder sb = borrow();
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(literals[i]);
+            Placeholder value = find(slots[i], placeholders);
+            if (value != null) {
+                value.appendTo(sb);
+            } else {
+                sb.append('%').append(slots[i]).append('%');
+            }
+        }
+        sb.append(literals[slots.length]);
+        return release(sb);
+    }
+
+    /**
+     * 旧形式の {@code "%name%", 値} の組で値を埋めて表示 ({@code ConfigManager#getMessage(String, String...)} 用)
+     */
+    public String renderPairs(String... replacements) {
+        if (slots.length == 0) {
+            return source;
+        }
+        StringBuilder sb = borrow();
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(literals[i]);
+            String value = findPair(slots[i], replacements);
+            if (value != null) {
+                sb.append(value);
+            } else {
+                sb.append('%').append(slots[i]).append('%');
+            }
+        }
+        sb.append(literals[slots.length]);
+        return release(sb);
+    }
+
+    private static Placeholder find(String name, Placeholder[] placeholders) {
+        for (Placeholder placeholder : placeholders) {
+            if (placeholder != null && placeholder.hasValue() && name.equals(placeholder.getName())) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+
+    private static String findPair(String name, String[] replacements) {
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            String key = replacements[i];
+            // "%" + name + "%" と比較 (文字列を作らない)
+            if (key != null && key.length() == name.length() + 2 && key.charAt(0) == '%'
+                    && key.charAt(key.length() - 1) == '%' && key.regionMatches(1, name, 0, name.length())) {
+                if (replacements[i + 1] != null) {
+                    return replacements[i + 1];
+                }
+            }
+        }
+        return null;
+    }
+
+    private static StringBuilder borrow() {
+        StringBuilder sb = BUILDERS.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    private static String release(StringBuilder sb) {
+        String result = sb.toString();
+        if (sb.capacity() > MAX_POOLED_CAPACITY) {
+            BUILDERS.set(new StringBuilder(256));
+        }
+        return result;
+    }
+
+    /** プレースホルダーを含むか */
+    public boolean hasPlaceholders() {
+        return slots.length > 0;
+    }
+
+    /** 解析前の文面 */
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
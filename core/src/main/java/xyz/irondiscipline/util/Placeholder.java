@@ -0,0 +1,51 @@
+package xyz.irondiscipline.util;
+
+/**
+ * {@link MessageTemplate} のプレースホルダーに埋める値
+ * <p>
+ * 名前は {@code %} を付けずに指定します ({@code Placeholder.of("player", name)} が {@code %player%} に入る)。
+ * 数値は文字列にせずに直接書き込みます。
+ * </p>
+ */
+public final class Placeholder {
+
+    private final String name;
+    private final String text;
+    private final long number;
+    private final boolean numeric;
+
+    private Placeholder(String name, String text, long number, boolean numeric) {
+        this.name = name;
+        this.text = text;
+        this.number = number;
+        this.numeric = numeric;
+    }
+
+    /**
+     * @param value 埋める文字列 (null の場合はプレースホルダーを残す)
+     */
+    public static Placeholder of(String name, String value) {
+        return new Placeholder(name, value, 0, false);
+    }
+
+    public static Placeholder of(String name, long value) {
+        return new Placeholder(name, null, value, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** 値があるか (null の文字列は値なし) */
+    boolean hasValue() {
+        return numeric || text != null;
+    }
+
+    void appendTo(StringBuilder sb) {
+        if (numeric) {
+            sb.append(number);
+        } else {
+            sb.append(text);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package xyz.irondiscipline.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ハッシュ化タイミングホイール (期限付きキーのスケジューラー)
+ * <p>
+ * 期限を tick 単位に丸め、{@code 期限 tick % wheelSize} のバケット (双方向リスト) に入れます。
+ * 登録・取り消しはキー → ノードの表とリストの付け替えだけで O(1) です。
+ * {@link #advance} は前回から進んだ tick 分のバケットだけを見るため、1 回のコストは
+ * 登録数ではなくそのバケットの要素数に比例します。ホイール 1 周より先の期限は
+ * バケットに残り、期限 tick に達した周回で取り出されます。
+ * </p>
+ * <p>
+ * 期限は壁時計のミリ秒 (エポック) で指定するため、再起動後も DB に保存した期限から
+ * そのまま登録し直せます。既に過ぎた期限は次の {@link #advance} で取り出されます。
+ * </p>
+ *
+ * @param <K> キー (equals / hashCode で識別)
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Node<K>[] buckets;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+
+    // 次に処理する tick
+    private long cursor;
+
+    /**
+     * @param wheelSize バケット数 (2 のべき乗に切り上げ)
+     * @param tickMillis 1 tick の長さ (ミリ秒)
+     * @param startMillis 開始時刻 (これより前の tick は処理しない)
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int wheelSize, long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize));
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new Node[size];
+        for (int i = 0; i < size; i++) {
+            Node<K> head = new Node<>(null, 0, 0);
+            head.prev = head;
+            head.next = head;
+            buckets[i] = head;
+        }
+        this.cursor = startMillis / tickMillis;
+    }
+
+    /**
+     * 期限を登録する。同じキーが登録済みなら期限を置き換える
+     *
+     * @param deadlineMillis 期限 (エポックミリ秒)
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        unlink(nodes.remove(key));
+        // 切り上げて、期限より前には取り出さない
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), cursor);
+        Node<K> node = new Node<>(key, deadlineMillis, tick);
+        Node<K> head = buckets[(int) (tick & mask)];
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+        nodes.put(key, node);
+    }
+
+    /**
+     * 登録を取り消す
+     *
+     * @return 登録されていた場合は true
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        unlink(node);
+        return node != null;
+    }
+
+    /**
+     * nowMillis までの tick を進め、期限を迎えたキーを取り出す
+     * (止まっていた時間がホイール 1 周を超えても、各バケットは 1 回だけ見る)
+     *
+     * @return 期限を迎えたキー (期限順とは限らない)
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long now = Math.floorDiv(nowMillis, tickMillis);
+        if (now < cursor) {
+            return List.of();
+        }
+        List<K> expired = new ArrayList<>();
+        long steps = Math.min(now - cursor + 1, buckets.length);
+        for (long i = 0; i < steps; i++) {
+            Node<K> head = buckets[(int) ((cursor + i) & mask)];
+            Node<K> node = head.next;
+            while (node != head) {
+                Node<K> next = node.next;
+                if (node.tick <= now) {
+                    unlink(node);
+                    nodes.remove(node.key);
+                    expired.add(node.key);
+                }
+                node = next;
+            }
+        }
+        cursor = now + 1;
+        return expired;
+    }
+
+    /**
+     * 登録されている期限 (エポックミリ秒)
+     *
+     * @return 登録されていなければ 0
+     */
+    public synchronized long getDeadline(K key) {
+        Node<K> node = nodes.get(key);
+        return node != null ? node.deadline : 0;
+    }
+
+    /** 登録数 */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public int getWheelSize() {
+        return buckets.length;
+    }
+
+    private void unlink(Node<K> node) {
+        if (node != null && node.prev != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    private static final class Node<K> {
+        final K key;
+        final long deadline;
+        final long tick;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key, long deadline, long tick) {
+            this.key = key;
+            this.deadline = deadline;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package xyz.irondiscipline.api.provider;
+
+import xyz.irondiscipline.api.model.KillLog;
+import xyz.irondiscipline.api.model.KillLogPage;
+import xyz.irondiscipline.api.model.KillLogQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IKillLogProvider の既定実装テスト
+ * 一覧取得だけを実装したプロバイダで、絞り込み・ページング・ストリームが動くことをテスト
+ */
+class KillLogProviderDefaultsTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    /** 新しい順の一覧取得だけを実装したプロバイダ */
+    private final List<KillLog> stored = new ArrayList<>();
+    private final IKillLogProvider provider = new IKillLogProvider() {
+        @Override
+        public CompletableFuture<Void> saveKillLogAsync(KillLog log) {
+            stored.add(0, log);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<List<KillLog>> getKillLogsAsync(UUID playerId, int limit) {
+            List<KillLog> logs = new ArrayList<>();
+            for (KillLog log : stored) {
+                if (logs.size() < limit && (playerId.equals(log.getKillerId()) || playerId.equals(log.getVictimId()))) {
+                    logs.add(log);
+                }
+            }
+            return CompletableFuture.completedFuture(logs);
+        }
+
+        @Override
+        public CompletableFuture<List<KillLog>> getAllKillLogsAsync(int limit) {
+            return CompletableFuture.completedFuture(new ArrayList<>(stored.subList(0, Math.min(limit, stored.size()))));
+        }
+    };
+
+    private void save(long id, UUID killer, UUID victim, String weapon) {
+        provider.saveKillLogAsync(KillLog.builder()
+                .id(id)
+                .timestamp(1_000L + id)
+                .killer(killer, "killer")
+                .victim(victim, "victim")
+                .weapon(weapon)
+                .location("world", 0, 64, 0)
+                .build());
+    }
+
+    @Test
+    void testQueryPagesThroughFilteredLogs() {
+        for (long id = 1; id <= 300; id++) {
+            save(id, id % 3 == 0 ? alice : bob, id % 3 == 0 ? bob : alice, id % 2 == 0 ? "BOW" : "SWORD");
+        }
+        KillLogQuery query = KillLogQuery.builder().killer(alice).weapon("BOW").limit(20).build();
+
+        List<Long> seen = new ArrayList<>();
+        KillLogPage page = provider.queryKillLogsAsync(query).join();
+        while (true) {
+            page.getLogs().forEach(log -> seen.add(log.getId()));
+            if (!page.hasMore()) {
+                break;
+            }
+            assertEquals(20, page.getLogs().size());
+            page = provider.queryKillLogsAsync(query.withCursor(page.getNextCursor())).join();
+        }
+
+        // id が 6 の倍数のログだけが新しい順に重複なく並ぶ
+        assertEquals(50, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(300L - 6L * i, seen.get(i).longValue());
+        }
+    }
+
+    @Test
+    void testLastFullPageHasNoMore() {
+        for (long id = 1; id <= 10; id++) {
+            save(id, alice, bob, "SWORD");
+        }
+        KillLogPage page = provider.queryKillLogsAsync(KillLogQuery.builder().limit(10).build()).join();
+        assertEquals(10, page.getLogs().size());
+        assertFalse(page.hasMore());
+
+        page = provider.queryKillLogsAsync(KillLogQuery.builder().limit(4).build()).join();
+        assertTrue(page.hasMore());
+        assertEquals(7L, page.getNextCursor().getId());
+    }
+
+    @Test
+    void testStreamVisitsEveryMatch() {
+        for (long id = 1; id <= 120; id++) {
+            save(id, id <= 30 ? alice : bob, id <= 30 ? bob : alice, "SWORD");
+        }
+        List<KillLog> streamed = new ArrayList<>();
+        long count = provider.streamKillLogsAsync(
+                KillLogQuery.builder().killer(alice).limit(7).build(), streamed::add).join();
+
+        assertEquals(30, count);
+        assertEquals(30, streamed.size());
+        assertEquals(30L, streamed.get(0).getId());
+        assertEquals(1L, streamed.get(29).getId());
+    }
+}
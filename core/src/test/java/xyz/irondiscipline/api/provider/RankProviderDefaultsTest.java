@@ -0,0 +1,103 @@
+package xyz.irondiscipline.api.provider;
+
+import xyz.irondiscipline.api.rank.CoreRanks;
+import xyz.irondiscipline.api.rank.IRank;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IRankProvider の既定実装テスト
+ * 一括設定が区切りごとに進捗を通知し、失敗を数えないことをテスト
+ */
+class RankProviderDefaultsTest {
+
+    private final Map<UUID, IRank> saved = new LinkedHashMap<>();
+    private final List<UUID> failing = new ArrayList<>();
+
+    /** 1 人ずつの設定だけを実装したプロバイダ */
+    private final IRankProvider provider = new IRankProvider() {
+        @Override
+        public IRank getRank(Player player) {
+            return CoreRanks.PRIVATE;
+        }
+
+        @Override
+        public CompletableFuture<IRank> getRankAsync(UUID playerId) {
+            return CompletableFuture.completedFuture(saved.getOrDefault(playerId, CoreRanks.PRIVATE));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> setRank(Player player, IRank newRank) {
+            return setRankByUUID(player.getUniqueId(), player.getName(), newRank);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> setRankByUUID(UUID playerId, String playerName, IRank newRank) {
+            if (failing.contains(playerId)) {
+                return CompletableFuture.failedFuture(new IllegalStateException("DB down"));
+            }
+            saved.put(playerId, newRank);
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public CompletableFuture<IRank> promote(Player player) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<IRank> demote(Player player) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean requiresPTS(Player player) {
+            return false;
+        }
+
+        @Override
+        public boolean isHigherRank(Player officer, Player target) {
+            return false;
+        }
+    };
+
+    @Test
+    void testSetRanksReportsProgressPerChunk() {
+        Map<UUID, IRank> ranks = new LinkedHashMap<>();
+        for (int i = 0; i < IRankProvider.DEFAULT_BATCH_CHUNK_SIZE * 2 + 10; i++) {
+            ranks.put(UUID.randomUUID(), CoreRanks.SERGEANT);
+        }
+        List<Integer> progress = new ArrayList<>();
+
+        int count = provider.setRanks(ranks, (completed, total) -> {
+            assertEquals(ranks.size(), total);
+            progress.add(completed);
+        }).join();
+
+        assertEquals(ranks.size(), count);
+        assertEquals(ranks.size(), saved.size());
+        assertEquals(List.of(IRankProvider.DEFAULT_BATCH_CHUNK_SIZE, IRankProvider.DEFAULT_BATCH_CHUNK_SIZE * 2,
+                ranks.size()), progress);
+    }
+
+    @Test
+    void testFailedPlayersAreNotCounted() {
+        Map<UUID, IRank> ranks = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            ranks.put(UUID.randomUUID(), CoreRanks.CAPTAIN);
+        }
+        failing.add(ranks.keySet().iterator().next());
+
+        assertEquals(4, provider.setRanks(ranks).join().intValue());
+        assertEquals(4, saved.size());
+    }
+}
@@ -0,0 +1,131 @@
+package xyz.irondiscipline.api.rank;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RankRegistry テスト
+ * インデックスによる参照と、登録・登録解除後の一貫性をテスト
+ */
+class RankRegistryTest {
+
+    private final List<String> registered = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        registered.forEach(RankRegistry::unregister);
+    }
+
+    @Test
+    void testCoreRankOrdering() {
+        assertEquals(CoreRanks.PRIVATE_FIRST_CLASS, RankRegistry.getNextRank(CoreRanks.PRIVATE));
+        assertEquals(CoreRanks.COLONEL, RankRegistry.getPreviousRank(CoreRanks.COMMANDER));
+        assertNull(RankRegistry.getNextRank(CoreRanks.COMMANDER));
+        assertNull(RankRegistry.getPreviousRank(CoreRanks.PRIVATE));
+
+        assertEquals(CoreRanks.PRIVATE, RankRegistry.fromWeight(0));
+        assertEquals(CoreRanks.CORPORAL, RankRegistry.fromWeight(25));
+        assertEquals(CoreRanks.COMMANDER, RankRegistry.fromWeight(Integer.MAX_VALUE));
+
+        assertEquals(CoreRanks.MAJOR, RankRegistry.fromId("major"));
+        assertEquals(CoreRanks.PRIVATE, RankRegistry.fromId("UNKNOWN_RANK"));
+        assertNull(RankRegistry.fromIdOrNull(null));
+    }
+
+    @Test
+    void testRegisterAndUnregisterRebuildIndex() {
+        IRank citizen = register("TEST_CITIZEN", 5, "nations");
+        IRank president = register("TEST_PRESIDENT", 200, "nations");
+
+        assertEquals(citizen, RankRegistry.fromWeight(7));
+        assertEquals(CoreRanks.PRIVATE, RankRegistry.fromWeight(3));
+        assertEquals(president, RankRegistry.fromWeight(500));
+        assertEquals(CoreRanks.COMMANDER, RankRegistry.fromWeight(199));
+        assertEquals(CoreRanks.PRIVATE, RankRegistry.getNextRank(citizen));
+        assertEquals(president, RankRegistry.getNextRank(CoreRanks.COMMANDER));
+        assertEquals(List.of(citizen, president), RankRegistry.valuesByNamespace("nations"));
+        assertTrue(RankRegistry.isRegistered("test_citizen"));
+
+        RankRegistry.unregister("TEST_PRESIDENT");
+        assertNull(RankRegistry.getNextRank(CoreRanks.COMMANDER));
+        assertEquals(CoreRanks.COMMANDER, RankRegistry.fromWeight(500));
+        assertEquals(List.of(citizen), RankRegistry.valuesByNamespace("nations"));
+        assertTrue(RankRegistry.valuesByNamespace("missing").isEmpty());
+    }
+
+    @Test
+    void testWideWeightRangeUsesBinarySearch() {
+        IRank far = register("TEST_FAR", 1_000_000, "test");
+
+        assertEquals(CoreRanks.COMMANDER, RankRegistry.fromWeight(999_999));
+        assertEquals(far, RankRegistry.fromWeight(1_000_000));
+        assertEquals(CoreRanks.SERGEANT, RankRegistry.fromWeight(35));
+    }
+
+    @Test
+    void testConcurrentRegistrationsAreAllKept() throws InterruptedException {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String id = "TEST_CONCURRENT_" + i;
+            registered.add(id);
+            int weight = 1000 + i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                RankRegistry.register(new CoreRanks.CoreRank(id, "&7[" + id + "]", weight));
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int i = 0; i < threads; i++) {
+            assertTrue(RankRegistry.isRegistered("TEST_CONCURRENT_" + i));
+        }
+        List<IRank> values = RankRegistry.values();
+        for (int i = 1; i < values.size(); i++) {
+            assertTrue(values.get(i - 1).getWeight() <= values.get(i).getWeight());
+        }
+    }
+
+    private IRank register(String id, int weight, String namespace) {
+        IRank rank = new IRank() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public String getDisplayRaw() {
+                return "&7[" + id + "]";
+            }
+
+            @Override
+            public int getWeight() {
+                return weight;
+            }
+
+            @Override
+            public String getNamespace() {
+                return namespace;
+            }
+        };
+        RankRegistry.register(rank);
+        registered.add(id);
+        return rank;
+    }
+}
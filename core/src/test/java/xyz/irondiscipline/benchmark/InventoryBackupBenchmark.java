@@ -0,0 +1,158 @@
+package xyz.irondiscipline.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import xyz.irondiscipline.util.InventoryCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * インベントリバックアップ形式の比較
+ * <p>
+ * {@code legacy*} が従来の形式 (スロットごとの Map を Java シリアライズ + Base64)、
+ * {@code binary*} が {@link InventoryCodec} の形式です。
+ * 実際の ItemStack の生成にはサーバーが必要なため、BukkitObjectOutputStream が書く
+ * シリアライズ済み Map と、serializeAsBytes が返す NBT に近い大きさの合成データを使います。
+ * 各形式のサイズはセットアップ時に出力されます。
+ * </p>
+ *
+ * 実行: {@code mvn -pl core test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=xyz.irondiscipline.benchmark.InventoryBackupBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryBackupBenchmark {
+
+    private static final String[] MATERIALS = {
+            "DIAMOND_SWORD", "IRON_CHESTPLATE", "GOLDEN_APPLE", "COOKED_BEEF", "ARROW", "STONE", "OAK_PLANKS"
+    };
+
+    /** 埋まっているスロットの割合 (%) */
+    @Param({"25", "100"})
+    public int fillPercent;
+
+    private Map<String, Object>[] legacyItems;
+    private byte[][] binaryItems;
+    private String legacyEncoded;
+    private byte[] binaryEncoded;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        int slots = 41;
+        legacyItems = new Map[slots];
+        binaryItems = new byte[slots][];
+        for (int i = 0; i < slots; i++) {
+            if ((i * 100 / slots) >= fillPercent) {
+                continue;
+            }
+            String material = MATERIALS[i % MATERIALS.length];
+            int amount = i % 3 == 0 ? 1 : 64;
+            boolean enchanted = i % 5 == 0;
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("v", 3700);
+            item.put("type", material);
+            item.put("amount", amount);
+            if (enchanted) {
+                Map<String, Object> meta = new LinkedHashMap<>();
+                meta.put("==", "ItemMeta");
+                meta.put("meta-type", "UNSPECIFIC");
+                meta.put("display-name", "{\"text\":\"Issued " + material + "\"}");
+                meta.put("enchants", Map.of("SHARPNESS", 5, "UNBREAKING", 3));
+                item.put("meta", meta);
+            }
+            legacyItems[i] = item;
+            binaryItems[i] = nbtLike(material, amount, enchanted);
+        }
+
+        legacyEncoded = legacyEncode();
+        binaryEncoded = InventoryCodec.encodeSlots(binaryItems);
+        System.out.printf("%n[fill=%d%%] legacy: %,d bytes, binary: %,d bytes%n",
+                fillPercent, legacyEncoded.length(), binaryEncoded.length);
+    }
+
+    @Benchmark
+    public String legacyEncode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(legacyItems.length);
+            for (Map<String, Object> item : legacyItems) {
+                out.writeObject(item);
+            }
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    @Benchmark
+    public Object[] legacyDecode() throws IOException, ClassNotFoundException {
+        byte[] bytes = Base64.getDecoder().decode(legacyEncoded);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            Object[] items = new Object[in.readInt()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = in.readObject();
+            }
+            return items;
+        }
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return InventoryCodec.encodeSlots(binaryItems);
+    }
+
+    @Benchmark
+    public byte[][] binaryDecode() {
+        return InventoryCodec.decodeSlots(binaryEncoded);
+    }
+
+    /**
+     * serializeAsBytes の出力 (DataVersion + id + Count + tag の NBT) に近いバイト列
+     */
+    private static byte[] nbtLike(String material, int amount, boolean enchanted) {
+        StringBuilder nbt = new StringBuilder()
+                .append("\n\u0000\u0000\u0003\u0000\u000bDataVersion\u0000\u0000\u000et")
+                .append("\b\u0000\u0002id\u0000").append("minecraft:").append(material.toLowerCase())
+                .append("\u0001\u0000\u0005Count").append((char) amount);
+        if (enchanted) {
+            nbt.append("\n\u0000\u0003tag\t\u0000\u000cEnchantments\n\u0000\u0000\u0000\u0002")
+                    .append("\b\u0000\u0002id\u0000\u0013minecraft:sharpness\u0002\u0000\u0003lvl\u0000\u0005\u0000")
+                    .append("\b\u0000\u0002id\u0000\u0014minecraft:unbreaking\u0002\u0000\u0003lvl\u0000\u0003\u0000")
+                    .append("\n\u0000\u0007display\b\u0000\u0004Name\u0000 {\"text\":\"Issued ")
+                    .append(material).append("\"}\u0000\u0000");
+        }
+        return nbt.append('\u0000').toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InventoryBackupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
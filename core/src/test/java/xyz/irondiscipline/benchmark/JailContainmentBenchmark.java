@@ -0,0 +1,156 @@
+package xyz.irondiscipline.benchmark;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import xyz.irondiscipline.manager.JailContainment;
+import xyz.irondiscipline.model.JailRegion;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 隔離中プレイヤーの PlayerMoveEvent 処理の比較 (1 操作 = 移動イベント 1 件)
+ * <p>
+ * {@code legacy} が従来の処理 (毎回設定を読んで Location を作り、distance() で比較)、
+ * {@code containment} が {@link JailContainment#isSameBlock} で回転・同じブロック内の移動を除き、
+ * ブロックをまたいだ移動だけを {@link JailRegion} の境界と比較する処理です。
+ * イベントの内訳は実測に近い、視点の回転のみ 80%、同じブロック内の移動 15%、ブロックをまたぐ移動 5% です。
+ * </p>
+ *
+ * 実行: {@code mvn -pl core test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=xyz.irondiscipline.benchmark.JailContainmentBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JailContainmentBenchmark {
+
+    private static final int EVENTS = 4096;
+
+    /** 移動したプレイヤーのうち隔離中の割合 (%) */
+    @Param({"1", "100"})
+    public int jailedPercent;
+
+    private World world;
+    private YamlConfiguration config;
+    private Map<String, World> worlds;
+    private JailRegion region;
+    private Set<UUID> jailed;
+    private UUID[] players;
+    private Location[] from;
+    private Location[] to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] { World.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> "world";
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> null;
+                });
+        worlds = Map.of("world", world);
+        config = new YamlConfiguration();
+        config.set("jail.location.world", "world");
+        config.set("jail.location.x", 100.0);
+        config.set("jail.location.y", 64.0);
+        config.set("jail.location.z", 100.0);
+        region = JailRegion.sphere("world", 100, 64, 100, 10);
+
+        Random random = new Random(42);
+        jailed = new HashSet<>();
+        players = new UUID[EVENTS];
+        from = new Location[EVENTS];
+        to = new Location[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            players[i] = UUID.randomUUID();
+            if (random.nextInt(100) < jailedPercent) {
+                jailed.add(players[i]);
+            }
+            double x = 100 + random.nextInt(8) + 0.5;
+            double z = 100 + random.nextInt(8) + 0.5;
+            from[i] = new Location(world, x, 64, z, random.nextFloat() * 360, 0);
+            int kind = random.nextInt(100);
+            if (kind < 80) {
+                to[i] = new Location(world, x, 64, z, random.nextFloat() * 360, random.nextFloat() * 90);
+            } else if (kind < 95) {
+                to[i] = new Location(world, x + 0.2, 64, z - 0.2, from[i].getYaw(), 0);
+            } else {
+                to[i] = new Location(world, x + 1, 64, z + random.nextInt(6), from[i].getYaw(), 0);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int legacy() {
+        int teleports = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            if (!jailed.contains(players[i])) {
+                continue;
+            }
+            // ConfigManager.getJailLocation() と同じ読み込み
+            String worldName = config.getString("jail.location.world", "world");
+            double x = config.getDouble("jail.location.x", 0);
+            double y = config.getDouble("jail.location.y", 64);
+            double z = config.getDouble("jail.location.z", 0);
+            World jailWorld = worlds.get(worldName);
+            if (jailWorld == null) {
+                continue;
+            }
+            Location jailLocation = new Location(jailWorld, x, y, z);
+            // player.getLocation() は毎回新しい Location を返す
+            if (to[i].clone().distance(jailLocation) > 10) {
+                teleports++;
+            }
+        }
+        return teleports;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int containment() {
+        int teleports = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            Location next = to[i];
+            if (JailContainment.isSameBlock(from[i], next) || !jailed.contains(players[i])) {
+                continue;
+            }
+            if (!region.contains(next.getWorld().getName(), next.getX(), next.getY(), next.getZ())) {
+                teleports++;
+            }
+        }
+        return teleports;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JailContainmentBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package xyz.irondiscipline.benchmark;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import xyz.irondiscipline.util.MessageTemplate;
+import xyz.irondiscipline.util.Placeholder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * メッセージ組み立ての比較 (1 操作 = メッセージ 1 件)
+ * <p>
+ * {@code legacy*} が従来の {@code ConfigManager#getMessage} (毎回 YAML を参照し、接頭辞と本文を色コード変換して
+ * {@code String.replace} を連鎖) と無線フォーマットの組み立て、{@code template*} が読み込み時に解析した
+ * {@link MessageTemplate} に値を埋めるだけの処理です。
+ * </p>
+ *
+ * 実行: {@code mvn -pl core test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=xyz.irondiscipline.benchmark.MessageTemplateBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageTemplateBenchmark {
+
+    private static final String RADIO_FORMAT = "&8[&b無線 %freq%&8] &7%rank% %player%&8: &f%message%";
+
+    private YamlConfiguration messages;
+    private MessageTemplate scoreTemplate;
+    private MessageTemplate radioTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        messages = new YamlConfiguration();
+        messages.set("prefix", "&8[&cIronDiscipline&8] ");
+        messages.set("exam_quiz_score", "&e%player% の得点: &f%score% &7/ &f%total%");
+        scoreTemplate = MessageTemplate.compile(colorize(messages.getString("prefix"))
+                + colorize(messages.getString("exam_quiz_score")));
+        radioTemplate = MessageTemplate.compile(colorize(RADIO_FORMAT));
+    }
+
+    @Benchmark
+    public String legacyMessage() {
+        String message = colorize(messages.getString("exam_quiz_score"));
+        String fullMessage = colorize(messages.getString("prefix", "")) + message;
+        String[] replacements = { "%player%", "Soldier_42", "%score%", String.valueOf(8), "%total%", String.valueOf(10) };
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            fullMessage = fullMessage.replace(replacements[i], replacements[i + 1]);
+        }
+        return fullMessage;
+    }
+
+    @Benchmark
+    public String templateMessage() {
+        return scoreTemplate.render(
+                Placeholder.of("player", "Soldier_42"),
+                Placeholder.of("score", 8),
+                Placeholder.of("total", 10));
+    }
+
+    @Benchmark
+    public String legacyRadio() {
+        return ChatColor.translateAlternateColorCodes('&', RADIO_FORMAT
+                .replace("%freq%", "118.0")
+                .replace("%rank%", "§7[一等兵]")
+                .replace("%player%", "Soldier_42")
+                .replace("%message%", "北側の門を確保した"));
+    }
+
+    @Benchmark
+    public String templateRadio() {
+        return radioTemplate.render(
+                Placeholder.of("freq", "118.0"),
+                Placeholder.of("rank", "§7[一等兵]"),
+                Placeholder.of("player", "Soldier_42"),
+                Placeholder.of("message", colorize("北側の門を確保した")));
+    }
+
+    private static String colorize(String text) {
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MessageTemplateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
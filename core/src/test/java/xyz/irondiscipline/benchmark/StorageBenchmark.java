@@ -0,0 +1,169 @@
+package xyz.irondiscipline.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.Query;
+import xyz.irondiscipline.database.QueryRegistry;
+import xyz.irondiscipline.database.SqlDialect;
+import xyz.irondiscipline.database.UuidCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ステートメントキャッシュの効果測定
+ * <p>
+ * {@code statementCacheSize=0} が従来の挙動 (呼び出しごとに prepareStatement)、
+ * {@code 64} がキャッシュ有効時です。H2 インメモリ DB に対して
+ * setRank / getRank / saveKillLog 相当の SQL を実行します。
+ * </p>
+ *
+ * 実行: {@code mvn -pl core test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=xyz.irondiscipline.benchmark.StorageBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    private static final int PLAYERS = 1000;
+
+    @Param({"0", "64"})
+    public int statementCacheSize;
+
+    private ConnectionPool pool;
+    private QueryRegistry queries;
+    private UUID[] players;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:bench_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url)
+                .credentials("sa", "")
+                .maxSize(1)
+                .statementCacheSize(statementCacheSize)
+                .build();
+        pool.start();
+        queries = QueryRegistry.of(SqlDialect.H2);
+
+        try (Connection conn = pool.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                        CREATE TABLE player_ranks (
+                            player_id BINARY(16) PRIMARY KEY,
+                            player_name VARCHAR(32),
+                            rank_id VARCHAR(32) NOT NULL DEFAULT 'PRIVATE',
+                            updated_at BIGINT NOT NULL
+                        )
+                    """);
+            stmt.execute("""
+                        CREATE TABLE kill_logs (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            timestamp BIGINT NOT NULL,
+                            killer_id BINARY(16),
+                            killer_name VARCHAR(32),
+                            victim_id BINARY(16) NOT NULL,
+                            victim_name VARCHAR(32) NOT NULL,
+                            weapon VARCHAR(64),
+                            distance DOUBLE,
+                            world VARCHAR(64),
+                            x DOUBLE,
+                            y DOUBLE,
+                            z DOUBLE
+                        )
+                    """);
+        }
+
+        players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            setRank(players[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public void setRank() throws SQLException {
+        setRank(randomPlayer());
+    }
+
+    @Benchmark
+    public void getRank(Blackhole bh) throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = queries.prepare(conn, Query.RANK_SELECT)) {
+            ps.setBytes(1, UuidCodec.toBytes(randomPlayer()));
+            try (ResultSet rs = ps.executeQuery()) {
+                bh.consume(rs.next() ? rs.getString(1) : null);
+            }
+        }
+    }
+
+    @Benchmark
+    public void saveKillLog() throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = queries.prepare(conn, Query.KILL_LOG_INSERT)) {
+            ps.setLong(1, System.currentTimeMillis());
+            ps.setBytes(2, UuidCodec.toBytes(randomPlayer()));
+            ps.setString(3, "Killer");
+            ps.setBytes(4, UuidCodec.toBytes(randomPlayer()));
+            ps.setString(5, "Victim");
+            ps.setString(6, "IRON_SWORD");
+            ps.setDouble(7, 3.5);
+            ps.setString(8, "world");
+            ps.setDouble(9, 0);
+            ps.setDouble(10, 64);
+            ps.setDouble(11, 0);
+            ps.executeUpdate();
+        }
+    }
+
+    private void setRank(UUID playerId) throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = queries.prepare(conn, Query.RANK_UPSERT)) {
+            ps.setBytes(1, UuidCodec.toBytes(playerId));
+            ps.setString(2, "Player");
+            ps.setString(3, "SERGEANT");
+            ps.setLong(4, System.currentTimeMillis());
+            ps.executeUpdate();
+        }
+    }
+
+    private UUID randomPlayer() {
+        return players[ThreadLocalRandom.current().nextInt(PLAYERS)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StorageBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,197 @@
+package xyz.irondiscipline.database;
+
+import xyz.irondiscipline.database.migration.SchemaMigrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTransportTest {
+
+    private ConnectionPool pool;
+    private ExecutorService executor;
+    private ChangeLogTransport serverA;
+    private ChangeLogTransport serverB;
+    private final List<CacheChange> receivedA = new CopyOnWriteArrayList<>();
+    private final List<CacheChange> receivedB = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:h2:mem:changelog_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url).credentials("sa", "").maxSize(2).build();
+        pool.start();
+        new SchemaMigrator(pool, SqlDialect.H2, Logger.getLogger("TestLogger")).migrate();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (serverA != null) {
+            serverA.close();
+        }
+        if (serverB != null) {
+            serverB.close();
+        }
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    @Test
+    void testChangesAreDeliveredToOtherServersOnly() throws Exception {
+        UUID before = UUID.randomUUID();
+        serverA = transport("server-a", 5000);
+        serverA.publish(CacheChange.of("server-a", CacheChange.Kind.RANK, before, "MAJOR")).join();
+
+        // 起動前の変更は読まない
+        serverB = transport("server-b", 5000);
+        serverA.start(receivedA::addAll);
+        serverB.start(receivedB::addAll);
+        awaitPolls();
+        assertEquals(1, serverB.getCursor());
+
+        UUID playerId = UUID.randomUUID();
+        serverA.publish(CacheChange.of("server-a", CacheChange.Kind.RANK, playerId, "CAPTAIN")).join();
+        serverA.publish(CacheChange.of("server-a", CacheChange.Kind.JAIL, playerId, "1")).join();
+        serverB.publish(CacheChange.of("server-b", CacheChange.Kind.WARNING, playerId, null)).join();
+        poll();
+
+        assertEquals(2, receivedB.size());
+        assertEquals(CacheChange.Kind.RANK, receivedB.get(0).getKind());
+        assertEquals("CAPTAIN", receivedB.get(0).getPayload());
+        assertEquals(playerId, receivedB.get(0).getPlayerId());
+        assertEquals("server-a", receivedB.get(0).getServerId());
+        assertTrue(receivedB.get(0).getVersion() < receivedB.get(1).getVersion());
+
+        assertEquals(1, receivedA.size());
+        assertEquals(CacheChange.Kind.WARNING, receivedA.get(0).getKind());
+        assertNull(receivedA.get(0).getPayload());
+        assertEquals(4, serverA.getCursor());
+        assertEquals(4, serverB.getCursor());
+    }
+
+    @Test
+    void testFullBatchIsFollowedByAnotherRead() throws Exception {
+        serverA = transport("server-a", 5000);
+        serverB = ChangeLogTransport.builder(pool, QueryRegistry.of(SqlDialect.H2), executor)
+                .serverId("server-b")
+                .pollInterval(0)
+                .batchSize(2)
+                .build();
+        serverB.start(receivedB::addAll);
+        awaitPolls();
+
+        for (int i = 0; i < 5; i++) {
+            serverA.publish(CacheChange.of("server-a", CacheChange.Kind.DIVISION, UUID.randomUUID(), "mp")).join();
+        }
+        serverB.requestPoll();
+        awaitPolls();
+
+        assertEquals(5, receivedB.size());
+        assertEquals(5, serverB.getCursor());
+    }
+
+    @Test
+    void testNextPollWaitsUntilBatchIsDelivered() throws Exception {
+        serverA = transport("server-a", 5000);
+        serverB = transport("server-b", 5000);
+        List<Boolean> pollDuringDelivery = new CopyOnWriteArrayList<>();
+        serverB.start(changes -> {
+            // 配信中は次の受信を予約できない (バッチの順序が入れ替わらない)
+            pollDuringDelivery.add(serverB.requestPoll());
+            receivedB.addAll(changes);
+        });
+        awaitPolls();
+
+        serverA.publish(CacheChange.of("server-a", CacheChange.Kind.RANK, UUID.randomUUID(), "MAJOR")).join();
+        serverB.requestPoll();
+        awaitPolls();
+
+        assertEquals(List.of(false), pollDuringDelivery);
+        assertEquals(1, receivedB.size());
+        assertTrue(serverB.requestPoll());
+        awaitPolls();
+    }
+
+    @Test
+    void testGapIsHeldUntilFilledOrExpired() throws Exception {
+        serverB = transport("server-b", 60_000);
+        serverB.start(receivedB::addAll);
+        awaitPolls();
+
+        // id 2 のコミットが id 3 より遅れた場合
+        insert(1);
+        insert(3);
+        poll();
+        assertEquals(List.of(1L), versions(receivedB));
+
+        insert(2);
+        poll();
+        assertEquals(List.of(1L, 2L, 3L), versions(receivedB));
+        assertEquals(0, serverB.getSkippedGapCount());
+
+        // 待ち時間を過ぎた欠番は飛ばす
+        ChangeLogTransport shortGrace = transport("server-c", 1);
+        List<CacheChange> receivedC = new CopyOnWriteArrayList<>();
+        shortGrace.start(receivedC::addAll);
+        awaitPolls();
+        insert(5);
+        shortGrace.requestPoll();
+        awaitPolls();
+        assertTrue(receivedC.isEmpty());
+        Thread.sleep(10);
+        shortGrace.requestPoll();
+        awaitPolls();
+        shortGrace.close();
+
+        assertEquals(List.of(5L), versions(receivedC));
+        assertEquals(1, shortGrace.getSkippedGapCount());
+    }
+
+    private ChangeLogTransport transport(String serverId, long gapGrace) {
+        return ChangeLogTransport.builder(pool, QueryRegistry.of(SqlDialect.H2), executor)
+                .serverId(serverId)
+                .pollInterval(0)
+                .gapGrace(gapGrace)
+                .build();
+    }
+
+    private void poll() throws Exception {
+        if (serverA != null) {
+            serverA.requestPoll();
+        }
+        serverB.requestPoll();
+        awaitPolls();
+    }
+
+    /** DB スレッドに積まれた受信 (続きの読み込みを含む) が終わるまで待つ */
+    private void awaitPolls() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            executor.submit(() -> { }).get();
+        }
+    }
+
+    private void insert(long id) throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO change_log (id, server_id, kind, player_id, payload, created_at) VALUES (?, 'server-a', 'WARNING', ?, NULL, 1)")) {
+            ps.setLong(1, id);
+            ps.setBytes(2, UuidCodec.toBytes(UUID.randomUUID()));
+            ps.executeUpdate();
+        }
+    }
+
+    private static List<Long> versions(List<CacheChange> changes) {
+        return changes.stream().map(CacheChange::getVersion).toList();
+    }
+}
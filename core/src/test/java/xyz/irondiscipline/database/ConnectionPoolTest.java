@@ -0,0 +1,250 @@
+package xyz.irondiscipline.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:h2:mem:pool_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url)
+                .credentials("sa", "")
+                .maxSize(2)
+                .acquireTimeout(200)
+                .statementCacheSize(2)
+                .build();
+        pool.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testLeaseIsReturnedOnClose() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(1, pool.getActiveCount());
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT 1")) {
+                assertTrue(rs.next());
+            }
+        }
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount(), "Physical connection should be kept for reuse");
+        assertEquals(1, pool.getOpenCount());
+    }
+
+    @Test
+    void testClosedLeaseCannotBeUsed() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close(); // 二重 close は無視される
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    void testAcquireTimesOutWhenExhausted() throws SQLException {
+        try (Connection first = pool.getConnection();
+                Connection second = pool.getConnection()) {
+            assertEquals(2, pool.getActiveCount());
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+            assertEquals(1, pool.getLeaseTimeouts());
+        }
+        // 返却後は再び取得できる
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+    }
+
+    @Test
+    void testUncommittedTransactionIsRolledBackOnReturn() throws SQLException {
+        try (Connection conn = pool.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INT)");
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO t VALUES (1)");
+            }
+        }
+        try (Connection conn = pool.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(conn.getAutoCommit(), "Auto-commit should be restored for the next lease");
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testBrokenConnectionIsReplaced() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            // 貸し出し中に物理接続が切断された状況を再現する
+            conn.unwrap(Connection.class).close();
+        }
+        try (Connection conn = pool.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            assertTrue(rs.next());
+        }
+        assertEquals(1, pool.getOpenCount());
+    }
+
+    @Test
+    void testPreparedStatementsAreReusedPerConnection() throws SQLException {
+        String sql = "SELECT CAST(? AS INT) + 1";
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, i);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(i + 1, rs.getInt(1));
+                }
+            }
+        }
+        assertEquals(1, pool.getStatementCacheMisses());
+        assertEquals(2, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void testSameStatementInUseIsNotShared() throws SQLException {
+        String sql = "SELECT CAST(? AS INT)";
+        try (Connection conn = pool.getConnection();
+                PreparedStatement outer = conn.prepareStatement(sql);
+                PreparedStatement inner = conn.prepareStatement(sql)) {
+            assertNotSame(outer, inner);
+            outer.setInt(1, 1);
+            inner.setInt(1, 2);
+            try (ResultSet a = outer.executeQuery(); ResultSet b = inner.executeQuery()) {
+                assertTrue(a.next());
+                assertTrue(b.next());
+                assertEquals(1, a.getInt(1));
+                assertEquals(2, b.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void testClosedStatementCannotBeUsed() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement ps = conn.prepareStatement("SELECT 1");
+            ps.close();
+            assertTrue(ps.isClosed());
+            assertThrows(SQLException.class, ps::executeQuery);
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            for (String sql : new String[] { "SELECT 1", "SELECT 2", "SELECT 3", "SELECT 1" }) {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.executeQuery().close();
+                }
+            }
+        }
+        // キャッシュ上限 2 のため "SELECT 1" は "SELECT 3" の準備時に追い出される
+        assertEquals(4, pool.getStatementCacheMisses());
+        assertEquals(0, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void testLeakedLeaseIsReportedOnce() throws Exception {
+        List<LogRecord> records = new ArrayList<>();
+        Logger logger = Logger.getLogger("ConnectionPoolTest.leak");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        try (ConnectionPool leaky = ConnectionPool.builder("jdbc:h2:mem:leak_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .credentials("sa", "")
+                .maxSize(2)
+                .leakThreshold(20)
+                .logger(logger)
+                .build()) {
+            leaky.start();
+            Connection held = leaky.getConnection();
+            try (Connection quick = leaky.getConnection()) {
+                assertFalse(quick.isClosed());
+            }
+            Thread.sleep(50);
+
+            leaky.checkLeaks();
+            leaky.checkLeaks();
+            assertEquals(1, leaky.getLeakWarnings(), "Each lease should be reported only once");
+            LogRecord warning = records.stream().filter(r -> r.getLevel() == Level.WARNING).findFirst().orElseThrow();
+            assertNotNull(warning.getThrown(), "The warning should point at the code that leased the connection");
+
+            held.close();
+            assertEquals(0, leaky.getActiveCount());
+        }
+    }
+
+    @Test
+    void testSharedConnectionIsOutsideThePool() throws SQLException {
+        Connection shared = pool.getSharedConnection();
+        try (Statement stmt = shared.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            assertTrue(rs.next());
+        }
+        // 旧 API の利用者が close() しても共有接続は使い続けられる
+        shared.close();
+        assertFalse(shared.isClosed());
+        assertSame(shared, pool.getSharedConnection());
+        assertEquals(0, pool.getActiveCount());
+
+        // プールの上限は共有接続に消費されない
+        try (Connection first = pool.getConnection();
+                Connection second = pool.getConnection()) {
+            assertEquals(2, pool.getActiveCount());
+        }
+
+        pool.close();
+        assertTrue(shared.isClosed());
+        assertThrows(SQLException.class, shared::createStatement);
+    }
+
+    @Test
+    void testClosedPoolRejectsLeases() {
+        pool.close();
+        assertThrows(SQLException.class, pool::getConnection);
+    }
+}
@@ -0,0 +1,92 @@
+package xyz.irondiscipline.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DbExecutor テスト
+ */
+class DbExecutorTest {
+
+    private DbExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new DbExecutor(Executors.newFixedThreadPool(4), 8);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testSameKeyRunsInSubmissionOrder() throws Exception {
+        UUID playerId = UUID.randomUUID();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (n % 7 == 0) {
+                    Thread.yield();
+                }
+                order.add(n);
+            }, executor.forKey(playerId)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, order.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+    }
+
+    @Test
+    void testDifferentKeysRunConcurrently() throws Exception {
+        // 同じ列に入らない 2 つのキーを探す
+        Object first = UUID.randomUUID();
+        Object second = UUID.randomUUID();
+        while (executor.forKey(first) == executor.forKey(second)) {
+            second = UUID.randomUUID();
+        }
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, executor.forKey(first));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // 別のキーは待たされない
+        CompletableFuture.runAsync(() -> { }, executor.forKey(second)).get(5, TimeUnit.SECONDS);
+        assertFalse(blocked.isDone());
+
+        release.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testWrapReusesInstance() {
+        assertSame(executor, DbExecutor.wrap(executor));
+        assertSame(executor, executor.forKey(null));
+    }
+}
@@ -0,0 +1,214 @@
+package xyz.irondiscipline.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetentionSweeperTest {
+
+    private ConnectionPool pool;
+    private ExecutorService executor;
+    private RetentionSweeper sweeper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:h2:mem:sweep_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url).credentials("sa", "").maxSize(2).build();
+        pool.start();
+        executor = Executors.newSingleThreadExecutor();
+
+        try (Connection conn = pool.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE events (id BIGINT AUTO_INCREMENT PRIMARY KEY, timestamp BIGINT NOT NULL)");
+            stmt.execute("CREATE TABLE holds (player_id BINARY(16) PRIMARY KEY, held_at BIGINT NOT NULL, backup TEXT)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sweeper != null) {
+            sweeper.close();
+        }
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    @Test
+    void testExpiredRowsAreDeletedInChunks() throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = conn.prepareStatement("INSERT INTO events (timestamp) VALUES (?)")) {
+            for (int i = 0; i < 25; i++) {
+                // 期限切れ (timestamp < 100) と新しい行を交互に
+                ps.setLong(1, i % 5 == 0 ? 500 : i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        sweeper = RetentionSweeper.builder(pool, executor)
+                .chunkSize(4)
+                .pause(0)
+                .target(new RetentionSweeper.Target("events", "events", "id", "timestamp < ?", () -> 100))
+                .build();
+
+        assertEquals(20, sweeper.requestRun().join());
+        assertEquals(5, count("SELECT COUNT(*) FROM events"));
+        assertEquals(0, count("SELECT COUNT(*) FROM events WHERE timestamp < 100"));
+
+        assertFalse(sweeper.isRunning());
+        assertEquals(0, sweeper.getBacklog());
+        assertEquals(20, sweeper.getLastRunRows());
+        assertTrue(sweeper.getLastRunAt() > 0);
+        // 20 行を 4 行ずつ + 空振り 1 回
+        assertEquals(6, sweeper.getChunkCount());
+        assertEquals(Map.of("events", 20L), sweeper.getDeletedByTarget());
+
+        // 2 回目は何も削除しない
+        assertEquals(0, sweeper.requestRun().join());
+        assertEquals(20, sweeper.getTotalDeleted());
+    }
+
+    @Test
+    void testBinaryKeysAndDisabledTargets() throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = conn.prepareStatement("INSERT INTO holds (player_id, held_at, backup) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < 7; i++) {
+                ps.setBytes(1, UuidCodec.toBytes(UUID.randomUUID()));
+                ps.setLong(2, 10);
+                ps.setString(3, i < 2 ? "items" : null);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        sweeper = RetentionSweeper.builder(pool, executor)
+                .chunkSize(2)
+                .pause(0)
+                .target(new RetentionSweeper.Target("events", "events", "id", "timestamp < ?", () -> 0))
+                .target(new RetentionSweeper.Target("holds", "holds", "player_id",
+                        "held_at < ? AND backup IS NULL", () -> 100))
+                .build();
+
+        assertEquals(5, sweeper.requestRun().join());
+        assertEquals(2, count("SELECT COUNT(*) FROM holds"));
+        assertEquals(0L, sweeper.getDeletedByTarget().get("events"));
+    }
+
+    @Test
+    void testUnexpectedExceptionDoesNotStallTheRun() throws Exception {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = conn.prepareStatement("INSERT INTO events (timestamp) VALUES (?)")) {
+            for (int i = 0; i < 3; i++) {
+                ps.setLong(1, i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        sweeper = RetentionSweeper.builder(pool, executor)
+                .chunkSize(2)
+                .pause(0)
+                .target(new RetentionSweeper.Target("broken", "events", "id", "timestamp < ?", () -> {
+                    throw new IllegalStateException("config not loaded");
+                }))
+                .build();
+
+        assertEquals(0, sweeper.requestRun().get(5, TimeUnit.SECONDS));
+        assertFalse(sweeper.isRunning());
+
+        // 次のスイープは通常どおり受け付ける
+        assertEquals(0, sweeper.requestRun().get(5, TimeUnit.SECONDS));
+        assertEquals(3, count("SELECT COUNT(*) FROM events"));
+    }
+
+    @Test
+    void testBacklogIsReprobedAfterEachChunk() throws Exception {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = conn.prepareStatement("INSERT INTO events (timestamp) VALUES (?)")) {
+            for (int i = 0; i < 13; i++) {
+                ps.setLong(1, i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        // 各チャンクの直後に、残件数の下限と実際の残件数を記録する
+        List<long[]> samples = new ArrayList<>();
+        ExecutorService sampling = new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                executor.execute(() -> {
+                    command.run();
+                    try {
+                        samples.add(new long[] { sweeper.getBacklog(), count("SELECT COUNT(*) FROM events") });
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return List.of();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return true;
+            }
+        };
+        sweeper = RetentionSweeper.builder(pool, sampling)
+                .chunkSize(4)
+                .pause(0)
+                .target(new RetentionSweeper.Target("events", "events", "id", "timestamp < ?", () -> 100))
+                .build();
+
+        assertEquals(13, sweeper.requestRun().get(5, TimeUnit.SECONDS));
+        executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        assertFalse(samples.isEmpty());
+        for (long[] sample : samples) {
+            // 削除が残っている間は 0 にならず、chunkSize を超えない
+            assertEquals(Math.min(4, sample[1]), sample[0]);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Connection conn = pool.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
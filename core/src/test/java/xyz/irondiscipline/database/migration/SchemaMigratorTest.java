@@ -0,0 +1,168 @@
+package xyz.irondiscipline.database.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.KillLogPartitions;
+import xyz.irondiscipline.database.SqlDialect;
+import xyz.irondiscipline.database.UuidCodec;
+import xyz.irondiscipline.util.InventoryCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    private ConnectionPool pool;
+    private SchemaMigrator migrator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:h2:mem:migrate_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url).credentials("sa", "").maxSize(2).build();
+        pool.start();
+        migrator = new SchemaMigrator(pool, SqlDialect.H2, Logger.getLogger("SchemaMigratorTest"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testFreshDatabaseIsMigratedToLatest() throws SQLException {
+        assertEquals(SchemaMigrator.getLatestVersion(), migrator.migrate());
+        assertEquals(SchemaMigrator.getLatestVersion(), migrator.getCurrentVersion());
+
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(MigrationSupport.isBinaryColumn(conn, "player_ranks", "player_id"));
+            assertTrue(MigrationSupport.isBinaryColumn(conn, "kill_logs", "victim_id"));
+            assertTrue(MigrationSupport.isBinaryColumn(conn, "change_log", "player_id"));
+            assertTrue(MigrationSupport.indexExists(conn, "rank_history", "idx_rank_history_player"));
+            assertTrue(MigrationSupport.columnExists(conn, "jailed_players", "cell"));
+            assertTrue(MigrationSupport.columnExists(conn, "jailed_players", "expires_at"));
+            assertTrue(MigrationSupport.isBlobColumn(conn, "jail_backups", "inventory_backup"));
+            assertFalse(MigrationSupport.columnExists(conn, "jailed_players", "inventory_backup"));
+            // H2 の kill_logs は月バケットを束ねるビュー
+            assertTrue(MigrationSupport.isView(conn, "kill_logs"));
+            String bucket = KillLogPartitions.bucketTable(YearMonth.now(ZoneOffset.UTC));
+            assertTrue(MigrationSupport.indexExists(conn, bucket, "idx_" + bucket + "_victim"));
+        }
+
+        // 2 回目は何もしない
+        assertEquals(0, migrator.migrate());
+    }
+
+    @Test
+    void testLegacyRowsAreConvertedToBinary() throws SQLException {
+        UUID ranked = UUID.randomUUID();
+        UUID killer = UUID.randomUUID();
+        UUID victim = UUID.randomUUID();
+        UUID jailed = UUID.randomUUID();
+
+        try (Connection conn = pool.getConnection()) {
+            new BaselineMigration().migrate(conn, SqlDialect.H2, Logger.getLogger("SchemaMigratorTest"));
+            MigrationSupport.execute(conn, "INSERT INTO player_ranks (player_id, player_name, rank_id, updated_at) "
+                    + "VALUES ('" + ranked + "', 'Ranked', 'SERGEANT', 1)");
+            MigrationSupport.execute(conn, "INSERT INTO player_ranks (player_id, player_name, rank_id, updated_at) "
+                    + "VALUES ('not-a-uuid', 'Broken', 'PRIVATE', 1)");
+            for (int i = 0; i < 3; i++) {
+                MigrationSupport.execute(conn, "INSERT INTO kill_logs (timestamp, killer_id, killer_name, victim_id, "
+                        + "victim_name, weapon, distance, world, x, y, z) VALUES (" + i + ", '" + killer + "', 'K', '"
+                        + victim + "', 'V', 'IRON_SWORD', 1.0, 'world', 0, 0, 0)");
+            }
+            MigrationSupport.execute(conn, "INSERT INTO jailed_players (player_id, player_name, jailed_at, "
+                    + "inventory_backup) VALUES ('" + jailed + "', 'Jailed', 1, 'rO0ABXcEAAAAAA==')");
+        }
+
+        migrator.migrate();
+
+        try (Connection conn = pool.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT rank_id FROM player_ranks WHERE player_id = ?")) {
+                ps.setBytes(1, UuidCodec.toBytes(ranked));
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals("SERGEANT", rs.getString(1));
+                }
+            }
+            assertEquals(1, count(conn, "player_ranks"), "Unparseable UUIDs should be skipped");
+            // 現在の階級が履歴の初期値になる
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT old_rank, new_rank, changed_at FROM rank_history WHERE player_id = ?")) {
+                ps.setBytes(1, UuidCodec.toBytes(ranked));
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertNull(rs.getString(1));
+                    assertEquals("SERGEANT", rs.getString(2));
+                    assertEquals(1, rs.getLong(3));
+                }
+            }
+            assertEquals(3, count(conn, "kill_logs"));
+            assertFalse(MigrationSupport.tableExists(conn, "kill_logs_legacy"));
+
+            // 旧形式の Base64 バックアップは ASCII のバイト列として BLOB に移り、jail_backups に分離される
+            assertFalse(MigrationSupport.columnExists(conn, "jailed_players", "armor_backup"));
+            assertEquals(1, count(conn, "jailed_players"));
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT inventory_backup, armor_backup FROM jail_backups WHERE player_id = ?")) {
+                ps.setBytes(1, UuidCodec.toBytes(jailed));
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    byte[] backup = rs.getBytes(1);
+                    assertArrayEquals("rO0ABXcEAAAAAA==".getBytes(StandardCharsets.US_ASCII), backup);
+                    assertTrue(InventoryCodec.isLegacy(backup));
+                    assertNull(rs.getBytes(2));
+                }
+            }
+
+            // 採番はコピーした ID の続きから (バケット間で共有するシーケンス)
+            assertTrue(MigrationSupport.isView(conn, "kill_logs"));
+            MigrationSupport.execute(conn, "INSERT INTO kill_logs_197001 (timestamp, victim_id, victim_name) VALUES (9, X'"
+                    + "00000000000000000000000000000000', 'V')");
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT MAX(id), MIN(victim_id) FROM kill_logs WHERE timestamp < 9")) {
+                assertTrue(rs.next());
+                assertEquals(3, rs.getLong(1));
+                assertEquals(victim, UuidCodec.fromBytes(rs.getBytes(2)));
+            }
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT id FROM kill_logs WHERE timestamp = 9")) {
+                assertTrue(rs.next());
+                assertEquals(4, rs.getLong(1));
+            }
+        }
+    }
+
+    @Test
+    void testUuidCodecRoundTrip() {
+        UUID uuid = UUID.randomUUID();
+        byte[] bytes = UuidCodec.toBytes(uuid);
+        assertEquals(UuidCodec.LENGTH, bytes.length);
+        assertEquals(uuid, UuidCodec.fromBytes(bytes));
+        assertArrayEquals(bytes, UuidCodec.fromLegacyString(uuid.toString()));
+        assertNull(UuidCodec.toBytes(null));
+        assertNull(UuidCodec.fromBytes(null));
+        assertThrows(IllegalArgumentException.class, () -> UuidCodec.fromBytes(new byte[4]));
+    }
+
+    private long count(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
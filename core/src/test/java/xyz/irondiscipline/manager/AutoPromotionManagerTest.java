@@ -1,6 +1,7 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
 import xyz.irondiscipline.model.Rank;
 import xyz.irondiscipline.util.TaskScheduler;
 import org.bukkit.Bukkit;
@@ -131,13 +132,13 @@ class AutoPromotionManagerTest {
         // Player has 90 minutes of playtime (90 * 1200 = 108000 ticks)
         when(player.getStatistic(Statistic.PLAY_ONE_MINUTE)).thenReturn(108000);
         
-        when(rankManager.promote(player)).thenReturn(CompletableFuture.completedFuture(Rank.PRIVATE_FIRST_CLASS));
+        when(rankManager.promote(eq(player), eq(RankChangeEvent.Cause.AUTO_PROMOTE), isNull())).thenReturn(CompletableFuture.completedFuture(Rank.PRIVATE_FIRST_CLASS));
 
         // Manually trigger check (simulate timer firing)
         autoPromotionManager.startTask();
         
         // Verify promotion was attempted
-        verify(rankManager, timeout(1000)).promote(player);
+        verify(rankManager, timeout(1000)).promote(eq(player), eq(RankChangeEvent.Cause.AUTO_PROMOTE), isNull());
     }
 
     @Test
@@ -152,7 +153,7 @@ class AutoPromotionManagerTest {
         autoPromotionManager.startTask();
         
         // Should not promote
-        verify(rankManager, never()).promote(player);
+        verify(rankManager, never()).promote(eq(player), any(), any());
     }
 
     @Test
@@ -163,7 +164,7 @@ class AutoPromotionManagerTest {
 
         autoPromotionManager.startTask();
 
-        verify(rankManager, never()).promote(player);
+        verify(rankManager, never()).promote(eq(player), any(), any());
         verify(configManager, never()).getServerPlaytimeRequirement(anyString());
     }
 
@@ -176,7 +177,7 @@ class AutoPromotionManagerTest {
 
         autoPromotionManager.startTask();
 
-        verify(rankManager, never()).promote(player);
+        verify(rankManager, never()).promote(eq(player), any(), any());
     }
 
     @Test
@@ -188,7 +189,7 @@ class AutoPromotionManagerTest {
 
         autoPromotionManager.startTask();
 
-        verify(rankManager, never()).promote(player);
+        verify(rankManager, never()).promote(eq(player), any(), any());
     }
 
     @Test
@@ -208,7 +209,7 @@ class AutoPromotionManagerTest {
         when(player.getStatistic(Statistic.PLAY_ONE_MINUTE)).thenReturn(20000); // Sufficient
         when(player2.getStatistic(Statistic.PLAY_ONE_MINUTE)).thenReturn(20000); // Sufficient
 
-        when(rankManager.promote(any())).thenReturn(CompletableFuture.completedFuture(Rank.PRIVATE_FIRST_CLASS));
+        when(rankManager.promote(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(Rank.PRIVATE_FIRST_CLASS));
 
         autoPromotionManager.startTask();
 
@@ -0,0 +1,182 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.model.ChatState;
+import xyz.irondiscipline.model.Rank;
+import xyz.irondiscipline.util.Placeholder;
+import xyz.irondiscipline.util.TaskScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+import space.arim.morepaperlib.scheduling.ScheduledTask;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ChatRateLimiter テスト
+ */
+class ChatRateLimiterTest {
+
+    @Mock
+    private IronDiscipline plugin;
+    @Mock
+    private ConfigManager configManager;
+    @Mock
+    private ChatStateRegistry chatStateRegistry;
+    @Mock
+    private PTSManager ptsManager;
+    @Mock
+    private OfficerIndex officerIndex;
+    @Mock
+    private TaskScheduler taskScheduler;
+    @Mock
+    private ScheduledTask scheduledTask;
+    @Mock
+    private Player player;
+    @Mock
+    private Player officer;
+
+    private ChatRateLimiter limiter;
+    private AutoCloseable mocks;
+    private MockedStatic<Bukkit> bukkitMock;
+    private UUID playerId;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        bukkitMock = mockStatic(Bukkit.class);
+
+        playerId = UUID.randomUUID();
+        when(player.getUniqueId()).thenReturn(playerId);
+        when(player.getName()).thenReturn("Recruit");
+        bukkitMock.when(() -> Bukkit.getPlayer(playerId)).thenReturn(player);
+
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        when(plugin.getChatStateRegistry()).thenReturn(chatStateRegistry);
+        when(plugin.getPTSManager()).thenReturn(ptsManager);
+        when(plugin.getTaskScheduler()).thenReturn(taskScheduler);
+        when(ptsManager.getOfficerIndex()).thenReturn(officerIndex);
+        when(taskScheduler.runGlobalTimer(any(Runnable.class), anyLong(), anyLong())).thenReturn(scheduledTask);
+        when(chatStateRegistry.get(player)).thenReturn(new ChatState(Rank.PRIVATE, false, false, true, 0, 0));
+
+        when(configManager.isChatRateLimitEnabled()).thenReturn(true);
+        when(configManager.getChatRateLimitBurst(anyString())).thenReturn(3);
+        when(configManager.getChatRateLimitPerSecond(anyString())).thenReturn(1.0);
+        when(configManager.getChatDuplicateWindowMillis()).thenReturn(3000L);
+        when(configManager.getChatSummaryIntervalSeconds()).thenReturn(10);
+
+        limiter = new ChatRateLimiter(plugin);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (bukkitMock != null) bukkitMock.close();
+        if (mocks != null) mocks.close();
+    }
+
+    @Test
+    void testBurstIsAbsorbedThenRefilled() {
+        verify(taskScheduler).runGlobalTimer(any(Runnable.class), eq(200L), eq(200L));
+        long now = 1_000_000;
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "a", now));
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "b", now));
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "c", now));
+        assertEquals(ChatRateLimiter.LIMITED, limiter.check(player, "d", now + 500));
+
+        // 1 件/秒 で補充される
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "e", now + 1000));
+        assertEquals(ChatRateLimiter.LIMITED, limiter.check(player, "f", now + 1000));
+        assertEquals(2, limiter.getDroppedCount(playerId));
+    }
+
+    @Test
+    void testDuplicatesAreCollapsedWithoutSpendingTokens() {
+        long now = 1_000_000;
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "help", now));
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(ChatRateLimiter.DUPLICATE, limiter.check(player, "help", now + i * 100));
+        }
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "other", now + 600));
+        // 間隔が空けば同じ発言も通す
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "other", now + 5000));
+        assertEquals(5, limiter.getDroppedCount(playerId));
+    }
+
+    @Test
+    void testDifferentMessagesWithSameHashAreNotDuplicates() {
+        long now = 1_000_000;
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "Aa", now));
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "BB", now + 100));
+        assertEquals(0, limiter.getDroppedCount(playerId));
+    }
+
+    @Test
+    void testJailedAndExamPlayersAreNotCounted() {
+        long now = 1_000_000;
+        when(chatStateRegistry.get(player)).thenReturn(new ChatState(Rank.PRIVATE, true, false, true, 0, 0));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "let me out", now));
+        }
+        when(chatStateRegistry.get(player)).thenReturn(new ChatState(Rank.PRIVATE, false, true, true, 0, 0));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "answer " + i, now));
+        }
+        assertEquals(0, limiter.getDroppedCount(playerId));
+    }
+
+    @Test
+    void testSharedTierBucketLimitsTheWholeRank() {
+        when(configManager.getChatRateLimitTierBurst("PRIVATE")).thenReturn(2);
+        when(configManager.getChatRateLimitTierPerSecond("PRIVATE")).thenReturn(0.0);
+        Player other = mock(Player.class);
+        when(other.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(chatStateRegistry.get(other)).thenReturn(new ChatState(Rank.PRIVATE, false, false, true, 0, 0));
+
+        long now = 1_000_000;
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "a", now));
+        assertEquals(ChatRateLimiter.ALLOWED, limiter.check(other, "b", now));
+        // 本人のバケットには残っていても、階級全体の上限で止める
+        assertEquals(ChatRateLimiter.LIMITED, limiter.check(player, "c", now));
+        assertEquals(ChatRateLimiter.LIMITED, limiter.check(other, "d", now));
+    }
+
+    @Test
+    void testSummaryIsSentToOfficersAndReset() {
+        when(officerIndex.getOfficers()).thenReturn(List.of(new OfficerIndex.Officer(officer)));
+        when(configManager.format(eq("chat_flood_summary"), any(Placeholder[].class))).thenReturn("Summary");
+
+        long now = 1_000_000;
+        for (int i = 0; i < 10; i++) {
+            limiter.check(player, "spam " + i, now);
+        }
+        assertEquals(7, limiter.getDroppedCount(playerId));
+
+        limiter.flushSummaries();
+        verify(officer, times(1)).sendMessage("Summary");
+        assertEquals(0, limiter.getDroppedCount(playerId));
+
+        // 止めた発言がなければ通知しない
+        limiter.flushSummaries();
+        verify(officer, times(1)).sendMessage("Summary");
+    }
+
+    @Test
+    void testDisabled() {
+        when(configManager.isChatRateLimitEnabled()).thenReturn(false);
+        when(configManager.getRevision()).thenReturn(1);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(ChatRateLimiter.ALLOWED, limiter.check(player, "same", 1_000_000));
+        }
+    }
+}
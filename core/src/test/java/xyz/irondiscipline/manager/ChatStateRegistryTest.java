@@ -0,0 +1,190 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
+import xyz.irondiscipline.api.rank.IRank;
+import xyz.irondiscipline.model.ChatState;
+import xyz.irondiscipline.model.Rank;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ChatStateRegistry テスト
+ */
+class ChatStateRegistryTest {
+
+    @Mock
+    private IronDiscipline plugin;
+    @Mock
+    private ConfigManager configManager;
+    @Mock
+    private RankManager rankManager;
+    @Mock
+    private JailManager jailManager;
+    @Mock
+    private ExamManager examManager;
+    @Mock
+    private PTSManager ptsManager;
+    @Mock
+    private Player player;
+
+    private ChatStateRegistry registry;
+    private AutoCloseable mocks;
+    private MockedStatic<Bukkit> bukkitMock;
+    private UUID playerId;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        bukkitMock = mockStatic(Bukkit.class);
+
+        playerId = UUID.randomUUID();
+        when(player.getUniqueId()).thenReturn(playerId);
+        when(player.isOnline()).thenReturn(true);
+        when(player.hasPermission(anyString())).thenReturn(false);
+        bukkitMock.when(() -> Bukkit.getPlayer(playerId)).thenReturn(player);
+
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        when(plugin.getRankManager()).thenReturn(rankManager);
+        when(plugin.getJailManager()).thenReturn(jailManager);
+        when(plugin.getExamManager()).thenReturn(examManager);
+        when(plugin.getPTSManager()).thenReturn(ptsManager);
+
+        when(configManager.isPTSEnabled()).thenReturn(true);
+        when(configManager.getPTSRequireBelowWeight()).thenReturn(25);
+        when(rankManager.getRank(player)).thenReturn(Rank.PRIVATE);
+        when(rankManager.getRankAsync(playerId)).thenReturn(CompletableFuture.<IRank>completedFuture(Rank.PRIVATE));
+        // 既定では試験中 (PTS の対象)
+        when(examManager.isInExam(playerId)).thenReturn(true);
+
+        registry = new ChatStateRegistry(plugin);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (bukkitMock != null) bukkitMock.close();
+        if (mocks != null) mocks.close();
+    }
+
+    @Test
+    void testStateIsBuiltOnJoinAndReused() {
+        registry.onJoin(new PlayerJoinEvent(player, "joined"));
+        ChatState state = registry.get(player);
+
+        assertFalse(state.isJailed());
+        assertTrue(state.isInExam());
+        assertTrue(state.isPtsRequired());
+        assertEquals(Rank.PRIVATE, state.getRank());
+        assertEquals(ChatState.formatFor(Rank.PRIVATE), state.getFormat());
+
+        // 読み込み時にはマネージャーに問い合わせない
+        assertSame(state, registry.get(player));
+        assertSame(state, registry.get(player));
+        verify(jailManager, times(1)).isJailed(playerId);
+        verify(player, times(1)).hasPermission("iron.pts.bypass");
+    }
+
+    @Test
+    void testMissReturnsConservativeStateWithoutPublishing() {
+        when(ptsManager.getGrantExpiration(playerId)).thenReturn(Long.MAX_VALUE);
+
+        ChatState state = registry.get(player);
+
+        // PTS は PTSManager で確認させる
+        assertFalse(state.canSpeak(System.currentTimeMillis()));
+        assertEquals(Rank.PRIVATE, state.getRank());
+        assertEquals(0, registry.size());
+        verify(player, never()).hasPermission(anyString());
+    }
+
+    @Test
+    void testPtsRequiredWithoutExamManager() {
+        when(plugin.getExamManager()).thenReturn(null);
+        registry.onJoin(new PlayerJoinEvent(player, "joined"));
+
+        ChatState state = registry.get(player);
+        assertFalse(state.isInExam());
+        assertTrue(state.isPtsRequired());
+        assertFalse(state.canSpeak(System.currentTimeMillis()));
+    }
+
+    @Test
+    void testNotInExamCanSpeak() {
+        when(examManager.isInExam(playerId)).thenReturn(false);
+        registry.onJoin(new PlayerJoinEvent(player, "joined"));
+
+        assertFalse(registry.get(player).isPtsRequired());
+        assertTrue(registry.get(player).canSpeak(System.currentTimeMillis()));
+    }
+
+    @Test
+    void testRefreshPublishesNewSnapshot() {
+        registry.onJoin(new PlayerJoinEvent(player, "joined"));
+        ChatState before = registry.get(player);
+
+        when(jailManager.isJailed(playerId)).thenReturn(true);
+        when(ptsManager.getGrantExpiration(playerId)).thenReturn(Long.MAX_VALUE);
+        registry.refresh(playerId);
+
+        ChatState after = registry.get(player);
+        assertNotSame(before, after);
+        assertTrue(after.isJailed());
+        assertEquals(Long.MAX_VALUE, after.getPtsDeadline());
+        // 公開済みの状態は変わらない
+        assertFalse(before.isJailed());
+    }
+
+    @Test
+    void testPtsDecisionMatchesManager() {
+        registry.onJoin(new PlayerJoinEvent(player, "joined"));
+        ChatState state = registry.get(player);
+        assertFalse(state.canSpeak(System.currentTimeMillis()));
+
+        long now = System.currentTimeMillis();
+        when(ptsManager.getGrantExpiration(playerId)).thenReturn(now + 60_000);
+        registry.refresh(playerId);
+        assertTrue(registry.get(player).canSpeak(now));
+        assertFalse(registry.get(player).canSpeak(now + 60_000));
+
+        // 免除権限は権限の再計算時に反映
+        when(player.hasPermission("iron.pts.bypass")).thenReturn(true);
+        registry.refresh(playerId);
+        assertFalse(registry.get(player).isPtsRequired());
+    }
+
+    @Test
+    void testRankChangeAndReloadRebuild() {
+        registry.onJoin(new PlayerJoinEvent(player, "joined"));
+
+        registry.onRankChange(new RankChangeEvent(player, Rank.PRIVATE, Rank.CAPTAIN, RankChangeEvent.Cause.PROMOTE));
+        ChatState promoted = registry.get(player);
+        assertEquals(Rank.CAPTAIN, promoted.getRank());
+        assertFalse(promoted.isPtsRequired());
+
+        // 設定の再読み込み時に作り直す (階級は保持)
+        when(configManager.getRevision()).thenReturn(1);
+        assertSame(promoted, registry.get(player));
+        registry.rebuildAll();
+        ChatState reloaded = registry.get(player);
+        assertNotSame(promoted, reloaded);
+        assertEquals(Rank.CAPTAIN, reloaded.getRank());
+        assertEquals(1, reloaded.getRevision());
+
+        registry.remove(playerId);
+        assertEquals(0, registry.size());
+    }
+}
@@ -1,6 +1,7 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
 import xyz.irondiscipline.model.Rank;
 import xyz.irondiscipline.util.TaskScheduler;
 import org.bukkit.Bukkit;
@@ -148,7 +149,7 @@ class ExamManagerTest {
 
     @Test
     void testPassExam() {
-        when(rankManager.promote(target)).thenReturn(CompletableFuture.completedFuture(Rank.PRIVATE_FIRST_CLASS));
+        when(rankManager.promote(eq(target), eq(RankChangeEvent.Cause.PROMOTE), any())).thenReturn(CompletableFuture.completedFuture(Rank.PRIVATE_FIRST_CLASS));
         when(configManager.getMessage(eq("exam_promotion_congrats"), anyString(), anyString()))
                 .thenReturn("Congratulations!");
         
@@ -160,13 +161,13 @@ class ExamManagerTest {
         bukkitMock.verify(() -> Bukkit.broadcastMessage(anyString()), times(1));
         
         // Verify promotion was triggered
-        verify(rankManager).promote(target);
+        verify(rankManager).promote(eq(target), eq(RankChangeEvent.Cause.PROMOTE), any());
     }
 
     @Test
     void testPassExam_PromotionMessage() {
         Rank newRank = Rank.CORPORAL;
-        when(rankManager.promote(target)).thenReturn(CompletableFuture.completedFuture(newRank));
+        when(rankManager.promote(eq(target), eq(RankChangeEvent.Cause.PROMOTE), any())).thenReturn(CompletableFuture.completedFuture(newRank));
         when(configManager.getMessage(eq("exam_promotion_congrats"), anyString(), anyString()))
                 .thenReturn("Congratulations on " + newRank.getDisplay());
         
@@ -188,7 +189,7 @@ class ExamManagerTest {
     @Test
     void testPassExam_MaxRank() {
         // If already max rank, promotion returns null
-        when(rankManager.promote(target)).thenReturn(CompletableFuture.completedFuture(null));
+        when(rankManager.promote(eq(target), eq(RankChangeEvent.Cause.PROMOTE), any())).thenReturn(CompletableFuture.completedFuture(null));
         
         bukkitMock.when(() -> Bukkit.broadcastMessage(anyString())).thenReturn(1);
 
@@ -213,7 +214,7 @@ class ExamManagerTest {
         bukkitMock.verify(() -> Bukkit.broadcastMessage(anyString()), times(1));
         
         // Should not trigger promotion
-        verify(rankManager, never()).promote(any());
+        verify(rankManager, never()).promote(any(), any(), any());
     }
 
     @Test
@@ -0,0 +1,89 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.model.JailCell;
+import xyz.irondiscipline.model.JailRegion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JailCellAllocator テスト
+ * 使用率による房の選択、定員、割り当ての復元と解除をテスト
+ */
+class JailCellAllocatorTest {
+
+    private final JailCell small = new JailCell("small", JailRegion.sphere("world", 0, 64, 0, 5), 2);
+    private final JailCell large = new JailCell("large", JailRegion.sphere("world", 1000, 64, 0, 5), 4);
+    private final JailCellAllocator allocator = new JailCellAllocator();
+
+    @Test
+    void testLowestLoadIsChosen() {
+        List<JailCell> cells = List.of(small, large);
+
+        // 同率なら設定順
+        assertEquals(small, allocator.assign(UUID.randomUUID(), cells, false));
+        // small 1/2, large 0/4
+        assertEquals(large, allocator.assign(UUID.randomUUID(), cells, false));
+        // small 1/2, large 1/4
+        assertEquals(large, allocator.assign(UUID.randomUUID(), cells, false));
+        // small 1/2, large 2/4 -> 同率なら収容数の少ない房
+        assertEquals(small, allocator.assign(UUID.randomUUID(), cells, false));
+
+        assertEquals(2, allocator.getOccupancy("small"));
+        assertEquals(2, allocator.getOccupancy("large"));
+        assertEquals(4, allocator.size());
+    }
+
+    @Test
+    void testFullCellsAreSkippedUnlessOverflow() {
+        List<JailCell> cells = List.of(small);
+        allocator.assign(UUID.randomUUID(), cells, false);
+        allocator.assign(UUID.randomUUID(), cells, false);
+
+        assertNull(allocator.assign(UUID.randomUUID(), cells, false));
+        assertEquals(2, allocator.getOccupancy("small"));
+
+        UUID returning = UUID.randomUUID();
+        assertEquals(small, allocator.assign(returning, cells, true));
+        assertEquals(3, allocator.getOccupancy("small"));
+        assertNull(allocator.assign(UUID.randomUUID(), List.of(), true));
+    }
+
+    @Test
+    void testExistingAssignmentIsKeptAndMovedWhenCellIsRemoved() {
+        UUID playerId = UUID.randomUUID();
+        allocator.restore(playerId, "removed");
+        assertEquals("removed", allocator.getCell(playerId));
+
+        // 既存の割り当ては上書きしない
+        allocator.restore(playerId, "other");
+        assertEquals("removed", allocator.getCell(playerId));
+
+        // 設定から消えた房なら割り当て直す
+        assertEquals(small, allocator.assign(playerId, List.of(small, large), false));
+        assertEquals(0, allocator.getOccupancy("removed"));
+        assertEquals(List.of(playerId), allocator.getOccupants("small"));
+        assertEquals(small, allocator.assign(playerId, List.of(small, large), false));
+        assertEquals(1, allocator.getOccupancy("small"));
+
+        assertEquals("small", allocator.release(playerId));
+        assertNull(allocator.release(playerId));
+        assertNull(allocator.getCell(playerId));
+        assertTrue(allocator.getOccupants("small").isEmpty());
+    }
+
+    @Test
+    void testUnlimitedCellIsPreferred() {
+        JailCell unlimited = new JailCell("unlimited", JailRegion.sphere("world", 0, 64, 1000, 5), 0);
+        List<JailCell> cells = List.of(small, unlimited);
+        for (int i = 0; i < 5; i++) {
+            allocator.assign(UUID.randomUUID(), cells, false);
+        }
+        // small は最初の 1 人だけ (以降は使用率 0 の unlimited が選ばれる)
+        assertEquals(1, allocator.getOccupancy("small"));
+        assertEquals(4, allocator.getOccupancy("unlimited"));
+    }
+}
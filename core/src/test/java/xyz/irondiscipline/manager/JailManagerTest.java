@@ -1,10 +1,13 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.model.JailCell;
+import xyz.irondiscipline.model.JailRegion;
 import xyz.irondiscipline.util.TaskScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
+import org.bukkit.Server;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.PlayerInventory;
@@ -14,17 +17,20 @@ import org.bukkit.scheduler.BukkitScheduler;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -50,6 +56,8 @@ class JailManagerTest {
     private PlayerInventory inventory;
     @Mock
     private World world;
+    @Mock
+    private Server server;
 
     private JailManager jailManager;
     private AutoCloseable mocks;
@@ -71,16 +79,26 @@ class JailManagerTest {
         when(plugin.getStorageManager()).thenReturn(storageManager);
         when(plugin.getTaskScheduler()).thenReturn(taskScheduler);
         when(plugin.getLogger()).thenReturn(Logger.getLogger("JailManagerTest"));
+        when(plugin.getServer()).thenReturn(server);
+        when(server.getWorld("world")).thenReturn(world);
 
         // Config Mock
-        when(configManager.getJailLocation()).thenReturn(new Location(world, 100, 64, 100));
+        JailCell cell = new JailCell("default", JailRegion.sphere("world", 100, 64, 100, 10), 0);
+        when(configManager.getJailCells()).thenReturn(List.of(cell));
+        when(configManager.getJailCell("default")).thenReturn(cell);
+        when(world.getName()).thenReturn("world");
         when(configManager.getRawMessage(anyString())).thenReturn("Message");
         when(configManager.getMessage(anyString(), any())).thenReturn("Message");
 
         // Storage Mock
-        when(storageManager.getJailedPlayerIdsAsync()).thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+        when(storageManager.getJailCellsAsync()).thenReturn(CompletableFuture.completedFuture(Collections.emptyMap()));
         when(storageManager.saveJailedPlayerAsync(any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(CompletableFuture.completedFuture(true));
+        when(storageManager.saveJailedPlayerAsync(any(), any(), any(), any(), any(), any(), any(), any(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(storageManager.getJailBackupsAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(storageManager.getJailExpiriesAsync()).thenReturn(CompletableFuture.completedFuture(Collections.emptyMap()));
+        when(storageManager.updateJailCellAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
 
         // Player Mock
         UUID uuid = UUID.randomUUID();
@@ -123,7 +141,7 @@ class JailManagerTest {
         assertTrue(jailManager.isJailed(player), "Player should be in jailed cache immediately");
         
         // Verify DB save called (async, so wait up to 1 second)
-        verify(storageManager, timeout(1000)).saveJailedPlayerAsync(any(), any(), any(), any(), any(), any(), any());
+        verify(storageManager, timeout(1000)).saveJailedPlayerAsync(any(), any(), any(), any(), any(), any(), any(), eq("default"), eq(0L));
     }
 
     @Test
@@ -142,11 +160,24 @@ class JailManagerTest {
         assertFalse(jailManager.isJailed(player), "Player should be removed from cache");
     }
 
+    @Test
+    void testUnjailLoadsOnlyBackupsWhenLocationIsCached() {
+        assertTrue(jailManager.jail(player, jailer, "Reason"));
+        when(storageManager.removeJailedPlayerAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertTrue(jailManager.unjail(player));
+
+        // 元の場所はキャッシュから。DB からはバックアップだけを読む
+        verify(storageManager).getJailBackupsAsync(player.getUniqueId());
+        verify(storageManager, never()).getJailRecordAsync(any());
+        verify(storageManager, timeout(1000)).removeJailedPlayerAsync(player.getUniqueId());
+    }
+
     @Test
     void testPreventEscape() {
         // Not jailed -> No teleport
         jailManager.preventEscape(player);
-        verify(player, never()).teleport(any(Location.class));
+        verify(player, never()).teleportAsync(any(Location.class));
 
         // Jailed & Far away -> Teleport
         jailManager.jailOffline(player.getUniqueId(), "TestPlayer", null, "Reason");
@@ -155,7 +186,7 @@ class JailManagerTest {
         when(player.getLocation()).thenReturn(farLoc);
         
         jailManager.preventEscape(player);
-        verify(player).teleport(any(Location.class));
+        verify(player).teleportAsync(any(Location.class));
     }
 
     @Test
@@ -167,7 +198,7 @@ class JailManagerTest {
         
         assertTrue(jailManager.isJailed(offlinePlayerId));
         verify(storageManager).saveJailedPlayerAsync(eq(offlinePlayerId), eq("OfflinePlayer"), 
-                anyString(), eq(adminId), any(), any(), any());
+                anyString(), eq(adminId), any(), any(), any(), any(), eq(0L));
     }
 
     @Test
@@ -216,6 +247,122 @@ class JailManagerTest {
         jailManager.preventEscape(player);
         
         // Should not teleport if already near jail
-        verify(player, never()).teleport(any(Location.class));
+        verify(player, never()).teleportAsync(any(Location.class));
+    }
+
+    @Test
+    void testPreventEscapeFromOtherWorld() {
+        jailManager.jailOffline(player.getUniqueId(), "TestPlayer", null, "Reason");
+
+        World nether = mock(World.class);
+        when(nether.getName()).thenReturn("world_nether");
+        when(player.getLocation()).thenReturn(new Location(nether, 100, 64, 100));
+
+        jailManager.preventEscape(player);
+
+        ArgumentCaptor<Location> captor = ArgumentCaptor.forClass(Location.class);
+        verify(player).teleportAsync(captor.capture());
+        assertEquals(world, captor.getValue().getWorld());
+        assertEquals(100.0, captor.getValue().getX());
+    }
+
+    @Test
+    void testJailAssignsLeastLoadedCellUntilFull() {
+        JailCell north = new JailCell("north", JailRegion.sphere("world", 1000, 64, 0, 8), 2);
+        JailCell south = new JailCell("south", JailRegion.sphere("world", -1000, 64, 0, 8), 1);
+        when(configManager.getJailCells()).thenReturn(List.of(north, south));
+        when(configManager.getJailCell("north")).thenReturn(north);
+        when(configManager.getJailCell("south")).thenReturn(south);
+        when(configManager.getMessage("jail_cells_full")).thenReturn("Full");
+
+        Player second = mockOnlinePlayer("Second");
+        Player third = mockOnlinePlayer("Third");
+        Player fourth = mockOnlinePlayer("Fourth");
+
+        assertTrue(jailManager.jail(player, jailer, "Reason"));
+        assertTrue(jailManager.jail(second, jailer, "Reason"));
+        assertTrue(jailManager.jail(third, jailer, "Reason"));
+
+        assertEquals(north, jailManager.getCell(player.getUniqueId()));
+        assertEquals(south, jailManager.getCell(second.getUniqueId()));
+        assertEquals(north, jailManager.getCell(third.getUniqueId()));
+        verify(storageManager, timeout(1000)).saveJailedPlayerAsync(eq(second.getUniqueId()), any(), any(), any(),
+                any(), any(), any(), eq("south"), eq(0L));
+
+        // 全ての房が満員なら隔離しない
+        assertFalse(jailManager.jail(fourth, jailer, "Reason"));
+        assertFalse(jailManager.isJailed(fourth));
+        verify(jailer).sendMessage("Full");
+
+        // 釈放すると枠が空く
+        when(storageManager.getJailRecordAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(storageManager.removeJailedPlayerAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        assertTrue(jailManager.unjail(second));
+        assertEquals(2, jailManager.getOccupancy(north));
+        assertEquals(0, jailManager.getOccupancy(south));
+        assertTrue(jailManager.jail(fourth, jailer, "Reason"));
+        assertEquals(south, jailManager.getCell(fourth.getUniqueId()));
+    }
+
+    @Test
+    void testTimedJailRecordsExpiry() {
+        long before = System.currentTimeMillis();
+        assertTrue(jailManager.jail(player, jailer, "Reason", 60_000));
+
+        long expiresAt = jailManager.getJailExpiresAt(player.getUniqueId());
+        assertTrue(expiresAt >= before + 60_000);
+        assertEquals(1, jailManager.getSentenceCount());
+        verify(storageManager, timeout(1000)).saveJailedPlayerAsync(any(), any(), any(), any(), any(), any(), any(),
+                eq("default"), eq(expiresAt));
+
+        // 釈放すると刑期も消える
+        when(storageManager.getJailRecordAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(storageManager.removeJailedPlayerAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        assertTrue(jailManager.unjail(player));
+        assertEquals(0, jailManager.getJailExpiresAt(player.getUniqueId()));
+        assertEquals(0, jailManager.getScheduledSentenceCount());
+    }
+
+    @Test
+    void testExpiredSentenceReleasesOnlinePlayer() {
+        when(storageManager.getJailRecordAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(storageManager.removeJailedPlayerAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        bukkitMock.when(() -> Bukkit.getPlayer(player.getUniqueId())).thenReturn(player);
+
+        // オフラインのプレイヤーは満了しても次回参加まで残す
+        UUID offlineId = UUID.randomUUID();
+        long past = System.currentTimeMillis() - 1000;
+        jailManager.applyJailStatus(player.getUniqueId(), true, past);
+        jailManager.applyJailStatus(offlineId, true, past);
+
+        jailManager.releaseExpiredSentences();
+
+        assertFalse(jailManager.isJailed(player));
+        assertTrue(jailManager.isJailed(offlineId));
+        assertEquals(1, jailManager.getSentenceCount());
+        assertEquals(0, jailManager.getScheduledSentenceCount());
+    }
+
+    @Test
+    void testExpiredSentenceReleasesOnJoin() {
+        when(storageManager.getJailRecordAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(storageManager.removeJailedPlayerAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        jailManager.applyJailStatus(player.getUniqueId(), true, System.currentTimeMillis() - 1000);
+
+        jailManager.onPlayerJoin(player);
+
+        assertFalse(jailManager.isJailed(player));
+        assertEquals(0, jailManager.getSentenceCount());
+        verify(player, never()).teleportAsync(any(Location.class));
+    }
+
+    private Player mockOnlinePlayer(String name) {
+        Player mock = mock(Player.class);
+        when(mock.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(mock.getName()).thenReturn(name);
+        when(mock.getLocation()).thenReturn(new Location(world, 0, 64, 0));
+        when(mock.getInventory()).thenReturn(inventory);
+        when(mock.isOnline()).thenReturn(true);
+        return mock;
     }
 }
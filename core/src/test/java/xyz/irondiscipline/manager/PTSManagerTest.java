@@ -2,8 +2,10 @@ package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
 import xyz.irondiscipline.model.Rank;
+import xyz.irondiscipline.util.MessageTemplate;
 import xyz.irondiscipline.util.TaskScheduler;
 import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -243,6 +245,84 @@ class PTSManagerTest {
         assertFalse(ptsManager.hasPermissionToSpeak(player2));
     }
 
+    @Test
+    void testSharedTickerDrivesCountdownAndExpiry() throws InterruptedException {
+        // 付与ごとのタイマーは作らない (コンストラクタの 1 つだけ)
+        verify(taskScheduler, times(1)).runGlobalTimer(any(Runnable.class), eq(20L), eq(20L));
+        bukkitMock.when(() -> Bukkit.getPlayer(playerId)).thenReturn(player);
+        when(player.isOnline()).thenReturn(true);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(1)).run();
+            return scheduledTask;
+        }).when(taskScheduler).runEntity(any(), any(Runnable.class));
+        when(configManager.getRawTemplate("pts_actionbar_remaining")).thenReturn(MessageTemplate.compile("%color%%seconds%s"));
+        when(configManager.getMessage("pts_expired")).thenReturn("Expired");
+
+        ptsManager.grantPermission(player, 60);
+        ptsManager.tick();
+        verify(taskScheduler, times(1)).runGlobalTimer(any(Runnable.class), anyLong(), anyLong());
+        verify(taskScheduler).runEntity(eq(player), any(Runnable.class));
+        verify(spigot).sendMessage(eq(ChatMessageType.ACTION_BAR), any(BaseComponent[].class));
+
+        // 期限を迎えた秒の処理で剥奪・通知される
+        ptsManager.grantPermission(player, 0);
+        Thread.sleep(1000);
+        ptsManager.tick();
+        assertEquals(0, ptsManager.getGrantedCount());
+        verify(player).sendMessage("Expired");
+    }
+
+    @Test
+    void testOfficerIndexNotifiesOnlyIndexedOfficers() {
+        Player recruit = mock(Player.class);
+        when(recruit.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(officer.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(officer.isOnline()).thenReturn(true);
+        when(officer.hasPermission(anyString())).thenReturn(false);
+        when(recruit.isOnline()).thenReturn(true);
+
+        OfficerIndex index = ptsManager.getOfficerIndex();
+        index.update(officer, Rank.SERGEANT);
+        index.update(recruit, Rank.PRIVATE);
+        assertEquals(1, index.size());
+
+        // 要請のたびにオンライン全員の権限・階級を調べない
+        ptsManager.sendRequest(player);
+        verify(officer).sendMessage("Test Message");
+        verify(recruit, never()).sendMessage(anyString());
+        verify(recruit, times(1)).hasPermission(anyString());
+        verify(officer, times(1)).hasPermission(anyString());
+
+        // 降格で索引から外れる
+        index.onRankChange(new xyz.irondiscipline.api.event.RankChangeEvent(officer, Rank.SERGEANT, Rank.PRIVATE,
+                xyz.irondiscipline.api.event.RankChangeEvent.Cause.DEMOTE));
+        assertFalse(index.contains(officer.getUniqueId()));
+    }
+
+    @Test
+    void testBlockedChatRelayIsCoalescedPerOfficer() {
+        when(officer.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(officer.isOnline()).thenReturn(true);
+        when(officer.hasPermission("iron.pts.grant")).thenReturn(true);
+        when(rankManager.getRank(player)).thenReturn(Rank.PRIVATE);
+        when(configManager.getPTSRequestPrefix()).thenReturn("[PTS]");
+        when(configManager.getPTSNotifyCoalesceMillis()).thenReturn(60_000L);
+        when(configManager.getMessage("pts_notify_coalesced", "%count%", "2")).thenReturn("Coalesced 2");
+        ptsManager.getOfficerIndex().update(officer, Rank.PRIVATE);
+
+        ptsManager.notifyOfficersWithMessage(player, "one");
+        ptsManager.notifyOfficersWithMessage(player, "two");
+        ptsManager.notifyOfficersWithMessage(player, "three");
+        verify(officer, times(1)).sendMessage(anyString());
+        verify(officer).sendMessage(contains("one"));
+
+        // 間隔が過ぎたら、まとめた件数を添えて転送する
+        when(configManager.getPTSNotifyCoalesceMillis()).thenReturn(0L);
+        ptsManager.notifyOfficersWithMessage(player, "four");
+        verify(officer).sendMessage("Coalesced 2");
+        verify(officer).sendMessage(contains("four"));
+    }
+
     @Test
     void testHasPermissionToSpeak_PTSDisabled() {
         // When PTS is disabled globally, should always return true
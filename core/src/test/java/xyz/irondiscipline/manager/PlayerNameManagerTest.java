@@ -0,0 +1,114 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.SqlDialect;
+import xyz.irondiscipline.database.migration.SchemaMigrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PlayerNameManagerTest {
+
+    @Mock
+    private IronDiscipline plugin;
+    @Mock
+    private ConfigManager configManager;
+
+    private AutoCloseable mocks;
+    private ConnectionPool pool;
+    private ExecutorService executor;
+    private PlayerNameManager nameManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("TestLogger"));
+        when(configManager.getDatabaseType()).thenReturn("h2");
+        when(configManager.getNameIndexCacheSize()).thenReturn(16);
+        when(configManager.getNameIndexCompletionSize()).thenReturn(100);
+        when(configManager.getRawMessage(anyString())).thenReturn("Test Message");
+
+        String url = "jdbc:h2:mem:names_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url).credentials("sa", "").maxSize(2).build();
+        pool.start();
+        new SchemaMigrator(pool, SqlDialect.H2, Logger.getLogger("TestLogger")).migrate();
+        executor = Executors.newSingleThreadExecutor();
+        nameManager = new PlayerNameManager(plugin, pool, executor);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdownNow();
+        pool.close();
+        mocks.close();
+    }
+
+    @Test
+    void testResolveIsCaseInsensitiveAndSurvivesRestart() {
+        UUID playerId = UUID.randomUUID();
+        nameManager.recordAsync(playerId, "Sergeant_Kay").join();
+
+        assertEquals(playerId, nameManager.resolveAsync("sergeant_kay").join());
+
+        // 新しいインスタンスはキャッシュが空なので DB から引く
+        PlayerNameManager fresh = new PlayerNameManager(plugin, pool, executor);
+        assertEquals(playerId, fresh.resolveAsync("SERGEANT_KAY").join());
+        assertEquals(1, fresh.getCachedLookupCount());
+        assertNull(fresh.resolveAsync("Nobody").join());
+    }
+
+    @Test
+    void testRenamedPlayerResolvesByNewName() {
+        UUID playerId = UUID.randomUUID();
+        nameManager.recordAsync(playerId, "OldName").join();
+        nameManager.recordAsync(playerId, "NewName").join();
+
+        PlayerNameManager fresh = new PlayerNameManager(plugin, pool, executor);
+        assertEquals(playerId, fresh.resolveAsync("newname").join());
+        assertNull(fresh.resolveAsync("oldname").join());
+    }
+
+    @Test
+    void testPrefixCompletionFromRecentPlayers() {
+        nameManager.recordAsync(UUID.randomUUID(), "Alpha").join();
+        nameManager.recordAsync(UUID.randomUUID(), "alfred").join();
+        nameManager.recordAsync(UUID.randomUUID(), "Bravo").join();
+
+        PlayerNameManager fresh = new PlayerNameManager(plugin, pool, executor);
+        fresh.loadRecentAsync().join();
+
+        assertEquals(List.of("alfred", "Alpha"), fresh.complete("AL", 10));
+        assertEquals(List.of("alfred"), fresh.complete("al", 1));
+        assertEquals(3, fresh.complete("", 10).size());
+    }
+
+    @Test
+    void testCompletionIndexIsBounded() {
+        when(configManager.getNameIndexCompletionSize()).thenReturn(16);
+        PlayerNameManager bounded = new PlayerNameManager(plugin, pool, executor);
+        for (int i = 0; i < 20; i++) {
+            bounded.recordAsync(UUID.randomUUID(), "Player" + i).join();
+        }
+        // 再参加した名前は新しい扱いになる
+        bounded.recordAsync(UUID.randomUUID(), "Player4").join();
+        bounded.recordAsync(UUID.randomUUID(), "Player20").join();
+
+        assertEquals(16, bounded.getCompletionIndexSize());
+        assertTrue(bounded.complete("player0", 10).isEmpty());
+        assertEquals(List.of("Player4"), bounded.complete("player4", 10));
+        assertEquals(List.of("Player20"), bounded.complete("player20", 10));
+    }
+}
@@ -0,0 +1,162 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.QueryRegistry;
+import xyz.irondiscipline.database.SqlDialect;
+import xyz.irondiscipline.database.UuidCodec;
+import xyz.irondiscipline.database.migration.SchemaMigrator;
+import xyz.irondiscipline.model.Rank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PlayerSessionLoaderTest {
+
+    @Mock
+    private IronDiscipline plugin;
+    @Mock
+    private ConfigManager configManager;
+    @Mock
+    private RankManager rankManager;
+    @Mock
+    private JailManager jailManager;
+    @Mock
+    private WarningManager warningManager;
+
+    private AutoCloseable mocks;
+    private ConnectionPool pool;
+    private ExecutorService executor;
+    private PlayerSessionLoader loader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("TestLogger"));
+        when(plugin.getRankManager()).thenReturn(rankManager);
+        when(plugin.getJailManager()).thenReturn(jailManager);
+        when(plugin.getWarningManager()).thenReturn(warningManager);
+        when(configManager.getPreLoginBatchSize()).thenReturn(200);
+        when(configManager.getPreLoginTimeoutMillis()).thenReturn(5000L);
+        when(configManager.getRawMessage(anyString())).thenReturn("Test Message");
+
+        String url = "jdbc:h2:mem:session_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url).credentials("sa", "").maxSize(2).build();
+        pool.start();
+        new SchemaMigrator(pool, SqlDialect.H2, Logger.getLogger("TestLogger")).migrate();
+        executor = Executors.newSingleThreadExecutor();
+        loader = new PlayerSessionLoader(plugin, pool, executor);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdownNow();
+        pool.close();
+        mocks.close();
+    }
+
+    @Test
+    void testConcurrentLoginsAreCoalescedIntoOneBatch() throws Exception {
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            players.add(UUID.randomUUID());
+        }
+        UUID sergeant = players.get(0);
+        UUID jailed = players.get(1);
+        UUID warned = players.get(2);
+        UUID sentenced = players.get(3);
+        insert("INSERT INTO player_ranks (player_id, player_name, rank_id, updated_at) VALUES (?, 'S', 'SERGEANT', 1)", sergeant);
+        insert("INSERT INTO jailed_players (player_id, player_name, jailed_at) VALUES (?, 'J', 1)", jailed);
+        insert("INSERT INTO jailed_players (player_id, player_name, jailed_at, expires_at) VALUES (?, 'T', 1, 5000)", sentenced);
+        insert("INSERT INTO warnings (player_id, reason, timestamp) VALUES (?, 'first', 1)", warned);
+        insert("INSERT INTO warnings (player_id, reason, timestamp) VALUES (?, 'second', 2)", warned);
+
+        // DB スレッドを塞いでいる間に参加したプレイヤーは 1 バッチにまとまる
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (UUID playerId : players) {
+            futures.add(loader.loadAsync(playerId));
+        }
+        assertEquals(5, loader.getPendingCount());
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(1, loader.getBatchCount());
+        assertEquals(5, loader.getLoadedCount());
+        assertEquals(5, loader.getMaxBatchSize());
+        assertTrue(loader.getLastMillis(PlayerSessionLoader.Stage.TOTAL)
+                >= loader.getLastMillis(PlayerSessionLoader.Stage.RANKS));
+
+        verify(rankManager).cacheLoadedRank(sergeant, Rank.SERGEANT);
+        verify(rankManager).cacheLoadedRank(jailed, Rank.PRIVATE);
+        verify(jailManager).applyJailStatus(jailed, true, 0L);
+        verify(jailManager).applyJailStatus(sentenced, true, 5000L);
+        verify(jailManager).applyJailStatus(sergeant, false, 0L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WarningManager.Warning>> captor = ArgumentCaptor.forClass(List.class);
+        verify(warningManager).cacheLoadedWarnings(eq(warned), captor.capture());
+        assertEquals(List.of("first", "second"), captor.getValue().stream().map(w -> w.reason).toList());
+    }
+
+    @Test
+    void testSingleLoginAndDuplicateRequests() {
+        UUID playerId = UUID.randomUUID();
+
+        loader.loadSync(playerId);
+        loader.loadSync(playerId);
+
+        assertEquals(2, loader.getBatchCount());
+        verify(rankManager, times(2)).cacheLoadedRank(playerId, Rank.PRIVATE);
+        verify(warningManager, times(2)).cacheLoadedWarnings(eq(playerId), eq(List.of()));
+    }
+
+    @Test
+    void testFailureFailsTheWholeBatch() {
+        pool.close();
+
+        assertThrows(IllegalStateException.class, () -> loader.loadSync(UUID.randomUUID()));
+        assertEquals(1, loader.getFailedCount());
+        verifyNoInteractions(rankManager);
+    }
+
+    @Test
+    void testPlaceholders() {
+        assertEquals("?", QueryRegistry.placeholders(1));
+        assertEquals("?, ?, ?, ?", QueryRegistry.placeholders(4));
+    }
+
+    private void insert(String sql, UUID playerId) throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, UuidCodec.toBytes(playerId));
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.model.Rank;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void testPinnedEntriesAreNeverEvicted() {
+        RankCache cache = new RankCache(2, 0, now::get);
+        UUID online = UUID.randomUUID();
+        cache.pin(online, Rank.MAJOR);
+
+        for (int i = 0; i < 5; i++) {
+            cache.put(UUID.randomUUID(), Rank.PRIVATE);
+        }
+
+        assertEquals(Rank.MAJOR, cache.get(online));
+        assertEquals(2, cache.getOfflineCount());
+        assertEquals(3, cache.getEvictions());
+    }
+
+    @Test
+    void testOfflineLruEvictsLeastRecentlyUsed() {
+        RankCache cache = new RankCache(2, 0, now::get);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        cache.put(a, Rank.PRIVATE);
+        cache.put(b, Rank.CORPORAL);
+
+        // a を参照してから c を入れると b が追い出される
+        assertEquals(Rank.PRIVATE, cache.get(a));
+        cache.put(c, Rank.SERGEANT);
+
+        assertNull(cache.get(b));
+        assertEquals(Rank.PRIVATE, cache.get(a));
+        assertEquals(Rank.SERGEANT, cache.get(c));
+    }
+
+    @Test
+    void testPutIfAbsentKeepsNewerValue() {
+        RankCache cache = new RankCache(10, 1_000, now::get);
+        UUID pinned = UUID.randomUUID();
+        UUID offline = UUID.randomUUID();
+        cache.pin(pinned, Rank.MAJOR);
+        cache.put(offline, Rank.CAPTAIN);
+
+        // 一括読み込みより後に入った値を上書きしない
+        cache.putIfAbsent(pinned, Rank.PRIVATE);
+        cache.putIfAbsent(offline, Rank.PRIVATE);
+        assertEquals(Rank.MAJOR, cache.get(pinned));
+        assertEquals(Rank.CAPTAIN, cache.get(offline));
+
+        // 期限切れは無いものとして扱う
+        now.addAndGet(1_000);
+        cache.putIfAbsent(offline, Rank.SERGEANT);
+        assertEquals(Rank.SERGEANT, cache.get(offline));
+    }
+
+    @Test
+    void testOfflineEntriesExpire() {
+        RankCache cache = new RankCache(10, 1_000, now::get);
+        UUID playerId = UUID.randomUUID();
+        cache.put(playerId, Rank.CAPTAIN);
+
+        now.addAndGet(999);
+        assertEquals(Rank.CAPTAIN, cache.get(playerId));
+        now.addAndGet(1);
+        assertNull(cache.get(playerId));
+        assertEquals(1, cache.getExpirations());
+    }
+
+    @Test
+    void testUnpinMovesToOfflineTier() {
+        RankCache cache = new RankCache(10, 1_000, now::get);
+        UUID playerId = UUID.randomUUID();
+        cache.put(playerId, Rank.COLONEL);
+        assertTrue(cache.pin(playerId));
+        assertEquals(0, cache.getOfflineCount());
+
+        // 固定中は期限切れにならない
+        now.addAndGet(5_000);
+        assertEquals(Rank.COLONEL, cache.get(playerId));
+
+        cache.unpin(playerId);
+        assertFalse(cache.isPinned(playerId));
+        assertEquals(Rank.COLONEL, cache.get(playerId));
+        assertFalse(cache.pin(UUID.randomUUID()));
+    }
+
+    @Test
+    void testConcurrentLoadsAreCoalesced() {
+        RankCache cache = new RankCache(10, 0, now::get);
+        UUID playerId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Rank> pending = new CompletableFuture<>();
+
+        CompletableFuture<Rank> first = cache.getOrLoad(playerId, id -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<Rank> second = cache.getOrLoad(playerId, id -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        assertTrue(cache.isLoading(playerId));
+
+        pending.complete(Rank.LIEUTENANT);
+
+        assertEquals(Rank.LIEUTENANT, first.join());
+        assertEquals(Rank.LIEUTENANT, second.join());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getCoalescedLoads());
+        assertEquals(Rank.LIEUTENANT, cache.get(playerId));
+    }
+
+    @Test
+    void testUpdateDuringLoadWins() {
+        RankCache cache = new RankCache(10, 0, now::get);
+        UUID playerId = UUID.randomUUID();
+        CompletableFuture<Rank> pending = new CompletableFuture<>();
+
+        CompletableFuture<Rank> load = cache.getOrLoad(playerId, id -> pending);
+        cache.put(playerId, Rank.MAJOR);
+        pending.complete(Rank.PRIVATE);
+
+        assertEquals(Rank.PRIVATE, load.join());
+        assertEquals(Rank.MAJOR, cache.get(playerId), "Stale load result should not overwrite the update");
+    }
+
+    @Test
+    void testInvalidateAndFailedLoad() {
+        RankCache cache = new RankCache(10, 0, now::get);
+        UUID playerId = UUID.randomUUID();
+        cache.pin(playerId, Rank.SERGEANT);
+        cache.invalidate(playerId);
+        assertNull(cache.get(playerId));
+        assertEquals(0, cache.getPinnedCount());
+
+        CompletableFuture<Rank> failed = cache.getOrLoad(playerId,
+                id -> CompletableFuture.failedFuture(new IllegalStateException("db down")));
+        assertTrue(failed.isCompletedExceptionally());
+        assertFalse(cache.isLoading(playerId));
+        assertNull(cache.get(playerId));
+    }
+
+    @Test
+    void testUpdateOnlyTouchesCachedEntries() {
+        RankCache cache = new RankCache(2, 0, now::get);
+        UUID online = UUID.randomUUID();
+        UUID offline = UUID.randomUUID();
+        UUID uncached = UUID.randomUUID();
+        cache.pin(online, Rank.PRIVATE);
+        cache.put(offline, Rank.PRIVATE);
+
+        assertTrue(cache.update(online, Rank.CAPTAIN));
+        assertTrue(cache.update(offline, Rank.MAJOR));
+        assertFalse(cache.update(uncached, Rank.COLONEL));
+
+        assertEquals(Rank.CAPTAIN, cache.get(online));
+        assertEquals(Rank.MAJOR, cache.get(offline));
+        assertNull(cache.get(uncached));
+        assertEquals(1, cache.getOfflineCount());
+        assertEquals(0, cache.getEvictions());
+    }
+}
@@ -1,12 +1,15 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankCacheInvalidateEvent;
+import xyz.irondiscipline.api.event.RankChangeEvent;
 import xyz.irondiscipline.api.rank.IRank;
 import xyz.irondiscipline.model.Rank;
 import xyz.irondiscipline.util.TaskScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scoreboard.Scoreboard;
@@ -15,10 +18,12 @@ import org.bukkit.scoreboard.Team;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -141,7 +146,7 @@ class RankManagerTest {
         when(rankStorage.getRank(uuid)).thenReturn(CompletableFuture.completedFuture(Rank.PRIVATE));
         rankManager.loadPlayerCache(uuid);
 
-        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.PRIVATE_FIRST_CLASS)))
+        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.PRIVATE_FIRST_CLASS), any(), any()))
                 .thenReturn(CompletableFuture.completedFuture(true));
 
         IRank newRank = rankManager.promote(player).join();
@@ -149,8 +154,15 @@ class RankManagerTest {
         assertNotNull(newRank);
         assertEquals(Rank.PRIVATE_FIRST_CLASS, newRank);
 
-        // ストレージへの保存が呼ばれたことを確認
-        verify(rankStorage).setRank(eq(uuid), anyString(), eq(Rank.PRIVATE_FIRST_CLASS));
+        // ストレージへの保存が昇進として呼ばれたことを確認
+        verify(rankStorage).setRank(eq(uuid), anyString(), eq(Rank.PRIVATE_FIRST_CLASS),
+                eq(RankChangeEvent.Cause.PROMOTE), isNull());
+
+        // RankChangeEvent は昇進の原因つきで 1 回だけ
+        List<RankChangeEvent> events = rankChangeEvents();
+        assertEquals(1, events.size());
+        assertEquals(RankChangeEvent.Cause.PROMOTE, events.get(0).getCause());
+        assertEquals(Rank.PRIVATE, events.get(0).getOldRank());
     }
 
     @Test
@@ -165,13 +177,26 @@ class RankManagerTest {
         when(rankStorage.getRank(uuid)).thenReturn(CompletableFuture.completedFuture(Rank.CORPORAL));
         rankManager.loadPlayerCache(uuid);
 
-        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.PRIVATE_FIRST_CLASS)))
+        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.PRIVATE_FIRST_CLASS), any(), any()))
                 .thenReturn(CompletableFuture.completedFuture(true));
 
         IRank newRank = rankManager.demote(player).join();
 
         assertNotNull(newRank);
         assertEquals(Rank.PRIVATE_FIRST_CLASS, newRank);
+
+        List<RankChangeEvent> events = rankChangeEvents();
+        assertEquals(1, events.size());
+        assertEquals(RankChangeEvent.Cause.DEMOTE, events.get(0).getCause());
+    }
+
+    private List<RankChangeEvent> rankChangeEvents() {
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(pluginManager, atLeastOnce()).callEvent(captor.capture());
+        return captor.getAllValues().stream()
+                .filter(RankChangeEvent.class::isInstance)
+                .map(RankChangeEvent.class::cast)
+                .toList();
     }
 
     @Test
@@ -185,7 +210,7 @@ class RankManagerTest {
         IRank newRank = rankManager.promote(player).join();
 
         assertNull(newRank, "最高階級からは昇進できないはず");
-        verify(rankStorage, never()).setRank(any(), anyString(), any());
+        verify(rankStorage, never()).setRank(any(), anyString(), any(), any(), any());
     }
 
     @Test
@@ -199,7 +224,7 @@ class RankManagerTest {
         IRank newRank = rankManager.demote(player).join();
 
         assertNull(newRank, "最低階級からは降格できないはず");
-        verify(rankStorage, never()).setRank(any(), anyString(), any());
+        verify(rankStorage, never()).setRank(any(), anyString(), any(), any(), any());
     }
 
     @Test
@@ -213,13 +238,13 @@ class RankManagerTest {
         when(rankStorage.getRank(uuid)).thenReturn(CompletableFuture.completedFuture(Rank.PRIVATE));
         rankManager.loadPlayerCache(uuid);
 
-        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.COLONEL)))
+        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.COLONEL), any(), any()))
                 .thenReturn(CompletableFuture.completedFuture(true));
 
         Boolean result = rankManager.setRank(player, Rank.COLONEL).join();
 
         assertTrue(result);
-        verify(rankStorage).setRank(eq(uuid), anyString(), eq(Rank.COLONEL));
+        verify(rankStorage).setRank(eq(uuid), anyString(), eq(Rank.COLONEL), eq(RankChangeEvent.Cause.API), isNull());
     }
 
     @Test
@@ -254,13 +279,13 @@ class RankManagerTest {
         rankManager.loadPlayerCache(uuid);
         
         // Promote to PRIVATE_FIRST_CLASS
-        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.PRIVATE_FIRST_CLASS)))
+        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.PRIVATE_FIRST_CLASS), any(), any()))
                 .thenReturn(CompletableFuture.completedFuture(true));
         IRank rank1 = rankManager.promote(player).join();
         assertEquals(Rank.PRIVATE_FIRST_CLASS, rank1);
         
         // Promote to CORPORAL
-        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.CORPORAL)))
+        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.CORPORAL), any(), any()))
                 .thenReturn(CompletableFuture.completedFuture(true));
         IRank rank2 = rankManager.promote(player).join();
         assertEquals(Rank.CORPORAL, rank2);
@@ -308,4 +333,40 @@ class RankManagerTest {
         rankManager.loadPlayerCache(uuid);
         assertEquals(Rank.CAPTAIN, rankManager.getRank(player));
     }
+
+    @Test
+    void testOfflineRankUpdateNotifiesAddons() {
+        UUID uuid = UUID.randomUUID();
+        when(rankStorage.setRank(eq(uuid), anyString(), eq(Rank.CAPTAIN), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        assertTrue(rankManager.setRankByUUID(uuid, "Offline", Rank.CAPTAIN).join());
+
+        // キャッシュ更新はイベントでアドオンに通知される
+        ArgumentCaptor<RankCacheInvalidateEvent> captor = ArgumentCaptor.forClass(RankCacheInvalidateEvent.class);
+        verify(pluginManager).callEvent(captor.capture());
+        assertEquals(uuid, captor.getValue().getPlayerId());
+        assertEquals(Rank.CAPTAIN, captor.getValue().getNewRank());
+        assertEquals(RankCacheInvalidateEvent.Reason.UPDATED, captor.getValue().getReason());
+
+        // DB を読まずにキャッシュから返る
+        assertEquals(Rank.CAPTAIN, rankManager.getRankAsync(uuid).join());
+        verify(rankStorage, never()).getRank(uuid);
+        assertFalse(rankManager.getRankCache().isPinned(uuid), "Offline players should not be pinned");
+    }
+
+    @Test
+    void testJoinPinsAndQuitUnpins() {
+        UUID uuid = UUID.randomUUID();
+        when(player.getUniqueId()).thenReturn(uuid);
+        when(player.isOnline()).thenReturn(true);
+        when(rankStorage.getRank(uuid)).thenReturn(CompletableFuture.completedFuture(Rank.MAJOR));
+
+        rankManager.loadPlayerCache(player);
+        assertTrue(rankManager.getRankCache().isPinned(uuid));
+
+        rankManager.unloadPlayerCache(uuid);
+        assertFalse(rankManager.getRankCache().isPinned(uuid));
+        assertEquals(Rank.MAJOR, rankManager.getRank(player), "Recently seen players stay in the offline tier");
+    }
 }
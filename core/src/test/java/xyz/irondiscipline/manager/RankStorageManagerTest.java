@@ -0,0 +1,165 @@
+package xyz.irondiscipline.manager;
+
+import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.event.RankChangeEvent;
+import xyz.irondiscipline.api.model.RankHistoryEntry;
+import xyz.irondiscipline.api.model.RankHistoryPage;
+import xyz.irondiscipline.database.ConnectionPool;
+import xyz.irondiscipline.database.SqlDialect;
+import xyz.irondiscipline.database.UuidCodec;
+import xyz.irondiscipline.database.migration.SchemaMigrator;
+import xyz.irondiscipline.model.Rank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RankStorageManagerTest {
+
+    @Mock
+    private IronDiscipline plugin;
+    @Mock
+    private ConfigManager configManager;
+
+    private AutoCloseable mocks;
+    private ConnectionPool pool;
+    private ExecutorService executor;
+    private RankStorageManager storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("TestLogger"));
+        when(configManager.getDatabaseType()).thenReturn("h2");
+        when(configManager.getRankBulkChunkSize()).thenReturn(2);
+        when(configManager.getRawMessage(anyString())).thenReturn("Test Message");
+
+        String url = "jdbc:h2:mem:ranks_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url).credentials("sa", "").maxSize(2).build();
+        pool.start();
+        new SchemaMigrator(pool, SqlDialect.H2, Logger.getLogger("TestLogger")).migrate();
+        executor = Executors.newSingleThreadExecutor();
+        storage = new RankStorageManager(plugin, pool, executor);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdownNow();
+        pool.close();
+        mocks.close();
+    }
+
+    @Test
+    void testSetRanksSavesInChunksAndReturnsPreviousRanks() throws Exception {
+        UUID existing = UUID.randomUUID();
+        assertTrue(storage.setRank(existing, "Veteran", Rank.SERGEANT).join());
+
+        Map<UUID, Rank> ranks = new HashMap<>();
+        ranks.put(existing, Rank.CAPTAIN);
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            UUID playerId = UUID.randomUUID();
+            created.add(playerId);
+            ranks.put(playerId, Rank.CORPORAL);
+        }
+        List<Integer> progress = new CopyOnWriteArrayList<>();
+
+        Map<UUID, Rank> previous = storage.setRanks(ranks, Map.of(created.get(0), "Recruit"), RankChangeEvent.Cause.OTHER,
+                (completed, total) -> {
+                    assertEquals(5, total);
+                    progress.add(completed);
+                }).join();
+
+        assertEquals(5, previous.size());
+        assertEquals(Rank.SERGEANT, previous.get(existing));
+        assertEquals(Rank.PRIVATE, previous.get(created.get(1)));
+        assertEquals(List.of(2, 4, 5), progress);
+
+        assertEquals("Veteran", playerName(existing), "Missing names should keep the stored name");
+        assertEquals("Recruit", playerName(created.get(0)));
+        assertEquals(Rank.CAPTAIN, storage.getRank(existing).join());
+
+        // 一括設定も同じトランザクションで履歴に残る
+        RankHistoryEntry latest = storage.getRankHistory(existing, null, 10).join().getEntries().get(0);
+        assertEquals("SERGEANT", latest.getOldRankId());
+        assertEquals("CAPTAIN", latest.getNewRankId());
+        assertEquals(RankChangeEvent.Cause.OTHER, latest.getCause());
+    }
+
+    @Test
+    void testRankHistoryIsPagedAndQueryableByTime() throws Exception {
+        UUID playerId = UUID.randomUUID();
+        UUID officer = UUID.randomUUID();
+        storage.setRank(playerId, "Soldier", Rank.PRIVATE_FIRST_CLASS, RankChangeEvent.Cause.AUTO_PROMOTE, null).join();
+        long afterFirst = System.currentTimeMillis();
+        Thread.sleep(5);
+        storage.setRank(playerId, "Soldier", Rank.CORPORAL, RankChangeEvent.Cause.PROMOTE, officer).join();
+        // 階級が変わらない保存は履歴に残さない
+        storage.setRank(playerId, "Soldier", Rank.CORPORAL, RankChangeEvent.Cause.SET, officer).join();
+        storage.setRank(playerId, "Soldier", Rank.PRIVATE_FIRST_CLASS, RankChangeEvent.Cause.DEMOTE, officer).join();
+
+        RankHistoryPage first = storage.getRankHistory(playerId, null, 2).join();
+        assertEquals(2, first.getEntries().size());
+        assertTrue(first.hasMore());
+        assertEquals(RankChangeEvent.Cause.DEMOTE, first.getEntries().get(0).getCause());
+        assertEquals("CORPORAL", first.getEntries().get(0).getOldRankId());
+        assertEquals(officer, first.getEntries().get(1).getActorId());
+
+        RankHistoryPage second = storage.getRankHistory(playerId, first.getNextCursor(), 2).join();
+        assertEquals(1, second.getEntries().size());
+        assertFalse(second.hasMore());
+        RankHistoryEntry oldest = second.getEntries().get(0);
+        assertNull(oldest.getOldRankId());
+        assertNull(oldest.getActorId());
+        assertEquals(RankChangeEvent.Cause.AUTO_PROMOTE, oldest.getCause());
+
+        assertNull(storage.getRankAt(playerId, 0).join());
+        assertEquals(Rank.PRIVATE_FIRST_CLASS, storage.getRankAt(playerId, afterFirst).join());
+        assertEquals(Rank.PRIVATE_FIRST_CLASS, storage.getRankAt(playerId, System.currentTimeMillis()).join());
+    }
+
+    @Test
+    void testGetRanksFillsMissingPlayersWithDefault() {
+        UUID captain = UUID.randomUUID();
+        UUID major = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        storage.setRank(captain, "Captain", Rank.CAPTAIN).join();
+        storage.setRank(major, "Major", Rank.MAJOR).join();
+
+        Map<UUID, Rank> ranks = storage.getRanks(List.of(captain, major, unknown, captain)).join();
+
+        assertEquals(3, ranks.size());
+        assertEquals(Rank.CAPTAIN, ranks.get(captain));
+        assertEquals(Rank.MAJOR, ranks.get(major));
+        assertEquals(Rank.PRIVATE, ranks.get(unknown));
+    }
+
+    private String playerName(UUID playerId) throws SQLException {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement ps = conn.prepareStatement("SELECT player_name FROM player_ranks WHERE player_id = ?")) {
+            ps.setBytes(1, UuidCodec.toBytes(playerId));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
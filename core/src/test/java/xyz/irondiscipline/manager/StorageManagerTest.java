@@ -1,6 +1,15 @@
 package xyz.irondiscipline.manager;
 
 import xyz.irondiscipline.IronDiscipline;
+import xyz.irondiscipline.api.model.CombatStats;
+import xyz.irondiscipline.api.model.KillLog;
+import xyz.irondiscipline.api.model.KillLogPage;
+import xyz.irondiscipline.api.model.KillLogQuery;
+import xyz.irondiscipline.api.model.WeaponStats;
+import xyz.irondiscipline.api.provider.ICombatStatsProvider;
+import xyz.irondiscipline.database.KillLogPartitions;
+import xyz.irondiscipline.model.JailRecord;
+import xyz.irondiscipline.util.InventoryCodec;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +19,11 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
@@ -36,6 +50,7 @@ class StorageManagerTest {
 
         when(plugin.getConfigManager()).thenReturn(configManager);
         when(configManager.getDatabaseType()).thenReturn("h2");
+        when(configManager.getDbStatementCacheSize()).thenReturn(64);
         when(configManager.getRawMessage(anyString())).thenReturn("Test Message");
         when(plugin.getDataFolder()).thenReturn(tempDir.toFile());
         when(plugin.getLogger()).thenReturn(Logger.getLogger("TestLogger"));
@@ -57,7 +72,7 @@ class StorageManagerTest {
     @Test
     void testGetArmorBackupAsync() {
         UUID playerId = UUID.randomUUID();
-        CompletableFuture<String> future = storageManager.getArmorBackupAsync(playerId);
+        CompletableFuture<byte[]> future = storageManager.getArmorBackupAsync(playerId);
         assertNotNull(future, "Async method should return a future");
         assertNull(future.join(), "Future should complete with null for non-existent player");
     }
@@ -65,15 +80,15 @@ class StorageManagerTest {
     @Test
     void testGetArmorBackupBlocking() {
         UUID playerId = UUID.randomUUID();
-        String result = storageManager.getArmorBackupAsync(playerId).join();
+        byte[] result = storageManager.getArmorBackupAsync(playerId).join();
         assertNull(result, "getArmorBackup should return null for non-existent player");
     }
 
     @Test
     void testCachingBehavior() {
         UUID playerId = UUID.randomUUID();
-        String armorData = "ArmorBackupData";
-        String invData = "InventoryBackupData";
+        byte[] armorData = InventoryCodec.encodeSlots(new byte[][] { { 1, 2, 3 }, null });
+        byte[] invData = InventoryCodec.encodeSlots(new byte[][] { null, { 4, 5 } });
         String location = "world;0;0;0;0;0";
 
         // 1. Save data (should populate cache)
@@ -82,11 +97,11 @@ class StorageManagerTest {
         assertTrue(saved, "Save should succeed");
 
         // 2. Fetch using blocking method (should be fast/cached)
-        String cachedArmor = storageManager.getArmorBackupAsync(playerId).join();
-        assertEquals(armorData, cachedArmor, "Should retrieve cached armor data");
+        byte[] cachedArmor = storageManager.getArmorBackupAsync(playerId).join();
+        assertArrayEquals(armorData, cachedArmor, "Should retrieve cached armor data");
 
-        String cachedInv = storageManager.getInventoryBackupAsync(playerId).join();
-        assertEquals(invData, cachedInv, "Should retrieve cached inventory data");
+        byte[] cachedInv = storageManager.getInventoryBackupAsync(playerId).join();
+        assertArrayEquals(invData, cachedInv, "Should retrieve cached inventory data");
 
         // 3. Remove data (should clear cache)
         storageManager.removeJailedPlayerAsync(playerId).join();
@@ -94,4 +109,234 @@ class StorageManagerTest {
         // 4. Fetch again (should be null)
         assertNull(storageManager.getArmorBackupAsync(playerId).join(), "Should be null after removal");
     }
+
+    @Test
+    void testJailRecordIsLoadedWithoutBackups() {
+        UUID playerId = UUID.randomUUID();
+        byte[] invData = InventoryCodec.encodeSlots(new byte[][] { { 4, 5 } });
+        byte[] armorData = InventoryCodec.encodeSlots(new byte[][] { { 1, 2, 3 } });
+        assertTrue(storageManager.saveJailedPlayerAsync(playerId, "TestPlayer", "TestReason",
+                null, "world;0;0;0;0;0", invData, armorData, "north", 5000).join());
+
+        // メタデータにはバックアップ本体を含めない
+        JailRecord record = storageManager.getJailRecordAsync(playerId).join();
+        assertEquals("world;0;0;0;0;0", record.getOriginalLocation());
+        assertEquals("north", record.getCell());
+        assertEquals(5000, record.getExpiresAt());
+        assertTrue(record.hasBackup());
+        assertNull(record.getInventoryData());
+
+        byte[][] backups = storageManager.getJailBackupsAsync(playerId).join();
+        assertArrayEquals(invData, backups[0]);
+        assertArrayEquals(armorData, backups[1]);
+
+        // バックアップなしで上書きすると本体も消える (オフライン隔離のやり直しなど)
+        assertTrue(storageManager.saveJailedPlayerAsync(playerId, "TestPlayer", "TestReason",
+                null, null, null, null).join());
+        assertFalse(storageManager.getJailRecordAsync(playerId).join().hasBackup());
+        assertNull(storageManager.getJailBackupsAsync(playerId).join());
+
+        storageManager.removeJailedPlayerAsync(playerId).join();
+        assertNull(storageManager.getJailRecordAsync(playerId).join());
+    }
+
+    @Test
+    void testKillLogsAreBatchedAndReadable() {
+        UUID killer = UUID.randomUUID();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            futures.add(storageManager.saveKillLogAsync(killLog(killer, i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(250, storageManager.getKillLogWriter().getWrittenCount());
+        assertEquals(0, storageManager.getKillLogWriter().getQueueDepth());
+        assertEquals(10, storageManager.getKillLogsAsync(killer, 10).join().size());
+    }
+
+    @Test
+    void testShutdownFlushesPendingKillLogs() {
+        UUID killer = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            storageManager.saveKillLogAsync(killLog(killer, i));
+        }
+        storageManager.shutdown();
+        assertEquals(0, storageManager.getKillLogWriter().getQueueDepth());
+        assertEquals(5, storageManager.getKillLogWriter().getWrittenCount());
+
+        // 停止後の書き込みは呼び出し元で行わず、失敗として返す
+        CompletableFuture<Void> late = storageManager.saveKillLogAsync(killLog(killer, 5));
+        assertTrue(late.isCompletedExceptionally());
+        assertEquals(5, storageManager.getKillLogWriter().getWrittenCount());
+
+        // 再起動後も読み出せる
+        storageManager = new StorageManager(plugin);
+        assertEquals(5, storageManager.getKillLogsAsync(killer, 10).join().size());
+    }
+
+    @Test
+    void testKillLogPagesFollowKeysetCursor() {
+        UUID player = UUID.randomUUID();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // 同じ timestamp を含めて id での順序付けを確認する
+            futures.add(storageManager.saveKillLogAsync(KillLog.builder()
+                    .timestamp(1000L + i / 3)
+                    .killer(i % 2 == 0 ? player : UUID.randomUUID(), "Killer")
+                    .victim(i % 2 == 0 ? UUID.randomUUID() : player, "Victim")
+                    .location("world", 0, 64, 0)
+                    .build()));
+        }
+        futures.add(storageManager.saveKillLogAsync(killLog(UUID.randomUUID(), 99)));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        KillLogQuery query = KillLogQuery.builder().player(player).limit(8).build();
+        Set<Long> seen = new HashSet<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        KillLog previous = null;
+        while (query != null) {
+            KillLogPage page = storageManager.queryKillLogsAsync(query).join();
+            pageSizes.add(page.getLogs().size());
+            for (KillLog log : page.getLogs()) {
+                assertTrue(seen.add(log.getId()), "Pages must not overlap");
+                if (previous != null) {
+                    assertTrue(log.getTimestamp() < previous.getTimestamp()
+                            || (log.getTimestamp() == previous.getTimestamp() && log.getId() < previous.getId()),
+                            "Logs must be ordered by (timestamp, id) descending");
+                }
+                previous = log;
+            }
+            query = page.hasMore() ? query.withCursor(page.getNextCursor()) : null;
+        }
+        assertEquals(List.of(8, 8, 4), pageSizes);
+    }
+
+    @Test
+    void testStreamKillLogsVisitsEveryMatch() {
+        UUID killer = UUID.randomUUID();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            futures.add(storageManager.saveKillLogAsync(KillLog.builder()
+                    .timestamp(1000L + i)
+                    .killer(killer, "Killer")
+                    .victim(UUID.randomUUID(), "Victim")
+                    .weapon(i % 3 == 0 ? "BOW" : "IRON_SWORD")
+                    .location("world", 0, 64, 0)
+                    .build()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        List<KillLog> streamed = new ArrayList<>();
+        KillLogQuery query = KillLogQuery.builder().killer(killer).weapon("BOW").since(1003L).limit(3).build();
+        long count = storageManager.streamKillLogsAsync(query, streamed::add).join();
+
+        assertEquals(9, count);
+        assertEquals(9, streamed.size());
+        assertEquals(1027L, streamed.get(0).getTimestamp());
+        assertEquals(1003L, streamed.get(8).getTimestamp());
+    }
+
+    @Test
+    void testCombatStatsAreMaintainedWithKillLogs() {
+        UUID ace = UUID.randomUUID();
+        UUID rookie = UUID.randomUUID();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(storageManager.saveKillLogAsync(KillLog.builder()
+                    .timestamp(2000L + i)
+                    .killer(ace, "Ace")
+                    .victim(rookie, "Rookie")
+                    .weapon(i < 4 ? "BOW" : "IRON_SWORD")
+                    .distance(i * 10)
+                    .location("world", 0, 64, 0)
+                    .build()));
+        }
+        futures.add(storageManager.saveKillLogAsync(KillLog.builder()
+                .timestamp(3000L)
+                .killer(rookie, "Rookie")
+                .victim(ace, "Ace")
+                .weapon("BOW")
+                .distance(5)
+                .location("world", 0, 64, 0)
+                .build()));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        CombatStats aceStats = storageManager.getCombatStatsAsync(ace).join();
+        assertEquals("Ace", aceStats.getPlayerName());
+        assertEquals(6, aceStats.getKills());
+        assertEquals(1, aceStats.getDeaths());
+        assertEquals(50.0, aceStats.getMaxDistance());
+        assertEquals(2005L, aceStats.getLastKill());
+
+        List<CombatStats> top = storageManager.getTopPlayersAsync(ICombatStatsProvider.Ranking.KILLS, 10).join();
+        assertEquals(List.of(ace, rookie), top.stream().map(CombatStats::getPlayerId).toList());
+        assertEquals(List.of(ace), storageManager.getTopKdRatioAsync(2, 10).join().stream()
+                .map(CombatStats::getPlayerId).toList());
+
+        List<WeaponStats> weapons = storageManager.getTopWeaponsAsync(10).join();
+        assertEquals("BOW", weapons.get(0).getWeapon());
+        assertEquals(5, weapons.get(0).getKills());
+        assertEquals(2, weapons.get(1).getKills());
+
+        CombatStats unknown = storageManager.getCombatStatsAsync(UUID.randomUUID()).join();
+        assertEquals(0, unknown.getKills());
+    }
+
+    @Test
+    void testKillLogsSpanMonthlyBucketsAndExpireByBucket() {
+        UUID killer = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int month = 1; month <= 3; month++) {
+            long start = KillLogPartitions.startOf(YearMonth.of(2020, month));
+            for (int i = 0; i < 3; i++) {
+                futures.add(storageManager.saveKillLogAsync(KillLog.builder()
+                        .timestamp(start + i)
+                        .killer(killer, "Killer")
+                        .victim(UUID.randomUUID(), "Victim")
+                        .location("world", 0, 64, 0)
+                        .build()));
+            }
+        }
+        futures.add(storageManager.saveKillLogAsync(KillLog.builder()
+                .timestamp(now)
+                .killer(killer, "Killer")
+                .victim(UUID.randomUUID(), "Victim")
+                .location("world", 0, 64, 0)
+                .build()));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        // ページはバケットの境界をまたいで続く
+        KillLogQuery query = KillLogQuery.builder().player(killer).limit(4).build();
+        List<Long> timestamps = new ArrayList<>();
+        while (query != null) {
+            KillLogPage page = storageManager.queryKillLogsAsync(query).join();
+            page.getLogs().forEach(log -> timestamps.add(log.getTimestamp()));
+            query = page.hasMore() ? query.withCursor(page.getNextCursor()) : null;
+        }
+        assertEquals(10, timestamps.size());
+        assertEquals(now, timestamps.get(0));
+        assertEquals(KillLogPartitions.startOf(YearMonth.of(2020, 1)), timestamps.get(9));
+        assertEquals(4, storageManager.getKillLogsAsync(killer, 4).join().size());
+
+        // 保存期間を過ぎたバケットは丸ごと削除され、今月分は残る
+        when(configManager.getKillLogRetentionDays()).thenReturn(30);
+        List<YearMonth> dropped = storageManager.cleanupOldLogs().join();
+        assertEquals(List.of(YearMonth.of(2020, 1), YearMonth.of(2020, 2), YearMonth.of(2020, 3)), dropped);
+        assertFalse(storageManager.getKillLogPartitions().getBuckets().contains(YearMonth.of(2020, 1)));
+        List<KillLog> remaining = storageManager.getKillLogsAsync(killer, 50).join();
+        assertEquals(1, remaining.size());
+        assertEquals(now, remaining.get(0).getTimestamp());
+    }
+
+    private KillLog killLog(UUID killer, int index) {
+        return KillLog.builder()
+                .timestamp(1000L + index)
+                .killer(killer, "Killer")
+                .victim(UUID.randomUUID(), "Victim" + index)
+                .weapon("BOW")
+                .distance(index)
+                .location("world", 0, 64, 0)
+                .build();
+    }
 }
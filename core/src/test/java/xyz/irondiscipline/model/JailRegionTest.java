@@ -0,0 +1,32 @@
+package xyz.irondiscipline.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JailRegionTest {
+
+    @Test
+    void testSphereUsesSquaredDistance() {
+        JailRegion region = JailRegion.sphere("world", 100, 64, 100, 10);
+
+        assertTrue(region.contains("world", 100, 64, 100));
+        assertTrue(region.contains("world", 110, 64, 100), "The boundary should be inside");
+        assertTrue(region.contains("world", 106, 72, 100));
+        assertFalse(region.contains("world", 108, 72, 100));
+        assertFalse(region.contains("world_nether", 100, 64, 100));
+    }
+
+    @Test
+    void testCuboidCornersAreNormalized() {
+        JailRegion region = JailRegion.cuboid("world", 0, 65, 0, 5, 70, -5, -5, 60, 5);
+
+        assertTrue(region.isCuboid());
+        assertTrue(region.contains("world", -5, 60, 5));
+        assertTrue(region.contains("world", 4.9, 69.9, -4.9));
+        assertFalse(region.contains("world", 5.1, 65, 0));
+        assertFalse(region.contains("world", 0, 59.9, 0));
+        assertEquals(0.0, region.getSpawnX());
+        assertEquals(65.0, region.getSpawnY());
+    }
+}
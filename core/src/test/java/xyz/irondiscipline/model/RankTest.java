@@ -97,6 +97,22 @@ class RankTest {
         assertEquals(Rank.PRIVATE, Rank.fromId(""));
     }
 
+    @Test
+    void testFromWeight() {
+        assertEquals(Rank.PRIVATE, Rank.fromWeight(-5));
+        assertEquals(Rank.PRIVATE, Rank.fromWeight(0));
+        assertEquals(Rank.PRIVATE, Rank.fromWeight(14));
+        assertEquals(Rank.PRIVATE_FIRST_CLASS, Rank.fromWeight(15));
+        assertEquals(Rank.CORPORAL, Rank.fromWeight(25));
+        assertEquals(Rank.COLONEL, Rank.fromWeight(99));
+        assertEquals(Rank.COMMANDER, Rank.fromWeight(100));
+        assertEquals(Rank.COMMANDER, Rank.fromWeight(Integer.MAX_VALUE));
+
+        for (Rank rank : Rank.values()) {
+            assertEquals(rank, Rank.fromWeight(rank.getWeight()));
+        }
+    }
+
     @Test
     void testRankOrdering() {
         Rank[] ranks = Rank.values();
@@ -0,0 +1,88 @@
+package xyz.irondiscipline.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InventoryCodec テスト
+ * ItemStack の NBT 化にはサーバーが必要なため、スロット単位のバイト列でコンテナ形式を検証
+ */
+class InventoryCodecTest {
+
+    @Test
+    void testSlotsRoundTrip() {
+        byte[][] slots = new byte[36][];
+        for (int i = 0; i < slots.length; i += 3) {
+            slots[i] = new byte[] { (byte) i, 1, 2, 3 };
+        }
+
+        byte[] encoded = InventoryCodec.encodeSlots(slots);
+        assertFalse(InventoryCodec.isLegacy(encoded));
+
+        byte[][] decoded = InventoryCodec.decodeSlots(encoded);
+        assertEquals(36, decoded.length);
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == null) {
+                assertNull(decoded[i], "Slot " + i + " should be empty");
+            } else {
+                assertArrayEquals(slots[i], decoded[i]);
+            }
+        }
+    }
+
+    @Test
+    void testEmptyInventory() {
+        byte[] encoded = InventoryCodec.encodeSlots(new byte[0][]);
+        assertEquals(0, InventoryCodec.decodeSlots(encoded).length);
+    }
+
+    @Test
+    void testRepeatedItemsAreCompressed() {
+        byte[][] slots = new byte[36][];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = "minecraft:stone Count:64b".getBytes(StandardCharsets.US_ASCII);
+        }
+
+        byte[] encoded = InventoryCodec.encodeSlots(slots);
+        assertTrue(encoded.length < 36 * slots[0].length / 4,
+                "Repeated slots should compress well: " + encoded.length);
+    }
+
+    @Test
+    void testLegacyBase64IsDetected() {
+        byte[] legacy = "rO0ABXcEAAAAAA==".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(InventoryCodec.isLegacy(legacy));
+        assertThrows(IllegalArgumentException.class, () -> InventoryCodec.decodeSlots(legacy));
+    }
+
+    @Test
+    void testDecodeNullOrEmpty() {
+        assertNull(InventoryCodec.decode(null));
+        assertNull(InventoryCodec.decode(new byte[0]));
+    }
+
+    @Test
+    void testUnsupportedVersionIsRejected() {
+        byte[] encoded = InventoryCodec.encodeSlots(new byte[][] { { 1 } });
+        encoded[4] = (byte) (InventoryCodec.VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> InventoryCodec.decodeSlots(encoded));
+    }
+
+    @Test
+    void testCorruptedDataIsRejected() {
+        byte[][] slots = new byte[9][];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new byte[] { (byte) i, (byte) (i * 7), 42 };
+        }
+        byte[] encoded = InventoryCodec.encodeSlots(slots);
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+
+        assertThrows(IllegalArgumentException.class, () -> InventoryCodec.decodeSlots(truncated));
+    }
+}
@@ -0,0 +1,55 @@
+package xyz.irondiscipline.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MessageTemplate テスト
+ */
+class MessageTemplateTest {
+
+    @Test
+    void testRenderFillsPlaceholders() {
+        MessageTemplate template = MessageTemplate.compile("§e%player% の得点: %score% / %total%");
+        assertTrue(template.hasPlaceholders());
+        assertEquals("§eAlice の得点: 8 / 10", template.render(
+                Placeholder.of("player", "Alice"),
+                Placeholder.of("score", 8),
+                Placeholder.of("total", 10)));
+        // 同じテンプレートを続けて使っても前回の値が残らない
+        assertEquals("§eBob の得点: 3 / 10", template.render(
+                Placeholder.of("total", 10),
+                Placeholder.of("score", 3),
+                Placeholder.of("player", "Bob")));
+    }
+
+    @Test
+    void testMissingValuesAndLiteralPercentAreKept() {
+        MessageTemplate template = MessageTemplate.compile("100% 完了 %player% %% %bad name% %reason%");
+        assertEquals("100% 完了 Alice %% %bad name% %reason%", template.render(
+                Placeholder.of("player", "Alice"),
+                Placeholder.of("reason", (String) null)));
+
+        MessageTemplate plain = MessageTemplate.compile("置換なし");
+        assertFalse(plain.hasPlaceholders());
+        assertSame(plain.render(), plain.render(Placeholder.of("player", "Alice")));
+    }
+
+    @Test
+    void testValuesAreNotReplacedAgain() {
+        MessageTemplate template = MessageTemplate.compile("%player%: %message%");
+        // 埋めた値の中のプレースホルダーは置換しない
+        assertEquals("%message%: hi", template.render(
+                Placeholder.of("player", "%message%"),
+                Placeholder.of("message", "hi")));
+    }
+
+    @Test
+    void testRenderPairs() {
+        MessageTemplate template = MessageTemplate.compile("[P] %target% を %reason% で隔離");
+        assertEquals("[P] Alice を 脱走 で隔離", template.renderPairs("%target%", "Alice", "%reason%", "脱走"));
+        // null の値と対になっていないキーは無視する
+        assertEquals("[P] Alice を %reason% で隔離", template.renderPairs("%target%", "Alice", "%reason%", null, "%x%"));
+    }
+}
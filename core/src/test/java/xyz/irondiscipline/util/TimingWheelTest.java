@@ -0,0 +1,84 @@
+package xyz.irondiscipline.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimingWheel テスト
+ */
+class TimingWheelTest {
+
+    @Test
+    void testExpiresOnlyAfterDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 1000, 0);
+        wheel.schedule("a", 2500);
+        wheel.schedule("b", 3000);
+
+        // 期限は tick に切り上げるため、期限より前には取り出さない
+        assertTrue(wheel.advance(2000).isEmpty());
+        assertTrue(wheel.advance(2999).isEmpty());
+        assertEquals(Set.of("a", "b"), new HashSet<>(wheel.advance(3000)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testDeadlineBeyondOneRotationWaitsForItsRound() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, 1000, 0);
+        assertEquals(4, wheel.getWheelSize());
+        // tick 9 は tick 1, 5 と同じバケット
+        wheel.schedule("later", 9000);
+
+        assertTrue(wheel.advance(1000).isEmpty());
+        assertTrue(wheel.advance(5000).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("later"), wheel.advance(9000));
+    }
+
+    @Test
+    void testCancelAndReschedule() {
+        TimingWheel<String> wheel = new TimingWheel<>(16, 1000, 0);
+        wheel.schedule("cancelled", 2000);
+        wheel.schedule("moved", 2000);
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("cancelled"));
+
+        // 同じキーの再登録は期限の置き換え
+        wheel.schedule("moved", 6000);
+        assertEquals(6000, wheel.getDeadline("moved"));
+        assertEquals(1, wheel.size());
+
+        assertTrue(wheel.advance(3000).isEmpty());
+        assertEquals(List.of("moved"), wheel.advance(6000));
+        assertEquals(0, wheel.getDeadline("moved"));
+    }
+
+    @Test
+    void testPastDeadlineAndLongPauseAreCaughtUp() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(8, 1000, 10_000);
+        // 開始前の期限は次の advance で取り出す
+        wheel.schedule(1, 0);
+        assertEquals(List.of(1), wheel.advance(10_000));
+
+        // ホイール 1 周を超えて止まっていても、期限を過ぎたものは全て取り出す
+        for (int i = 0; i < 20; i++) {
+            wheel.schedule(i, 11_000 + i * 1000L);
+        }
+        wheel.schedule(100, 100_000);
+        List<Integer> expired = wheel.advance(50_000);
+        assertEquals(20, expired.size());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(100), wheel.advance(100_000));
+    }
+
+    @Test
+    void testWheelSizeRoundsUpToPowerOfTwo() {
+        assertEquals(512, new TimingWheel<String>(300, 1000, 0).getWheelSize());
+        assertEquals(1, new TimingWheel<String>(0, 1000, 0).getWheelSize());
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(8, 0, 0));
+    }
+}